@@ -0,0 +1,66 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.io.InputStream;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * A map symbol whose image is an Android bitmap.
+ */
+class BitmapMapSymbol extends MapSymbol {
+	/**
+	 * Decodes a symbol from the given stream.
+	 * 
+	 * @param inputStream
+	 *            the stream with the PNG data of the symbol.
+	 * @return the symbol or null, if the data cannot be decoded.
+	 */
+	static BitmapMapSymbol decode(InputStream inputStream) {
+		Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
+		if (bitmap == null) {
+			return null;
+		}
+		return new BitmapMapSymbol(bitmap);
+	}
+
+	/**
+	 * The image of the symbol.
+	 */
+	final Bitmap bitmap;
+
+	private BitmapMapSymbol(Bitmap bitmap) {
+		this.bitmap = bitmap;
+	}
+
+	@Override
+	int getHeight() {
+		return this.bitmap.getHeight();
+	}
+
+	@Override
+	int getWidth() {
+		return this.bitmap.getWidth();
+	}
+
+	@Override
+	void recycle() {
+		this.bitmap.recycle();
+	}
+}
@@ -17,25 +17,33 @@
 package org.mapsforge.android.maps;
 
 /**
- * An immutable container class which is the key for the index cache.
+ * An immutable container class which is the key for the block cache.
  */
-class IndexCacheEntryKey {
+class BlockCacheEntryKey {
+	private final long blockNumber;
 	private final int hashCode;
-	private final long indexBlockNumber;
 	private final MapFileParameters mapFileParameters;
-	private IndexCacheEntryKey other;
+	private final boolean readWayNames;
+	private final int zoomLevel;
 
 	/**
 	 * Creates an immutable key to be stored in a map.
 	 * 
 	 * @param mapFileParameters
 	 *            the parameters of the map file.
-	 * @param indexBlockNumber
-	 *            the number of the index block.
+	 * @param blockNumber
+	 *            the number of the block in the map file.
+	 * @param zoomLevel
+	 *            the zoom level for which the block was decoded.
+	 * @param readWayNames
+	 *            true if the way names were decoded, false otherwise.
 	 */
-	IndexCacheEntryKey(MapFileParameters mapFileParameters, long indexBlockNumber) {
+	BlockCacheEntryKey(MapFileParameters mapFileParameters, long blockNumber, int zoomLevel,
+			boolean readWayNames) {
 		this.mapFileParameters = mapFileParameters;
-		this.indexBlockNumber = indexBlockNumber;
+		this.blockNumber = blockNumber;
+		this.zoomLevel = zoomLevel;
+		this.readWayNames = readWayNames;
 		this.hashCode = calculateHashCode();
 	}
 
@@ -43,16 +51,20 @@ class IndexCacheEntryKey {
 	public boolean equals(Object obj) {
 		if (this == obj) {
 			return true;
-		} else if (!(obj instanceof IndexCacheEntryKey)) {
+		} else if (!(obj instanceof BlockCacheEntryKey)) {
 			return false;
 		} else {
-			this.other = (IndexCacheEntryKey) obj;
-			if (this.mapFileParameters == null && this.other.mapFileParameters != null) {
+			BlockCacheEntryKey other = (BlockCacheEntryKey) obj;
+			if (this.mapFileParameters == null && other.mapFileParameters != null) {
 				return false;
 			} else if (this.mapFileParameters != null
-					&& !this.mapFileParameters.equals(this.other.mapFileParameters)) {
+					&& !this.mapFileParameters.equals(other.mapFileParameters)) {
 				return false;
-			} else if (this.indexBlockNumber != this.other.indexBlockNumber) {
+			} else if (this.blockNumber != other.blockNumber) {
+				return false;
+			} else if (this.zoomLevel != other.zoomLevel) {
+				return false;
+			} else if (this.readWayNames != other.readWayNames) {
 				return false;
 			}
 			return true;
@@ -74,8 +86,9 @@ class IndexCacheEntryKey {
 		int result = 1;
 		result = prime * result
 				+ ((this.mapFileParameters == null) ? 0 : this.mapFileParameters.hashCode());
-		result = prime * result
-				+ (int) (this.indexBlockNumber ^ (this.indexBlockNumber >>> 32));
+		result = prime * result + (int) (this.blockNumber ^ (this.blockNumber >>> 32));
+		result = prime * result + this.zoomLevel;
+		result = prime * result + (this.readWayNames ? 1231 : 1237);
 		return result;
 	}
-}
\ No newline at end of file
+}
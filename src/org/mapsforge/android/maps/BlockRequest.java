@@ -0,0 +1,62 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * An immutable container class which describes a block that is needed by one tile of a batched
+ * database query. Block requests are ordered by the number of the block and by the index of the
+ * tile.
+ */
+class BlockRequest implements Comparable<BlockRequest> {
+	final long blockNumber;
+	final int tileBitmask;
+	final int tileIndex;
+	final boolean useTileBitmask;
+
+	/**
+	 * Constructs a new block request with the given parameters.
+	 * 
+	 * @param blockNumber
+	 *            the number of the block in the map file.
+	 * @param tileIndex
+	 *            the index of the tile which needs the block.
+	 * @param useTileBitmask
+	 *            true if the ways of the block must be filtered, false otherwise.
+	 * @param tileBitmask
+	 *            the bitmask which selects the ways of the tile.
+	 */
+	BlockRequest(long blockNumber, int tileIndex, boolean useTileBitmask, int tileBitmask) {
+		this.blockNumber = blockNumber;
+		this.tileIndex = tileIndex;
+		this.useTileBitmask = useTileBitmask;
+		this.tileBitmask = tileBitmask;
+	}
+
+	@Override
+	public int compareTo(BlockRequest otherBlockRequest) {
+		if (this.blockNumber < otherBlockRequest.blockNumber) {
+			return -1;
+		} else if (this.blockNumber > otherBlockRequest.blockNumber) {
+			return 1;
+		} else if (this.tileIndex < otherBlockRequest.tileIndex) {
+			return -1;
+		} else if (this.tileIndex > otherBlockRequest.tileIndex) {
+			return 1;
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.ArrayList;
+
+/**
+ * Holds all decoded POIs and ways of a single block for one zoom level. A cached block is not
+ * modified after it has been put in the block cache and can therefore be rendered by multiple
+ * threads at the same time.
+ */
+class CachedBlock {
+	/**
+	 * Estimated memory overhead of an array in bytes.
+	 */
+	private static final int ARRAY_OVERHEAD = 16;
+
+	/**
+	 * Estimated memory usage of a CachedPointOfInterest without its arrays and strings.
+	 */
+	private static final int POINT_OF_INTEREST_OVERHEAD = 48;
+
+	/**
+	 * Estimated memory overhead of a string in bytes.
+	 */
+	private static final int STRING_OVERHEAD = 40;
+
+	/**
+	 * Estimated memory usage of a CachedWay without its arrays and strings.
+	 */
+	private static final int WAY_OVERHEAD = 56;
+
+	/**
+	 * Estimates the memory usage of the given string in bytes.
+	 * 
+	 * @param string
+	 *            the string (may be null).
+	 * @return the estimated memory usage.
+	 */
+	private static int getSize(String string) {
+		if (string == null) {
+			return 0;
+		}
+		return STRING_OVERHEAD + string.length() * 2;
+	}
+
+	private final ArrayList<CachedPointOfInterest> pointsOfInterest;
+	private int size;
+	private final ArrayList<CachedWay> ways;
+
+	/**
+	 * Constructs an empty cached block.
+	 */
+	CachedBlock() {
+		this.pointsOfInterest = new ArrayList<CachedPointOfInterest>();
+		this.ways = new ArrayList<CachedWay>();
+		this.size = 2 * ARRAY_OVERHEAD;
+	}
+
+	/**
+	 * Adds the given POI to this block.
+	 * 
+	 * @param pointOfInterest
+	 *            the POI to add.
+	 */
+	void addPointOfInterest(CachedPointOfInterest pointOfInterest) {
+		this.pointsOfInterest.add(pointOfInterest);
+		this.size += POINT_OF_INTEREST_OVERHEAD + ARRAY_OVERHEAD
+				+ pointOfInterest.tagIds.length * 2 + getSize(pointOfInterest.name)
+				+ getSize(pointOfInterest.houseNumber) + getSize(pointOfInterest.elevation);
+	}
+
+	/**
+	 * Adds the given way to this block.
+	 * 
+	 * @param way
+	 *            the way to add.
+	 */
+	void addWay(CachedWay way) {
+		this.ways.add(way);
+		this.size += WAY_OVERHEAD + 2 * ARRAY_OVERHEAD + way.tagIds.length * 2
+				+ way.nodesSequence.length * 4 + getSize(way.name) + getSize(way.ref);
+		if (way.labelPosition != null) {
+			this.size += ARRAY_OVERHEAD + way.labelPosition.length * 4;
+		}
+		if (way.innerWays != null) {
+			this.size += ARRAY_OVERHEAD + way.innerWays.length * 4;
+			for (int[] innerWay : way.innerWays) {
+				if (innerWay != null) {
+					this.size += ARRAY_OVERHEAD + innerWay.length * 4;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the estimated memory usage of this block in bytes.
+	 * 
+	 * @return the estimated memory usage.
+	 */
+	int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Calls the render functions on all POIs and on all ways which match the given tile
+	 * bitmask. The tag arrays are filled for each map element before the callback is called.
+	 * 
+	 * @param mapDatabaseCallback
+	 *            the callback which handles the map elements.
+	 * @param useTileBitmask
+	 *            true if the ways should be filtered by the tile bitmask, false otherwise.
+	 * @param queryTileBitmask
+	 *            the tile bitmask of the requested tile.
+	 * @param nodeTagIds
+	 *            the tag array for the POIs.
+	 * @param wayTagIds
+	 *            the tag array for the ways.
+	 * @param defaultTagIds
+	 *            an array of false values to reset the tag arrays.
+	 */
+	void render(MapDatabaseCallback mapDatabaseCallback, boolean useTileBitmask,
+			int queryTileBitmask, boolean[] nodeTagIds, boolean[] wayTagIds,
+			boolean[] defaultTagIds) {
+		for (int i = 0, n = this.pointsOfInterest.size(); i < n; ++i) {
+			CachedPointOfInterest pointOfInterest = this.pointsOfInterest.get(i);
+			System.arraycopy(defaultTagIds, 0, nodeTagIds, 0, nodeTagIds.length);
+			for (short tagId : pointOfInterest.tagIds) {
+				nodeTagIds[tagId] = true;
+			}
+			mapDatabaseCallback.renderPointOfInterest(pointOfInterest.layer,
+					pointOfInterest.latitude, pointOfInterest.longitude, pointOfInterest.name,
+					pointOfInterest.houseNumber, pointOfInterest.elevation, nodeTagIds,
+					pointOfInterest.tagIds, (byte) pointOfInterest.tagIds.length);
+		}
+
+		for (int i = 0, n = this.ways.size(); i < n; ++i) {
+			CachedWay way = this.ways.get(i);
+			if (useTileBitmask && (queryTileBitmask & way.tileBitmask) == 0) {
+				// the way is not inside the requested tile
+				continue;
+			}
+			System.arraycopy(defaultTagIds, 0, wayTagIds, 0, wayTagIds.length);
+			for (short tagId : way.tagIds) {
+				wayTagIds[tagId] = true;
+			}
+			mapDatabaseCallback.renderWay(way.layer, way.numberOfRelevantTags, way.name,
+					way.ref, way.labelPosition, wayTagIds, way.tagIds, (byte) way.tagIds.length,
+					way.tagBitmap, (short) way.nodesSequence.length, way.nodesSequence,
+					way.innerWays);
+		}
+	}
+}
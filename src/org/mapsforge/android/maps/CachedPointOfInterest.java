@@ -0,0 +1,59 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * An immutable container for a decoded POI which is stored in the block cache.
+ */
+class CachedPointOfInterest {
+	final String elevation;
+	final String houseNumber;
+	final int latitude;
+	final byte layer;
+	final int longitude;
+	final String name;
+	final short[] tagIds;
+
+	/**
+	 * Constructs a new cached POI.
+	 * 
+	 * @param layer
+	 *            the layer of the node.
+	 * @param latitude
+	 *            the latitude of the node.
+	 * @param longitude
+	 *            the longitude of the node.
+	 * @param name
+	 *            the name of the node (may be null).
+	 * @param houseNumber
+	 *            the house number of the node (may be null).
+	 * @param elevation
+	 *            the elevation of the node (may be null).
+	 * @param tagIds
+	 *            the tag IDs of the node.
+	 */
+	CachedPointOfInterest(byte layer, int latitude, int longitude, String name,
+			String houseNumber, String elevation, short[] tagIds) {
+		this.layer = layer;
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.name = name;
+		this.houseNumber = houseNumber;
+		this.elevation = elevation;
+		this.tagIds = tagIds;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * An immutable container for a decoded way which is stored in the block cache.
+ */
+class CachedWay {
+	final int[][] innerWays;
+	final int[] labelPosition;
+	final byte layer;
+	final String name;
+	final int[] nodesSequence;
+	final byte numberOfRelevantTags;
+	final String ref;
+	final byte tagBitmap;
+	final short[] tagIds;
+	final short tileBitmask;
+
+	/**
+	 * Constructs a new cached way.
+	 * 
+	 * @param tileBitmask
+	 *            the tile bitmask of the way.
+	 * @param layer
+	 *            the layer of the way.
+	 * @param numberOfRelevantTags
+	 *            the number of relevant tags.
+	 * @param name
+	 *            the name of the way (may be null).
+	 * @param ref
+	 *            the reference of the way (may be null).
+	 * @param labelPosition
+	 *            the position of the area label (may be null).
+	 * @param tagIds
+	 *            the tag IDs of the way.
+	 * @param tagBitmap
+	 *            the way tag bitmap.
+	 * @param nodesSequence
+	 *            the way nodes, the array length must match the number of coordinates.
+	 * @param innerWays
+	 *            the inner nodes if this way is a multipolygon (may be null).
+	 */
+	CachedWay(short tileBitmask, byte layer, byte numberOfRelevantTags, String name,
+			String ref, int[] labelPosition, short[] tagIds, byte tagBitmap,
+			int[] nodesSequence, int[][] innerWays) {
+		this.tileBitmask = tileBitmask;
+		this.layer = layer;
+		this.numberOfRelevantTags = numberOfRelevantTags;
+		this.name = name;
+		this.ref = ref;
+		this.labelPosition = labelPosition;
+		this.tagIds = tagIds;
+		this.tagBitmap = tagBitmap;
+		this.nodesSequence = nodesSequence;
+		this.innerWays = innerWays;
+	}
+}
@@ -16,6 +16,7 @@
  */
 package org.mapsforge.android.maps;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 
 import android.graphics.Bitmap;
@@ -39,6 +40,7 @@ class CanvasRenderer extends DatabaseMapGenerator {
 	private Path path;
 	private WayTextContainer pathTextContainer;
 	private PointTextContainer pointTextContainer;
+	private final RenderStylePaints renderStylePaints = new RenderStylePaints();
 	private ShapePaintContainer shapePaintContainer;
 	private ArrayList<ArrayList<ShapePaintContainer>> shapePaintContainers;
 	private SymbolContainer symbolContainer;
@@ -46,12 +48,17 @@ class CanvasRenderer extends DatabaseMapGenerator {
 	private float[] tileFrame;
 	private ArrayList<ShapePaintContainer> wayList;
 
+	@Override
+	MapSymbol decodeSymbol(InputStream inputStream) {
+		return BitmapMapSymbol.decode(inputStream);
+	}
+
 	@Override
 	void drawMapSymbols(ArrayList<SymbolContainer> drawSymbols) {
 		for (this.arrayListIndex = drawSymbols.size() - 1; this.arrayListIndex >= 0; --this.arrayListIndex) {
 			this.symbolContainer = drawSymbols.get(this.arrayListIndex);
-			this.canvas.drawBitmap(this.symbolContainer.symbol, this.symbolContainer.x,
-					this.symbolContainer.y, null);
+			this.canvas.drawBitmap(((BitmapMapSymbol) this.symbolContainer.symbol).bitmap,
+					this.symbolContainer.x, this.symbolContainer.y, null);
 		}
 	}
 
@@ -61,10 +68,12 @@ class CanvasRenderer extends DatabaseMapGenerator {
 			this.pointTextContainer = drawNodes.get(this.arrayListIndex);
 			if (this.pointTextContainer.paintBack != null) {
 				this.canvas.drawText(this.pointTextContainer.text, this.pointTextContainer.x,
-						this.pointTextContainer.y, this.pointTextContainer.paintBack);
+						this.pointTextContainer.y, this.renderStylePaints
+								.getPaint(this.pointTextContainer.paintBack));
 			}
 			this.canvas.drawText(this.pointTextContainer.text, this.pointTextContainer.x,
-					this.pointTextContainer.y, this.pointTextContainer.paintFront);
+					this.pointTextContainer.y, this.renderStylePaints
+							.getPaint(this.pointTextContainer.paintFront));
 		}
 	}
 
@@ -84,7 +93,7 @@ class CanvasRenderer extends DatabaseMapGenerator {
 				this.path.lineTo(this.textCoordinates[i], this.textCoordinates[i + 1]);
 			}
 			this.canvas.drawTextOnPath(this.pathTextContainer.text, this.path, 0, 3,
-					this.pathTextContainer.paint);
+					this.renderStylePaints.getPaint(this.pathTextContainer.paint));
 		}
 	}
 
@@ -120,7 +129,8 @@ class CanvasRenderer extends DatabaseMapGenerator {
 							}
 							break;
 					}
-					this.canvas.drawPath(this.path, this.shapePaintContainer.paint);
+					this.canvas.drawPath(this.path, this.renderStylePaints
+							.getPaint(this.shapePaintContainer.paint));
 				}
 			}
 		}
@@ -131,6 +141,16 @@ class CanvasRenderer extends DatabaseMapGenerator {
 		// do nothing
 	}
 
+	@Override
+	void getTextBounds(String text, RenderStyle style, int[] bounds) {
+		this.renderStylePaints.getTextBounds(text, style, bounds);
+	}
+
+	@Override
+	float getTextWidth(String text, RenderStyle style) {
+		return this.renderStylePaints.getTextWidth(text, style);
+	}
+
 	@Override
 	String getThreadName() {
 		return THREAD_NAME;
@@ -149,9 +169,21 @@ class CanvasRenderer extends DatabaseMapGenerator {
 	@Override
 	void setupMapGenerator(Bitmap bitmap) {
 		this.canvas = new Canvas(bitmap);
-		this.tileFrame = new float[] { 0, 0, 0, Tile.TILE_SIZE, 0, Tile.TILE_SIZE,
-				Tile.TILE_SIZE, Tile.TILE_SIZE, Tile.TILE_SIZE, Tile.TILE_SIZE, Tile.TILE_SIZE,
-				0 };
+		// the bitmap may hold a metatile, so draw the frames of all tiles on it
+		int bitmapSize = bitmap.getWidth();
+		this.tileFrame = new float[(bitmapSize / Tile.TILE_SIZE + 1) * 8];
+		for (int i = 0, position = 0; position <= bitmapSize; position += Tile.TILE_SIZE) {
+			// vertical line
+			this.tileFrame[i++] = position;
+			this.tileFrame[i++] = 0;
+			this.tileFrame[i++] = position;
+			this.tileFrame[i++] = bitmapSize;
+			// horizontal line
+			this.tileFrame[i++] = 0;
+			this.tileFrame[i++] = position;
+			this.tileFrame[i++] = bitmapSize;
+			this.tileFrame[i++] = position;
+		}
 		this.path = new Path();
 		this.path.setFillType(Path.FillType.EVEN_ODD);
 	}
@@ -0,0 +1,587 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+/**
+ * ClusteringItemizedOverlay is an abstract base class to display a large list of OverlayItems
+ * which may overlap at low zoom levels. It offers the same interface as the
+ * {@link ItemizedOverlay}, but groups all items whose positions fall into the same grid cell to
+ * a cluster which is drawn with a single marker and the number of its items. The grid cells of
+ * each zoom level are split into four cells on the next zoom level, so the clusters form a
+ * hierarchy. Above the {@link #MAXIMUM_CLUSTER_ZOOM_LEVEL} all items are drawn individually.
+ * <p>
+ * The clusters of all zoom levels are built when {@link #populate()} is called for the first
+ * time. Later calls only update the clusters of the items which have been added, removed or
+ * moved, so that a few new items do not require to cluster all items again. The items are
+ * recognized by the identity of the objects which {@link #createItem(int)} returns, so that
+ * inserting or removing an item does not change the clusters of the items behind it. An
+ * implementation which creates a new object on each call clusters all items again.
+ * 
+ * @param <Item>
+ *            the type of items handled by this Overlay.
+ */
+public abstract class ClusteringItemizedOverlay<Item extends OverlayItem> extends Overlay {
+	/**
+	 * This class holds the number of items and the sums of the item IDs and positions of a
+	 * single cluster.
+	 */
+	private static class Cluster {
+		int numberOfItems;
+		long sumOfIds;
+		long sumOfX;
+		long sumOfY;
+
+		Cluster() {
+			// do nothing
+		}
+	}
+
+	/**
+	 * This class holds the ID, the current index and the position of a single item. The ID
+	 * stays the same while the index of the item changes.
+	 */
+	private static class ItemState {
+		int generation;
+		final int id;
+		int index;
+		GeoPoint point;
+		int x;
+		int y;
+
+		ItemState(int id) {
+			this.id = id;
+		}
+	}
+
+	/**
+	 * Number of bits of the pixel coordinates which are covered by a single cluster cell.
+	 */
+	private static final int CLUSTER_SIZE_SHIFT = 6;
+
+	/**
+	 * Initial capacity of the cluster maps of all zoom levels.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	private static final float LOAD_FACTOR = 0.6f;
+	private static final String THREAD_NAME = "ClusteringItemizedOverlay";
+
+	/**
+	 * Maximum zoom level on which items are grouped to clusters.
+	 */
+	public static final byte MAXIMUM_CLUSTER_ZOOM_LEVEL = 16;
+
+	private static Long getCellKey(long cellX, long cellY) {
+		return Long.valueOf((cellY << 32) | cellX);
+	}
+
+	private static int toReferenceCoordinate(double pixelCoordinate) {
+		return (int) Math.max(0, Math.min(pixelCoordinate,
+				OverlayItemGrid.MAXIMUM_REFERENCE_COORDINATE));
+	}
+
+	private Cluster cluster;
+	private final Drawable clusterMarker;
+	private final ArrayList<HashMap<Long, Cluster>> clusters;
+	private final Rect countBounds;
+	private final Paint countPaint;
+	private final Drawable defaultMarker;
+	private final ArrayList<Integer> freeIds;
+	private int generation;
+	private OverlayItemGrid grid;
+	private byte gridZoomLevel;
+	private Drawable itemMarker;
+	private final Point itemPosition;
+	private IdentityHashMap<Item, ItemState> itemStateMap;
+	private ItemState[] itemStates;
+	private final ArrayList<ItemState> itemStatesById;
+	private int[] itemX;
+	private int[] itemY;
+	private int maxMarkerHeight;
+	private int maxMarkerWidth;
+	private int numberOfItems;
+	private Item overlayItem;
+	private Point tapPoint;
+
+	/**
+	 * Constructs a new ClusteringItemizedOverlay.
+	 * 
+	 * @param defaultMarker
+	 *            the default marker for each item.
+	 * @param clusterMarker
+	 *            the marker for each cluster of more than one item.
+	 * @param countPaint
+	 *            the paint which is used to draw the number of items on each cluster marker, may
+	 *            be null.
+	 */
+	public ClusteringItemizedOverlay(Drawable defaultMarker, Drawable clusterMarker,
+			Paint countPaint) {
+		this.defaultMarker = defaultMarker;
+		this.clusterMarker = clusterMarker;
+		this.countPaint = countPaint;
+		if (this.countPaint != null) {
+			this.countPaint.setTextAlign(Paint.Align.CENTER);
+		}
+		this.countBounds = new Rect();
+		this.itemPosition = new Point();
+		this.clusters = new ArrayList<HashMap<Long, Cluster>>(MAXIMUM_CLUSTER_ZOOM_LEVEL + 1);
+		for (int zoomLevel = 0; zoomLevel <= MAXIMUM_CLUSTER_ZOOM_LEVEL; ++zoomLevel) {
+			this.clusters.add(new HashMap<Long, Cluster>(INITIAL_CAPACITY, LOAD_FACTOR));
+		}
+		this.freeIds = new ArrayList<Integer>();
+		this.itemStateMap = new IdentityHashMap<Item, ItemState>();
+		this.itemStates = new ItemState[0];
+		this.itemStatesById = new ArrayList<ItemState>();
+		this.itemX = new int[0];
+		this.itemY = new int[0];
+		this.maxMarkerWidth = Math.max(defaultMarker.getIntrinsicWidth(), clusterMarker
+				.getIntrinsicWidth());
+		this.maxMarkerHeight = Math.max(defaultMarker.getIntrinsicHeight(), clusterMarker
+				.getIntrinsicHeight());
+	}
+
+	/**
+	 * Creates the state of a new item with an unused ID.
+	 * 
+	 * @return the state of the new item.
+	 */
+	private ItemState createItemState() {
+		ItemState itemState;
+		if (this.freeIds.isEmpty()) {
+			itemState = new ItemState(this.itemStatesById.size());
+			this.itemStatesById.add(itemState);
+		} else {
+			itemState = new ItemState(this.freeIds.remove(this.freeIds.size() - 1).intValue());
+			this.itemStatesById.set(itemState.id, itemState);
+		}
+		return itemState;
+	}
+
+	/**
+	 * Draws the given marker centered at the given position if it intersects with the canvas.
+	 * 
+	 * @param canvas
+	 *            the canvas on which the marker should be drawn.
+	 * @param marker
+	 *            the marker to draw.
+	 * @param x
+	 *            the relative X position of the marker center on the canvas.
+	 * @param y
+	 *            the relative Y position of the marker center on the canvas.
+	 * @return true if the marker has been drawn, false otherwise.
+	 */
+	private boolean drawMarker(Canvas canvas, Drawable marker, int x, int y) {
+		int left = x - marker.getIntrinsicWidth() / 2;
+		int right = x + marker.getIntrinsicWidth() / 2;
+		int top = y - marker.getIntrinsicHeight() / 2;
+		int bottom = y + marker.getIntrinsicHeight() / 2;
+
+		// check if the bounding box of the marker intersects with the canvas
+		if (right >= 0 && left <= canvas.getWidth() && bottom >= 0 && top <= canvas.getHeight()) {
+			marker.setBounds(left, top, right, bottom);
+			marker.draw(canvas);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the shift from the reference zoom level to the cluster cells of a zoom level.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the number of bits to shift the reference coordinates.
+	 */
+	private int getCellShift(byte zoomLevel) {
+		return OverlayItemGrid.REFERENCE_ZOOM_LEVEL - zoomLevel + CLUSTER_SIZE_SHIFT;
+	}
+
+	/**
+	 * Returns the grid with all items for the given zoom level and builds it, if necessary.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the grid.
+	 */
+	private OverlayItemGrid getGrid(byte zoomLevel) {
+		if (this.grid == null || this.gridZoomLevel != zoomLevel) {
+			// the grid refers to the item indices, so items without a position are kept
+			this.grid = new OverlayItemGrid(this.itemX, this.itemY, this.numberOfItems,
+					zoomLevel);
+			this.gridZoomLevel = zoomLevel;
+		}
+		return this.grid;
+	}
+
+	/**
+	 * Returns the index of the only item of the current cluster.
+	 * 
+	 * @return the index of the item.
+	 */
+	private int getSingleItemIndex() {
+		// the sum of the IDs is the ID of the only item
+		return this.itemStatesById.get((int) this.cluster.sumOfIds).index;
+	}
+
+	/**
+	 * Selects the marker of the current item.
+	 */
+	private void selectItemMarker() {
+		if (this.overlayItem.getMarker() == null) {
+			this.itemMarker = this.defaultMarker;
+		} else {
+			this.itemMarker = this.overlayItem.getMarker();
+		}
+	}
+
+	/**
+	 * Adds an item to or removes an item from the clusters of all zoom levels.
+	 * 
+	 * @param itemState
+	 *            the state of the item.
+	 * @param sign
+	 *            1 to add the item, -1 to remove it.
+	 */
+	private void updateClusters(ItemState itemState, int sign) {
+		for (byte zoomLevel = 0; zoomLevel <= MAXIMUM_CLUSTER_ZOOM_LEVEL; ++zoomLevel) {
+			int shift = getCellShift(zoomLevel);
+			Long cellKey = getCellKey(itemState.x >>> shift, itemState.y >>> shift);
+			this.cluster = this.clusters.get(zoomLevel).get(cellKey);
+			if (this.cluster == null) {
+				this.cluster = new Cluster();
+				this.clusters.get(zoomLevel).put(cellKey, this.cluster);
+			}
+			this.cluster.numberOfItems += sign;
+			this.cluster.sumOfIds += sign * itemState.id;
+			this.cluster.sumOfX += sign * itemState.x;
+			this.cluster.sumOfY += sign * itemState.y;
+			if (this.cluster.numberOfItems == 0) {
+				this.clusters.get(zoomLevel).remove(cellKey);
+			}
+		}
+		this.cluster = null;
+	}
+
+	@Override
+	public final synchronized void drawOverlayBitmap(Canvas canvas, Point drawPosition,
+			Projection projection, byte drawZoomLevel) {
+		if (this.numberOfItems < 1) {
+			// no items to draw
+			return;
+		}
+
+		if (drawZoomLevel > MAXIMUM_CLUSTER_ZOOM_LEVEL) {
+			// find all items whose markers may intersect with the canvas
+			this.grid = getGrid(drawZoomLevel);
+			int numberOfResults = this.grid.query(drawPosition.x - this.maxMarkerWidth / 2,
+					drawPosition.y - this.maxMarkerHeight / 2, drawPosition.x
+							+ canvas.getWidth() + this.maxMarkerWidth / 2, drawPosition.y
+							+ canvas.getHeight() + this.maxMarkerHeight / 2);
+			int[] results = this.grid.getResults();
+
+			// draw the items in the order of their indices, like the ItemizedOverlay does
+			Arrays.sort(results, 0, numberOfResults);
+			for (int i = 0; i < numberOfResults; ++i) {
+				if (this.itemStates[results[i]].point == null) {
+					continue;
+				}
+				this.overlayItem = createItem(results[i]);
+				selectItemMarker();
+				drawMarker(canvas, this.itemMarker, this.grid.getX(results[i]) - drawPosition.x,
+						this.grid.getY(results[i]) - drawPosition.y);
+			}
+			return;
+		}
+
+		// get the range of all cells whose markers may intersect with the canvas
+		int marginX = this.maxMarkerWidth / 2;
+		int marginY = this.maxMarkerHeight / 2;
+		long cellLeft = Math.max(0, drawPosition.x - marginX) >> CLUSTER_SIZE_SHIFT;
+		long cellTop = Math.max(0, drawPosition.y - marginY) >> CLUSTER_SIZE_SHIFT;
+		long cellRight = (drawPosition.x + canvas.getWidth() + marginX) >> CLUSTER_SIZE_SHIFT;
+		long cellBottom = (drawPosition.y + canvas.getHeight() + marginY) >> CLUSTER_SIZE_SHIFT;
+		if (cellRight < 0 || cellBottom < 0) {
+			return;
+		}
+
+		// draw the clusters of all cells
+		int shift = OverlayItemGrid.REFERENCE_ZOOM_LEVEL - drawZoomLevel;
+		HashMap<Long, Cluster> zoomLevelClusters = this.clusters.get(drawZoomLevel);
+		for (long cellY = cellTop; cellY <= cellBottom; ++cellY) {
+			for (long cellX = cellLeft; cellX <= cellRight; ++cellX) {
+				this.cluster = zoomLevelClusters.get(getCellKey(cellX, cellY));
+				if (this.cluster == null) {
+					continue;
+				}
+
+				// calculate the relative position of the cluster center on the display
+				long clusterX = this.cluster.sumOfX / this.cluster.numberOfItems;
+				long clusterY = this.cluster.sumOfY / this.cluster.numberOfItems;
+				this.itemPosition.x = (int) (clusterX >>> shift) - drawPosition.x;
+				this.itemPosition.y = (int) (clusterY >>> shift) - drawPosition.y;
+
+				if (this.cluster.numberOfItems == 1) {
+					this.overlayItem = createItem(getSingleItemIndex());
+					selectItemMarker();
+					drawMarker(canvas, this.itemMarker, this.itemPosition.x, this.itemPosition.y);
+				} else if (drawMarker(canvas, this.clusterMarker, this.itemPosition.x,
+						this.itemPosition.y)
+						&& this.countPaint != null) {
+					// draw the number of items on the center of the cluster marker
+					String count = Integer.toString(this.cluster.numberOfItems);
+					this.countPaint.getTextBounds(count, 0, count.length(), this.countBounds);
+					canvas.drawText(count, this.itemPosition.x, this.itemPosition.y
+							+ this.countBounds.height() / 2, this.countPaint);
+				}
+			}
+		}
+		this.cluster = null;
+	}
+
+	@Override
+	public final String getThreadName() {
+		return THREAD_NAME;
+	}
+
+	@Override
+	public synchronized boolean onTap(GeoPoint geoPoint, MapView mapView) {
+		if (this.numberOfItems < 1) {
+			return false;
+		}
+		byte zoomLevel = mapView.getZoomLevel();
+		this.tapPoint = mapView.getProjection().toPoint(geoPoint, this.tapPoint, zoomLevel);
+
+		if (zoomLevel > MAXIMUM_CLUSTER_ZOOM_LEVEL) {
+			// find all items whose markers may contain the tap position
+			this.grid = getGrid(zoomLevel);
+			int numberOfResults = this.grid.query(this.tapPoint.x - this.maxMarkerWidth / 2,
+					this.tapPoint.y - this.maxMarkerHeight / 2, this.tapPoint.x
+							+ this.maxMarkerWidth / 2, this.tapPoint.y + this.maxMarkerHeight
+							/ 2);
+			int[] results = this.grid.getResults();
+
+			// the hit item with the highest index is drawn on top of the others
+			int hitIndex = -1;
+			for (int i = 0; i < numberOfResults; ++i) {
+				if (results[i] <= hitIndex || this.itemStates[results[i]].point == null) {
+					continue;
+				}
+				this.overlayItem = createItem(results[i]);
+				selectItemMarker();
+
+				// check if the hit position is within the bounds of the marker
+				if (Math.abs(this.grid.getX(results[i]) - this.tapPoint.x) <= this.itemMarker
+						.getIntrinsicWidth() / 2
+						&& Math.abs(this.grid.getY(results[i]) - this.tapPoint.y) <= this.itemMarker
+								.getIntrinsicHeight() / 2) {
+					hitIndex = results[i];
+				}
+			}
+
+			if (hitIndex < 0) {
+				// no hit
+				return false;
+			}
+			return onTap(hitIndex);
+		}
+
+		// get the range of all cells whose markers may contain the tap position
+		int marginX = this.maxMarkerWidth / 2;
+		int marginY = this.maxMarkerHeight / 2;
+		long cellLeft = Math.max(0, this.tapPoint.x - marginX) >> CLUSTER_SIZE_SHIFT;
+		long cellTop = Math.max(0, this.tapPoint.y - marginY) >> CLUSTER_SIZE_SHIFT;
+		long cellRight = (this.tapPoint.x + marginX) >> CLUSTER_SIZE_SHIFT;
+		long cellBottom = (this.tapPoint.y + marginY) >> CLUSTER_SIZE_SHIFT;
+
+		int shift = OverlayItemGrid.REFERENCE_ZOOM_LEVEL - zoomLevel;
+		HashMap<Long, Cluster> zoomLevelClusters = this.clusters.get(zoomLevel);
+		for (long cellY = cellTop; cellY <= cellBottom; ++cellY) {
+			for (long cellX = cellLeft; cellX <= cellRight; ++cellX) {
+				this.cluster = zoomLevelClusters.get(getCellKey(cellX, cellY));
+				if (this.cluster == null) {
+					continue;
+				}
+				long clusterX = this.cluster.sumOfX / this.cluster.numberOfItems;
+				long clusterY = this.cluster.sumOfY / this.cluster.numberOfItems;
+
+				// select the correct marker for the cluster
+				if (this.cluster.numberOfItems == 1) {
+					this.overlayItem = createItem(getSingleItemIndex());
+					selectItemMarker();
+				} else {
+					this.itemMarker = this.clusterMarker;
+				}
+
+				// check if the hit position is within the bounds of the marker
+				if (Math.abs((clusterX >>> shift) - this.tapPoint.x) <= this.itemMarker
+						.getIntrinsicWidth() / 2
+						&& Math.abs((clusterY >>> shift) - this.tapPoint.y) <= this.itemMarker
+								.getIntrinsicHeight() / 2) {
+					if (this.cluster.numberOfItems == 1) {
+						return onTap(getSingleItemIndex());
+					}
+					return onClusterTap(new GeoPoint(MercatorProjection.pixelYToLatitude(
+							clusterY, OverlayItemGrid.REFERENCE_ZOOM_LEVEL), MercatorProjection
+							.pixelXToLongitude(clusterX, OverlayItemGrid.REFERENCE_ZOOM_LEVEL)),
+							this.cluster.numberOfItems);
+				}
+			}
+		}
+
+		// no hit
+		return false;
+	}
+
+	/**
+	 * Returns the numbers of items in this Overlay.
+	 * 
+	 * @return the numbers of items in this Overlay.
+	 */
+	public abstract int size();
+
+	/**
+	 * Creates an item in the Overlay.
+	 * 
+	 * @param i
+	 *            the index of the item.
+	 * @return the item.
+	 */
+	protected abstract Item createItem(int i);
+
+	/**
+	 * Handles a tap event on a cluster of more than one item.
+	 * <p>
+	 * The default implementation of this method does nothing and returns false.
+	 * 
+	 * @param center
+	 *            the geographical center of all items in the cluster.
+	 * @param numberOfClusterItems
+	 *            the number of items in the cluster.
+	 * @return true if the event was handled, false otherwise.
+	 */
+	protected boolean onClusterTap(GeoPoint center, int numberOfClusterItems) {
+		return false;
+	}
+
+	/**
+	 * Handles a tap event.
+	 * <p>
+	 * The default implementation of this method does nothing and returns false.
+	 * 
+	 * @param index
+	 *            the position of the item.
+	 * 
+	 * @return true if the event was handled, false otherwise.
+	 */
+	protected boolean onTap(int index) {
+		return false;
+	}
+
+	/**
+	 * This method must be called after items have been added to or removed from the Overlay
+	 * and after an item has been moved. Only the clusters of the items whose positions have
+	 * changed are updated.
+	 */
+	protected final void populate() {
+		synchronized (this) {
+			int newNumberOfItems = size();
+			if (newNumberOfItems > this.itemX.length) {
+				// grow the arrays of the item positions, they are filled again below
+				int capacity = Math.max(newNumberOfItems, this.itemX.length * 2);
+				this.itemX = new int[capacity];
+				this.itemY = new int[capacity];
+			}
+			ItemState[] oldItemStates = this.itemStates;
+			IdentityHashMap<Item, ItemState> oldItemStateMap = this.itemStateMap;
+			this.itemStates = new ItemState[newNumberOfItems];
+			this.itemStateMap = new IdentityHashMap<Item, ItemState>(newNumberOfItems);
+			++this.generation;
+
+			for (int i = 0; i < newNumberOfItems; ++i) {
+				this.overlayItem = createItem(i);
+				GeoPoint point = this.overlayItem.getPoint();
+
+				if (this.overlayItem.getMarker() != null) {
+					this.maxMarkerWidth = Math.max(this.maxMarkerWidth, this.overlayItem
+							.getMarker().getIntrinsicWidth());
+					this.maxMarkerHeight = Math.max(this.maxMarkerHeight, this.overlayItem
+							.getMarker().getIntrinsicHeight());
+				}
+
+				// an item which occurs more than once gets a new state for each further index
+				ItemState itemState = oldItemStateMap.get(this.overlayItem);
+				if (itemState == null || itemState.generation == this.generation) {
+					itemState = createItemState();
+				} else if (point == null ? itemState.point != null : !point
+						.equals(itemState.point)) {
+					// the position of the item has changed
+					if (itemState.point != null) {
+						updateClusters(itemState, -1);
+					}
+					itemState.point = null;
+				}
+				if (!this.itemStateMap.containsKey(this.overlayItem)) {
+					this.itemStateMap.put(this.overlayItem, itemState);
+				}
+				itemState.generation = this.generation;
+				itemState.index = i;
+				this.itemStates[i] = itemState;
+
+				if (itemState.point == null && point != null) {
+					itemState.point = point;
+					itemState.x = toReferenceCoordinate(MercatorProjection.longitudeToPixelX(
+							point.getLongitude(), OverlayItemGrid.REFERENCE_ZOOM_LEVEL));
+					itemState.y = toReferenceCoordinate(MercatorProjection.latitudeToPixelY(
+							point.getLatitude(), OverlayItemGrid.REFERENCE_ZOOM_LEVEL));
+					updateClusters(itemState, 1);
+				} else if (point == null) {
+					// items without a position are never drawn
+					itemState.x = 0;
+					itemState.y = 0;
+				}
+				this.itemX[i] = itemState.x;
+				this.itemY[i] = itemState.y;
+			}
+
+			// remove the items which no longer exist
+			for (int i = 0; i < this.numberOfItems; ++i) {
+				if (oldItemStates[i].generation != this.generation) {
+					if (oldItemStates[i].point != null) {
+						updateClusters(oldItemStates[i], -1);
+					}
+					this.itemStatesById.set(oldItemStates[i].id, null);
+					this.freeIds.add(Integer.valueOf(oldItemStates[i].id));
+				}
+			}
+			this.numberOfItems = newNumberOfItems;
+			this.overlayItem = null;
+			this.grid = null;
+		}
+		super.requestRedraw();
+	}
+}
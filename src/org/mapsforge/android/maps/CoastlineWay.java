@@ -35,10 +35,12 @@ class CoastlineWay {
 	 *            the x coordinate of the coastline point.
 	 * @param y
 	 *            the y coordinate of the coastline point.
+	 * @param tileSize
+	 *            the width and height of the tile in pixels.
 	 * @return the angle, always between 0 (inclusively) and 2π (exclusively).
 	 */
-	private static double calculateAngle(float x, float y) {
-		double angle = Math.atan2(y - (Tile.TILE_SIZE >> 1), x - (Tile.TILE_SIZE >> 1));
+	private static double calculateAngle(float x, float y, int tileSize) {
+		double angle = Math.atan2(y - (tileSize >> 1), x - (tileSize >> 1));
 		if (angle < 0) {
 			return angle + 2 * Math.PI;
 		}
@@ -115,13 +117,15 @@ class CoastlineWay {
 	 * 
 	 * @param coastline
 	 *            the coordinates of the coastline segment.
+	 * @param tileSize
+	 *            the width and height of the tile in pixels.
 	 * @return true if first and last point are outside tile, false otherwise.
 	 */
-	static boolean isValid(float[] coastline) {
-		return (coastline[0] <= 0 || coastline[0] >= Tile.TILE_SIZE || coastline[1] <= 0 || coastline[1] >= Tile.TILE_SIZE)
+	static boolean isValid(float[] coastline, int tileSize) {
+		return (coastline[0] <= 0 || coastline[0] >= tileSize || coastline[1] <= 0 || coastline[1] >= tileSize)
 				&& (coastline[coastline.length - 2] <= 0
-						|| coastline[coastline.length - 2] >= Tile.TILE_SIZE
-						|| coastline[coastline.length - 1] <= 0 || coastline[coastline.length - 1] >= Tile.TILE_SIZE);
+						|| coastline[coastline.length - 2] >= tileSize
+						|| coastline[coastline.length - 1] <= 0 || coastline[coastline.length - 1] >= tileSize);
 	}
 
 	/**
@@ -130,9 +134,11 @@ class CoastlineWay {
 	 * 
 	 * @param coastline
 	 *            the coordinates of the coastline segment.
+	 * @param tileSize
+	 *            the width and height of the tile in pixels.
 	 * @return the coordinates of the shortened coastline segment.
 	 */
-	static float[] shortenCoastlineSegment(float[] coastline) {
+	static float[] shortenCoastlineSegment(float[] coastline, int tileSize) {
 		int skipStart = 0;
 		float x1 = coastline[0];
 		float y1 = coastline[1];
@@ -145,7 +151,7 @@ class CoastlineWay {
 			y2 = coastline[i + 1];
 			// clip the current way segment to the tile rectangle
 			clippedSegment = LineClipping.clipLineToRectangle(x1, y1, x2, y2, 0, 0,
-					Tile.TILE_SIZE, Tile.TILE_SIZE);
+					tileSize, tileSize);
 			if (clippedSegment != null) {
 				coastline[i - 2] = (float) clippedSegment[0];
 				coastline[i - 1] = (float) clippedSegment[1];
@@ -167,7 +173,7 @@ class CoastlineWay {
 			y2 = coastline[i + 1];
 			// clip the current way segment to the tile rectangle
 			clippedSegment = LineClipping.clipLineToRectangle(x1, y1, x2, y2, 0, 0,
-					Tile.TILE_SIZE, Tile.TILE_SIZE);
+					tileSize, tileSize);
 			if (clippedSegment != null) {
 				coastline[i + 2] = (float) clippedSegment[0];
 				coastline[i + 3] = (float) clippedSegment[1];
@@ -220,12 +226,14 @@ class CoastlineWay {
 	 * 
 	 * @param coastline
 	 *            the coordinates of the coastline segment.
+	 * @param tileSize
+	 *            the width and height of the tile in pixels.
 	 */
-	CoastlineWay(float[] coastline) {
+	CoastlineWay(float[] coastline, int tileSize) {
 		this.data = coastline;
-		this.entryAngle = calculateAngle(this.data[0], this.data[1]);
+		this.entryAngle = calculateAngle(this.data[0], this.data[1], tileSize);
 		this.exitAngle = calculateAngle(this.data[this.data.length - 2],
-				this.data[this.data.length - 1]);
+				this.data[this.data.length - 1], tileSize);
 		this.entrySide = calculateSide(this.entryAngle);
 		this.exitSide = calculateSide(this.exitAngle);
 	}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid which indexes the bounding boxes of labels and symbols for fast collision
+ * tests. The grid covers the current tile and one tile size around it, boxes outside of this
+ * area are assigned to the border cells. A collision test only compares the boxes in the cells
+ * which are covered by the tested box, so that the overlap removal of all labels and symbols of
+ * a tile runs in nearly linear time. The grid reuses its arrays and does not allocate any
+ * objects after it has grown to the required size.
+ * <p>
+ * Two boxes collide with the same semantics as {@link android.graphics.Rect#intersects}. The
+ * grid is not thread-safe, it is owned by the synchronized {@link LabelPlacement}.
+ */
+class CollisionGrid {
+	/**
+	 * Width and height of a single grid cell in pixels.
+	 */
+	private static final int CELL_SIZE = 32;
+
+	/**
+	 * Initial number of boxes and cell entries.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Returns a copy of the given array with the given length.
+	 * 
+	 * @param array
+	 *            the array to be copied.
+	 * @param newLength
+	 *            the length of the new array.
+	 * @return the new array.
+	 */
+	private static int[] copyOf(int[] array, int newLength) {
+		int[] newArray = new int[newLength];
+		System.arraycopy(array, 0, newArray, 0, Math.min(array.length, newLength));
+		return newArray;
+	}
+
+	private int[] boxBottoms;
+	private int[] boxLefts;
+	private int[] boxQueryIds;
+	private int[] boxRights;
+	private int[] boxTops;
+	private int[] cellEntries;
+	private int cellsPerSide;
+	private int[] entryBoxes;
+	private int[] entryNext;
+	private int gridOrigin;
+	private int numberOfBoxes;
+	private int numberOfEntries;
+	private int queryId;
+
+	/**
+	 * Constructs a new empty collision grid.
+	 */
+	CollisionGrid() {
+		setTileSize(Tile.TILE_SIZE);
+		this.boxBottoms = new int[INITIAL_CAPACITY];
+		this.boxLefts = new int[INITIAL_CAPACITY];
+		this.boxQueryIds = new int[INITIAL_CAPACITY];
+		this.boxRights = new int[INITIAL_CAPACITY];
+		this.boxTops = new int[INITIAL_CAPACITY];
+		this.entryBoxes = new int[INITIAL_CAPACITY];
+		this.entryNext = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Adds a new cell entry for the given box to the given cell.
+	 * 
+	 * @param cell
+	 *            the index of the cell.
+	 * @param box
+	 *            the index of the box.
+	 */
+	private void addEntry(int cell, int box) {
+		if (this.numberOfEntries == this.entryBoxes.length) {
+			this.entryBoxes = copyOf(this.entryBoxes, this.numberOfEntries * 2);
+			this.entryNext = copyOf(this.entryNext, this.numberOfEntries * 2);
+		}
+		this.entryBoxes[this.numberOfEntries] = box;
+		this.entryNext[this.numberOfEntries] = this.cellEntries[cell];
+		this.cellEntries[cell] = this.numberOfEntries;
+		++this.numberOfEntries;
+	}
+
+	/**
+	 * Returns the index of the grid row or column which contains the given coordinate.
+	 * 
+	 * @param coordinate
+	 *            the pixel coordinate.
+	 * @return the row or column of the coordinate, limited to the grid.
+	 */
+	private int getCell(int coordinate) {
+		if (coordinate < this.gridOrigin) {
+			return 0;
+		}
+		return Math.min((coordinate - this.gridOrigin) / CELL_SIZE, this.cellsPerSide - 1);
+	}
+
+	/**
+	 * Adds the given box to the grid.
+	 * 
+	 * @param left
+	 *            the left edge of the box.
+	 * @param top
+	 *            the top edge of the box.
+	 * @param right
+	 *            the right edge of the box.
+	 * @param bottom
+	 *            the bottom edge of the box.
+	 */
+	void add(int left, int top, int right, int bottom) {
+		if (this.numberOfBoxes == this.boxLefts.length) {
+			int newCapacity = this.numberOfBoxes * 2;
+			this.boxBottoms = copyOf(this.boxBottoms, newCapacity);
+			this.boxLefts = copyOf(this.boxLefts, newCapacity);
+			this.boxQueryIds = copyOf(this.boxQueryIds, newCapacity);
+			this.boxRights = copyOf(this.boxRights, newCapacity);
+			this.boxTops = copyOf(this.boxTops, newCapacity);
+		}
+		this.boxBottoms[this.numberOfBoxes] = bottom;
+		this.boxLefts[this.numberOfBoxes] = left;
+		this.boxQueryIds[this.numberOfBoxes] = this.queryId;
+		this.boxRights[this.numberOfBoxes] = right;
+		this.boxTops[this.numberOfBoxes] = top;
+
+		int lastRow = getCell(Math.max(top, bottom));
+		int lastColumn = getCell(Math.max(left, right));
+		for (int row = getCell(Math.min(top, bottom)); row <= lastRow; ++row) {
+			for (int column = getCell(Math.min(left, right)); column <= lastColumn; ++column) {
+				addEntry(row * this.cellsPerSide + column, this.numberOfBoxes);
+			}
+		}
+		++this.numberOfBoxes;
+	}
+
+	/**
+	 * Removes all boxes from the grid.
+	 */
+	void clear() {
+		if (this.numberOfEntries > 0) {
+			Arrays.fill(this.cellEntries, -1);
+		}
+		this.numberOfBoxes = 0;
+		this.numberOfEntries = 0;
+	}
+
+	/**
+	 * Checks if the given box intersects any box in the grid.
+	 * 
+	 * @param left
+	 *            the left edge of the box.
+	 * @param top
+	 *            the top edge of the box.
+	 * @param right
+	 *            the right edge of the box.
+	 * @param bottom
+	 *            the bottom edge of the box.
+	 * @return true if the box intersects at least one box in the grid, false otherwise.
+	 */
+	boolean intersects(int left, int top, int right, int bottom) {
+		if (this.numberOfBoxes == 0) {
+			return false;
+		}
+
+		// mark each tested box to test boxes in multiple cells only once
+		if (this.queryId == Integer.MAX_VALUE) {
+			Arrays.fill(this.boxQueryIds, 0, this.numberOfBoxes, Integer.MIN_VALUE);
+			this.queryId = Integer.MIN_VALUE;
+		}
+		++this.queryId;
+
+		int box;
+		int entry;
+		int lastRow = getCell(Math.max(top, bottom));
+		int lastColumn = getCell(Math.max(left, right));
+		for (int row = getCell(Math.min(top, bottom)); row <= lastRow; ++row) {
+			for (int column = getCell(Math.min(left, right)); column <= lastColumn; ++column) {
+				entry = this.cellEntries[row * this.cellsPerSide + column];
+				while (entry != -1) {
+					box = this.entryBoxes[entry];
+					if (this.boxQueryIds[box] != this.queryId) {
+						this.boxQueryIds[box] = this.queryId;
+						if (left < this.boxRights[box] && this.boxLefts[box] < right
+								&& top < this.boxBottoms[box] && this.boxTops[box] < bottom) {
+							return true;
+						}
+					}
+					entry = this.entryNext[entry];
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sets the size of the tile whose boxes are indexed, the grid covers the tile and one tile
+	 * size around it. All boxes are removed from the grid.
+	 * 
+	 * @param tileSize
+	 *            the width and height of the tile in pixels.
+	 */
+	void setTileSize(int tileSize) {
+		this.cellsPerSide = 3 * tileSize / CELL_SIZE;
+		this.gridOrigin = -tileSize;
+		if (this.cellEntries == null
+				|| this.cellEntries.length < this.cellsPerSide * this.cellsPerSide) {
+			this.cellEntries = new int[this.cellsPerSide * this.cellsPerSide];
+		}
+		Arrays.fill(this.cellEntries, -1);
+		this.numberOfBoxes = 0;
+		this.numberOfEntries = 0;
+	}
+}
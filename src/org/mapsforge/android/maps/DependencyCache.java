@@ -17,15 +17,13 @@
 package org.mapsforge.android.maps;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
 import org.mapsforge.android.maps.LabelPlacement.ReferencePosition;
 
-import android.graphics.Bitmap;
-import android.graphics.Paint;
-import android.graphics.Rect;
-
 /**
  * This class process the methods for the Dependency Cache. It's connected with the
  * LabelPlacement class. The main goal is, to remove double labels and symbols that are already
@@ -95,7 +93,7 @@ class DependencyCache {
 	private class DependencySymbol {
 		private LinkedList<Tile> tiles;
 		int depCounter;
-		Bitmap symbol;
+		MapSymbol symbol;
 
 		/**
 		 * Creates a symbol dependency element for the dependency cache
@@ -105,7 +103,7 @@ class DependencyCache {
 		 * @param tile
 		 *            dependency tile.
 		 */
-		DependencySymbol(Bitmap symbol, Tile tile) {
+		DependencySymbol(MapSymbol symbol, Tile tile) {
 			this.depCounter = 0;
 			this.symbol = symbol;
 			this.tiles = new LinkedList<Tile>();
@@ -127,10 +125,11 @@ class DependencyCache {
 	 * The class holds the data for a label with dependencies on other tiles.
 	 */
 	private class DependencyText {
+		final int boundaryHeight;
+		final int boundaryWidth;
 		int depCounter;
-		final Rect boundary;
-		final Paint paintBack;
-		final Paint paintFront;
+		final RenderStyle paintBack;
+		final RenderStyle paintFront;
 		final String text;
 		LinkedList<Tile> tiles;
 
@@ -143,19 +142,23 @@ class DependencyCache {
 		 *            paint element form the background of the text.
 		 * @param text
 		 *            the text of the element.
-		 * @param boundary
-		 *            the fixed boundary with width and height.
+		 * @param boundaryWidth
+		 *            the fixed width of the text.
+		 * @param boundaryHeight
+		 *            the fixed height of the text.
 		 * @param tile
 		 *            all tile in where the element has an influence.
 		 */
-		DependencyText(Paint paintFront, Paint paintBack, String text, Rect boundary, Tile tile) {
+		DependencyText(RenderStyle paintFront, RenderStyle paintBack, String text,
+				int boundaryWidth, int boundaryHeight, Tile tile) {
 			this.depCounter = 0;
 			this.paintFront = paintFront;
 			this.paintBack = paintBack;
 			this.text = text;
 			this.tiles = new LinkedList<Tile>();
 			this.tiles.add(tile);
-			this.boundary = boundary;
+			this.boundaryWidth = boundaryWidth;
+			this.boundaryHeight = boundaryHeight;
 		}
 
 		void addTile(Tile tile) {
@@ -163,35 +166,96 @@ class DependencyCache {
 		}
 	}
 
+	/**
+	 * Initial capacity of the dependency table of each tile size.
+	 */
+	private static final int INITIAL_CAPACITY = 60;
+
+	/**
+	 * Load factor of the dependency tables.
+	 */
+	private static final float LOAD_FACTOR = 0.75f;
+
+	/**
+	 * Maximum number of tiles in the dependency table of each tile size. The entries of the
+	 * least recently used tiles are dropped first. A tile whose entry has been dropped before
+	 * all of its neighbours are rendered may show labels which are cut at their common border.
+	 */
+	private static final int MAXIMUM_TILES = 4096;
+
+	private final CollisionGrid collisionGrid;
 	private DependencyOnTile currentDependencyOnTile;
 	private Tile currentTile;
 	/**
-	 * Hash table, that connects the Tiles with their entries in the dependency cache.
+	 * Hash tables of the dependencies for each tile size. A metatile is keyed by its position
+	 * in the grid of metatiles, which must not be confused with the tile at the same position.
 	 */
-	Hashtable<Tile, DependencyOnTile> dependencyTable;
+	private final HashMap<Integer, LinkedHashMap<Tile, DependencyOnTile>> dependencyTables;
+	private int tileSize;
+	/**
+	 * Hash table, that connects the Tiles with their entries in the dependency cache. It is the
+	 * table of the current tile size in {@link #dependencyTables}.
+	 */
+	LinkedHashMap<Tile, DependencyOnTile> dependencyTable;
+
 	Dependency<DependencyText> depLabel;
-	Rect rect1;
-	Rect rect2;
 	SymbolContainer smb;
 	DependencyOnTile tmp;
 
 	/**
-	 * Constructor for this class, that creates a Hashtable for the dependencies.
+	 * Constructor for this class, that creates a hash table for the dependencies.
+	 * 
+	 * @param collisionGrid
+	 *            the collision grid which is shared with the label placement.
+	 */
+	DependencyCache(CollisionGrid collisionGrid) {
+		this.collisionGrid = collisionGrid;
+		this.dependencyTables = new HashMap<Integer, LinkedHashMap<Tile, DependencyOnTile>>();
+		this.dependencyTable = createDependencyTable();
+		this.tileSize = Tile.TILE_SIZE;
+		this.dependencyTables.put(Integer.valueOf(this.tileSize), this.dependencyTable);
+	}
+
+	/**
+	 * Fills the collision grid with the boxes of all labels in the dependency cache of the
+	 * current tile.
+	 * 
+	 * @param dis
+	 *            the distance by which each box is enlarged.
+	 */
+	private void addDependencyLabelsToCollisionGrid(int dis) {
+		this.collisionGrid.clear();
+		for (int i = 0; i < this.currentDependencyOnTile.labels.size(); i++) {
+			depLabel = this.currentDependencyOnTile.labels.get(i);
+			this.collisionGrid.add((int) (depLabel.point.x) - dis,
+					(int) (depLabel.point.y - depLabel.value.boundaryHeight) - dis,
+					(int) (depLabel.point.x + depLabel.value.boundaryWidth) + dis,
+					(int) (depLabel.point.y) + dis);
+		}
+	}
+
+	/**
+	 * Fills the collision grid with the boxes of all symbols in the dependency cache of the
+	 * current tile.
+	 * 
+	 * @param dis
+	 *            the distance by which each box is enlarged.
 	 */
-	DependencyCache() {
-		this.dependencyTable = new Hashtable<Tile, DependencyOnTile>(60);
+	private void addDependencySymbolsToCollisionGrid(int dis) {
+		this.collisionGrid.clear();
+		for (Dependency<DependencySymbol> depSmb : this.currentDependencyOnTile.symbols) {
+			this.collisionGrid.add((int) depSmb.point.x - dis, (int) depSmb.point.y - dis,
+					(int) depSmb.point.x + depSmb.value.symbol.getWidth() + dis,
+					(int) depSmb.point.y + depSmb.value.symbol.getHeight() + dis);
+		}
 	}
 
 	private void addLabelsFromDependencyOnTile(ArrayList<PointTextContainer> labels) {
 		for (int i = 0; i < this.currentDependencyOnTile.labels.size(); i++) {
 			depLabel = this.currentDependencyOnTile.labels.get(i);
-			if (depLabel.value.paintBack != null) {
-				labels.add(new PointTextContainer(depLabel.value.text, depLabel.point.x,
-						depLabel.point.y, depLabel.value.paintFront, depLabel.value.paintBack));
-			} else {
-				labels.add(new PointTextContainer(depLabel.value.text, depLabel.point.x,
-						depLabel.point.y, depLabel.value.paintFront));
-			}
+			labels.add(new PointTextContainer(depLabel.value.text, depLabel.point.x,
+					depLabel.point.y, depLabel.value.paintFront, depLabel.value.paintBack,
+					depLabel.value.boundaryWidth, depLabel.value.boundaryHeight));
 			depLabel.value.depCounter++;
 		}
 
@@ -207,6 +271,23 @@ class DependencyCache {
 
 	}
 
+	/**
+	 * Creates a dependency table which holds the entries of at most {@link #MAXIMUM_TILES}
+	 * tiles.
+	 * 
+	 * @return the new dependency table.
+	 */
+	private LinkedHashMap<Tile, DependencyOnTile> createDependencyTable() {
+		return new LinkedHashMap<Tile, DependencyOnTile>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Tile, DependencyOnTile> eldest) {
+				return size() > MAXIMUM_TILES;
+			}
+		};
+	}
+
 	/**
 	 * Fills the dependency entry from the tile and the neighbor tiles with the dependency
 	 * information, that are necessary for drawing. To do that every label and symbol that will
@@ -245,12 +326,12 @@ class DependencyCache {
 			toAdd = null;
 
 			// up
-			if ((label.y - label.boundary.height() < 0.0f)
+			if ((label.y - label.boundaryHeight < 0.0f)
 					&& (!this.dependencyTable.get(up).drawn)) {
 				linkedDep = this.dependencyTable.get(up);
 
 				toAdd = new DependencyText(label.paintFront, label.paintBack, label.text,
-						label.boundary, this.currentTile);
+						label.boundaryWidth, label.boundaryHeight, this.currentTile);
 
 				this.currentDependencyOnTile.addText(new Dependency<DependencyText>(toAdd,
 						new ImmutablePoint(label.x, label.y)));
@@ -258,7 +339,7 @@ class DependencyCache {
 				toAdd.depCounter++;
 
 				linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-						label.x, label.y + Tile.TILE_SIZE)));
+						label.x, label.y + this.tileSize)));
 
 				toAdd.addTile(up);
 
@@ -266,18 +347,18 @@ class DependencyCache {
 					linkedDep = this.dependencyTable.get(leftup);
 
 					linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-							label.x + Tile.TILE_SIZE, label.y + Tile.TILE_SIZE)));
+							label.x + this.tileSize, label.y + this.tileSize)));
 
 					toAdd.addTile(leftup);
 
 				}
 
-				if ((label.x + label.boundary.width() > Tile.TILE_SIZE)
+				if ((label.x + label.boundaryWidth > this.tileSize)
 						&& (!this.dependencyTable.get(rightup).drawn)) {
 					linkedDep = this.dependencyTable.get(rightup);
 
 					linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-							label.x - Tile.TILE_SIZE, label.y + Tile.TILE_SIZE)));
+							label.x - this.tileSize, label.y + this.tileSize)));
 
 					toAdd.addTile(rightup);
 
@@ -286,13 +367,13 @@ class DependencyCache {
 			}
 
 			// down
-			if ((label.y > Tile.TILE_SIZE) && (!this.dependencyTable.get(down).drawn)) {
+			if ((label.y > this.tileSize) && (!this.dependencyTable.get(down).drawn)) {
 
 				linkedDep = this.dependencyTable.get(down);
 
 				if (toAdd == null) {
 					toAdd = new DependencyText(label.paintFront, label.paintBack, label.text,
-							label.boundary, this.currentTile);
+							label.boundaryWidth, label.boundaryHeight, this.currentTile);
 
 					this.currentDependencyOnTile.addText(new Dependency<DependencyText>(toAdd,
 							new ImmutablePoint(label.x, label.y)));
@@ -302,7 +383,7 @@ class DependencyCache {
 				}
 
 				linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-						label.x, label.y - Tile.TILE_SIZE)));
+						label.x, label.y - this.tileSize)));
 
 				toAdd.addTile(down);
 
@@ -310,19 +391,19 @@ class DependencyCache {
 					linkedDep = this.dependencyTable.get(leftdown);
 
 					linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-							label.x + Tile.TILE_SIZE, label.y - Tile.TILE_SIZE)));
+							label.x + this.tileSize, label.y - this.tileSize)));
 
 					toAdd.addTile(leftdown);
 
 				}
 
-				if ((label.x + label.boundary.width() > Tile.TILE_SIZE)
+				if ((label.x + label.boundaryWidth > this.tileSize)
 						&& (!this.dependencyTable.get(rightdown).drawn)) {
 
 					linkedDep = this.dependencyTable.get(rightdown);
 
 					linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-							label.x - Tile.TILE_SIZE, label.y - Tile.TILE_SIZE)));
+							label.x - this.tileSize, label.y - this.tileSize)));
 
 					toAdd.addTile(rightdown);
 
@@ -336,7 +417,7 @@ class DependencyCache {
 
 				if (toAdd == null) {
 					toAdd = new DependencyText(label.paintFront, label.paintBack, label.text,
-							label.boundary, this.currentTile);
+							label.boundaryWidth, label.boundaryHeight, this.currentTile);
 
 					this.currentDependencyOnTile.addText(new Dependency<DependencyText>(toAdd,
 							new ImmutablePoint(label.x, label.y)));
@@ -346,19 +427,19 @@ class DependencyCache {
 				}
 
 				linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-						label.x + Tile.TILE_SIZE, label.y)));
+						label.x + this.tileSize, label.y)));
 
 				toAdd.addTile(left);
 
 			}
 			// right
-			if ((label.x + label.boundary.width() > Tile.TILE_SIZE)
+			if ((label.x + label.boundaryWidth > this.tileSize)
 					&& (!this.dependencyTable.get(right).drawn)) {
 				linkedDep = this.dependencyTable.get(right);
 
 				if (toAdd == null) {
 					toAdd = new DependencyText(label.paintFront, label.paintBack, label.text,
-							label.boundary, this.currentTile);
+							label.boundaryWidth, label.boundaryHeight, this.currentTile);
 
 					this.currentDependencyOnTile.addText(new Dependency<DependencyText>(toAdd,
 							new ImmutablePoint(label.x, label.y)));
@@ -368,7 +449,7 @@ class DependencyCache {
 				}
 
 				linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-						label.x - Tile.TILE_SIZE, label.y)));
+						label.x - this.tileSize, label.y)));
 
 				toAdd.addTile(right);
 
@@ -382,7 +463,7 @@ class DependencyCache {
 					linkedDep = this.dependencyTable.get(up);
 
 					toAdd = new DependencyText(label.paintFront, label.paintBack, label.text,
-							label.boundary, this.currentTile);
+							label.boundaryWidth, label.boundaryHeight, this.currentTile);
 
 					this.currentDependencyOnTile.addText(new Dependency<DependencyText>(toAdd,
 							new ImmutablePoint(label.x, label.y)));
@@ -390,7 +471,7 @@ class DependencyCache {
 					toAdd.depCounter++;
 
 					linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-							label.x, label.y + Tile.TILE_SIZE)));
+							label.x, label.y + this.tileSize)));
 
 					toAdd.addTile(up);
 
@@ -398,20 +479,20 @@ class DependencyCache {
 						linkedDep = this.dependencyTable.get(leftup);
 
 						linkedDep.addText(new Dependency<DependencyText>(toAdd,
-								new ImmutablePoint(label.x + Tile.TILE_SIZE, label.y
-										+ Tile.TILE_SIZE)));
+								new ImmutablePoint(label.x + this.tileSize, label.y
+										+ this.tileSize)));
 
 						toAdd.addTile(leftup);
 
 					}
 
-					if ((label.symbol.x + label.symbol.symbol.getWidth() > Tile.TILE_SIZE)
+					if ((label.symbol.x + label.symbol.symbol.getWidth() > this.tileSize)
 							&& (!this.dependencyTable.get(rightup).drawn)) {
 						linkedDep = this.dependencyTable.get(rightup);
 
 						linkedDep.addText(new Dependency<DependencyText>(toAdd,
-								new ImmutablePoint(label.x - Tile.TILE_SIZE, label.y
-										+ Tile.TILE_SIZE)));
+								new ImmutablePoint(label.x - this.tileSize, label.y
+										+ this.tileSize)));
 
 						toAdd.addTile(rightup);
 
@@ -419,14 +500,15 @@ class DependencyCache {
 
 				}
 
-				if ((label.symbol.y + label.symbol.symbol.getHeight() >= Tile.TILE_SIZE)
+				if ((label.symbol.y + label.symbol.symbol.getHeight() >= this.tileSize)
 						&& (!this.dependencyTable.get(down).drawn)) {
 
 					linkedDep = this.dependencyTable.get(down);
 
 					if (toAdd == null) {
 						toAdd = new DependencyText(label.paintFront, label.paintBack,
-								label.text, label.boundary, this.currentTile);
+								label.text, label.boundaryWidth, label.boundaryHeight,
+								this.currentTile);
 
 						this.currentDependencyOnTile.addText(new Dependency<DependencyText>(
 								toAdd, new ImmutablePoint(label.x, label.y)));
@@ -436,7 +518,7 @@ class DependencyCache {
 					}
 
 					linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-							label.x, label.y + Tile.TILE_SIZE)));
+							label.x, label.y + this.tileSize)));
 
 					toAdd.addTile(up);
 
@@ -444,21 +526,21 @@ class DependencyCache {
 						linkedDep = this.dependencyTable.get(leftdown);
 
 						linkedDep.addText(new Dependency<DependencyText>(toAdd,
-								new ImmutablePoint(label.x + Tile.TILE_SIZE, label.y
-										- Tile.TILE_SIZE)));
+								new ImmutablePoint(label.x + this.tileSize, label.y
+										- this.tileSize)));
 
 						toAdd.addTile(leftdown);
 
 					}
 
-					if ((label.symbol.x + label.symbol.symbol.getWidth() > Tile.TILE_SIZE)
+					if ((label.symbol.x + label.symbol.symbol.getWidth() > this.tileSize)
 							&& (!this.dependencyTable.get(rightdown).drawn)) {
 
 						linkedDep = this.dependencyTable.get(rightdown);
 
 						linkedDep.addText(new Dependency<DependencyText>(toAdd,
-								new ImmutablePoint(label.x - Tile.TILE_SIZE, label.y
-										- Tile.TILE_SIZE)));
+								new ImmutablePoint(label.x - this.tileSize, label.y
+										- this.tileSize)));
 
 						toAdd.addTile(rightdown);
 
@@ -470,7 +552,8 @@ class DependencyCache {
 
 					if (toAdd == null) {
 						toAdd = new DependencyText(label.paintFront, label.paintBack,
-								label.text, label.boundary, this.currentTile);
+								label.text, label.boundaryWidth, label.boundaryHeight,
+								this.currentTile);
 
 						this.currentDependencyOnTile.addText(new Dependency<DependencyText>(
 								toAdd, new ImmutablePoint(label.x, label.y)));
@@ -480,19 +563,20 @@ class DependencyCache {
 					}
 
 					linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-							label.x - Tile.TILE_SIZE, label.y)));
+							label.x - this.tileSize, label.y)));
 
 					toAdd.addTile(left);
 
 				}
 
-				if ((label.symbol.x + label.symbol.symbol.getWidth() >= Tile.TILE_SIZE)
+				if ((label.symbol.x + label.symbol.symbol.getWidth() >= this.tileSize)
 						&& (!this.dependencyTable.get(right).drawn)) {
 					linkedDep = this.dependencyTable.get(right);
 
 					if (toAdd == null) {
 						toAdd = new DependencyText(label.paintFront, label.paintBack,
-								label.text, label.boundary, this.currentTile);
+								label.text, label.boundaryWidth, label.boundaryHeight,
+								this.currentTile);
 
 						this.currentDependencyOnTile.addText(new Dependency<DependencyText>(
 								toAdd, new ImmutablePoint(label.x, label.y)));
@@ -502,7 +586,7 @@ class DependencyCache {
 					}
 
 					linkedDep.addText(new Dependency<DependencyText>(toAdd, new ImmutablePoint(
-							label.x + Tile.TILE_SIZE, label.y)));
+							label.x + this.tileSize, label.y)));
 
 					toAdd.addTile(right);
 				}
@@ -574,31 +658,31 @@ class DependencyCache {
 				addSmb.depCounter++;
 
 				linkedDep.addSymbol((new Dependency<DependencySymbol>(addSmb,
-						new ImmutablePoint(symbol.x, symbol.y + Tile.TILE_SIZE))));
+						new ImmutablePoint(symbol.x, symbol.y + this.tileSize))));
 				addSmb.addTile(up);
 
 				if ((symbol.x < 0.0f) && (!this.dependencyTable.get(leftup).drawn)) {
 					linkedDep = this.dependencyTable.get(leftup);
 
 					linkedDep.addSymbol((new Dependency<DependencySymbol>(addSmb,
-							new ImmutablePoint(symbol.x + Tile.TILE_SIZE, symbol.y
-									+ Tile.TILE_SIZE))));
+							new ImmutablePoint(symbol.x + this.tileSize, symbol.y
+									+ this.tileSize))));
 					addSmb.addTile(leftup);
 				}
 
-				if ((symbol.x + symbol.symbol.getWidth() > Tile.TILE_SIZE)
+				if ((symbol.x + symbol.symbol.getWidth() > this.tileSize)
 						&& (!this.dependencyTable.get(rightup).drawn)) {
 					linkedDep = this.dependencyTable.get(rightup);
 
 					linkedDep.addSymbol((new Dependency<DependencySymbol>(addSmb,
-							new ImmutablePoint(symbol.x - Tile.TILE_SIZE, symbol.y
-									+ Tile.TILE_SIZE))));
+							new ImmutablePoint(symbol.x - this.tileSize, symbol.y
+									+ this.tileSize))));
 					addSmb.addTile(rightup);
 				}
 			}
 
 			// down
-			if ((symbol.y + symbol.symbol.getHeight() > Tile.TILE_SIZE)
+			if ((symbol.y + symbol.symbol.getHeight() > this.tileSize)
 					&& (!this.dependencyTable.get(down).drawn)) {
 
 				linkedDep = this.dependencyTable.get(down);
@@ -611,26 +695,26 @@ class DependencyCache {
 				}
 
 				linkedDep.addSymbol((new Dependency<DependencySymbol>(addSmb,
-						new ImmutablePoint(symbol.x, symbol.y - Tile.TILE_SIZE))));
+						new ImmutablePoint(symbol.x, symbol.y - this.tileSize))));
 				addSmb.addTile(down);
 
 				if ((symbol.x < 0.0f) && (!this.dependencyTable.get(leftdown).drawn)) {
 					linkedDep = this.dependencyTable.get(leftdown);
 
 					linkedDep.addSymbol((new Dependency<DependencySymbol>(addSmb,
-							new ImmutablePoint(symbol.x + Tile.TILE_SIZE, symbol.y
-									- Tile.TILE_SIZE))));
+							new ImmutablePoint(symbol.x + this.tileSize, symbol.y
+									- this.tileSize))));
 					addSmb.addTile(leftdown);
 				}
 
-				if ((symbol.x + symbol.symbol.getWidth() > Tile.TILE_SIZE)
+				if ((symbol.x + symbol.symbol.getWidth() > this.tileSize)
 						&& (!this.dependencyTable.get(rightdown).drawn)) {
 
 					linkedDep = this.dependencyTable.get(rightdown);
 
 					linkedDep.addSymbol((new Dependency<DependencySymbol>(addSmb,
-							new ImmutablePoint(symbol.x - Tile.TILE_SIZE, symbol.y
-									- Tile.TILE_SIZE))));
+							new ImmutablePoint(symbol.x - this.tileSize, symbol.y
+									- this.tileSize))));
 					addSmb.addTile(rightdown);
 				}
 			}
@@ -647,11 +731,11 @@ class DependencyCache {
 				}
 
 				linkedDep.addSymbol((new Dependency<DependencySymbol>(addSmb,
-						new ImmutablePoint(symbol.x + Tile.TILE_SIZE, symbol.y))));
+						new ImmutablePoint(symbol.x + this.tileSize, symbol.y))));
 				addSmb.addTile(left);
 			}
 			// right
-			if ((symbol.x + symbol.symbol.getWidth() > Tile.TILE_SIZE)
+			if ((symbol.x + symbol.symbol.getWidth() > this.tileSize)
 					&& (!this.dependencyTable.get(right).drawn)) {
 				linkedDep = this.dependencyTable.get(right);
 				if (addSmb == null) {
@@ -662,79 +746,43 @@ class DependencyCache {
 				}
 
 				linkedDep.addSymbol((new Dependency<DependencySymbol>(addSmb,
-						new ImmutablePoint(symbol.x - Tile.TILE_SIZE, symbol.y))));
+						new ImmutablePoint(symbol.x - this.tileSize, symbol.y))));
 				addSmb.addTile(right);
 			}
 		}
 	}
 
-	private boolean isDependenyEmpty(DependencyOnTile cache) {
-		if (cache.labels == null) {
-			if (cache.symbols == null) {
-				return true;
-			} else if (cache.symbols.size() == 0) {
-				return true;
-			}
-		}
-		if (cache.labels != null && cache.labels.size() == 0) {
-			if (cache.symbols == null) {
-				return true;
-			} else if (cache.symbols.size() == 0) {
-				return true;
-			}
-		}
-		return false;
-	}
-
 	private void removeOverlappingAreaLabelsWithDependencyLabels(
 			ArrayList<PointTextContainer> areaLabels) {
 		PointTextContainer pTC;
-
-		for (int i = 0; i < this.currentDependencyOnTile.labels.size(); i++) {
-			depLabel = this.currentDependencyOnTile.labels.get(i);
-			rect1 = (new android.graphics.Rect((int) (depLabel.point.x),
-					(int) (depLabel.point.y - depLabel.value.boundary.height()),
-					(int) (depLabel.point.x + depLabel.value.boundary.width()),
-					(int) (depLabel.point.y)));
-
-			for (int x = 0; x < areaLabels.size(); x++) {
-				pTC = areaLabels.get(x);
-
-				rect2 = new android.graphics.Rect((int) pTC.x, (int) pTC.y
-						- pTC.boundary.height(), (int) pTC.x + pTC.boundary.width(),
-						(int) pTC.y);
-
-				if (android.graphics.Rect.intersects(rect2, rect1)) {
-					areaLabels.remove(x);
-					x--;
-				}
+		int numberOfAreaLabels = 0;
+
+		addDependencyLabelsToCollisionGrid(0);
+		for (int x = 0; x < areaLabels.size(); x++) {
+			pTC = areaLabels.get(x);
+			if (!this.collisionGrid.intersects((int) pTC.x, (int) pTC.y
+					- pTC.boundaryHeight, (int) pTC.x + pTC.boundaryWidth, (int) pTC.y)) {
+				areaLabels.set(numberOfAreaLabels++, pTC);
 			}
 		}
+		areaLabels.subList(numberOfAreaLabels, areaLabels.size()).clear();
 	}
 
 	private void removeOverlappingAreaLabelsWithDependencySymbols(
 			ArrayList<PointTextContainer> areaLabels) {
 		PointTextContainer label;
-
-		for (Dependency<DependencySymbol> depSmb : this.currentDependencyOnTile.symbols) {
-
-			rect1 = new android.graphics.Rect((int) depSmb.point.x, (int) depSmb.point.y,
-					(int) depSmb.point.x + depSmb.value.symbol.getWidth(), (int) depSmb.point.y
-							+ depSmb.value.symbol.getHeight());
-
-			for (int x = 0; x < areaLabels.size(); x++) {
-				label = areaLabels.get(x);
-
-				rect2 = (new android.graphics.Rect((int) (label.x),
-						(int) (label.y - label.boundary.height()),
-						(int) (label.x + label.boundary.width()), (int) (label.y)));
-
-				if (android.graphics.Rect.intersects(rect2, rect1)) {
-					areaLabels.remove(x);
-					x--;
-				}
+		int numberOfAreaLabels = 0;
+
+		addDependencySymbolsToCollisionGrid(0);
+		for (int x = 0; x < areaLabels.size(); x++) {
+			label = areaLabels.get(x);
+			if (!this.collisionGrid.intersects((int) (label.x),
+					(int) (label.y - label.boundaryHeight),
+					(int) (label.x + label.boundaryWidth), (int) (label.y))) {
+				areaLabels.set(numberOfAreaLabels++, label);
 			}
 		}
+		areaLabels.subList(numberOfAreaLabels, areaLabels.size()).clear();
 	}
 
 	private void removeOverlappingLabelsWithDependencyLabels(
@@ -758,48 +806,31 @@ class DependencyCache {
 	private void removeOverlappingSymbolsWithDepencySymbols(ArrayList<SymbolContainer> symbols,
 			int dis) {
 		SymbolContainer sym;
-		Dependency<DependencySymbol> sym2;
-
-		for (int x = 0; x < this.currentDependencyOnTile.symbols.size(); x++) {
-			sym2 = this.currentDependencyOnTile.symbols.get(x);
-			rect1 = new android.graphics.Rect((int) sym2.point.x - dis, (int) sym2.point.y
-					- dis, (int) sym2.point.x + sym2.value.symbol.getWidth() + dis,
-					(int) sym2.point.y + sym2.value.symbol.getHeight() + dis);
-
-			for (int y = 0; y < symbols.size(); y++) {
-
-				sym = symbols.get(y);
-				rect2 = (new android.graphics.Rect((int) sym.x, (int) sym.y, (int) sym.x
-						+ sym.symbol.getWidth(), (int) sym.y + sym.symbol.getHeight()));
-
-				if (android.graphics.Rect.intersects(rect2, rect1)) {
-					symbols.remove(y);
-					y--;
-				}
+		int numberOfSymbols = 0;
+
+		addDependencySymbolsToCollisionGrid(dis);
+		for (int y = 0; y < symbols.size(); y++) {
+			sym = symbols.get(y);
+			if (!this.collisionGrid.intersects((int) sym.x, (int) sym.y, (int) sym.x
+					+ sym.symbol.getWidth(), (int) sym.y + sym.symbol.getHeight())) {
+				symbols.set(numberOfSymbols++, sym);
 			}
 		}
+		symbols.subList(numberOfSymbols, symbols.size()).clear();
 	}
 
 	private void removeOverlappingSymbolsWithDependencyLabels(ArrayList<SymbolContainer> symbols) {
-		for (int i = 0; i < this.currentDependencyOnTile.labels.size(); i++) {
-			depLabel = this.currentDependencyOnTile.labels.get(i);
-			rect1 = (new android.graphics.Rect((int) (depLabel.point.x),
-					(int) (depLabel.point.y - depLabel.value.boundary.height()),
-					(int) (depLabel.point.x + depLabel.value.boundary.width()),
-					(int) (depLabel.point.y)));
-
-			for (int x = 0; x < symbols.size(); x++) {
-				smb = symbols.get(x);
-
-				rect2 = new android.graphics.Rect((int) smb.x, (int) smb.y, (int) smb.x
-						+ smb.symbol.getWidth(), (int) smb.y + smb.symbol.getHeight());
-
-				if (android.graphics.Rect.intersects(rect2, rect1)) {
-					symbols.remove(x);
-					x--;
-				}
+		int numberOfSymbols = 0;
+
+		addDependencyLabelsToCollisionGrid(0);
+		for (int x = 0; x < symbols.size(); x++) {
+			smb = symbols.get(x);
+			if (!this.collisionGrid.intersects((int) smb.x, (int) smb.y, (int) smb.x
+					+ smb.symbol.getWidth(), (int) smb.y + smb.symbol.getHeight())) {
+				symbols.set(numberOfSymbols++, smb);
 			}
 		}
+		symbols.subList(numberOfSymbols, symbols.size()).clear();
 	}
 
 	/**
@@ -831,12 +862,23 @@ class DependencyCache {
 
 	/**
 	 * This method must be called, before the dependencies will be handled correctly. Because it
-	 * sets the actual Tile and looks if it has already dependencies.
+	 * sets the actual Tile and looks if it has already dependencies. Tiles of different sizes
+	 * cannot depend on each other, so the dependencies of each tile size are kept apart.
 	 * 
 	 * @param cT
 	 *            the current Tile
+	 * @param cTSize
+	 *            the width and height of the current Tile in pixels
 	 */
-	void generateTileAndDependencyOnTile(Tile cT) {
+	void generateTileAndDependencyOnTile(Tile cT, int cTSize) {
+		if (cTSize != this.tileSize) {
+			this.tileSize = cTSize;
+			this.dependencyTable = this.dependencyTables.get(Integer.valueOf(this.tileSize));
+			if (this.dependencyTable == null) {
+				this.dependencyTable = createDependencyTable();
+				this.dependencyTables.put(Integer.valueOf(this.tileSize), this.dependencyTable);
+			}
+		}
 		this.currentTile = new Tile(cT.x, cT.y, cT.zoomLevel);
 		this.currentDependencyOnTile = this.dependencyTable.get(this.currentTile);
 
@@ -846,117 +888,6 @@ class DependencyCache {
 		}
 	}
 
-	/**
-	 * Checks if tile in the dependency Cache can be deleted. Not every connected entry from the
-	 * Tile to the dependencies can be deleted, because the dependencies could have some
-	 * connection with neighbor tiles. AT THE TIME NOT TESTED AND NOT USED!!!
-	 * 
-	 * @param tile
-	 *            tile which image will be remove from the cache
-	 */
-	void onDeleteTile(Tile tile) {
-		Tile Tile = new Tile(tile.x, tile.y, tile.zoomLevel);
-		DependencyOnTile cache = this.dependencyTable.get(Tile);
-
-		if (cache == null) {
-			return;
-		}
-		if (isDependenyEmpty(cache)) {
-			this.dependencyTable.remove(Tile);
-			return;
-		}
-
-		for (int i = 0; i < cache.labels.size(); i++) {
-			depLabel = cache.labels.get(i);
-			depLabel.value.depCounter--;
-			if (depLabel.value.depCounter == 0) {
-				for (Tile tmpTile : depLabel.value.tiles) {
-					this.dependencyTable.get(tmpTile).labels.remove(depLabel);
-				}
-			}
-		}
-
-		if (isDependenyEmpty(cache)) {
-			this.dependencyTable.remove(Tile);
-			return;
-		}
-
-		// test if all six connected tiles can be deleted
-
-		// up
-		Tile = new Tile(tile.x, tile.y - 1, tile.zoomLevel);
-		cache = this.dependencyTable.get(Tile);
-		if (cache != null) {
-			if (isDependenyEmpty(cache)) {
-				this.dependencyTable.remove(Tile);
-				return;
-			}
-		}
-
-		// down
-		Tile = new Tile(tile.x, tile.y + 1, tile.zoomLevel);
-		cache = this.dependencyTable.get(Tile);
-		if (cache != null) {
-			if (isDependenyEmpty(cache)) {
-				this.dependencyTable.remove(Tile);
-				return;
-			}
-		}
-		// left
-		Tile = new Tile(tile.x - 1, tile.y, tile.zoomLevel);
-		cache = this.dependencyTable.get(Tile);
-		if (cache != null) {
-			if (isDependenyEmpty(cache)) {
-				this.dependencyTable.remove(Tile);
-				return;
-			}
-		}
-		// right
-		Tile = new Tile(tile.x + 1, tile.y, tile.zoomLevel);
-		cache = this.dependencyTable.get(Tile);
-		if (cache != null) {
-			if (isDependenyEmpty(cache)) {
-				this.dependencyTable.remove(Tile);
-				return;
-			}
-		}
-		// leftup
-		Tile = new Tile(tile.x - 1, tile.y - 1, tile.zoomLevel);
-		cache = this.dependencyTable.get(Tile);
-		if (cache != null) {
-			if (isDependenyEmpty(cache)) {
-				this.dependencyTable.remove(Tile);
-				return;
-			}
-		}
-		// leftdown
-		Tile = new Tile(tile.x - 1, tile.y + 1, tile.zoomLevel);
-		cache = this.dependencyTable.get(Tile);
-		if (cache != null) {
-			if (isDependenyEmpty(cache)) {
-				this.dependencyTable.remove(Tile);
-				return;
-			}
-		}
-		// righttup
-		Tile = new Tile(tile.x + 1, tile.y - 1, tile.zoomLevel);
-		cache = this.dependencyTable.get(Tile);
-		if (cache != null) {
-			if (isDependenyEmpty(cache)) {
-				this.dependencyTable.remove(Tile);
-				return;
-			}
-		}
-		// rightdown
-		Tile = new Tile(tile.x + 1, tile.y + 1, tile.zoomLevel);
-		cache = this.dependencyTable.get(Tile);
-		if (cache != null) {
-			if (isDependenyEmpty(cache)) {
-				this.dependencyTable.remove(Tile);
-				return;
-			}
-		}
-	}
 
 	/**
 	 * Removes the are labels from the actual list, that would be rendered in a Tile that has
@@ -998,7 +929,7 @@ class DependencyCache {
 			label = areaLabels.get(i);
 
 			if (up) {
-				if (label.y - label.boundary.height() < 0.0f) {
+				if (label.y - label.boundaryHeight < 0.0f) {
 					areaLabels.remove(i);
 					i--;
 					continue;
@@ -1006,7 +937,7 @@ class DependencyCache {
 			}
 
 			if (down) {
-				if (label.y > Tile.TILE_SIZE) {
+				if (label.y > this.tileSize) {
 					areaLabels.remove(i);
 					i--;
 					continue;
@@ -1020,7 +951,7 @@ class DependencyCache {
 				}
 			}
 			if (right) {
-				if (label.x + label.boundary.width() > Tile.TILE_SIZE) {
+				if (label.x + label.boundaryWidth > this.tileSize) {
 					areaLabels.remove(i);
 					i--;
 					continue;
@@ -1109,7 +1040,7 @@ class DependencyCache {
 			}
 
 			if (down) {
-				if (ref.y >= Tile.TILE_SIZE) {
+				if (ref.y >= this.tileSize) {
 					refPos[i] = null;
 					continue;
 				}
@@ -1123,7 +1054,7 @@ class DependencyCache {
 			}
 
 			if (right) {
-				if (ref.x + ref.width > Tile.TILE_SIZE) {
+				if (ref.x + ref.width > this.tileSize) {
 					refPos[i] = null;
 					continue;
 				}
@@ -1134,47 +1065,30 @@ class DependencyCache {
 
 		int dis = 2;
 		if (this.currentDependencyOnTile != null) {
+			this.collisionGrid.clear();
 			if (this.currentDependencyOnTile.labels != null) {
 				for (int i = 0; i < this.currentDependencyOnTile.labels.size(); i++) {
 					depLabel = this.currentDependencyOnTile.labels.get(i);
-					rect1 = new android.graphics.Rect((int) depLabel.point.x - dis,
-							(int) (depLabel.point.y - depLabel.value.boundary.height()) - dis,
-							(int) (depLabel.point.x + depLabel.value.boundary.width() + dis),
+					this.collisionGrid.add((int) depLabel.point.x - dis,
+							(int) (depLabel.point.y - depLabel.value.boundaryHeight) - dis,
+							(int) (depLabel.point.x + depLabel.value.boundaryWidth + dis),
 							(int) (depLabel.point.y + dis));
-
-					for (int y = 0; y < refPos.length; y++) {
-						if (refPos[y] != null) {
-							rect2 = new android.graphics.Rect((int) refPos[y].x,
-									(int) (refPos[y].y - refPos[y].height),
-									(int) (refPos[y].x + refPos[y].width), (int) (refPos[y].y));
-
-							if (android.graphics.Rect.intersects(rect2, rect1)) {
-								refPos[y] = null;
-							}
-						}
-					}
-
 				}
 			}
 			if (this.currentDependencyOnTile.symbols != null) {
 				for (Dependency<DependencySymbol> symbols2 : this.currentDependencyOnTile.symbols) {
-
-					rect1 = new android.graphics.Rect((int) symbols2.point.x,
-							(int) (symbols2.point.y),
+					this.collisionGrid.add((int) symbols2.point.x, (int) (symbols2.point.y),
 							(int) (symbols2.point.x + symbols2.value.symbol.getWidth()),
 							(int) (symbols2.point.y + symbols2.value.symbol.getHeight()));
+				}
+			}
 
-					for (int y = 0; y < refPos.length; y++) {
-						if (refPos[y] != null) {
-							rect2 = new android.graphics.Rect((int) refPos[y].x,
-									(int) (refPos[y].y - refPos[y].height),
-									(int) (refPos[y].x + refPos[y].width), (int) (refPos[y].y));
-
-							if (android.graphics.Rect.intersects(rect2, rect1)) {
-								refPos[y] = null;
-							}
-						}
-					}
+			for (int y = 0; y < refPos.length; y++) {
+				if (refPos[y] != null
+						&& this.collisionGrid.intersects((int) refPos[y].x,
+								(int) (refPos[y].y - refPos[y].height),
+								(int) (refPos[y].x + refPos[y].width), (int) (refPos[y].y))) {
+					refPos[y] = null;
 				}
 			}
 		}
@@ -1221,7 +1135,7 @@ class DependencyCache {
 			}
 
 			if (down) {
-				if (ref.y + ref.symbol.getHeight() > Tile.TILE_SIZE) {
+				if (ref.y + ref.symbol.getHeight() > this.tileSize) {
 					symbols.remove(i);
 					i--;
 					continue;
@@ -1235,7 +1149,7 @@ class DependencyCache {
 				}
 			}
 			if (right) {
-				if (ref.x + ref.symbol.getWidth() > Tile.TILE_SIZE) {
+				if (ref.x + ref.symbol.getWidth() > this.tileSize) {
 					symbols.remove(i);
 					i--;
 					continue;
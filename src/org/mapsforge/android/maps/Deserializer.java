@@ -16,10 +16,28 @@
  */
 package org.mapsforge.android.maps;
 
+import java.nio.ByteBuffer;
+
 /**
  * This static class converts byte arrays to numbers. Byte order is big-endian.
  */
 final class Deserializer {
+	/**
+	 * Converts five bytes of a byte buffer to a long number. The position of the buffer is not
+	 * modified.
+	 * 
+	 * @param buffer
+	 *            the byte buffer.
+	 * @param offset
+	 *            the absolute offset in the buffer.
+	 * @return the long value.
+	 */
+	static long fiveBytesToLong(ByteBuffer buffer, int offset) {
+		return (buffer.get(offset) & 0xffL) << 32 | (buffer.get(offset + 1) & 0xffL) << 24
+				| (buffer.get(offset + 2) & 0xffL) << 16 | (buffer.get(offset + 3) & 0xffL) << 8
+				| (buffer.get(offset + 4) & 0xffL);
+	}
+
 	/**
 	 * Converts five bytes of a byte array to a long number.
 	 * 
@@ -35,6 +53,28 @@ final class Deserializer {
 				| (buffer[offset + 4] & 0xffL);
 	}
 
+	/**
+	 * Converts three bytes of a byte buffer to a signed int number. The position of the buffer
+	 * is not modified.
+	 * 
+	 * @param buffer
+	 *            the byte buffer.
+	 * @param offset
+	 *            the absolute offset in the buffer.
+	 * @return the int value.
+	 */
+	static int threeBytesToSignedInt(ByteBuffer buffer, int offset) {
+		// check the sign bit
+		if ((buffer.get(offset) & 0x80) == 0) {
+			// positive number
+			return buffer.get(offset) << 16 | (buffer.get(offset + 1) & 0xff) << 8
+					| (buffer.get(offset + 2) & 0xff);
+		}
+		// negative number
+		return 0xff800000 | (buffer.get(offset) & 0x7F) << 16
+				| (buffer.get(offset + 1) & 0xff) << 8 | (buffer.get(offset + 2) & 0xff);
+	}
+
 	/**
 	 * Converts three bytes of a byte array to a signed int number.
 	 * 
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An evictor which takes the access frequency of the images into account. Each entry has a
+ * small saturating counter which is incremented on every request. To select a victim, the
+ * least recently used entries are sampled and the one with the lowest counter is evicted. The
+ * counters of the other sampled entries are halved, so that images which are no longer
+ * requested lose their advantage over time.
+ */
+class FrequencyTileEvictor extends TileEvictor {
+	/**
+	 * Maximum value of the access counter of an entry.
+	 */
+	private static final int MAXIMUM_FREQUENCY = 15;
+
+	/**
+	 * Number of least recently used entries which are compared to select a victim.
+	 */
+	private static final int SAMPLE_SIZE = 4;
+
+	@Override
+	void recordAccess(TileRAMCache.Entry entry) {
+		if (entry.frequency < MAXIMUM_FREQUENCY) {
+			++entry.frequency;
+		}
+	}
+
+	@Override
+	MapGeneratorJob selectVictim(LinkedHashMap<MapGeneratorJob, TileRAMCache.Entry> entries) {
+		Iterator<Map.Entry<MapGeneratorJob, TileRAMCache.Entry>> iterator = entries.entrySet()
+				.iterator();
+		Map.Entry<MapGeneratorJob, TileRAMCache.Entry> victim = iterator.next();
+		for (int i = 1; i < SAMPLE_SIZE && iterator.hasNext(); ++i) {
+			Map.Entry<MapGeneratorJob, TileRAMCache.Entry> candidate = iterator.next();
+			if (candidate.getValue().frequency < victim.getValue().frequency) {
+				victim.getValue().frequency >>= 1;
+				victim = candidate;
+			} else {
+				candidate.getValue().frequency >>= 1;
+			}
+		}
+		return victim.getKey();
+	}
+}
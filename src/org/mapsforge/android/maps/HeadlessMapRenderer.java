@@ -0,0 +1,216 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+/**
+ * Renders map tiles from a map file without a MapView, for example on a tile server. The tiles
+ * are drawn with Java2D by the {@link Java2DRenderer}, using the same map symbols and paints as
+ * the {@link CanvasRenderer}. No Android classes are needed at runtime, the renderer runs on
+ * any JVM.
+ * <p>
+ * All methods of this class are thread-safe. Each thread which renders tiles gets its own
+ * renderer, while the map file, the render theme and the label placement are shared by all
+ * renderers, so that tiles can be rendered in parallel by a pool of threads.
+ */
+public class HeadlessMapRenderer {
+	/**
+	 * Sets the stream to which the renderers write their log messages. By default, messages
+	 * are written to the standard error stream.
+	 * 
+	 * @param stream
+	 *            the stream for the log messages.
+	 */
+	public static void setLogStream(PrintStream stream) {
+		Logger.setOutput(new Logger.StreamOutput(stream));
+	}
+
+	private final MapDatabase database;
+	private boolean destroyed;
+	private final LabelPlacement labelPlacement;
+	private final String mapFile;
+	private final RenderTheme renderTheme;
+	private final ArrayList<Java2DRenderer> renderers;
+	private final ThreadLocal<Java2DRenderer> threadRenderer;
+
+	/**
+	 * Constructs a new HeadlessMapRenderer for the given map file, which uses the default
+	 * render theme.
+	 * 
+	 * @param mapFile
+	 *            the path to the map file.
+	 * @throws IllegalArgumentException
+	 *             if the map file cannot be opened.
+	 */
+	public HeadlessMapRenderer(String mapFile) {
+		this(mapFile, RenderTheme.getDefaultRenderTheme());
+	}
+
+	/**
+	 * Constructs a new HeadlessMapRenderer for the given map file and render theme. The theme
+	 * is read once and shared by all renderers.
+	 * 
+	 * @param mapFile
+	 *            the path to the map file.
+	 * @param renderTheme
+	 *            the stream with the XML data of the render theme, which is not closed.
+	 * @throws IllegalArgumentException
+	 *             if the map file cannot be opened or if the render theme is not valid.
+	 */
+	public HeadlessMapRenderer(String mapFile, InputStream renderTheme) {
+		this(mapFile, RenderTheme.readRenderTheme(renderTheme));
+	}
+
+	private HeadlessMapRenderer(String mapFile, RenderTheme renderTheme) {
+		this.database = new MapDatabase();
+		if (!this.database.openFile(mapFile)) {
+			throw new IllegalArgumentException("invalid map file: " + mapFile);
+		}
+		this.labelPlacement = new LabelPlacement();
+		this.mapFile = mapFile;
+		this.renderTheme = renderTheme;
+		this.renderers = new ArrayList<Java2DRenderer>();
+		this.threadRenderer = new ThreadLocal<Java2DRenderer>() {
+			@Override
+			protected Java2DRenderer initialValue() {
+				return createRenderer();
+			}
+		};
+	}
+
+	/**
+	 * Creates a new renderer for the calling thread.
+	 * 
+	 * @return the new renderer.
+	 */
+	private synchronized Java2DRenderer createRenderer() {
+		Java2DRenderer renderer = new Java2DRenderer();
+		renderer.setDatabase(this.database);
+		renderer.setLabelPlacement(this.labelPlacement);
+		renderer.setRenderTheme(this.renderTheme);
+		this.renderers.add(renderer);
+		return renderer;
+	}
+
+	/**
+	 * Returns the renderer of the calling thread.
+	 * 
+	 * @return the renderer of the calling thread.
+	 * @throws IllegalStateException
+	 *             if this HeadlessMapRenderer has been destroyed.
+	 */
+	private Java2DRenderer getRenderer() {
+		synchronized (this) {
+			if (this.destroyed) {
+				throw new IllegalStateException("renderer has been destroyed");
+			}
+		}
+		return this.threadRenderer.get();
+	}
+
+	/**
+	 * Closes the map file and frees the resources of all renderers. This method must not be
+	 * called while tiles are rendered.
+	 */
+	public synchronized void destroy() {
+		if (this.destroyed) {
+			return;
+		}
+		this.destroyed = true;
+		for (Java2DRenderer renderer : this.renderers) {
+			renderer.cleanup();
+		}
+		this.renderers.clear();
+		this.database.closeFile();
+	}
+
+	/**
+	 * Returns the maximum zoom level for which tiles can be rendered.
+	 * 
+	 * @return the maximum zoom level.
+	 */
+	public byte getMaxZoomLevel() {
+		return getRenderer().getMaxZoomLevel();
+	}
+
+	/**
+	 * Renders a single tile.
+	 * 
+	 * @param tileX
+	 *            the X number of the tile.
+	 * @param tileY
+	 *            the Y number of the tile.
+	 * @param zoomLevel
+	 *            the zoom level of the tile.
+	 * @return a new image with the content of the tile.
+	 * @throws IllegalArgumentException
+	 *             if the tile does not exist.
+	 */
+	public BufferedImage renderTile(long tileX, long tileY, byte zoomLevel) {
+		Java2DRenderer renderer = getRenderer();
+		if (zoomLevel < 0 || zoomLevel > renderer.getMaxZoomLevel()) {
+			throw new IllegalArgumentException("invalid zoom level: " + zoomLevel);
+		}
+		long maxTileNumber = (1L << zoomLevel) - 1;
+		if (tileX < 0 || tileX > maxTileNumber || tileY < 0 || tileY > maxTileNumber) {
+			throw new IllegalArgumentException("invalid tile: " + tileX + ", " + tileY);
+		}
+
+		renderer.prepareMapGeneration();
+		renderer.executeJob(new MapGeneratorJob(new Tile(tileX, tileY, zoomLevel),
+				MapViewMode.CANVAS_RENDERER, this.mapFile, false));
+
+		// copy the tile, as the image of the renderer is reused for the next tile
+		BufferedImage rendererImage = renderer.getImage();
+		BufferedImage tileImage = new BufferedImage(rendererImage.getWidth(), rendererImage
+				.getHeight(), BufferedImage.TYPE_INT_RGB);
+		rendererImage.copyData(tileImage.getRaster());
+		return tileImage;
+	}
+
+	/**
+	 * Returns the base zoom level of the blocks from which the tiles of the given zoom level
+	 * are read.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level of the tiles.
+	 * @return the base zoom level or the given zoom level, if the map file has no blocks for it.
+	 */
+	byte getBaseZoomLevel(byte zoomLevel) {
+		// limit the zoom level like a query does
+		byte queryZoomLevel = (byte) Math.max(this.database.getMinimumZoomLevel(), Math.min(
+				zoomLevel, this.database.getMaximumZoomLevel()));
+		MapFileParameters mapFileParameters = this.database.getMapFileParameters(queryZoomLevel);
+		if (mapFileParameters == null) {
+			return zoomLevel;
+		}
+		return mapFileParameters.baseZoomLevel;
+	}
+
+	/**
+	 * Returns the database of the map file.
+	 * 
+	 * @return the map database.
+	 */
+	MapDatabase getMapDatabase() {
+		return this.database;
+	}
+}
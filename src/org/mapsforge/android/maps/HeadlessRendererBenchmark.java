@@ -0,0 +1,158 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * Measures the throughput of the {@link HeadlessMapRenderer}. All tiles which cover the area of
+ * the given map file are rendered once with a single thread and once with the given number of
+ * threads which share the renderer.
+ */
+class HeadlessRendererBenchmark {
+	private static final byte DEFAULT_ZOOM_LEVEL = 14;
+	private static final String THREAD_NAME = "HeadlessRendererBenchmark";
+
+	/**
+	 * Starts the benchmark.
+	 * 
+	 * @param args
+	 *            the path to the map file, the zoom level (optional) and the number of threads
+	 *            (optional).
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("usage: HeadlessRendererBenchmark <map file> [zoom level] "
+					+ "[threads]");
+			return;
+		}
+
+		byte zoomLevel = DEFAULT_ZOOM_LEVEL;
+		if (args.length > 1) {
+			zoomLevel = Byte.parseByte(args[1]);
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 2) {
+			threads = Integer.parseInt(args[2]);
+		}
+
+		HeadlessMapRenderer renderer;
+		try {
+			renderer = new HeadlessMapRenderer(args[0]);
+		} catch (IllegalArgumentException e) {
+			System.out.println("could not open map file: " + args[0]);
+			return;
+		}
+		HeadlessRendererBenchmark benchmark = new HeadlessRendererBenchmark(renderer, zoomLevel);
+
+		// warm up the caches and the JIT compiler
+		benchmark.run(1);
+
+		long singleThreadTime = benchmark.run(1);
+		System.out.println("1 thread: " + singleThreadTime + " ms, "
+				+ benchmark.getTilesPerSecond(singleThreadTime) + " tiles/s");
+
+		long multiThreadTime = benchmark.run(threads);
+		System.out.println(threads + " threads: " + multiThreadTime + " ms, "
+				+ benchmark.getTilesPerSecond(multiThreadTime) + " tiles/s");
+
+		renderer.destroy();
+	}
+
+	private long nextTile;
+	private final HeadlessMapRenderer renderer;
+	private final long tileBottom;
+	private final long tileLeft;
+	private final long tileRight;
+	private final long tileTop;
+	private final byte zoomLevel;
+
+	private HeadlessRendererBenchmark(HeadlessMapRenderer renderer, byte zoomLevel) {
+		this.renderer = renderer;
+		this.zoomLevel = zoomLevel;
+
+		MapDatabase mapDatabase = renderer.getMapDatabase();
+		this.tileLeft = MercatorProjection.longitudeToTileX(
+				mapDatabase.getBoundaryLeft() / 1000000d, zoomLevel);
+		this.tileRight = MercatorProjection.longitudeToTileX(
+				mapDatabase.getBoundaryRight() / 1000000d, zoomLevel);
+		this.tileTop = MercatorProjection.latitudeToTileY(
+				mapDatabase.getBoundaryTop() / 1000000d, zoomLevel);
+		this.tileBottom = MercatorProjection.latitudeToTileY(
+				mapDatabase.getBoundaryBottom() / 1000000d, zoomLevel);
+	}
+
+	/**
+	 * Returns the index of the next tile that needs to be rendered.
+	 * 
+	 * @return the index of the next tile or -1, if all tiles have been rendered.
+	 */
+	private synchronized long getNextTile() {
+		if (this.nextTile >= getNumberOfTiles()) {
+			return -1;
+		}
+		return this.nextTile++;
+	}
+
+	private long getNumberOfTiles() {
+		return (this.tileRight - this.tileLeft + 1) * (this.tileBottom - this.tileTop + 1);
+	}
+
+	private long getTilesPerSecond(long time) {
+		return getNumberOfTiles() * 1000 / Math.max(time, 1);
+	}
+
+	/**
+	 * Renders all tiles with the given number of threads.
+	 * 
+	 * @param threads
+	 *            the number of threads.
+	 * @return the elapsed time in milliseconds.
+	 */
+	private long run(int threads) {
+		this.nextTile = 0;
+		Thread[] renderThreads = new Thread[threads];
+		for (int i = 0; i < threads; ++i) {
+			renderThreads[i] = new Thread(THREAD_NAME + i) {
+				@Override
+				public void run() {
+					long tileWidth = HeadlessRendererBenchmark.this.tileRight
+							- HeadlessRendererBenchmark.this.tileLeft + 1;
+					for (long tile = getNextTile(); tile >= 0; tile = getNextTile()) {
+						HeadlessRendererBenchmark.this.renderer.renderTile(
+								HeadlessRendererBenchmark.this.tileLeft + tile % tileWidth,
+								HeadlessRendererBenchmark.this.tileTop + tile / tileWidth,
+								HeadlessRendererBenchmark.this.zoomLevel);
+					}
+				}
+			};
+		}
+
+		long startTime = System.currentTimeMillis();
+		for (Thread renderThread : renderThreads) {
+			renderThread.start();
+		}
+		for (Thread renderThread : renderThreads) {
+			try {
+				renderThread.join();
+			} catch (InterruptedException e) {
+				Logger.e(e);
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		return System.currentTimeMillis() - startTime;
+	}
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.graphics.Canvas;
+import android.graphics.Point;
+import android.graphics.drawable.Drawable;
+
+/**
+ * IndexedItemizedOverlay is an abstract base class to display a large list of OverlayItems. It
+ * offers the same interface as the {@link ItemizedOverlay}, but keeps the item positions in a
+ * spatial index, so that drawing and tapping only touch the items around the visible area
+ * instead of all items. The positions are projected only once when {@link #populate()} is
+ * called, the grids for the last few zoom levels are kept in a cache.
+ * <p>
+ * Subclasses must call {@link #populate()} after items have been added or removed and after
+ * the marker of an item has been changed.
+ * 
+ * @param <Item>
+ *            the type of items handled by this Overlay.
+ */
+public abstract class IndexedItemizedOverlay<Item extends OverlayItem> extends Overlay {
+	private static final float LOAD_FACTOR = 0.6f;
+	private static final int MAXIMUM_CACHED_GRIDS = 3;
+	private static final String THREAD_NAME = "IndexedItemizedOverlay";
+
+	private static int toReferenceCoordinate(double pixelCoordinate) {
+		return (int) Math.max(0, Math.min(pixelCoordinate,
+				OverlayItemGrid.MAXIMUM_REFERENCE_COORDINATE));
+	}
+
+	private int bottom;
+	private final Drawable defaultMarker;
+	private OverlayItemGrid grid;
+	private final LinkedHashMap<Byte, OverlayItemGrid> grids;
+	private int[] itemIndices;
+	private Drawable itemMarker;
+	private final Point itemPosition;
+	private int[] itemX;
+	private int[] itemY;
+	private int left;
+	private int maxMarkerHeight;
+	private int maxMarkerWidth;
+	private int numberOfIndexedItems;
+	private Item overlayItem;
+	private int right;
+	private Point tapPoint;
+	private int top;
+
+	/**
+	 * Constructs a new IndexedItemizedOverlay.
+	 * 
+	 * @param defaultMarker
+	 *            the default marker for each item.
+	 */
+	public IndexedItemizedOverlay(Drawable defaultMarker) {
+		this.defaultMarker = defaultMarker;
+		this.itemPosition = new Point();
+		this.grids = new LinkedHashMap<Byte, OverlayItemGrid>(
+				(int) (MAXIMUM_CACHED_GRIDS / LOAD_FACTOR) + 2, LOAD_FACTOR, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Byte, OverlayItemGrid> eldest) {
+				return size() > MAXIMUM_CACHED_GRIDS;
+			}
+		};
+		this.itemIndices = new int[0];
+		this.itemX = new int[0];
+		this.itemY = new int[0];
+	}
+
+	/**
+	 * Returns the grid for the given zoom level and builds it, if necessary.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the grid.
+	 */
+	private OverlayItemGrid getGrid(byte zoomLevel) {
+		OverlayItemGrid zoomLevelGrid = this.grids.get(Byte.valueOf(zoomLevel));
+		if (zoomLevelGrid == null) {
+			zoomLevelGrid = new OverlayItemGrid(this.itemX, this.itemY,
+					this.numberOfIndexedItems, zoomLevel);
+			this.grids.put(Byte.valueOf(zoomLevel), zoomLevelGrid);
+		}
+		return zoomLevelGrid;
+	}
+
+	/**
+	 * Selects the marker of the current item.
+	 */
+	private void selectItemMarker() {
+		if (this.overlayItem.getMarker() == null) {
+			this.itemMarker = this.defaultMarker;
+		} else {
+			this.itemMarker = this.overlayItem.getMarker();
+		}
+	}
+
+	@Override
+	public final synchronized void drawOverlayBitmap(Canvas canvas, Point drawPosition,
+			Projection projection, byte drawZoomLevel) {
+		if (this.numberOfIndexedItems < 1) {
+			// no items to draw
+			return;
+		}
+
+		// find all items whose markers may intersect with the canvas
+		this.grid = getGrid(drawZoomLevel);
+		int numberOfResults = this.grid.query(drawPosition.x - this.maxMarkerWidth / 2,
+				drawPosition.y - this.maxMarkerHeight / 2, drawPosition.x + canvas.getWidth()
+						+ this.maxMarkerWidth / 2, drawPosition.y + canvas.getHeight()
+						+ this.maxMarkerHeight / 2);
+		int[] results = this.grid.getResults();
+
+		// draw the items in the order of their indices, like the ItemizedOverlay does
+		Arrays.sort(results, 0, numberOfResults);
+		for (int i = 0; i < numberOfResults; ++i) {
+			this.overlayItem = createItem(this.itemIndices[results[i]]);
+			selectItemMarker();
+
+			// calculate the relative item position on the display
+			this.itemPosition.x = this.grid.getX(results[i]) - drawPosition.x;
+			this.itemPosition.y = this.grid.getY(results[i]) - drawPosition.y;
+
+			// calculate the bounding box of the centered marker
+			this.left = this.itemPosition.x - (this.itemMarker.getIntrinsicWidth() / 2);
+			this.right = this.itemPosition.x + (this.itemMarker.getIntrinsicWidth() / 2);
+			this.top = this.itemPosition.y - (this.itemMarker.getIntrinsicHeight() / 2);
+			this.bottom = this.itemPosition.y + (this.itemMarker.getIntrinsicHeight() / 2);
+
+			// check if the bounding box of the marker intersects with the canvas
+			if (this.right >= 0 && this.left <= canvas.getWidth() && this.bottom >= 0
+					&& this.top <= canvas.getHeight()) {
+				this.itemMarker.setBounds(this.left, this.top, this.right, this.bottom);
+				this.itemMarker.draw(canvas);
+			}
+		}
+	}
+
+	@Override
+	public final String getThreadName() {
+		return THREAD_NAME;
+	}
+
+	@Override
+	public synchronized boolean onTap(GeoPoint geoPoint, MapView mapView) {
+		if (this.numberOfIndexedItems < 1) {
+			return false;
+		}
+		byte zoomLevel = mapView.getZoomLevel();
+		this.tapPoint = mapView.getProjection().toPoint(geoPoint, this.tapPoint, zoomLevel);
+
+		// find all items whose markers may contain the tap position
+		this.grid = getGrid(zoomLevel);
+		int numberOfResults = this.grid.query(this.tapPoint.x - this.maxMarkerWidth / 2,
+				this.tapPoint.y - this.maxMarkerHeight / 2, this.tapPoint.x
+						+ this.maxMarkerWidth / 2, this.tapPoint.y + this.maxMarkerHeight / 2);
+		int[] results = this.grid.getResults();
+
+		// the hit item with the highest index is drawn on top of the others
+		int hitResult = -1;
+		for (int i = 0; i < numberOfResults; ++i) {
+			if (results[i] <= hitResult) {
+				continue;
+			}
+			this.overlayItem = createItem(this.itemIndices[results[i]]);
+			selectItemMarker();
+
+			// check if the hit position is within the bounds of the marker
+			if (Math.abs(this.grid.getX(results[i]) - this.tapPoint.x) <= this.itemMarker
+					.getIntrinsicWidth() / 2
+					&& Math.abs(this.grid.getY(results[i]) - this.tapPoint.y) <= this.itemMarker
+							.getIntrinsicHeight() / 2) {
+				hitResult = results[i];
+			}
+		}
+
+		if (hitResult < 0) {
+			// no hit
+			return false;
+		}
+		return onTap(this.itemIndices[hitResult]);
+	}
+
+	/**
+	 * Returns the numbers of items in this Overlay.
+	 * 
+	 * @return the numbers of items in this Overlay.
+	 */
+	public abstract int size();
+
+	/**
+	 * Creates an item in the Overlay.
+	 * 
+	 * @param i
+	 *            the index of the item.
+	 * @return the item.
+	 */
+	protected abstract Item createItem(int i);
+
+	/**
+	 * Handles a tap event.
+	 * <p>
+	 * The default implementation of this method does nothing and returns false.
+	 * 
+	 * @param index
+	 *            the position of the item.
+	 * 
+	 * @return true if the event was handled, false otherwise.
+	 */
+	protected boolean onTap(int index) {
+		return false;
+	}
+
+	/**
+	 * This method must be called after items have been added to or removed from the Overlay
+	 * and after the marker of an item has been changed. It projects the positions of all items
+	 * and discards the cached grids.
+	 */
+	protected final void populate() {
+		synchronized (this) {
+			int numberOfItems = size();
+			this.itemIndices = new int[numberOfItems];
+			this.itemX = new int[numberOfItems];
+			this.itemY = new int[numberOfItems];
+			this.numberOfIndexedItems = 0;
+			this.maxMarkerWidth = this.defaultMarker.getIntrinsicWidth();
+			this.maxMarkerHeight = this.defaultMarker.getIntrinsicHeight();
+
+			for (int i = 0; i < numberOfItems; ++i) {
+				this.overlayItem = createItem(i);
+
+				// check if the item has a position
+				if (this.overlayItem.getPoint() == null) {
+					continue;
+				}
+
+				this.itemX[this.numberOfIndexedItems] = toReferenceCoordinate(MercatorProjection
+						.longitudeToPixelX(this.overlayItem.getPoint().getLongitude(),
+								OverlayItemGrid.REFERENCE_ZOOM_LEVEL));
+				this.itemY[this.numberOfIndexedItems] = toReferenceCoordinate(MercatorProjection
+						.latitudeToPixelY(this.overlayItem.getPoint().getLatitude(),
+								OverlayItemGrid.REFERENCE_ZOOM_LEVEL));
+				this.itemIndices[this.numberOfIndexedItems] = i;
+				++this.numberOfIndexedItems;
+
+				if (this.overlayItem.getMarker() != null) {
+					this.maxMarkerWidth = Math.max(this.maxMarkerWidth, this.overlayItem
+							.getMarker().getIntrinsicWidth());
+					this.maxMarkerHeight = Math.max(this.maxMarkerHeight, this.overlayItem
+							.getMarker().getIntrinsicHeight());
+				}
+			}
+			this.overlayItem = null;
+			this.grids.clear();
+			this.grid = null;
+		}
+		super.requestRedraw();
+	}
+}
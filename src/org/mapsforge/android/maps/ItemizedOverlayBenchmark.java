@@ -0,0 +1,185 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.Random;
+
+/**
+ * Compares the item handling of the {@link ItemizedOverlay} with that of the
+ * {@link IndexedItemizedOverlay} for 10 000, 100 000 and 1 000 000 items. The items are spread
+ * randomly over a fixed area. Each redraw moves the visible area and changes the zoom level
+ * regularly. The linear variant checks every item and projects all items again after each
+ * zoom level change, the indexed variant queries the grid of the zoom level. The drawing of
+ * the visible markers costs the same for both variants and is not measured. The time for
+ * building the index is reported separately, as it is spent only once after the items have
+ * changed.
+ */
+class ItemizedOverlayBenchmark {
+	private static final double AREA_MAX_LATITUDE = 55;
+	private static final double AREA_MAX_LONGITUDE = 15;
+	private static final double AREA_MIN_LATITUDE = 47;
+	private static final double AREA_MIN_LONGITUDE = 6;
+	private static final int[] NUMBER_OF_ITEMS = { 10000, 100000, 1000000 };
+	private static final int REDRAWS = 200;
+	private static final int REDRAWS_PER_ZOOM_LEVEL = 20;
+	private static final long SEED = 42;
+	private static final int VIEW_HEIGHT = 800;
+	private static final int VIEW_WIDTH = 480;
+	private static final byte[] ZOOM_LEVELS = { 10, 12, 14, 16 };
+
+	/**
+	 * Starts the benchmark.
+	 * 
+	 * @param args
+	 *            not used.
+	 */
+	public static void main(String[] args) {
+		for (int numberOfItems : NUMBER_OF_ITEMS) {
+			ItemizedOverlayBenchmark benchmark = new ItemizedOverlayBenchmark(numberOfItems);
+			// warm up the JIT compiler
+			benchmark.runLinear();
+			benchmark.runIndexed();
+
+			long linearTime = benchmark.runLinear();
+			int linearVisibleItems = benchmark.visibleItems;
+			long indexedTime = benchmark.runIndexed();
+			System.out.println(numberOfItems + " items: linear " + linearTime / REDRAWS / 1000
+					+ " us/redraw, indexed " + indexedTime / REDRAWS / 1000 + " us/redraw, "
+					+ linearVisibleItems / REDRAWS + " (" + benchmark.visibleItems / REDRAWS
+					+ ") visible items/redraw, index setup for " + ZOOM_LEVELS.length
+					+ " zoom levels " + benchmark.setupTime / 1000000 + " ms");
+		}
+	}
+
+	private final int[] cachedX;
+	private final int[] cachedY;
+	private final double[] latitudes;
+	private final double[] longitudes;
+	private long setupTime;
+	private int visibleItems;
+
+	private ItemizedOverlayBenchmark(int numberOfItems) {
+		Random random = new Random(SEED);
+		this.latitudes = new double[numberOfItems];
+		this.longitudes = new double[numberOfItems];
+		for (int i = 0; i < numberOfItems; ++i) {
+			this.latitudes[i] = AREA_MIN_LATITUDE + random.nextDouble()
+					* (AREA_MAX_LATITUDE - AREA_MIN_LATITUDE);
+			this.longitudes[i] = AREA_MIN_LONGITUDE + random.nextDouble()
+					* (AREA_MAX_LONGITUDE - AREA_MIN_LONGITUDE);
+		}
+		this.cachedX = new int[numberOfItems];
+		this.cachedY = new int[numberOfItems];
+	}
+
+	/**
+	 * Returns the zoom level of the given redraw.
+	 * 
+	 * @param redraw
+	 *            the number of the redraw.
+	 * @return the zoom level.
+	 */
+	private byte getZoomLevel(int redraw) {
+		return ZOOM_LEVELS[(redraw / REDRAWS_PER_ZOOM_LEVEL) % ZOOM_LEVELS.length];
+	}
+
+	/**
+	 * Returns the left pixel coordinate of the visible area of the given redraw. The visible
+	 * area moves from the center of the item area to the east.
+	 * 
+	 * @param redraw
+	 *            the number of the redraw.
+	 * @param zoomLevel
+	 *            the zoom level of the redraw.
+	 * @return the left pixel coordinate.
+	 */
+	private int getViewLeft(int redraw, byte zoomLevel) {
+		return (int) MercatorProjection.longitudeToPixelX(
+				(AREA_MIN_LONGITUDE + AREA_MAX_LONGITUDE) / 2, zoomLevel)
+				+ (redraw % REDRAWS_PER_ZOOM_LEVEL) * VIEW_WIDTH / 4;
+	}
+
+	private int getViewTop(byte zoomLevel) {
+		return (int) MercatorProjection.latitudeToPixelY(
+				(AREA_MIN_LATITUDE + AREA_MAX_LATITUDE) / 2, zoomLevel);
+	}
+
+	/**
+	 * Simulates the redraws with the grids of the indexed overlay. The time for projecting the
+	 * items and building the grids of all zoom levels is measured separately.
+	 * 
+	 * @return the elapsed time of the redraws in nanoseconds.
+	 */
+	private long runIndexed() {
+		this.visibleItems = 0;
+		long startTime = System.nanoTime();
+		int[] itemX = new int[this.latitudes.length];
+		int[] itemY = new int[this.latitudes.length];
+		for (int i = 0; i < this.latitudes.length; ++i) {
+			itemX[i] = (int) MercatorProjection.longitudeToPixelX(this.longitudes[i],
+					OverlayItemGrid.REFERENCE_ZOOM_LEVEL);
+			itemY[i] = (int) MercatorProjection.latitudeToPixelY(this.latitudes[i],
+					OverlayItemGrid.REFERENCE_ZOOM_LEVEL);
+		}
+		OverlayItemGrid[] grids = new OverlayItemGrid[OverlayItemGrid.REFERENCE_ZOOM_LEVEL + 1];
+		for (byte zoomLevel : ZOOM_LEVELS) {
+			grids[zoomLevel] = new OverlayItemGrid(itemX, itemY, itemX.length, zoomLevel);
+		}
+		this.setupTime = System.nanoTime() - startTime;
+
+		startTime = System.nanoTime();
+		for (int redraw = 0; redraw < REDRAWS; ++redraw) {
+			byte zoomLevel = getZoomLevel(redraw);
+			int left = getViewLeft(redraw, zoomLevel);
+			int top = getViewTop(zoomLevel);
+			this.visibleItems += grids[zoomLevel].query(left, top, left + VIEW_WIDTH, top
+					+ VIEW_HEIGHT);
+		}
+		return System.nanoTime() - startTime;
+	}
+
+	/**
+	 * Simulates the redraws of the ItemizedOverlay, which checks all items.
+	 * 
+	 * @return the elapsed time in nanoseconds.
+	 */
+	private long runLinear() {
+		this.visibleItems = 0;
+		long startTime = System.nanoTime();
+		byte cachedZoomLevel = Byte.MIN_VALUE;
+		for (int redraw = 0; redraw < REDRAWS; ++redraw) {
+			byte zoomLevel = getZoomLevel(redraw);
+			int left = getViewLeft(redraw, zoomLevel);
+			int top = getViewTop(zoomLevel);
+			for (int i = 0; i < this.latitudes.length; ++i) {
+				// make sure that the cached item position is valid
+				if (zoomLevel != cachedZoomLevel) {
+					this.cachedX[i] = (int) MercatorProjection.longitudeToPixelX(
+							this.longitudes[i], zoomLevel);
+					this.cachedY[i] = (int) MercatorProjection.latitudeToPixelY(
+							this.latitudes[i], zoomLevel);
+				}
+				if (this.cachedX[i] >= left && this.cachedX[i] <= left + VIEW_WIDTH
+						&& this.cachedY[i] >= top && this.cachedY[i] <= top + VIEW_HEIGHT) {
+					++this.visibleItems;
+				}
+			}
+			cachedZoomLevel = zoomLevel;
+		}
+		return System.nanoTime() - startTime;
+	}
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.imageio.ImageIO;
+
+import android.graphics.Bitmap;
+
+/**
+ * A map renderer which uses Java2D for drawing. It draws the same map objects with the same
+ * render styles as the {@link CanvasRenderer}, but on a BufferedImage instead of an Android
+ * bitmap, so that tiles can be rendered on a regular JVM. The renderer is not started as a
+ * thread, its jobs are executed directly by the {@link HeadlessMapRenderer}.
+ */
+class Java2DRenderer extends DatabaseMapGenerator {
+	/**
+	 * A map symbol whose image is a BufferedImage.
+	 */
+	private static class ImageSymbol extends MapSymbol {
+		final BufferedImage image;
+
+		ImageSymbol(BufferedImage image) {
+			this.image = image;
+		}
+
+		@Override
+		int getHeight() {
+			return this.image.getHeight();
+		}
+
+		@Override
+		int getWidth() {
+			return this.image.getWidth();
+		}
+
+		@Override
+		void recycle() {
+			this.image.flush();
+		}
+	}
+
+	private static final String FONT_NAME = "SansSerif";
+	private static final float MITER_LIMIT = 4;
+	private static final String THREAD_NAME = "Java2DRenderer";
+	private static final BasicStroke TILE_FRAME_STROKE = new BasicStroke(1);
+	private static final float WAY_NAME_OFFSET = 3;
+
+	private static int getCap(RenderStyle.Cap cap) {
+		switch (cap) {
+			case BUTT:
+				return BasicStroke.CAP_BUTT;
+			case ROUND:
+				return BasicStroke.CAP_ROUND;
+			case SQUARE:
+				return BasicStroke.CAP_SQUARE;
+		}
+		return BasicStroke.CAP_BUTT;
+	}
+
+	private static int getJoin(RenderStyle.Join join) {
+		switch (join) {
+			case BEVEL:
+				return BasicStroke.JOIN_BEVEL;
+			case MITER:
+				return BasicStroke.JOIN_MITER;
+			case ROUND:
+				return BasicStroke.JOIN_ROUND;
+		}
+		return BasicStroke.JOIN_MITER;
+	}
+
+	private static float getSegmentLength(float[] coordinates, int index) {
+		return (float) Math.hypot(coordinates[index + 2] - coordinates[index],
+				coordinates[index + 3] - coordinates[index + 1]);
+	}
+
+	private int arrayListIndex;
+	private final Ellipse2D.Float circle;
+	private CircleContainer circleContainer;
+	private WayContainer complexWayContainer;
+	private float[][] coordinates;
+	private byte currentLayer;
+	private byte currentLevel;
+	private final HashMap<RenderStyle, Font> fonts;
+	private final Graphics2D graphics;
+	private final BufferedImage image;
+	private final GeneralPath path;
+	private WayTextContainer pathTextContainer;
+	private PointTextContainer pointTextContainer;
+	private ShapePaintContainer shapePaintContainer;
+	private ArrayList<ArrayList<ShapePaintContainer>> shapePaintContainers;
+	private final HashMap<RenderStyle, BasicStroke> strokes;
+	private SymbolContainer symbolContainer;
+	private final GeneralPath textPath;
+	private ArrayList<ShapePaintContainer> wayList;
+
+	/**
+	 * Constructs a new Java2DRenderer which draws on an image of the size of a single tile.
+	 */
+	Java2DRenderer() {
+		this.image = new BufferedImage(Tile.TILE_SIZE, Tile.TILE_SIZE,
+				BufferedImage.TYPE_INT_RGB);
+		this.graphics = this.image.createGraphics();
+		this.graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+		this.graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
+				RenderingHints.VALUE_STROKE_PURE);
+
+		this.circle = new Ellipse2D.Float();
+		this.fonts = new HashMap<RenderStyle, Font>();
+		this.path = new GeneralPath(GeneralPath.WIND_EVEN_ODD);
+		this.strokes = new HashMap<RenderStyle, BasicStroke>();
+		this.textPath = new GeneralPath();
+	}
+
+	/**
+	 * Draws the given shape with the color and the stroke of the given style.
+	 * 
+	 * @param shape
+	 *            the shape to be drawn.
+	 * @param style
+	 *            the style of the shape.
+	 */
+	private void drawShape(Shape shape, RenderStyle style) {
+		this.graphics.setColor(new Color(style.color, true));
+		if (style.fill) {
+			this.graphics.fill(shape);
+		} else {
+			this.graphics.setStroke(getStroke(style));
+			this.graphics.draw(shape);
+		}
+	}
+
+	/**
+	 * Returns the font which matches the weight and the text size of the given style.
+	 * 
+	 * @param style
+	 *            the style of a text.
+	 * @return the font of the style.
+	 */
+	private Font getFont(RenderStyle style) {
+		Font font = this.fonts.get(style);
+		if (font == null) {
+			font = new Font(FONT_NAME, style.bold ? Font.BOLD : Font.PLAIN, 1)
+					.deriveFont(style.textSize);
+			this.fonts.put(style, font);
+		}
+		return font;
+	}
+
+	/**
+	 * Returns the stroke which matches the width, the cap, the join and the dash intervals of
+	 * the given style.
+	 * 
+	 * @param style
+	 *            the style of a shape.
+	 * @return the stroke of the style.
+	 */
+	private BasicStroke getStroke(RenderStyle style) {
+		BasicStroke stroke = this.strokes.get(style);
+		if (stroke == null) {
+			// Android draws hairlines with a stroke width of zero
+			stroke = new BasicStroke(Math.max(style.strokeWidth, 1), getCap(style.cap),
+					getJoin(style.join), MITER_LIMIT, style.dashIntervals, style.dashPhase);
+			this.strokes.put(style, stroke);
+		}
+		return stroke;
+	}
+
+	/**
+	 * Returns the outline of a text which is aligned along a path. Like on Android, each glyph
+	 * is rotated to the direction of the path at its center and glyphs which do not fit on the
+	 * path are omitted.
+	 * 
+	 * @param text
+	 *            the text.
+	 * @param style
+	 *            the style of the text.
+	 * @param pathCoordinates
+	 *            the coordinates of the path.
+	 * @return the outline of the text.
+	 */
+	private Shape getTextOnPath(String text, RenderStyle style, float[] pathCoordinates) {
+		GlyphVector glyphVector = getFont(style).createGlyphVector(
+				this.graphics.getFontRenderContext(), text);
+
+		float pathLength = 0;
+		for (int i = 0; i + 3 < pathCoordinates.length; i += 2) {
+			pathLength += getSegmentLength(pathCoordinates, i);
+		}
+		float textOffset = 0;
+		switch (style.align) {
+			case CENTER:
+				textOffset = (pathLength - (float) glyphVector.getLogicalBounds().getWidth()) / 2;
+				break;
+			case LEFT:
+				break;
+			case RIGHT:
+				textOffset = pathLength - (float) glyphVector.getLogicalBounds().getWidth();
+				break;
+		}
+
+		this.textPath.reset();
+		int segmentIndex = 0;
+		float segmentStart = 0;
+		float segmentLength = getSegmentLength(pathCoordinates, segmentIndex);
+		for (int i = 0; i < glyphVector.getNumGlyphs(); ++i) {
+			float glyphX = (float) glyphVector.getGlyphPosition(i).getX();
+			float glyphCenter = glyphX + glyphVector.getGlyphMetrics(i).getAdvance() / 2;
+			float glyphDistance = textOffset + glyphCenter;
+			if (glyphDistance < 0 || glyphDistance > pathLength) {
+				continue;
+			}
+
+			// find the segment of the path on which the glyph center is located
+			while (segmentStart + segmentLength < glyphDistance
+					&& segmentIndex + 5 < pathCoordinates.length) {
+				segmentStart += segmentLength;
+				segmentIndex += 2;
+				segmentLength = getSegmentLength(pathCoordinates, segmentIndex);
+			}
+			float segmentX = pathCoordinates[segmentIndex + 2] - pathCoordinates[segmentIndex];
+			float segmentY = pathCoordinates[segmentIndex + 3]
+					- pathCoordinates[segmentIndex + 1];
+			float ratio = 0;
+			if (segmentLength > 0) {
+				ratio = (glyphDistance - segmentStart) / segmentLength;
+			}
+
+			AffineTransform transform = AffineTransform.getTranslateInstance(
+					pathCoordinates[segmentIndex] + segmentX * ratio,
+					pathCoordinates[segmentIndex + 1] + segmentY * ratio);
+			transform.rotate(Math.atan2(segmentY, segmentX));
+			transform.translate(-glyphCenter, WAY_NAME_OFFSET);
+			this.textPath.append(transform.createTransformedShape(glyphVector
+					.getGlyphOutline(i)), false);
+		}
+		return this.textPath;
+	}
+
+	/**
+	 * Returns the outline of a text at the given position, aligned like on Android.
+	 * 
+	 * @param text
+	 *            the text.
+	 * @param x
+	 *            the x coordinate of the text.
+	 * @param y
+	 *            the y coordinate of the text baseline.
+	 * @param style
+	 *            the style of the text.
+	 * @return the outline of the text.
+	 */
+	private Shape getTextOutline(String text, float x, float y, RenderStyle style) {
+		GlyphVector glyphVector = getFont(style).createGlyphVector(
+				this.graphics.getFontRenderContext(), text);
+		switch (style.align) {
+			case CENTER:
+				return glyphVector.getOutline(x
+						- (float) glyphVector.getLogicalBounds().getWidth() / 2, y);
+			case LEFT:
+				return glyphVector.getOutline(x, y);
+			case RIGHT:
+				return glyphVector.getOutline(x
+						- (float) glyphVector.getLogicalBounds().getWidth(), y);
+		}
+		return glyphVector.getOutline(x, y);
+	}
+
+	@Override
+	MapSymbol decodeSymbol(InputStream inputStream) {
+		try {
+			BufferedImage symbolImage = ImageIO.read(inputStream);
+			if (symbolImage == null) {
+				return null;
+			}
+			return new ImageSymbol(symbolImage);
+		} catch (IOException e) {
+			Logger.e(e);
+			return null;
+		}
+	}
+
+	@Override
+	void drawBackground(int color) {
+		this.graphics.setColor(new Color(color));
+		this.graphics.fillRect(0, 0, this.image.getWidth(), this.image.getHeight());
+	}
+
+	@Override
+	void drawMapSymbols(ArrayList<SymbolContainer> drawSymbols) {
+		for (this.arrayListIndex = drawSymbols.size() - 1; this.arrayListIndex >= 0; --this.arrayListIndex) {
+			this.symbolContainer = drawSymbols.get(this.arrayListIndex);
+			this.graphics.drawImage(((ImageSymbol) this.symbolContainer.symbol).image, Math
+					.round(this.symbolContainer.x), Math.round(this.symbolContainer.y), null);
+		}
+	}
+
+	@Override
+	void drawNodes(ArrayList<PointTextContainer> drawNodes) {
+		for (this.arrayListIndex = drawNodes.size() - 1; this.arrayListIndex >= 0; --this.arrayListIndex) {
+			this.pointTextContainer = drawNodes.get(this.arrayListIndex);
+			if (this.pointTextContainer.paintBack != null) {
+				drawShape(getTextOutline(this.pointTextContainer.text,
+						this.pointTextContainer.x, this.pointTextContainer.y,
+						this.pointTextContainer.paintBack), this.pointTextContainer.paintBack);
+			}
+			drawShape(getTextOutline(this.pointTextContainer.text, this.pointTextContainer.x,
+					this.pointTextContainer.y, this.pointTextContainer.paintFront),
+					this.pointTextContainer.paintFront);
+		}
+	}
+
+	@Override
+	void drawTileFrame() {
+		this.graphics.setColor(Color.BLACK);
+		this.graphics.setStroke(TILE_FRAME_STROKE);
+		this.graphics.drawRect(0, 0, this.image.getWidth(), this.image.getHeight());
+	}
+
+	@Override
+	void drawWayNames(ArrayList<WayTextContainer> drawWayNames) {
+		for (this.arrayListIndex = drawWayNames.size() - 1; this.arrayListIndex >= 0; --this.arrayListIndex) {
+			this.pathTextContainer = drawWayNames.get(this.arrayListIndex);
+			drawShape(getTextOnPath(this.pathTextContainer.text, this.pathTextContainer.paint,
+					this.pathTextContainer.coordinates), this.pathTextContainer.paint);
+		}
+	}
+
+	@Override
+	void drawWays(ArrayList<ArrayList<ArrayList<ShapePaintContainer>>> drawWays, byte layers,
+			byte levelsPerLayer) {
+		for (this.currentLayer = 0; this.currentLayer < layers; ++this.currentLayer) {
+			this.shapePaintContainers = drawWays.get(this.currentLayer);
+			for (this.currentLevel = 0; this.currentLevel < levelsPerLayer; ++this.currentLevel) {
+				this.wayList = this.shapePaintContainers.get(this.currentLevel);
+				for (this.arrayListIndex = this.wayList.size() - 1; this.arrayListIndex >= 0; --this.arrayListIndex) {
+					this.shapePaintContainer = this.wayList.get(this.arrayListIndex);
+					this.path.reset();
+					switch (this.shapePaintContainer.shapeContainer.getShapeType()) {
+						case CIRCLE:
+							this.circleContainer = (CircleContainer) this.shapePaintContainer.shapeContainer;
+							this.circle.setFrame(this.circleContainer.x
+									- this.circleContainer.radius, this.circleContainer.y
+									- this.circleContainer.radius,
+									this.circleContainer.radius * 2,
+									this.circleContainer.radius * 2);
+							this.path.append(this.circle, false);
+							break;
+						case WAY:
+							this.complexWayContainer = (WayContainer) this.shapePaintContainer.shapeContainer;
+							this.coordinates = this.complexWayContainer.coordinates;
+							for (int j = 0; j < this.coordinates.length; ++j) {
+								// make sure that the coordinates sequence is not empty
+								if (this.coordinates[j].length > 2) {
+									this.path.moveTo(this.coordinates[j][0],
+											this.coordinates[j][1]);
+									for (int i = 2; i < this.coordinates[j].length; i += 2) {
+										this.path.lineTo(this.coordinates[j][i],
+												this.coordinates[j][i + 1]);
+									}
+								}
+							}
+							break;
+					}
+					drawShape(this.path, this.shapePaintContainer.paint);
+				}
+			}
+		}
+	}
+
+	@Override
+	void finishMapGeneration() {
+		// do nothing
+	}
+
+	/**
+	 * Returns the image on which the last tile has been rendered. The image is reused for the
+	 * next tile.
+	 * 
+	 * @return the image of the last tile.
+	 */
+	BufferedImage getImage() {
+		return this.image;
+	}
+
+	@Override
+	void getTextBounds(String text, RenderStyle style, int[] bounds) {
+		Rectangle2D visualBounds = getFont(style).createGlyphVector(
+				this.graphics.getFontRenderContext(), text).getVisualBounds();
+		bounds[0] = (int) Math.ceil(visualBounds.getMaxX())
+				- (int) Math.floor(visualBounds.getMinX());
+		bounds[1] = (int) Math.ceil(visualBounds.getMaxY())
+				- (int) Math.floor(visualBounds.getMinY());
+	}
+
+	@Override
+	float getTextWidth(String text, RenderStyle style) {
+		return (float) getFont(style).getStringBounds(text,
+				this.graphics.getFontRenderContext()).getWidth();
+	}
+
+	@Override
+	String getThreadName() {
+		return THREAD_NAME;
+	}
+
+	@Override
+	void onAttachedToWindow() {
+		// do nothing
+	}
+
+	@Override
+	void onDetachedFromWindow() {
+		// do nothing
+	}
+
+	@Override
+	void setupMapGenerator(Bitmap bitmap) {
+		// do nothing, all tiles are drawn on the image of this renderer
+	}
+}
@@ -21,8 +21,6 @@ import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.PriorityQueue;
 
-import android.graphics.Rect;
-
 /**
  * This class place the labels form POIs, area labels and normal labels. The main target is
  * avoiding collisions of these different labels.
@@ -60,16 +58,19 @@ class LabelPlacement {
 	// distance adjustments
 	private int startDistanceToSymbols = 4;
 	private int symbolDistanceToSymbol = 2;
+	private int tileSize = Tile.TILE_SIZE;
 
+	CollisionGrid collisionGrid;
 	DependencyCache dependencyCache;
+	long dependencyCacheStartTime;
+	long dependencyCacheTime;
 	PointTextContainer label;
-	Rect rect1;
-	Rect rect2;
 	ReferencePosition reference;
 	SymbolContainer smb;
 
 	LabelPlacement() {
-		dependencyCache = new DependencyCache();
+		collisionGrid = new CollisionGrid();
+		dependencyCache = new DependencyCache(collisionGrid);
 	}
 
 	/**
@@ -81,7 +82,7 @@ class LabelPlacement {
 	private void centerLabels(ArrayList<PointTextContainer> labels) {
 		for (int i = 0; i < labels.size(); i++) {
 			label = labels.get(i);
-			label.x = label.x - label.boundary.width() / 2;
+			label.x = label.x - label.boundaryWidth / 2;
 		}
 	}
 
@@ -94,7 +95,7 @@ class LabelPlacement {
 	private void centerLabels2(ArrayList<PointTextContainer> labels) {
 		for (int i = 0; i < labels.size(); i++) {
 			label = labels.get(i);
-			label.x = label.x - label.boundary.width() / 2;
+			label.x = label.x - label.boundaryWidth / 2;
 			if (label.symbol != null) {
 				label.y = label.y - label.symbol.symbol.getHeight() / 2 - 3;
 			}
@@ -109,7 +110,9 @@ class LabelPlacement {
 		removeOverlappingAreaLabels(areaLabels);
 
 		if (areaLabels.size() != 0) {
+			dependencyCacheStartTime = System.nanoTime();
 			dependencyCache.removeAreaLabelsInalreadyDrawnareas(areaLabels);
+			dependencyCacheTime += System.nanoTime() - dependencyCacheStartTime;
 		}
 	}
 
@@ -120,7 +123,9 @@ class LabelPlacement {
 	private void preprocessSymbols(ArrayList<SymbolContainer> symbols) {
 		removeOutOfTileSymbols(symbols);
 		removeOverlappingSymbols(symbols);
+		dependencyCacheStartTime = System.nanoTime();
 		dependencyCache.removeSymbolsFromDrawnAreas(symbols);
+		dependencyCacheTime += System.nanoTime() - dependencyCacheStartTime;
 	}
 
 	/**
@@ -192,28 +197,28 @@ class LabelPlacement {
 					tmp = labels.get(z);
 
 					// up
-					refPos[z * 4] = new ReferencePosition(tmp.x - tmp.boundary.width() / 2,
-							tmp.y - tmp.symbol.symbol.getHeight() / 2 - dis, z, tmp.boundary
-									.width(), tmp.boundary.height(), tmp.symbol);
+					refPos[z * 4] = new ReferencePosition(tmp.x - tmp.boundaryWidth / 2,
+							tmp.y - tmp.symbol.symbol.getHeight() / 2 - dis, z, tmp.boundaryWidth,
+							tmp.boundaryHeight, tmp.symbol);
 					// down
-					refPos[z * 4 + 1] = new ReferencePosition(tmp.x - tmp.boundary.width() / 2,
-							tmp.y + tmp.symbol.symbol.getHeight() / 2 + tmp.boundary.height()
-									+ dis, z, tmp.boundary.width(), tmp.boundary.height(),
+					refPos[z * 4 + 1] = new ReferencePosition(tmp.x - tmp.boundaryWidth / 2,
+							tmp.y + tmp.symbol.symbol.getHeight() / 2 + tmp.boundaryHeight
+									+ dis, z, tmp.boundaryWidth, tmp.boundaryHeight,
 							tmp.symbol);
 					// left
 					refPos[z * 4 + 2] = new ReferencePosition(tmp.x
-							- tmp.symbol.symbol.getWidth() / 2 - tmp.boundary.width() - dis,
-							tmp.y + tmp.boundary.height() / 2, z, tmp.boundary.width(),
-							tmp.boundary.height(), tmp.symbol);
+							- tmp.symbol.symbol.getWidth() / 2 - tmp.boundaryWidth - dis,
+							tmp.y + tmp.boundaryHeight / 2, z, tmp.boundaryWidth,
+							tmp.boundaryHeight, tmp.symbol);
 					// right
 					refPos[z * 4 + 3] = new ReferencePosition(tmp.x
 							+ tmp.symbol.symbol.getWidth() / 2 + dis, tmp.y
-							+ tmp.boundary.height() / 2 - 0.1f, z, tmp.boundary.width(),
-							tmp.boundary.height(), tmp.symbol);
+							+ tmp.boundaryHeight / 2 - 0.1f, z, tmp.boundaryWidth,
+							tmp.boundaryHeight, tmp.symbol);
 				} else {
 					refPos[z * 4] = new ReferencePosition(labels.get(z).x
-							- ((labels.get(z).boundary.width()) / 2), labels.get(z).y, z,
-							labels.get(z).boundary.width(), labels.get(z).boundary.height(),
+							- ((labels.get(z).boundaryWidth) / 2), labels.get(z).y, z,
+							labels.get(z).boundaryWidth, labels.get(z).boundaryHeight,
 							null);
 					refPos[z * 4 + 1] = null;
 					refPos[z * 4 + 2] = null;
@@ -239,7 +244,8 @@ class LabelPlacement {
 			label = labels.get(reference.nodeNumber);
 
 			resolutionSet.add(new PointTextContainer(label.text, reference.x, reference.y,
-					label.paintFront, label.paintBack, label.symbol));
+					label.paintFront, label.paintBack, label.symbol, label.boundaryWidth,
+					label.boundaryHeight));
 
 			if (priorUp.size() == 0) {
 				return resolutionSet;
@@ -345,17 +351,17 @@ class LabelPlacement {
 			label = labels.get(z);
 
 			if (label.symbol != null) {
-				refPos[z * 2] = new ReferencePosition(label.x - (label.boundary.width() / 2)
+				refPos[z * 2] = new ReferencePosition(label.x - (label.boundaryWidth / 2)
 						- 0.1f,
-						label.y - label.boundary.height() - this.startDistanceToSymbols, z,
-						label.boundary.width(), label.boundary.height(), label.symbol);
+						label.y - label.boundaryHeight - this.startDistanceToSymbols, z,
+						label.boundaryWidth, label.boundaryHeight, label.symbol);
 				refPos[z * 2 + 1] = new ReferencePosition(label.x
-						- (label.boundary.width() / 2), label.y
+						- (label.boundaryWidth / 2), label.y
 						+ label.symbol.symbol.getHeight() + this.startDistanceToSymbols, z,
-						label.boundary.width(), label.boundary.height(), label.symbol);
+						label.boundaryWidth, label.boundaryHeight, label.symbol);
 			} else {
-				refPos[z * 2] = new ReferencePosition(label.x - (label.boundary.width() / 2)
-						- 0.1f, label.y, z, label.boundary.width(), label.boundary.height(),
+				refPos[z * 2] = new ReferencePosition(label.x - (label.boundaryWidth / 2)
+						- 0.1f, label.y, z, label.boundaryWidth, label.boundaryHeight,
 						null);
 				refPos[z * 2 + 1] = null;
 			}
@@ -378,7 +384,8 @@ class LabelPlacement {
 			label = labels.get(reference.nodeNumber);
 
 			resolutionSet.add(new PointTextContainer(label.text, reference.x, reference.y,
-					label.paintFront, label.paintBack, reference.symbol));
+					label.paintFront, label.paintBack, reference.symbol, label.boundaryWidth,
+					label.boundaryHeight));
 
 			// Removes the other position that is a possible position for the label of one point
 			// of interest
@@ -446,49 +453,33 @@ class LabelPlacement {
 			ArrayList<SymbolContainer> symbols, ArrayList<PointTextContainer> areaLabels) {
 		int dis = labelDistanceToSymbol;
 
+		collisionGrid.clear();
 		for (int i = 0; i < symbols.size(); i++) {
 			smb = symbols.get(i);
-			rect1 = new android.graphics.Rect((int) smb.x - dis, (int) smb.y - dis, (int) smb.x
+			collisionGrid.add((int) smb.x - dis, (int) smb.y - dis, (int) smb.x
 					+ smb.symbol.getWidth() + dis, (int) smb.y + smb.symbol.getHeight() + dis);
-
-			for (int y = 0; y < refPos.length; y++) {
-				if (refPos[y] != null) {
-
-					rect2 = new android.graphics.Rect((int) refPos[y].x,
-							(int) (refPos[y].y - refPos[y].height),
-							(int) (refPos[y].x + refPos[y].width), (int) (refPos[y].y));
-
-					if (android.graphics.Rect.intersects(rect2, rect1)) {
-						refPos[y] = null;
-					}
-				}
-
-			}
 		}
 
 		dis = this.labelDistanceToLabel;
 
 		for (PointTextContainer areaLabel : areaLabels) {
+			collisionGrid.add((int) areaLabel.x - dis, (int) areaLabel.y
+					- areaLabel.boundaryHeight - dis, (int) areaLabel.x
+					+ areaLabel.boundaryWidth + dis, (int) areaLabel.y + dis);
+		}
 
-			rect1 = new android.graphics.Rect((int) areaLabel.x - dis, (int) areaLabel.y
-					- areaLabel.boundary.height() - dis, (int) areaLabel.x
-					+ areaLabel.boundary.width() + dis, (int) areaLabel.y + dis);
-
-			for (int y = 0; y < refPos.length; y++) {
-				if (refPos[y] != null) {
-
-					rect2 = new android.graphics.Rect((int) refPos[y].x,
+		for (int y = 0; y < refPos.length; y++) {
+			if (refPos[y] != null
+					&& collisionGrid.intersects((int) refPos[y].x,
 							(int) (refPos[y].y - refPos[y].height),
-							(int) (refPos[y].x + refPos[y].width), (int) (refPos[y].y));
-
-					if (android.graphics.Rect.intersects(rect2, rect1)) {
-						refPos[y] = null;
-					}
-				}
+							(int) (refPos[y].x + refPos[y].width), (int) (refPos[y].y))) {
+				refPos[y] = null;
 			}
 		}
 
+		dependencyCacheStartTime = System.nanoTime();
 		dependencyCache.removeReferencePointsFromDependencyCache(refPos);
+		dependencyCacheTime += System.nanoTime() - dependencyCacheStartTime;
 	}
 
 	/**
@@ -501,19 +492,19 @@ class LabelPlacement {
 		for (int i = 0; i < areaLabels.size(); i++) {
 			label = areaLabels.get(i);
 
-			if (label.x > Tile.TILE_SIZE) {
+			if (label.x > this.tileSize) {
 				areaLabels.remove(i);
 
 				i--;
-			} else if (label.y - label.boundary.height() > Tile.TILE_SIZE) {
+			} else if (label.y - label.boundaryHeight > this.tileSize) {
 				areaLabels.remove(i);
 
 				i--;
-			} else if (label.x + label.boundary.width() < 0.0f) {
+			} else if (label.x + label.boundaryWidth < 0.0f) {
 				areaLabels.remove(i);
 
 				i--;
-			} else if (label.y + label.boundary.height() < 0.0f) {
+			} else if (label.y + label.boundaryHeight < 0.0f) {
 				areaLabels.remove(i);
 
 				i--;
@@ -531,15 +522,15 @@ class LabelPlacement {
 		for (int i = 0; i < labels.size();) {
 			label = labels.get(i);
 
-			if (label.x - label.boundary.width() / 2 > Tile.TILE_SIZE) {
+			if (label.x - label.boundaryWidth / 2 > this.tileSize) {
 				labels.remove(i);
 				label = null;
 
-			} else if (label.y - label.boundary.height() > Tile.TILE_SIZE) {
+			} else if (label.y - label.boundaryHeight > this.tileSize) {
 				labels.remove(i);
 				label = null;
 
-			} else if ((label.x - label.boundary.width() / 2 + label.boundary.width()) < 0.0f) {
+			} else if ((label.x - label.boundaryWidth / 2 + label.boundaryWidth) < 0.0f) {
 				labels.remove(i);
 				label = null;
 
@@ -563,10 +554,10 @@ class LabelPlacement {
 		for (int i = 0; i < symbols.size();) {
 			smb = symbols.get(i);
 
-			if (smb.x > Tile.TILE_SIZE) {
+			if (smb.x > this.tileSize) {
 				symbols.remove(i);
 
-			} else if (smb.y > Tile.TILE_SIZE) {
+			} else if (smb.y > this.tileSize) {
 				symbols.remove(i);
 
 			} else if (smb.x + smb.symbol.getWidth() < 0.0f) {
@@ -590,28 +581,22 @@ class LabelPlacement {
 	 */
 	private void removeOverlappingAreaLabels(ArrayList<PointTextContainer> areaLabels) {
 		int dis = this.labelDistanceToLabel;
+		int numberOfAreaLabels = 0;
 
+		// an area label is kept if it does not overlap any previously kept area label
+		collisionGrid.clear();
 		for (int x = 0; x < areaLabels.size(); x++) {
 			label = areaLabels.get(x);
-			rect1 = new android.graphics.Rect((int) label.x - dis, (int) label.y - dis,
-					(int) (label.x + label.boundary.width()) + dis, (int) (label.y
-							+ label.boundary.height() + dis));
-
-			for (int y = x + 1; y < areaLabels.size(); y++) {
-				if (y != x) {
-					label = areaLabels.get(y);
-					rect2 = new android.graphics.Rect((int) label.x, (int) label.y,
-							(int) (label.x + label.boundary.width()),
-							(int) (label.y + label.boundary.height()));
-
-					if (android.graphics.Rect.intersects(rect1, rect2)) {
-						areaLabels.remove(y);
-
-						y--;
-					}
-				}
+			if (!collisionGrid.intersects((int) label.x, (int) label.y,
+					(int) (label.x + label.boundaryWidth),
+					(int) (label.y + label.boundaryHeight))) {
+				collisionGrid.add((int) label.x - dis, (int) label.y - dis,
+						(int) (label.x + label.boundaryWidth) + dis, (int) (label.y
+								+ label.boundaryHeight + dis));
+				areaLabels.set(numberOfAreaLabels++, label);
 			}
 		}
+		areaLabels.subList(numberOfAreaLabels, areaLabels.size()).clear();
 	}
 
 	/**
@@ -625,27 +610,24 @@ class LabelPlacement {
 	private void removeOverlappingSymbolsWithAreaLabels(ArrayList<SymbolContainer> symbols,
 			ArrayList<PointTextContainer> pTC) {
 		int dis = labelDistanceToSymbol;
+		int numberOfSymbols = 0;
 
+		collisionGrid.clear();
 		for (int x = 0; x < pTC.size(); x++) {
 			label = pTC.get(x);
+			collisionGrid.add((int) label.x - dis, (int) (label.y - label.boundaryHeight)
+					- dis, (int) (label.x + label.boundaryWidth + dis), (int) (label.y + dis));
+		}
 
-			rect1 = new android.graphics.Rect((int) label.x - dis,
-					(int) (label.y - label.boundary.height()) - dis, (int) (label.x
-							+ label.boundary.width() + dis), (int) (label.y + dis));
-
-			for (int y = 0; y < symbols.size(); y++) {
-				smb = symbols.get(y);
-
-				rect2 = (new android.graphics.Rect((int) smb.x, (int) smb.y,
-						(int) (smb.x + smb.symbol.getWidth()), (int) (smb.y + smb.symbol
-								.getHeight())));
-
-				if (android.graphics.Rect.intersects(rect1, rect2)) {
-					symbols.remove(y);
-					y--;
-				}
+		for (int y = 0; y < symbols.size(); y++) {
+			smb = symbols.get(y);
+			if (!collisionGrid.intersects((int) smb.x, (int) smb.y,
+					(int) (smb.x + smb.symbol.getWidth()), (int) (smb.y + smb.symbol
+							.getHeight()))) {
+				symbols.set(numberOfSymbols++, smb);
 			}
 		}
+		symbols.subList(numberOfSymbols, symbols.size()).clear();
 	}
 
 	int getlabelDistanceToLabel() {
@@ -671,7 +653,8 @@ class LabelPlacement {
 	/**
 	 * The inputs are all the label and symbol objects of the current tile. The output is
 	 * overlap free label and symbol placement with the greedy strategy. The placement model is
-	 * either the two fixed point or the four fixed point model.
+	 * either the two fixed point or the four fixed point model. This method is synchronized,
+	 * so that the label placement can be shared by multiple MapGenerator threads.
 	 * 
 	 * @param labels
 	 *            labels from the current tile.
@@ -681,14 +664,26 @@ class LabelPlacement {
 	 *            area labels from the current tile.
 	 * @param cT
 	 *            current tile with the x,y- coordinates and the zoom level.
+	 * @param cTSize
+	 *            width and height of the current tile in pixels, larger than a single tile if
+	 *            a metatile is rendered.
+	 * @param tileMetrics
+	 *            the measurements of the current tile, may be null.
 	 * @return the processed list of labels.
 	 */
-	ArrayList<PointTextContainer> placeLabels(ArrayList<PointTextContainer> labels,
+	synchronized ArrayList<PointTextContainer> placeLabels(ArrayList<PointTextContainer> labels,
 			ArrayList<SymbolContainer> symbols, ArrayList<PointTextContainer> areaLabels,
-			Tile cT) {
+			Tile cT, int cTSize, long[] tileMetrics) {
 		ArrayList<PointTextContainer> returnLabels = labels;
+		dependencyCacheTime = 0;
+		if (cTSize != this.tileSize) {
+			this.tileSize = cTSize;
+			collisionGrid.setTileSize(this.tileSize);
+		}
 		if (!DEFAULT) {
-			dependencyCache.generateTileAndDependencyOnTile(cT);
+			dependencyCacheStartTime = System.nanoTime();
+			dependencyCache.generateTileAndDependencyOnTile(cT, this.tileSize);
+			dependencyCacheTime += System.nanoTime() - dependencyCacheStartTime;
 
 			preprocessAreaLabels(areaLabels);
 
@@ -700,8 +695,10 @@ class LabelPlacement {
 
 			removeOverlappingSymbolsWithAreaLabels(symbols, areaLabels);
 
+			dependencyCacheStartTime = System.nanoTime();
 			dependencyCache.removeOverlappingObjectsWithDependencyOnTile(returnLabels,
 					areaLabels, symbols);
+			dependencyCacheTime += System.nanoTime() - dependencyCacheStartTime;
 
 			if (returnLabels.size() != 0) {
 				switch (this.placementOption) {
@@ -716,11 +713,17 @@ class LabelPlacement {
 				}
 			}
 
+			dependencyCacheStartTime = System.nanoTime();
 			dependencyCache.fillDependencyOnTile(returnLabels, symbols, areaLabels);
+			dependencyCacheTime += System.nanoTime() - dependencyCacheStartTime;
 		} else {
 			centerLabels(areaLabels);
 			centerLabels2(returnLabels);
 		}
+
+		if (tileMetrics != null) {
+			tileMetrics[MapGeneratorMetrics.DEPENDENCY_CACHE_TIME] = dependencyCacheTime;
+		}
 		return returnLabels;
 	}
 
@@ -733,25 +736,21 @@ class LabelPlacement {
 	 */
 	void removeOverlappingSymbols(ArrayList<SymbolContainer> symbols) {
 		int dis = this.symbolDistanceToSymbol;
+		int numberOfSymbols = 0;
 
+		// a symbol is kept if it does not overlap any previously kept symbol
+		collisionGrid.clear();
 		for (int x = 0; x < symbols.size(); x++) {
 			smb = symbols.get(x);
-			rect1 = new android.graphics.Rect((int) smb.x - dis, (int) smb.y - dis, (int) smb.x
-					+ smb.symbol.getWidth() + dis, (int) smb.y + smb.symbol.getHeight() + dis);
-
-			for (int y = x + 1; y < symbols.size(); y++) {
-				if (y != x) {
-					smb = symbols.get(y);
-					rect2 = (new android.graphics.Rect((int) smb.x, (int) smb.y, (int) smb.x
-							+ smb.symbol.getWidth(), (int) smb.y + smb.symbol.getHeight()));
-
-					if (android.graphics.Rect.intersects(rect2, rect1)) {
-						symbols.remove(y);
-						y--;
-					}
-				}
+			if (!collisionGrid.intersects((int) smb.x, (int) smb.y, (int) smb.x
+					+ smb.symbol.getWidth(), (int) smb.y + smb.symbol.getHeight())) {
+				collisionGrid.add((int) smb.x - dis, (int) smb.y - dis, (int) smb.x
+						+ smb.symbol.getWidth() + dis, (int) smb.y + smb.symbol.getHeight()
+						+ dis);
+				symbols.set(numberOfSymbols++, smb);
 			}
 		}
+		symbols.subList(numberOfSymbols, symbols.size()).clear();
 	}
 
 	void setlabelDistanceToLabel(int labelDistanceToLabel) {
@@ -769,4 +768,4 @@ class LabelPlacement {
 	void setsymbolDistanceToSymbol(int symbolDistanceToSymbol) {
 		this.symbolDistanceToSymbol = symbolDistanceToSymbol;
 	}
-}
\ No newline at end of file
+}
@@ -16,12 +16,103 @@
  */
 package org.mapsforge.android.maps;
 
+import java.io.PrintStream;
+
 import android.util.Log;
 
 /**
- * Class used for logging text to the console.
+ * Class used for logging text to the console. The messages are passed to an exchangeable
+ * {@link Output}, which writes to the Android log on a Dalvik VM and to the standard error
+ * stream on any other JVM, so that the classes which log messages can be used without Android.
  */
 final class Logger {
+	/**
+	 * Receives the messages of the Logger.
+	 */
+	interface Output {
+		/**
+		 * Writes a debug message.
+		 * 
+		 * @param message
+		 *            the message.
+		 */
+		void debug(String message);
+
+		/**
+		 * Writes an error message.
+		 * 
+		 * @param message
+		 *            the message.
+		 */
+		void error(String message);
+	}
+
+	/**
+	 * Writes the messages to the Android log. Android classes are only loaded when this class
+	 * is used.
+	 */
+	private static class AndroidOutput implements Output {
+		private static final String TAG = "osm";
+
+		AndroidOutput() {
+			// do nothing
+		}
+
+		@Override
+		public void debug(String message) {
+			Log.d(TAG, message);
+		}
+
+		@Override
+		public void error(String message) {
+			Log.e(TAG, message);
+		}
+	}
+
+	/**
+	 * Writes the messages to a stream.
+	 */
+	static class StreamOutput implements Output {
+		private final PrintStream stream;
+
+		/**
+		 * @param stream
+		 *            the stream to which the messages are written.
+		 */
+		StreamOutput(PrintStream stream) {
+			this.stream = stream;
+		}
+
+		@Override
+		public void debug(String message) {
+			this.stream.println(message);
+		}
+
+		@Override
+		public void error(String message) {
+			this.stream.println(message);
+		}
+	}
+
+	/**
+	 * Name of the Android VM, as returned by the system property "java.vm.name".
+	 */
+	private static final String DALVIK_VM_NAME = "Dalvik";
+
+	private static volatile Output output = createDefaultOutput();
+
+	/**
+	 * Returns the output which is used if no other output has been set.
+	 * 
+	 * @return the Android log on a Dalvik VM, the standard error stream otherwise.
+	 */
+	private static Output createDefaultOutput() {
+		if (DALVIK_VM_NAME.equals(System.getProperty("java.vm.name"))) {
+			return new AndroidOutput();
+		}
+		return new StreamOutput(System.err);
+	}
+
 	/**
 	 * Log a simple string message with debug level.
 	 * 
@@ -29,7 +120,7 @@ final class Logger {
 	 *            the log message to be printed.
 	 */
 	static void d(String str) {
-		Log.d("osm", Thread.currentThread().getName() + ": " + str);
+		output.debug(Thread.currentThread().getName() + ": " + str);
 	}
 
 	/**
@@ -48,7 +139,17 @@ final class Logger {
 					.append(stack[i].getFileName()).append(":")
 					.append(stack[i].getLineNumber()).append(")");
 		}
-		Log.e("osm", stringBuilder.toString());
+		output.error(stringBuilder.toString());
+	}
+
+	/**
+	 * Sets the output to which all further messages are written.
+	 * 
+	 * @param newOutput
+	 *            the new output.
+	 */
+	static void setOutput(Output newOutput) {
+		output = newOutput;
 	}
 
 	/**
@@ -57,4 +158,4 @@ final class Logger {
 	private Logger() {
 		// do nothing
 	}
-}
\ No newline at end of file
+}
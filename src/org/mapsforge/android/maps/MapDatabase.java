@@ -20,9 +20,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.HashMap;
 
-import android.graphics.Rect;
 
 /**
  * A database class for reading binary OSM files. Byte order is big-endian.
@@ -44,70 +45,30 @@ public class MapDatabase {
 	private static final int BINARY_OSM_VERSION_MIN = 1;
 
 	/**
-	 * Bitmask for the debug flag in the file header.
+	 * Default capacity of the block cache in bytes.
 	 */
-	private static final int HEADER_BITMASK_DEBUG = 0x80;
+	private static final int DEFAULT_BLOCK_CACHE_SIZE = 2000000;
 
 	/**
-	 * Bitmask for the start position in the file header.
+	 * Default amount of index blocks that the index cache should store.
 	 */
-	private static final int HEADER_BITMASK_START_POSITION = 0x40;
+	private static final int DEFAULT_INDEX_CACHE_SIZE = 64;
 
 	/**
-	 * Amount of cache blocks that the index cache should store.
+	 * Bitmask for the debug flag in the file header.
 	 */
-	private static final int INDEX_CACHE_SIZE = 64;
+	private static final int HEADER_BITMASK_DEBUG = 0x80;
 
 	/**
-	 * Initial length of the way nodes array.
+	 * Bitmask for the start position in the file header.
 	 */
-	private static final int INITIAL_WAY_NODES_CAPACITY = 2048;
+	private static final int HEADER_BITMASK_START_POSITION = 0x40;
 
 	/**
 	 * Load factor of the internal HashMap.
 	 */
 	private static final float LOAD_FACTOR = 0.6f;
 
-	/**
-	 * Maximum size of a single block that is supported by this implementation.
-	 */
-	private static final int MAXIMUM_BLOCK_SIZE = 2000000;
-
-	/**
-	 * Maximum way nodes sequence length which is considered as valid.
-	 */
-	private static final int MAXIMUM_WAY_NODES_SEQUENCE_LENGTH = 8192;
-
-	/**
-	 * Bitmask for the optional node feature "elevation".
-	 */
-	private static final int NODE_FEATURE_BITMASK_ELEVATION = 0x40;
-
-	/**
-	 * Bitmask for the optional node feature "house number".
-	 */
-	private static final int NODE_FEATURE_BITMASK_HOUSE_NUMBER = 0x20;
-
-	/**
-	 * Bitmask for the optional node feature "name".
-	 */
-	private static final int NODE_FEATURE_BITMASK_NAME = 0x80;
-
-	/**
-	 * Bitmask for the node layer.
-	 */
-	private static final int NODE_LAYER_BITMASK = 0xf0;
-
-	/**
-	 * Bit shift for calculating the node layer.
-	 */
-	private static final int NODE_LAYER_SHIFT = 4;
-
-	/**
-	 * Bitmask for the number of node tags.
-	 */
-	private static final int NODE_NUMBER_OF_TAGS_BITMASK = 0x0f;
-
 	/**
 	 * Maximum size of the remaining file header in bytes.
 	 */
@@ -118,215 +79,86 @@ public class MapDatabase {
 	 */
 	private static final int REMAINING_HEADER_SIZE_MIN = 50;
 
-	/**
-	 * Length of the debug signature at the beginning of each block.
-	 */
-	private static final byte SIGNATURE_LENGTH_BLOCK = 32;
-
 	/**
 	 * Length of the debug signature at the beginning of the index.
 	 */
 	private static final byte SIGNATURE_LENGTH_INDEX = 16;
 
 	/**
-	 * Length of the debug signature at the beginning of each node.
-	 */
-	private static final byte SIGNATURE_LENGTH_NODE = 32;
-
-	/**
-	 * Length of the debug signature at the beginning of each way.
-	 */
-	private static final byte SIGNATURE_LENGTH_WAY = 32;
-
-	/**
-	 * Bitmask for the compression mode of way nodes.
-	 */
-	private static final int WAY_COMPRESSION_MODE_BITMASK = 0x3;
-
-	/**
-	 * Bitmask for the optional way feature "label position".
-	 */
-	private static final int WAY_FEATURE_BITMASK_LABEL_POSITION = 0x20;
-
-	/**
-	 * Bitmask for the optional way feature "multipolygon".
-	 */
-	private static final int WAY_FEATURE_BITMASK_MULTIPOLYGON = 0x10;
-
-	/**
-	 * Bitmask for the optional way feature "name".
-	 */
-	private static final int WAY_FEATURE_BITMASK_NAME = 0x80;
-
-	/**
-	 * Bitmask for the optional way feature "reference".
-	 */
-	private static final int WAY_FEATURE_BITMASK_REF = 0x40;
-
-	/**
-	 * Bitmask for the way layer.
-	 */
-	private static final int WAY_LAYER_BITMASK = 0xf0;
-
-	/**
-	 * Bit shift for calculating the way layer.
-	 */
-	private static final int WAY_LAYER_SHIFT = 4;
-
-	/**
-	 * Compression mode indicates 1 byte offset compressed way nodes.
-	 */
-	private static final byte WAY_NODES_COMPRESSED_1_BYTE = 3;
-
-	/**
-	 * Compression mode indicates 2 bytes offset compressed way nodes.
-	 */
-	private static final byte WAY_NODES_COMPRESSED_2_BYTES = 2;
-
-	/**
-	 * Compression mode indicates 3 bytes offset compressed way nodes.
-	 */
-	private static final byte WAY_NODES_COMPRESSED_3_BYTES = 1;
-
-	/**
-	 * Compression mode indicates uncompressed way nodes.
-	 */
-	private static final byte WAY_NODES_UNCOMPRESSED = 0;
-
-	/**
-	 * Bitmask for the number of way tags.
-	 */
-	private static final int WAY_NUMBER_OF_TAGS_BITMASK = 0x0f;
-
-	/**
-	 * Bitmask for the number of relevant way tags.
-	 */
-	private static final int WAY_RELEVANT_TAGS_BITMASK = 0xe0;
-
-	/**
-	 * Bit shift for calculating the number of relevant way tags.
+	 * Reads only the header data of a map file without opening it for queries.
+	 *
+	 * @param fileName
+	 *            the path to the map file.
+	 * @return the date of the map data, or -1 if the file is not a valid map file.
 	 */
-	private static final int WAY_RELEVANT_TAGS_SHIFT = 5;
+	static long readMapDate(String fileName) {
+		MapDatabase mapDatabase = new MapDatabase();
+		try {
+			mapDatabase.inputFile = new RandomAccessFile(fileName, "r");
+			mapDatabase.fileSize = mapDatabase.inputFile.length();
+			if (mapDatabase.readFileHeader()) {
+				return mapDatabase.mapDate;
+			}
+		} catch (IOException e) {
+			Logger.d("cannot read file header: " + fileName);
+		} finally {
+			mapDatabase.closeFile();
+		}
+		return -1;
+	}
 
 	private byte baseZoomLevel;
-	private int blockEntriesTableOffset;
-	private long blockNumber;
-	private String blockSignature;
+	private MapDatabaseBlockCache blockCache;
+	private int blockCacheSize;
 	private int boundaryBottom;
 	private int boundaryLeft;
 	private int boundaryRight;
 	private int boundaryTop;
 	private int bufferPosition;
 	private String commentText;
-	private long currentBlockPointer;
-	private int currentBlockSize;
-	private long currentColumn;
-	private long currentRow;
 	private MapDatabaseIndexCache databaseIndexCache;
 	private boolean debugFile;
-	private boolean[] defaultTagIds;
-	private short elementCounter;
+	private final MapDatabaseQueryContext defaultQueryContext;
 	private File file;
 	private long fileSize;
 	private int fileVersionNumber;
-	private int firstWayOffset;
-	private long fromBaseTileX;
-	private long fromBaseTileY;
-	private long fromBlockX;
-	private long fromBlockY;
 	private byte globalMaximumZoomLevel;
 	private byte globalMinimumZoomLevel;
+	private boolean hasMapBoundary;
 	private boolean headerStartPosition;
+	private int indexCacheSize;
 	private long indexStartAddress;
-	private int[] innerWay;
-	private short innerWayNodesSequenceLength;
-	private short innerWayNumberOfWayNodes;
+	private FileChannel inputChannel;
 	private RandomAccessFile inputFile;
 	private String magicByte;
-	private Rect mapBoundary;
 	private long mapDate;
 	private MapFileParameters mapFileParameters;
 	private long mapFileSize;
 	private MapFileParameters[] mapFilesList;
 	private MapFileParameters[] mapFilesLookupTable;
+	private ByteBuffer[] mappedMapFilesLookupTable;
+	private boolean memoryMapping;
 	private byte metaFlags;
-	private long nextBlockPointer;
-	private String nodeElevation;
-	private byte nodeFeatureByte;
-	private boolean nodeFeatureElevation;
-	private boolean nodeFeatureHouseNumber;
-	private boolean nodeFeatureName;
-	private String nodeHouseNumber;
-	private int nodeLatitude;
-	private byte nodeLayer;
-	private int nodeLongitude;
-	private String nodeName;
-	private byte nodeNumberOfTags;
-	private String nodeSignature;
-	private short nodesOnZoomLevel;
-	private byte nodeSpecialByte;
 	private String nodeTag;
 	private short nodeTagId;
-	private boolean[] nodeTagIds;
 	private HashMap<String, Short> nodeTags;
 	private byte numberOfMapFiles;
 	private short numberOfNodeTags;
 	private short numberOfWayTags;
-	private long parentTileX;
-	private long parentTileY;
 	private String projectionName;
-	private boolean queryReadWayNames;
-	private int queryTileBitmask;
-	private int queryZoomLevel;
 	private byte[] readBuffer;
 	private int remainingHeaderSize;
 	private long startAddress;
 	private int startPositionLatitude;
 	private int startPositionLongitude;
-	private boolean stopCurrentQuery;
 	private short stringLength;
-	private long subtileX;
-	private long subtileY;
 	private byte tempByte;
 	private int tempInt;
 	private short tempShort;
 	private short tilePixelSize;
-	private long toBaseTileX;
-	private long toBaseTileY;
-	private long toBlockX;
-	private long toBlockY;
-	private boolean useTileBitmask;
-	private byte wayFeatureByte;
-	private boolean wayFeatureLabelPosition;
-	private boolean wayFeatureMultipolygon;
-	private boolean wayFeatureName;
-	private boolean wayFeatureRef;
-	private int[][] wayInnerWays;
-	private int[] wayLabelPosition;
-	private byte wayLayer;
-	private String wayName;
-	private byte wayNodeCompressionMode;
-	private int wayNodeLatitude;
-	private int wayNodeLongitude;
-	private int[] wayNodesSequence;
-	private short wayNodesSequenceLength;
-	private byte wayNumberOfInnerWays;
-	private byte wayNumberOfRelevantTags;
-	private byte wayNumberOfTags;
-	private short wayNumberOfWayNodes;
-	private String wayRef;
-	private String waySignature;
-	private int waySize;
-	private short waysOnZoomLevel;
-	private byte waySpecialByte1;
-	private byte waySpecialByte2;
 	private String wayTag;
-	private byte wayTagBitmap;
 	private short wayTagId;
-	private boolean[] wayTagIds;
 	private HashMap<String, Short> wayTags;
-	private short wayTileBitmask;
-	private int zoomLevelDifference;
 	private byte zoomLevelMax;
 	private byte zoomLevelMin;
 
@@ -334,7 +166,9 @@ public class MapDatabase {
 	 * Empty default constructor with limited visibility.
 	 */
 	MapDatabase() {
-		// do nothing
+		this.defaultQueryContext = new MapDatabaseQueryContext();
+		this.blockCacheSize = DEFAULT_BLOCK_CACHE_SIZE;
+		this.indexCacheSize = DEFAULT_INDEX_CACHE_SIZE;
 	}
 
 	/**
@@ -352,8 +186,9 @@ public class MapDatabase {
 	 * @return the center of the current map file.
 	 */
 	public GeoPoint getMapCenter() {
-		if (this.mapBoundary != null) {
-			return new GeoPoint(this.mapBoundary.centerY(), this.mapBoundary.centerX());
+		if (this.hasMapBoundary) {
+			return new GeoPoint((this.boundaryTop + this.boundaryBottom) >> 1,
+					(this.boundaryLeft + this.boundaryRight) >> 1);
 		}
 		return null;
 	}
@@ -380,595 +215,100 @@ public class MapDatabase {
 	}
 
 	/**
-	 * Reads a single block and calls the render functions on all map elements.
+	 * Sets the capacity of the cache for decoded blocks. Neighbouring tiles which are located
+	 * in the same block reuse the decoded map elements from this cache. A size of zero
+	 * disables the cache.
 	 * 
-	 * @param mapGenerator
-	 *            the MapGenerator callback which handles the extracted map elements.
-	 * @throws UnsupportedEncodingException
-	 *             if string decoding fails.
-	 */
-	private void processBlock(DatabaseMapGenerator mapGenerator)
-			throws UnsupportedEncodingException {
-		if (this.debugFile) {
-			// get and check the block signature
-			this.blockSignature = new String(this.readBuffer, this.bufferPosition,
-					SIGNATURE_LENGTH_BLOCK, "UTF-8");
-			this.bufferPosition += SIGNATURE_LENGTH_BLOCK;
-			if (!this.blockSignature.startsWith("###TileStart")) {
-				Logger.d("invalid block signature: " + this.blockSignature);
-				return;
-			}
+	 * @param blockCacheSize
+	 *            the maximum estimated memory usage of the cache in bytes.
+	 * @throws IllegalArgumentException
+	 *             if the cache size is negative.
+	 */
+	public void setBlockCacheSize(int blockCacheSize) {
+		if (blockCacheSize < 0) {
+			throw new IllegalArgumentException();
 		}
-
-		// calculate the offset in the block entries table and move the pointer
-		this.blockEntriesTableOffset = (this.queryZoomLevel - this.mapFileParameters.zoomLevelMin) * 4;
-		this.bufferPosition += this.blockEntriesTableOffset;
-
-		// get the amount of way and nodes on the current zoomLevel level
-		this.nodesOnZoomLevel = Deserializer.toShort(this.readBuffer, this.bufferPosition);
-		this.bufferPosition += 2;
-		this.waysOnZoomLevel = Deserializer.toShort(this.readBuffer, this.bufferPosition);
-		this.bufferPosition += 2;
-
-		// move the pointer to the end of the block entries table
-		this.bufferPosition += this.mapFileParameters.blockEntriesTableSize
-				- this.blockEntriesTableOffset - 4;
-
-		// get the offset to the first stored way in the block (4 bytes)
-		this.firstWayOffset = Deserializer.toInt(this.readBuffer, this.bufferPosition);
-		this.bufferPosition += 4;
-		if (this.firstWayOffset > this.readBuffer.length) {
-			Logger.d("invalid first way offset: " + this.firstWayOffset);
-			if (this.debugFile) {
-				Logger.d("block signature: " + this.blockSignature);
-			}
-			return;
+		this.blockCacheSize = blockCacheSize;
+		if (this.inputFile != null) {
+			createBlockCache();
 		}
+	}
 
-		// get the nodes
-		for (this.elementCounter = this.nodesOnZoomLevel; this.elementCounter != 0; --this.elementCounter) {
-			if (this.debugFile) {
-				// get and check the node signature
-				this.nodeSignature = new String(this.readBuffer, this.bufferPosition,
-						SIGNATURE_LENGTH_NODE, "UTF-8");
-				this.bufferPosition += SIGNATURE_LENGTH_NODE;
-				if (!this.nodeSignature.startsWith("***POIStart")) {
-					Logger.d("invalid node signature: " + this.nodeSignature);
-					return;
-				}
-			}
-
-			// get the node latitude (4 bytes)
-			this.nodeLatitude = Deserializer.toInt(this.readBuffer, this.bufferPosition);
-			this.bufferPosition += 4;
-
-			// get the node longitude (4 bytes)
-			this.nodeLongitude = Deserializer.toInt(this.readBuffer, this.bufferPosition);
-			this.bufferPosition += 4;
-
-			// get the special byte that encodes multiple fields (1 byte)
-			this.nodeSpecialByte = this.readBuffer[this.bufferPosition];
-			this.bufferPosition += 1;
-
-			// bit 1-4 of the special byte represent the node layer
-			this.nodeLayer = (byte) ((this.nodeSpecialByte & NODE_LAYER_BITMASK) >>> NODE_LAYER_SHIFT);
-			// bit 5-8 of the special byte represent the number of tag IDs
-			this.nodeNumberOfTags = (byte) (this.nodeSpecialByte & NODE_NUMBER_OF_TAGS_BITMASK);
-
-			// reset the node tag array
-			System.arraycopy(this.defaultTagIds, 0, this.nodeTagIds, 0, this.nodeTagIds.length);
-			// get the node tag IDs (2 bytes per tag ID)
-			for (this.tempByte = this.nodeNumberOfTags; this.tempByte != 0; --this.tempByte) {
-				this.nodeTagId = Deserializer.toShort(this.readBuffer, this.bufferPosition);
-				this.bufferPosition += 2;
-				if (this.nodeTagId < 0 || this.nodeTagId >= this.nodeTagIds.length) {
-					Logger.d("invalid node tag ID: " + this.nodeTagId);
-					if (this.debugFile) {
-						Logger.d("node signature: " + this.nodeSignature);
-					}
-					continue;
-				}
-				this.nodeTagIds[this.nodeTagId] = true;
-			}
-
-			// get the feature byte (1 byte)
-			this.nodeFeatureByte = this.readBuffer[this.bufferPosition];
-			this.bufferPosition += 1;
-
-			// bit 1-3 of the node feature byte enable optional features
-			this.nodeFeatureName = (this.nodeFeatureByte & NODE_FEATURE_BITMASK_NAME) != 0;
-			this.nodeFeatureElevation = (this.nodeFeatureByte & NODE_FEATURE_BITMASK_ELEVATION) != 0;
-			this.nodeFeatureHouseNumber = (this.nodeFeatureByte & NODE_FEATURE_BITMASK_HOUSE_NUMBER) != 0;
-
-			// check if the node has a name
-			if (this.nodeFeatureName) {
-				// get and check the length of the node name (2 bytes)
-				this.stringLength = Deserializer.toShort(this.readBuffer, this.bufferPosition);
-				this.bufferPosition += 2;
-				if (this.stringLength > 0) {
-					// get the node name
-					this.nodeName = new String(this.readBuffer, this.bufferPosition,
-							this.stringLength, "UTF-8");
-					this.bufferPosition += this.stringLength;
-				} else {
-					Logger.d("invalid node name string length: " + this.stringLength);
-					if (this.debugFile) {
-						Logger.d("node signature: " + this.nodeSignature);
-					}
-					this.nodeName = null;
-				}
-			} else {
-				// no node name
-				this.nodeName = null;
-			}
-
-			// check if the node has an elevation
-			if (this.nodeFeatureElevation) {
-				// get the node elevation (2 bytes)
-				this.nodeElevation = Short.toString(Deserializer.toShort(this.readBuffer,
-						this.bufferPosition));
-				this.bufferPosition += 2;
-			} else {
-				// no elevation
-				this.nodeElevation = null;
-			}
+	/**
+	 * Sets the capacity of the index cache. Each cached index block occupies 640 bytes of
+	 * direct memory. The new capacity is used when the next map file is opened.
+	 * 
+	 * @param indexCacheSize
+	 *            the maximum number of index blocks in the cache.
+	 * @throws IllegalArgumentException
+	 *             if the cache size is less than one.
+	 */
+	public void setIndexCacheSize(int indexCacheSize) {
+		if (indexCacheSize < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.indexCacheSize = indexCacheSize;
+	}
 
-			// check if the node has a house number
-			if (this.nodeFeatureHouseNumber) {
-				// get and check the length of the node house number (2 bytes)
-				this.stringLength = Deserializer.toShort(this.readBuffer, this.bufferPosition);
-				this.bufferPosition += 2;
-				if (this.stringLength > 0) {
-					// get the node house number
-					this.nodeHouseNumber = new String(this.readBuffer, this.bufferPosition,
-							this.stringLength, "UTF-8");
-					this.bufferPosition += this.stringLength;
-				} else {
-					Logger.d("invalid house number string length: " + this.stringLength);
-					if (this.debugFile) {
-						Logger.d("node signature: " + this.nodeSignature);
-					}
-					this.nodeHouseNumber = null;
-				}
-			} else {
-				// no house number
-				this.nodeHouseNumber = null;
-			}
+	/**
+	 * Enables or disables the memory-mapped read mode. If enabled, each map file inside the
+	 * binary file is mapped into memory and the blocks are decoded directly from the mapping
+	 * instead of being copied into a read buffer. If a map file cannot be mapped, the regular
+	 * read mode is used for it.
+	 * 
+	 * @param memoryMapping
+	 *            true if the map files should be memory-mapped, false otherwise.
+	 */
+	public void setMemoryMapping(boolean memoryMapping) {
+		this.memoryMapping = memoryMapping;
+		if (this.inputFile != null) {
+			mapFiles();
+		}
+	}
 
-			// render the node
-			mapGenerator.renderPointOfInterest(this.nodeLayer, this.nodeLatitude,
-					this.nodeLongitude, this.nodeName, this.nodeHouseNumber,
-					this.nodeElevation, this.nodeTagIds);
+	/**
+	 * Creates a new cache for decoded blocks with the current capacity. Any previous cache is
+	 * destroyed.
+	 */
+	private void createBlockCache() {
+		if (this.blockCache != null) {
+			this.blockCache.destroy();
 		}
+		if (this.blockCacheSize > 0) {
+			this.blockCache = new MapDatabaseBlockCache(this.blockCacheSize);
+		} else {
+			this.blockCache = null;
+		}
+	}
 
-		// finished reading nodes, check if the current buffer position is valid
-		if (this.bufferPosition > this.firstWayOffset) {
-			Logger.d("invalid buffer position: " + this.bufferPosition + " - "
-					+ this.firstWayOffset);
-			if (this.debugFile) {
-				Logger.d("block signature: " + this.blockSignature);
-			}
+	/**
+	 * Maps all map files of the currently opened binary file into memory if the memory-mapped
+	 * read mode is enabled. Map files which cannot be mapped are read in the regular way.
+	 */
+	private void mapFiles() {
+		this.mappedMapFilesLookupTable = null;
+		if (!this.memoryMapping) {
 			return;
 		}
 
-		// move the pointer to the first way
-		this.bufferPosition = this.firstWayOffset;
-
-		// get the ways
-		for (this.elementCounter = this.waysOnZoomLevel; this.elementCounter != 0; --this.elementCounter) {
-			if (this.debugFile) {
-				// get and check the way signature
-				this.waySignature = new String(this.readBuffer, this.bufferPosition,
-						SIGNATURE_LENGTH_WAY, "UTF-8");
-				this.bufferPosition += SIGNATURE_LENGTH_WAY;
-				if (!this.waySignature.startsWith("---WayStart")) {
-					Logger.d("invalid way signature: " + this.waySignature);
-					return;
-				}
-			}
-
-			// get the size of the way (4 bytes)
-			this.waySize = Deserializer.toInt(this.readBuffer, this.bufferPosition);
-			this.bufferPosition += 4;
-
-			if (this.useTileBitmask) {
-				// get the way tile bitmask (2 bytes)
-				this.wayTileBitmask = Deserializer
-						.toShort(this.readBuffer, this.bufferPosition);
-				this.bufferPosition += 2;
-				// check if the way is inside the requested tile
-				if ((this.queryTileBitmask & this.wayTileBitmask) == 0) {
-					// skip the rest of the way and continue with the next way
-					if (this.debugFile) {
-						this.bufferPosition += this.waySize - 6 - SIGNATURE_LENGTH_WAY;
-					} else {
-						this.bufferPosition += this.waySize - 6;
-					}
-					continue;
-				}
-			} else {
-				// ignore the way tile bitmask (2 bytes)
-				this.bufferPosition += 2;
-			}
-
-			// get the first special byte that encodes multiple fields (1 byte)
-			this.waySpecialByte1 = this.readBuffer[this.bufferPosition];
-			this.bufferPosition += 1;
-
-			// bit 1-4 of the first special byte represent the way layer
-			this.wayLayer = (byte) ((this.waySpecialByte1 & WAY_LAYER_BITMASK) >>> WAY_LAYER_SHIFT);
-			// bit 5-8 of the first special byte represent the number of tag IDs
-			this.wayNumberOfTags = (byte) (this.waySpecialByte1 & WAY_NUMBER_OF_TAGS_BITMASK);
-
-			// get the second special byte that encodes multiple fields (1 byte)
-			this.waySpecialByte2 = this.readBuffer[this.bufferPosition];
-			this.bufferPosition += 1;
-
-			// bit 1-3 of the second special byte represent the number of relevant tags
-			this.wayNumberOfRelevantTags = (byte) ((this.waySpecialByte2 & WAY_RELEVANT_TAGS_BITMASK) >>> WAY_RELEVANT_TAGS_SHIFT);
-			// bit 7-8 of the second special byte represent the way node compression mode
-			this.wayNodeCompressionMode = (byte) (this.waySpecialByte2 & WAY_COMPRESSION_MODE_BITMASK);
-
-			// get the way tag bitmap (1 byte)
-			this.wayTagBitmap = this.readBuffer[this.bufferPosition];
-			this.bufferPosition += 1;
-
-			// reset the way tag array
-			System.arraycopy(this.defaultTagIds, 0, this.wayTagIds, 0, this.wayTagIds.length);
-			// get the way tag IDs (2 bytes per tag ID)
-			for (this.tempByte = this.wayNumberOfTags; this.tempByte != 0; --this.tempByte) {
-				this.wayTagId = Deserializer.toShort(this.readBuffer, this.bufferPosition);
-				this.bufferPosition += 2;
-				if (this.wayTagId < 0 || this.wayTagId >= this.wayTagIds.length) {
-					Logger.d("invalid way tag ID: " + this.wayTagId);
-					if (this.debugFile) {
-						Logger.d("way signature: " + this.waySignature);
-					}
-					continue;
-				}
-				this.wayTagIds[this.wayTagId] = true;
-			}
-
-			// get and check the number of way nodes (2 bytes)
-			this.wayNumberOfWayNodes = Deserializer.toShort(this.readBuffer,
-					this.bufferPosition);
-			this.bufferPosition += 2;
-			if (this.wayNumberOfWayNodes < 1
-					|| this.wayNumberOfWayNodes > MAXIMUM_WAY_NODES_SEQUENCE_LENGTH) {
-				Logger.d("invalid number of way nodes: " + this.wayNumberOfWayNodes);
-				if (this.debugFile) {
-					Logger.d("way signature: " + this.waySignature);
-				}
-				return;
-			}
-
-			// each way node consists of latitude and longitude fields
-			this.wayNodesSequenceLength = (short) (this.wayNumberOfWayNodes * 2);
-
-			// make sure that the array for the way nodes is large enough
-			if (this.wayNodesSequenceLength > this.wayNodesSequence.length) {
-				this.wayNodesSequence = new int[this.wayNodesSequenceLength];
-			}
-
-			// get the first way node latitude (4 bytes)
-			this.wayNodeLatitude = Deserializer.toInt(this.readBuffer, this.bufferPosition);
-			this.bufferPosition += 4;
-			// get the first way node longitude (4 bytes)
-			this.wayNodeLongitude = Deserializer.toInt(this.readBuffer, this.bufferPosition);
-			this.bufferPosition += 4;
-
-			// store the first way node
-			this.wayNodesSequence[1] = this.wayNodeLatitude;
-			this.wayNodesSequence[0] = this.wayNodeLongitude;
-
-			// get the remaining way nodes
-			switch (this.wayNodeCompressionMode) {
-				case WAY_NODES_UNCOMPRESSED:
-					// 4 bytes per coordinate (uncompressed)
-					for (this.tempShort = 2; this.tempShort < this.wayNodesSequenceLength; this.tempShort += 2) {
-						// get the way node latitude (4 bytes)
-						this.wayNodeLatitude = Deserializer.toInt(this.readBuffer,
-								this.bufferPosition);
-						this.bufferPosition += 4;
-						// get the way node longitude (4 bytes)
-						this.wayNodeLongitude = Deserializer.toInt(this.readBuffer,
-								this.bufferPosition);
-						this.bufferPosition += 4;
-
-						// store the inner way node
-						this.wayNodesSequence[this.tempShort] = this.wayNodeLongitude;
-						this.wayNodesSequence[this.tempShort + 1] = this.wayNodeLatitude;
-					}
-					break;
-				case WAY_NODES_COMPRESSED_3_BYTES:
-					// 3 bytes per coordinate (offset compression)
-					for (this.tempShort = 2; this.tempShort < this.wayNodesSequenceLength; this.tempShort += 2) {
-						// get the way node latitude offset (3 bytes)
-						this.wayNodeLatitude = Deserializer.threeBytesToSignedInt(
-								this.readBuffer, this.bufferPosition);
-						this.bufferPosition += 3;
-						// get the way node longitude offset (3 bytes)
-						this.wayNodeLongitude = Deserializer.threeBytesToSignedInt(
-								this.readBuffer, this.bufferPosition);
-						this.bufferPosition += 3;
-
-						// calculate the way node coordinates
-						this.wayNodesSequence[this.tempShort] = this.wayNodesSequence[this.tempShort - 2]
-								+ this.wayNodeLongitude;
-						this.wayNodesSequence[this.tempShort + 1] = this.wayNodesSequence[this.tempShort - 1]
-								+ this.wayNodeLatitude;
-					}
-					break;
-				case WAY_NODES_COMPRESSED_2_BYTES:
-					// 2 bytes per coordinate (offset compression)
-					for (this.tempShort = 2; this.tempShort < this.wayNodesSequenceLength; this.tempShort += 2) {
-						// get the way node latitude offset (2 bytes)
-						this.wayNodeLatitude = Deserializer.toShort(this.readBuffer,
-								this.bufferPosition);
-						this.bufferPosition += 2;
-						// get the way node longitude offset (2 bytes)
-						this.wayNodeLongitude = Deserializer.toShort(this.readBuffer,
-								this.bufferPosition);
-						this.bufferPosition += 2;
-
-						// calculate the way node coordinates
-						this.wayNodesSequence[this.tempShort] = this.wayNodesSequence[this.tempShort - 2]
-								+ this.wayNodeLongitude;
-						this.wayNodesSequence[this.tempShort + 1] = this.wayNodesSequence[this.tempShort - 1]
-								+ this.wayNodeLatitude;
-					}
-					break;
-				case WAY_NODES_COMPRESSED_1_BYTE:
-					// 1 byte per coordinate (offset compression)
-					for (this.tempShort = 2; this.tempShort < this.wayNodesSequenceLength; this.tempShort += 2) {
-						// get the way node latitude offset (1 byte)
-						this.wayNodeLatitude = this.readBuffer[this.bufferPosition];
-						this.bufferPosition += 1;
-						// get the way node longitude offset (1 byte)
-						this.wayNodeLongitude = this.readBuffer[this.bufferPosition];
-						this.bufferPosition += 1;
-
-						// calculate the way node coordinates
-						this.wayNodesSequence[this.tempShort] = this.wayNodesSequence[this.tempShort - 2]
-								+ this.wayNodeLongitude;
-						this.wayNodesSequence[this.tempShort + 1] = this.wayNodesSequence[this.tempShort - 1]
-								+ this.wayNodeLatitude;
-					}
-					break;
-
-				default:
-					Logger.d("invalid way node compression mode");
-					if (this.debugFile) {
-						Logger.d("way signature: " + this.waySignature);
-					}
-					break;
-			}
-
-			// get the feature byte (1 byte)
-			this.wayFeatureByte = this.readBuffer[this.bufferPosition];
-			this.bufferPosition += 1;
-
-			// bit 1-4 of the way feature byte enable optional features
-			this.wayFeatureName = (this.wayFeatureByte & WAY_FEATURE_BITMASK_NAME) != 0;
-			this.wayFeatureRef = (this.wayFeatureByte & WAY_FEATURE_BITMASK_REF) != 0;
-			this.wayFeatureLabelPosition = (this.wayFeatureByte & WAY_FEATURE_BITMASK_LABEL_POSITION) != 0;
-			this.wayFeatureMultipolygon = (this.wayFeatureByte & WAY_FEATURE_BITMASK_MULTIPOLYGON) != 0;
-
-			// check if the way has a name
-			if (this.wayFeatureName) {
-				// get and check the length of the way name (2 bytes)
-				this.stringLength = Deserializer.toShort(this.readBuffer, this.bufferPosition);
-				this.bufferPosition += 2;
-				if (this.stringLength > 0) {
-					if (this.queryReadWayNames) {
-						// get the way name
-						this.wayName = new String(this.readBuffer, this.bufferPosition,
-								this.stringLength, "UTF-8");
-					} else {
-						this.wayName = null;
-					}
-					this.bufferPosition += this.stringLength;
-				} else {
-					Logger.d("invalid way name string length: " + this.stringLength);
-					if (this.debugFile) {
-						Logger.d("way signature: " + this.waySignature);
-					}
-					this.wayName = null;
-				}
-			} else {
-				// no way name
-				this.wayName = null;
-			}
-
-			// check if the way has a reference
-			if (this.wayFeatureRef) {
-				// get and check the length of the way reference (2 bytes)
-				this.stringLength = Deserializer.toShort(this.readBuffer, this.bufferPosition);
-				this.bufferPosition += 2;
-				if (this.stringLength > 0) {
-					if (this.queryReadWayNames) {
-						// get the way reference
-						this.wayRef = new String(this.readBuffer, this.bufferPosition,
-								this.stringLength, "UTF-8");
-					} else {
-						this.wayRef = null;
-					}
-					this.bufferPosition += this.stringLength;
-				} else {
-					Logger.d("invalid way reference string length: " + this.stringLength);
-					if (this.debugFile) {
-						Logger.d("way signature: " + this.waySignature);
-					}
-					this.wayRef = null;
-				}
-			} else {
-				// no reference
-				this.wayRef = null;
-			}
-
-			// check if the way has a label position
-			if (this.wayFeatureLabelPosition) {
-				this.wayLabelPosition = new int[2];
-				// get the label position latitude (4 bytes)
-				this.wayLabelPosition[0] = Deserializer.toInt(this.readBuffer,
-						this.bufferPosition);
-				this.bufferPosition += 4;
-				// get the label position longitude (4 bytes)
-				this.wayLabelPosition[1] = Deserializer.toInt(this.readBuffer,
-						this.bufferPosition);
-				this.bufferPosition += 4;
-			} else {
-				// no label position
-				this.wayLabelPosition = null;
+		this.mappedMapFilesLookupTable = new ByteBuffer[this.mapFilesLookupTable.length];
+		for (this.tempInt = 0; this.tempInt < this.numberOfMapFiles; ++this.tempInt) {
+			this.mapFileParameters = this.mapFilesList[this.tempInt];
+			if (this.mapFileParameters.mapFileSize > Integer.MAX_VALUE) {
+				Logger.d("map file too large for memory mapping: "
+						+ this.mapFileParameters.mapFileSize);
+				continue;
 			}
 
-			// check if the way represents a multipolygon
-			if (this.wayFeatureMultipolygon) {
-				// get the amount of inner ways (1 byte)
-				this.wayNumberOfInnerWays = this.readBuffer[this.bufferPosition];
-				this.bufferPosition += 1;
-
-				if (this.wayNumberOfInnerWays > 0) {
-					// create a two-dimensional array for the coordinates of the inner ways
-					this.wayInnerWays = new int[this.wayNumberOfInnerWays][];
-
-					// for each inner way
-					for (this.tempByte = (byte) (this.wayNumberOfInnerWays - 1); this.tempByte >= 0; --this.tempByte) {
-						// get and check the number of inner way nodes (2 bytes)
-						this.innerWayNumberOfWayNodes = Deserializer.toShort(this.readBuffer,
-								this.bufferPosition);
-						this.bufferPosition += 2;
-						if (this.innerWayNumberOfWayNodes < 1
-								|| this.innerWayNumberOfWayNodes > MAXIMUM_WAY_NODES_SEQUENCE_LENGTH) {
-							Logger.d("invalid inner way number of way nodes: "
-									+ this.innerWayNumberOfWayNodes);
-							if (this.debugFile) {
-								Logger.d("way signature: " + this.waySignature);
-							}
-							return;
-						}
-
-						// each inner way node consists of a latitude and a longitude field
-						this.innerWayNodesSequenceLength = (short) (this.innerWayNumberOfWayNodes * 2);
-
-						// create an array for the inner way coordinates
-						this.innerWay = new int[this.innerWayNodesSequenceLength];
-
-						// get the first inner way node latitude (4 bytes)
-						this.wayNodeLatitude = Deserializer.toInt(this.readBuffer,
-								this.bufferPosition);
-						this.bufferPosition += 4;
-						// get the first inner way node longitude (4 bytes)
-						this.wayNodeLongitude = Deserializer.toInt(this.readBuffer,
-								this.bufferPosition);
-						this.bufferPosition += 4;
-
-						// store the first inner way node
-						this.innerWay[1] = this.wayNodeLatitude;
-						this.innerWay[0] = this.wayNodeLongitude;
-
-						// get and store the remaining inner way nodes
-						switch (this.wayNodeCompressionMode) {
-							case WAY_NODES_UNCOMPRESSED:
-								// 4 bytes per coordinate (uncompressed)
-								for (this.tempShort = 2; this.tempShort < this.innerWayNodesSequenceLength; this.tempShort += 2) {
-									// get the inner way node latitude (4 bytes)
-									this.wayNodeLatitude = Deserializer.toInt(this.readBuffer,
-											this.bufferPosition);
-									this.bufferPosition += 4;
-									// get the inner way node longitude (4 bytes)
-									this.wayNodeLongitude = Deserializer.toInt(this.readBuffer,
-											this.bufferPosition);
-									this.bufferPosition += 4;
-
-									// store the inner way node
-									this.innerWay[this.tempShort] = this.wayNodeLongitude;
-									this.innerWay[this.tempShort + 1] = this.wayNodeLatitude;
-								}
-								break;
-							case WAY_NODES_COMPRESSED_3_BYTES:
-								// 3 bytes per coordinate (offset compression)
-								for (this.tempShort = 2; this.tempShort < this.innerWayNodesSequenceLength; this.tempShort += 2) {
-									// get the inner way node latitude offset (3 bytes)
-									this.wayNodeLatitude = Deserializer.threeBytesToSignedInt(
-											this.readBuffer, this.bufferPosition);
-									this.bufferPosition += 3;
-									// get the inner way node longitude offset (3 bytes)
-									this.wayNodeLongitude = Deserializer.threeBytesToSignedInt(
-											this.readBuffer, this.bufferPosition);
-									this.bufferPosition += 3;
-
-									// calculate the inner way node coordinates
-									this.innerWay[this.tempShort] = this.innerWay[this.tempShort - 2]
-											+ this.wayNodeLongitude;
-									this.innerWay[this.tempShort + 1] = this.innerWay[this.tempShort - 1]
-											+ this.wayNodeLatitude;
-								}
-								break;
-							case WAY_NODES_COMPRESSED_2_BYTES:
-								// 2 bytes per coordinate (offset compression)
-								for (this.tempShort = 2; this.tempShort < this.innerWayNodesSequenceLength; this.tempShort += 2) {
-									// get the inner way node latitude offset (2 bytes)
-									this.wayNodeLatitude = Deserializer.toShort(
-											this.readBuffer, this.bufferPosition);
-									this.bufferPosition += 2;
-									// get the inner way node longitude offset (2 bytes)
-									this.wayNodeLongitude = Deserializer.toShort(
-											this.readBuffer, this.bufferPosition);
-									this.bufferPosition += 2;
-
-									// calculate the inner way node coordinates
-									this.innerWay[this.tempShort] = this.innerWay[this.tempShort - 2]
-											+ this.wayNodeLongitude;
-									this.innerWay[this.tempShort + 1] = this.innerWay[this.tempShort - 1]
-											+ this.wayNodeLatitude;
-								}
-								break;
-							case WAY_NODES_COMPRESSED_1_BYTE:
-								// 1 byte per coordinate (offset compression)
-								for (this.tempShort = 2; this.tempShort < this.innerWayNodesSequenceLength; this.tempShort += 2) {
-									// get the inner way node latitude offset (1 byte)
-									this.wayNodeLatitude = this.readBuffer[this.bufferPosition];
-									this.bufferPosition += 1;
-									// get the inner way node longitude offset (1 byte)
-									this.wayNodeLongitude = this.readBuffer[this.bufferPosition];
-									this.bufferPosition += 1;
-
-									// calculate the inner way node coordinates
-									this.innerWay[this.tempShort] = this.innerWay[this.tempShort - 2]
-											+ this.wayNodeLongitude;
-									this.innerWay[this.tempShort + 1] = this.innerWay[this.tempShort - 1]
-											+ this.wayNodeLatitude;
-								}
-								break;
-
-							default:
-								Logger.d("invalid way node compression mode");
-								if (this.debugFile) {
-									Logger.d("way signature: " + this.waySignature);
-								}
-								break;
-						}
-
-						// store the inner way
-						this.wayInnerWays[this.tempByte] = this.innerWay;
-					}
-				} else {
-					Logger.d("invalid way number of inner ways: " + this.wayNumberOfInnerWays);
-					if (this.debugFile) {
-						Logger.d("way signature: " + this.waySignature);
-					}
-					this.wayInnerWays = null;
+			try {
+				ByteBuffer mappedMapFile = this.inputChannel.map(FileChannel.MapMode.READ_ONLY,
+						this.mapFileParameters.startAddress, this.mapFileParameters.mapFileSize);
+				for (this.tempByte = this.mapFileParameters.zoomLevelMin; this.tempByte <= this.mapFileParameters.zoomLevelMax; ++this.tempByte) {
+					this.mappedMapFilesLookupTable[this.tempByte] = mappedMapFile;
 				}
-			} else {
-				// no multipolygon
-				this.wayInnerWays = null;
+			} catch (IOException e) {
+				Logger.d("memory mapping has failed: " + e.getMessage());
 			}
-
-			// render the way
-			mapGenerator.renderWay(this.wayLayer, this.wayNumberOfRelevantTags, this.wayName,
-					this.wayRef, this.wayLabelPosition, this.wayTagIds, this.wayTagBitmap,
-					this.wayNodesSequenceLength, this.wayNodesSequence, this.wayInnerWays);
 		}
 	}
 
@@ -1092,9 +432,7 @@ public class MapDatabase {
 			return false;
 		}
 
-		// create the map boundary rectangle
-		this.mapBoundary = new Rect(this.boundaryLeft, this.boundaryBottom, this.boundaryRight,
-				this.boundaryTop);
+		this.hasMapBoundary = true;
 
 		// check if the header contains a start position
 		if (this.headerStartPosition) {
@@ -1287,7 +625,8 @@ public class MapDatabase {
 			// add the current map file to the map files list
 			this.mapFilesList[this.tempByte] = new MapFileParameters(this.startAddress,
 					this.indexStartAddress, this.mapFileSize, this.baseZoomLevel,
-					this.zoomLevelMin, this.zoomLevelMax, this.mapBoundary);
+					this.zoomLevelMin, this.zoomLevelMax, this.boundaryTop, this.boundaryLeft,
+					this.boundaryBottom, this.boundaryRight);
 
 			// update the global minimum and maximum zoom level information
 			if (this.zoomLevelMin < this.globalMinimumZoomLevel) {
@@ -1320,6 +659,14 @@ public class MapDatabase {
 				this.databaseIndexCache = null;
 			}
 
+			if (this.blockCache != null) {
+				this.blockCache.destroy();
+				this.blockCache = null;
+			}
+
+			this.mappedMapFilesLookupTable = null;
+			this.inputChannel = null;
+
 			if (this.inputFile != null) {
 				this.inputFile.close();
 				this.inputFile = null;
@@ -1330,250 +677,204 @@ public class MapDatabase {
 	}
 
 	/**
-	 * Starts a database query with the given parameters.
+	 * Starts a database query for the combined area of multiple tiles with the same zoom level.
+	 * Each needed block is read and passed to the callback only once, so that map elements
+	 * which cover several of the tiles are not duplicated. Multiple threads may query this
+	 * database concurrently as long as each thread uses its own query context.
+	 * 
+	 * @param tiles
+	 *            the tiles to read, all with the same zoom level.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @param mapDatabaseCallback
+	 *            the callback which handles the extracted map elements of all tiles.
+	 * @param queryContext
+	 *            the query context which stores the state of the query.
+	 */
+	void executeQuery(Tile[] tiles, boolean readWayNames,
+			MapDatabaseCallback mapDatabaseCallback, MapDatabaseQueryContext queryContext) {
+		queryContext.executeQuery(this, tiles, readWayNames, mapDatabaseCallback);
+	}
+
+	/**
+	 * Starts a batched database query for multiple tiles with the same zoom level, using the
+	 * default query context of this database. Each needed block is read only once. Only one
+	 * thread at a time may use this method.
+	 * 
+	 * @param tiles
+	 *            the tiles to read, all with the same zoom level.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @param mapDatabaseCallbacks
+	 *            the callbacks which handle the extracted map elements, one for each tile.
+	 */
+	void executeQuery(Tile[] tiles, boolean readWayNames,
+			MapDatabaseCallback[] mapDatabaseCallbacks) {
+		executeQuery(tiles, readWayNames, mapDatabaseCallbacks, this.defaultQueryContext);
+	}
+
+	/**
+	 * Starts a batched database query for multiple tiles with the same zoom level. Each needed
+	 * block is read only once. Multiple threads may query this database concurrently as long
+	 * as each thread uses its own query context.
+	 * 
+	 * @param tiles
+	 *            the tiles to read, all with the same zoom level.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @param mapDatabaseCallbacks
+	 *            the callbacks which handle the extracted map elements, one for each tile.
+	 * @param queryContext
+	 *            the query context which stores the state of the query.
+	 */
+	void executeQuery(Tile[] tiles, boolean readWayNames,
+			MapDatabaseCallback[] mapDatabaseCallbacks, MapDatabaseQueryContext queryContext) {
+		queryContext.executeQuery(this, tiles, readWayNames, mapDatabaseCallbacks);
+	}
+
+	/**
+	 * Starts a database query with the given parameters, using the default query context of
+	 * this database. Only one thread at a time may use this method.
 	 * 
 	 * @param tile
 	 *            the tile to read.
 	 * @param readWayNames
 	 *            if way names should be read.
-	 * @param mapGenerator
-	 *            the MapGenerator callback which handles the extracted map elements.
+	 * @param mapDatabaseCallback
+	 *            the callback which handles the extracted map elements.
 	 */
-	void executeQuery(Tile tile, boolean readWayNames, DatabaseMapGenerator mapGenerator) {
-		try {
-			// reset the stop execution flag
-			this.stopCurrentQuery = false;
-
-			// limit the zoom level of the requested tile for this query
-			if (tile.zoomLevel > this.globalMaximumZoomLevel) {
-				this.queryZoomLevel = this.globalMaximumZoomLevel;
-			} else if (tile.zoomLevel < this.globalMinimumZoomLevel) {
-				this.queryZoomLevel = this.globalMinimumZoomLevel;
-			} else {
-				this.queryZoomLevel = tile.zoomLevel;
-			}
+	void executeQuery(Tile tile, boolean readWayNames, MapDatabaseCallback mapDatabaseCallback) {
+		executeQuery(tile, readWayNames, mapDatabaseCallback, this.defaultQueryContext);
+	}
 
-			// get and check the map file for the query zoom level
-			this.mapFileParameters = this.mapFilesLookupTable[this.queryZoomLevel];
-			if (this.mapFileParameters == null) {
-				Logger.d("no map file for zoom level: " + tile.zoomLevel);
-				return;
-			}
+	/**
+	 * Starts a database query with the given parameters. Multiple threads may query this
+	 * database concurrently as long as each thread uses its own query context.
+	 * 
+	 * @param tile
+	 *            the tile to read.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @param mapDatabaseCallback
+	 *            the callback which handles the extracted map elements.
+	 * @param queryContext
+	 *            the query context which stores the state of the query.
+	 */
+	void executeQuery(Tile tile, boolean readWayNames, MapDatabaseCallback mapDatabaseCallback,
+			MapDatabaseQueryContext queryContext) {
+		queryContext.executeQuery(this, tile, readWayNames, mapDatabaseCallback);
+	}
 
-			this.queryReadWayNames = readWayNames;
-
-			// calculate the blocks that cover the area of the requested tile
-			if (tile.zoomLevel < this.mapFileParameters.baseZoomLevel) {
-				// calculate the XY numbers of the upper left and lower right subtiles
-				this.zoomLevelDifference = this.mapFileParameters.baseZoomLevel
-						- tile.zoomLevel;
-				this.fromBaseTileX = tile.x << this.zoomLevelDifference;
-				this.fromBaseTileY = tile.y << this.zoomLevelDifference;
-				this.toBaseTileX = this.fromBaseTileX + (1 << this.zoomLevelDifference) - 1;
-				this.toBaseTileY = this.fromBaseTileY + (1 << this.zoomLevelDifference) - 1;
-				this.useTileBitmask = false;
-			} else if (tile.zoomLevel > this.mapFileParameters.baseZoomLevel) {
-				// calculate the XY numbers of the parent base tile
-				this.zoomLevelDifference = tile.zoomLevel
-						- this.mapFileParameters.baseZoomLevel;
-				this.fromBaseTileX = tile.x >>> this.zoomLevelDifference;
-				this.fromBaseTileY = tile.y >>> this.zoomLevelDifference;
-				this.toBaseTileX = this.fromBaseTileX;
-				this.toBaseTileY = this.fromBaseTileY;
-
-				if (this.zoomLevelDifference == 1) {
-					// determine the correct bitmask for all quadrants
-					if (tile.x % 2 == 0 && tile.y % 2 == 0) {
-						// upper left quadrant
-						this.queryTileBitmask = 0xcc00;
-					} else if (tile.x % 2 == 1 && tile.y % 2 == 0) {
-						// upper right quadrant
-						this.queryTileBitmask = 0x3300;
-					} else if (tile.x % 2 == 0 && tile.y % 2 == 1) {
-						// lower left quadrant
-						this.queryTileBitmask = 0xcc;
-					} else {
-						// lower right quadrant
-						this.queryTileBitmask = 0x33;
-					}
-				} else {
-					// calculate the XY numbers of the second level subtile
-					this.subtileX = tile.x >>> (this.zoomLevelDifference - 2);
-					this.subtileY = tile.y >>> (this.zoomLevelDifference - 2);
-
-					// calculate the XY numbers of the parent tile
-					this.parentTileX = this.subtileX >>> 1;
-					this.parentTileY = this.subtileY >>> 1;
-
-					// determine the correct bitmask for all 16 subtiles
-					if (this.parentTileX % 2 == 0 && this.parentTileY % 2 == 0) {
-						// upper left quadrant
-						if (this.subtileX % 2 == 0 && this.subtileY % 2 == 0) {
-							// upper left subtile
-							this.queryTileBitmask = 0x8000;
-						} else if (this.subtileX % 2 == 1 && this.subtileY % 2 == 0) {
-							// upper right subtile
-							this.queryTileBitmask = 0x4000;
-						} else if (this.subtileX % 2 == 0 && this.subtileY % 2 == 1) {
-							// lower left subtile
-							this.queryTileBitmask = 0x800;
-						} else {
-							// lower right subtile
-							this.queryTileBitmask = 0x400;
-						}
-					} else if (this.parentTileX % 2 == 1 && this.parentTileY % 2 == 0) {
-						// upper right quadrant
-						if (this.subtileX % 2 == 0 && this.subtileY % 2 == 0) {
-							// upper left subtile
-							this.queryTileBitmask = 0x2000;
-						} else if (this.subtileX % 2 == 1 && this.subtileY % 2 == 0) {
-							// upper right subtile
-							this.queryTileBitmask = 0x1000;
-						} else if (this.subtileX % 2 == 0 && this.subtileY % 2 == 1) {
-							// lower left subtile
-							this.queryTileBitmask = 0x200;
-						} else {
-							// lower right subtile
-							this.queryTileBitmask = 0x100;
-						}
-					} else if (this.parentTileX % 2 == 0 && this.parentTileY % 2 == 1) {
-						// lower left quadrant
-						if (this.subtileX % 2 == 0 && this.subtileY % 2 == 0) {
-							// upper left subtile
-							this.queryTileBitmask = 0x80;
-						} else if (this.subtileX % 2 == 1 && this.subtileY % 2 == 0) {
-							// upper right subtile
-							this.queryTileBitmask = 0x40;
-						} else if (this.subtileX % 2 == 0 && this.subtileY % 2 == 1) {
-							// lower left subtile
-							this.queryTileBitmask = 0x8;
-						} else {
-							// lower right subtile
-							this.queryTileBitmask = 0x4;
-						}
-					} else {
-						// lower right quadrant
-						if (this.subtileX % 2 == 0 && this.subtileY % 2 == 0) {
-							// upper left subtile
-							this.queryTileBitmask = 0x20;
-						} else if (this.subtileX % 2 == 1 && this.subtileY % 2 == 0) {
-							// upper right subtile
-							this.queryTileBitmask = 0x10;
-						} else if (this.subtileX % 2 == 0 && this.subtileY % 2 == 1) {
-							// lower left subtile
-							this.queryTileBitmask = 0x2;
-						} else {
-							// lower right subtile
-							this.queryTileBitmask = 0x1;
-						}
-					}
-				}
-				this.useTileBitmask = true;
-			} else {
-				// use the tile XY numbers of the requested tile
-				this.fromBaseTileX = tile.x;
-				this.fromBaseTileY = tile.y;
-				this.toBaseTileX = this.fromBaseTileX;
-				this.toBaseTileY = this.fromBaseTileY;
-				this.useTileBitmask = false;
-			}
+	/**
+	 * Returns the cache for decoded blocks of the current map file.
+	 * 
+	 * @return the block cache or null, if the block cache is disabled.
+	 */
+	MapDatabaseBlockCache getBlockCache() {
+		return this.blockCache;
+	}
 
-			// calculate the blocks in the file which need to be read
-			this.fromBlockX = Math.max(this.fromBaseTileX
-					- this.mapFileParameters.boundaryLeftTile, 0);
-			this.fromBlockY = Math.max(this.fromBaseTileY
-					- this.mapFileParameters.boundaryTopTile, 0);
-			this.toBlockX = Math.min(
-					this.toBaseTileX - this.mapFileParameters.boundaryLeftTile,
-					this.mapFileParameters.blocksWidth - 1);
-			this.toBlockY = Math.min(this.toBaseTileY - this.mapFileParameters.boundaryTopTile,
-					this.mapFileParameters.blocksHeight - 1);
-
-			// read and process all necessary blocks from top to bottom and from left to right
-			for (this.currentRow = this.fromBlockY; this.currentRow <= this.toBlockY; ++this.currentRow) {
-				for (this.currentColumn = this.fromBlockX; this.currentColumn <= this.toBlockX; ++this.currentColumn) {
-					// check if the query was interrupted
-					if (this.stopCurrentQuery) {
-						return;
-					}
-
-					// calculate the actual block number of the needed block in the file
-					this.blockNumber = this.currentRow * this.mapFileParameters.blocksWidth
-							+ this.currentColumn;
-
-					// get and check the current block pointer
-					this.currentBlockPointer = this.databaseIndexCache.getAddress(
-							this.mapFileParameters, this.blockNumber);
-					if (this.currentBlockPointer < 1
-							|| this.currentBlockPointer > this.mapFileParameters.mapFileSize) {
-						Logger.d("invalid current block pointer: " + this.currentBlockPointer);
-						Logger.d("mapFileSize: " + this.mapFileParameters.mapFileSize);
-						return;
-					}
-
-					// check if the current block is the last block in the file
-					if (this.blockNumber + 1 == this.mapFileParameters.numberOfBlocks) {
-						// set the next block pointer to the end of the file
-						this.nextBlockPointer = this.mapFileParameters.mapFileSize;
-					} else {
-						// get and check the next block pointer
-						this.nextBlockPointer = this.databaseIndexCache.getAddress(
-								this.mapFileParameters, this.blockNumber + 1);
-						if (this.nextBlockPointer < 1
-								|| this.nextBlockPointer > this.mapFileParameters.mapFileSize) {
-							Logger.d("invalid next block pointer: " + this.nextBlockPointer);
-							Logger.d("mapFileSize: " + this.mapFileParameters.mapFileSize);
-							return;
-						}
-					}
-
-					// calculate the size of the current block
-					this.currentBlockSize = (int) (this.nextBlockPointer - this.currentBlockPointer);
-					if (this.currentBlockSize < 0) {
-						Logger.d("invalid current block size: " + this.currentBlockSize);
-						return;
-					} else if (this.currentBlockSize == 0) {
-						// the current block is empty, continue with the next block
-						continue;
-					} else if (this.currentBlockSize > MAXIMUM_BLOCK_SIZE) {
-						// the current block is too large, continue with the next block
-						continue;
-					} else if (this.currentBlockPointer + this.currentBlockSize > this.fileSize) {
-						Logger.d("invalid current block size: " + this.currentBlockSize);
-						return;
-					}
-
-					// make sure that the read buffer is large enough
-					if (this.currentBlockSize > this.readBuffer.length) {
-						this.readBuffer = new byte[this.currentBlockSize];
-					}
-
-					// go to the current block in the map file and read the data into the buffer
-					this.inputFile.seek(this.mapFileParameters.startAddress
-							+ this.currentBlockPointer);
-					this.bufferPosition = 0;
-					if (this.inputFile.read(this.readBuffer, 0, this.currentBlockSize) != this.currentBlockSize) {
-						// if reading the current block has failed, skip it
-						Logger.d("reading current block has failed");
-						return;
-					}
-
-					// handle the current block data
-					processBlock(mapGenerator);
-				}
-			}
-		} catch (IOException e) {
-			Logger.e(e);
+	/**
+	 * Returns the real address of a block in the given map file. This method is thread-safe.
+	 * 
+	 * @param mapFileParameters
+	 *            the parameters of the map file for which the address is needed.
+	 * @param blockNumber
+	 *            the number of the block in the map file.
+	 * @return the block address or -1 if the block number is invalid.
+	 */
+	long getBlockAddress(MapFileParameters mapFileParameters, long blockNumber) {
+		return this.databaseIndexCache.getAddress(mapFileParameters, blockNumber);
+	}
+
+	/**
+	 * Returns the size of the current binary map file in bytes.
+	 * 
+	 * @return the size of the file.
+	 */
+	long getFileSize() {
+		return this.fileSize;
+	}
+
+	/**
+	 * Returns the southern boundary of the current map file.
+	 * 
+	 * @return the minimum latitude in microdegrees.
+	 */
+	int getBoundaryBottom() {
+		return this.boundaryBottom;
+	}
+
+	/**
+	 * Returns the western boundary of the current map file.
+	 * 
+	 * @return the minimum longitude in microdegrees.
+	 */
+	int getBoundaryLeft() {
+		return this.boundaryLeft;
+	}
+
+	/**
+	 * Returns the eastern boundary of the current map file.
+	 * 
+	 * @return the maximum longitude in microdegrees.
+	 */
+	int getBoundaryRight() {
+		return this.boundaryRight;
+	}
+
+	/**
+	 * Returns the northern boundary of the current map file.
+	 * 
+	 * @return the maximum latitude in microdegrees.
+	 */
+	int getBoundaryTop() {
+		return this.boundaryTop;
+	}
+
+	/**
+	 * Returns the parameters of the map file which contains the given zoom level.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level, must be between the minimum and the maximum zoom level.
+	 * @return the parameters of the map file or null, if no map file contains the zoom level.
+	 */
+	MapFileParameters getMapFileParameters(int zoomLevel) {
+		return this.mapFilesLookupTable[zoomLevel];
+	}
+
+	/**
+	 * Returns the memory-mapped map file which contains the given zoom level.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level, must be between the minimum and the maximum zoom level.
+	 * @return the mapped map file or null, if the map file is not memory-mapped.
+	 */
+	ByteBuffer getMappedMapFile(int zoomLevel) {
+		// read the field only once as it may be replaced concurrently
+		ByteBuffer[] mappedMapFiles = this.mappedMapFilesLookupTable;
+		if (mappedMapFiles == null) {
+			return null;
 		}
+		return mappedMapFiles[zoomLevel];
 	}
 
 	/**
-	 * Returns the area coordinates of the current map file.
+	 * Returns the maximum zoom level of all map files in the current binary map file.
 	 * 
-	 * @return the area coordinates in microdegrees.
+	 * @return the maximum zoom level.
 	 */
-	Rect getMapBoundary() {
-		return this.mapBoundary;
+	byte getMaximumZoomLevel() {
+		return this.globalMaximumZoomLevel;
+	}
+
+	/**
+	 * Returns the minimum zoom level of all map files in the current binary map file.
+	 * 
+	 * @return the minimum zoom level.
+	 */
+	byte getMinimumZoomLevel() {
+		return this.globalMinimumZoomLevel;
 	}
 
 	/***
@@ -1603,6 +904,31 @@ public class MapDatabase {
 		return this.wayTags;
 	}
 
+	/**
+	 * Returns whether the current map file contains debug signatures.
+	 * 
+	 * @return true if the map file is a debug file, false otherwise.
+	 */
+	boolean isDebugFile() {
+		return this.debugFile;
+	}
+
+	/**
+	 * Checks if the given point lies within the boundary of the current map file. The western
+	 * and the southern boundary are inclusive, the eastern and the northern boundary exclusive.
+	 * 
+	 * @param latitudeE6
+	 *            the latitude of the point in microdegrees.
+	 * @param longitudeE6
+	 *            the longitude of the point in microdegrees.
+	 * @return true if a map file is open and contains the point, false otherwise.
+	 */
+	boolean isInsideMapBoundary(int latitudeE6, int longitudeE6) {
+		return this.hasMapBoundary && longitudeE6 >= this.boundaryLeft
+				&& longitudeE6 < this.boundaryRight && latitudeE6 >= this.boundaryBottom
+				&& latitudeE6 < this.boundaryTop;
+	}
+
 	/**
 	 * Opens a map file and checks for valid header data.
 	 * 
@@ -1644,16 +970,14 @@ public class MapDatabase {
 
 			// create the DatabaseIndexCache
 			this.databaseIndexCache = new MapDatabaseIndexCache(this.inputFile,
-					INDEX_CACHE_SIZE);
+					this.indexCacheSize);
 
-			// create an array for the way nodes coordinates
-			this.wayNodesSequence = new int[INITIAL_WAY_NODES_CAPACITY];
+			// create the cache for decoded blocks
+			createBlockCache();
 
-			// create the tag arrays
-			this.defaultTagIds = new boolean[Math
-					.max(this.nodeTags.size(), this.wayTags.size())];
-			this.nodeTagIds = new boolean[this.nodeTags.size()];
-			this.wayTagIds = new boolean[this.wayTags.size()];
+			// map the map files if requested
+			this.inputChannel = this.inputFile.getChannel();
+			mapFiles();
 
 			return true;
 		} catch (IOException e) {
@@ -1665,9 +989,35 @@ public class MapDatabase {
 	}
 
 	/**
-	 * Notifies the database reader to stop the currently executed query.
+	 * Reads the given number of bytes at an absolute position of the current binary map file
+	 * into the buffer. The file pointer is not used, so this method is thread-safe.
+	 * 
+	 * @param position
+	 *            the absolute position in the file.
+	 * @param buffer
+	 *            the buffer to store the bytes, starting at index zero.
+	 * @param length
+	 *            the number of bytes to read.
+	 * @return true if all bytes could be read, false otherwise.
+	 * @throws IOException
+	 *             if an error occurs while reading the file.
+	 */
+	boolean readBlock(long position, ByteBuffer buffer, int length) throws IOException {
+		buffer.clear();
+		buffer.limit(length);
+		while (buffer.hasRemaining()) {
+			if (this.inputChannel.read(buffer, position + buffer.position()) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Notifies the database reader to stop the currently executed query of the default query
+	 * context.
 	 */
 	void stopCurrentQuery() {
-		this.stopCurrentQuery = true;
+		this.defaultQueryContext.stopCurrentQuery();
 	}
 }
\ No newline at end of file
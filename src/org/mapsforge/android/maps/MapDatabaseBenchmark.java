@@ -0,0 +1,187 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * Compares the regular read mode of the {@link MapDatabase} with the memory-mapped read mode
+ * and with batched queries. All tiles which cover the area of the given map file are queried
+ * repeatedly in each mode. The block cache is disabled to measure the raw read performance.
+ * For each mode, the number of names which have been resolved by the string cache without
+ * allocating a new String is reported.
+ */
+class MapDatabaseBenchmark implements MapDatabaseCallback {
+	private static final int DEFAULT_ITERATIONS = 3;
+	private static final byte DEFAULT_ZOOM_LEVEL = 14;
+	private static final int VIEWPORT_SIZE = 4;
+
+	/**
+	 * Starts the benchmark.
+	 * 
+	 * @param args
+	 *            the path to the map file, the zoom level (optional) and the number of
+	 *            iterations (optional).
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("usage: MapDatabaseBenchmark <map file> [zoom level] [iterations]");
+			return;
+		}
+
+		byte zoomLevel = DEFAULT_ZOOM_LEVEL;
+		if (args.length > 1) {
+			zoomLevel = Byte.parseByte(args[1]);
+		}
+		int iterations = DEFAULT_ITERATIONS;
+		if (args.length > 2) {
+			iterations = Integer.parseInt(args[2]);
+		}
+
+		MapDatabaseBenchmark benchmark = new MapDatabaseBenchmark();
+		MapDatabase mapDatabase = new MapDatabase();
+		if (!mapDatabase.openFile(args[0])) {
+			System.out.println("could not open map file: " + args[0]);
+			return;
+		}
+
+		// warm up the index cache and the file system cache
+		mapDatabase.setBlockCacheSize(0);
+		benchmark.run(mapDatabase, zoomLevel, 1, false);
+
+		mapDatabase.setMemoryMapping(false);
+		long readTime = benchmark.run(mapDatabase, zoomLevel, iterations, false);
+		System.out.println("read mode: " + readTime + " ms, " + benchmark.tiles + " tiles, "
+				+ benchmark.ways + " ways, " + benchmark.pointsOfInterest + " POIs");
+		benchmark.printStringCacheStatistics();
+
+		mapDatabase.setMemoryMapping(true);
+		long mappedTime = benchmark.run(mapDatabase, zoomLevel, iterations, false);
+		System.out.println("memory-mapped mode: " + mappedTime + " ms, " + benchmark.tiles
+				+ " tiles, " + benchmark.ways + " ways, " + benchmark.pointsOfInterest
+				+ " POIs");
+		benchmark.printStringCacheStatistics();
+
+		mapDatabase.setMemoryMapping(false);
+		long batchedTime = benchmark.run(mapDatabase, zoomLevel, iterations, true);
+		System.out.println("batched read mode: " + batchedTime + " ms, " + benchmark.tiles
+				+ " tiles, " + benchmark.ways + " ways, " + benchmark.pointsOfInterest
+				+ " POIs");
+		benchmark.printStringCacheStatistics();
+
+		mapDatabase.closeFile();
+	}
+
+	private int pointsOfInterest;
+	private final MapDatabaseQueryContext queryContext = new MapDatabaseQueryContext();
+	private int tiles;
+	private int ways;
+
+	/**
+	 * Prints the hit and miss counters of the string cache and resets them.
+	 */
+	private void printStringCacheStatistics() {
+		MapDatabaseStringCache stringCache = this.queryContext.getStringCache();
+		System.out.println("string cache: " + stringCache.getHits() + " hits, "
+				+ stringCache.getMisses() + " misses");
+		stringCache.resetCounters();
+	}
+
+	@Override
+	public void renderPointOfInterest(byte nodeLayer, int latitude, int longitude,
+			String nodeName, String houseNumber, String nodeElevation, boolean[] nodeTagIds,
+			short[] nodeTagIdList, byte nodeTagIdListLength) {
+		++this.pointsOfInterest;
+	}
+
+	@Override
+	public void renderWay(byte wayLayer, byte wayNumberOfRealTags, String wayName,
+			String wayRef, int[] wayLabelPosition, boolean[] wayTagIds, short[] wayTagIdList,
+			byte wayTagIdListLength, byte wayTagBitmap, short wayNodesSequenceLength,
+			int[] wayNodesSequence, int[][] innerWays) {
+		++this.ways;
+	}
+
+	/**
+	 * Queries all tiles which cover the map file area for the given number of iterations. In
+	 * batched mode, the tiles are grouped into square viewports which are queried at once.
+	 * 
+	 * @param mapDatabase
+	 *            the opened map database.
+	 * @param zoomLevel
+	 *            the zoom level of the tiles.
+	 * @param iterations
+	 *            the number of iterations.
+	 * @param batched
+	 *            true if the tiles should be queried in batches, false otherwise.
+	 * @return the elapsed time in milliseconds.
+	 */
+	private long run(MapDatabase mapDatabase, byte zoomLevel, int iterations, boolean batched) {
+		this.pointsOfInterest = 0;
+		this.tiles = 0;
+		this.ways = 0;
+		this.queryContext.getStringCache().resetCounters();
+
+		long tileLeft = MercatorProjection.longitudeToTileX(
+				mapDatabase.getBoundaryLeft() / 1000000d, zoomLevel);
+		long tileRight = MercatorProjection.longitudeToTileX(
+				mapDatabase.getBoundaryRight() / 1000000d, zoomLevel);
+		long tileTop = MercatorProjection.latitudeToTileY(
+				mapDatabase.getBoundaryTop() / 1000000d, zoomLevel);
+		long tileBottom = MercatorProjection.latitudeToTileY(
+				mapDatabase.getBoundaryBottom() / 1000000d, zoomLevel);
+
+		MapDatabaseCallback[] callbacks = new MapDatabaseCallback[VIEWPORT_SIZE * VIEWPORT_SIZE];
+		for (int i = 0; i < callbacks.length; ++i) {
+			callbacks[i] = this;
+		}
+
+		long startTime = System.currentTimeMillis();
+		for (int iteration = 0; iteration < iterations; ++iteration) {
+			if (batched) {
+				for (long tileY = tileTop; tileY <= tileBottom; tileY += VIEWPORT_SIZE) {
+					for (long tileX = tileLeft; tileX <= tileRight; tileX += VIEWPORT_SIZE) {
+						Tile[] viewport = new Tile[(int) ((Math.min(tileY + VIEWPORT_SIZE - 1,
+								tileBottom) - tileY + 1) * (Math.min(tileX + VIEWPORT_SIZE - 1,
+								tileRight) - tileX + 1))];
+						int tileIndex = 0;
+						for (long y = tileY; y <= tileBottom && y < tileY + VIEWPORT_SIZE; ++y) {
+							for (long x = tileX; x <= tileRight && x < tileX + VIEWPORT_SIZE; ++x) {
+								viewport[tileIndex++] = new Tile(x, y, zoomLevel);
+							}
+						}
+						MapDatabaseCallback[] viewportCallbacks = callbacks;
+						if (viewport.length < callbacks.length) {
+							viewportCallbacks = new MapDatabaseCallback[viewport.length];
+							System.arraycopy(callbacks, 0, viewportCallbacks, 0, viewport.length);
+						}
+						mapDatabase.executeQuery(viewport, true, viewportCallbacks,
+								this.queryContext);
+						this.tiles += viewport.length;
+					}
+				}
+			} else {
+				for (long tileY = tileTop; tileY <= tileBottom; ++tileY) {
+					for (long tileX = tileLeft; tileX <= tileRight; ++tileX) {
+						mapDatabase.executeQuery(new Tile(tileX, tileY, zoomLevel), true, this,
+								this.queryContext);
+						++this.tiles;
+					}
+				}
+			}
+		}
+		return System.currentTimeMillis() - startTime;
+	}
+}
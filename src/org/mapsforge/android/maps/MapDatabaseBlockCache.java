@@ -0,0 +1,113 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache for decoded blocks with a fixed size in bytes and LRU policy. All methods are
+ * synchronized, so that the cache can be shared by multiple query threads.
+ */
+class MapDatabaseBlockCache {
+	/**
+	 * Initial capacity of the internal HashMap.
+	 */
+	private static final int INITIAL_CAPACITY = 32;
+
+	/**
+	 * Load factor of the internal HashMap.
+	 */
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private final int capacity;
+	private int currentSize;
+	private LinkedHashMap<BlockCacheEntryKey, CachedBlock> map;
+
+	/**
+	 * Constructs a new block cache with the given capacity in bytes.
+	 * 
+	 * @param capacity
+	 *            the maximum estimated memory usage of all cached blocks in bytes.
+	 * @throws IllegalArgumentException
+	 *             if the capacity is negative.
+	 */
+	MapDatabaseBlockCache(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.map = new LinkedHashMap<BlockCacheEntryKey, CachedBlock>(
+				(int) (INITIAL_CAPACITY / LOAD_FACTOR) + 2, LOAD_FACTOR, true);
+	}
+
+	/**
+	 * Destroys the cache at the end of its lifetime.
+	 */
+	synchronized void destroy() {
+		if (this.map != null) {
+			this.map.clear();
+			this.map = null;
+		}
+		this.currentSize = 0;
+	}
+
+	/**
+	 * Returns the cached block for the given key.
+	 * 
+	 * @param blockCacheEntryKey
+	 *            the key of the block.
+	 * @return the cached block or null, if the block is not in the cache.
+	 */
+	synchronized CachedBlock get(BlockCacheEntryKey blockCacheEntryKey) {
+		if (this.map == null) {
+			return null;
+		}
+		return this.map.get(blockCacheEntryKey);
+	}
+
+	/**
+	 * Puts the given block in the cache. The least recently used blocks are removed until the
+	 * size of the cache is below its capacity. Blocks which are larger than the capacity are
+	 * not cached at all.
+	 * 
+	 * @param blockCacheEntryKey
+	 *            the key of the block.
+	 * @param cachedBlock
+	 *            the decoded block.
+	 */
+	synchronized void put(BlockCacheEntryKey blockCacheEntryKey, CachedBlock cachedBlock) {
+		if (this.map == null || cachedBlock.getSize() > this.capacity) {
+			return;
+		}
+
+		CachedBlock previousBlock = this.map.put(blockCacheEntryKey, cachedBlock);
+		if (previousBlock != null) {
+			this.currentSize -= previousBlock.getSize();
+		}
+		this.currentSize += cachedBlock.getSize();
+
+		// remove the least recently used blocks
+		Iterator<Map.Entry<BlockCacheEntryKey, CachedBlock>> iterator = this.map.entrySet()
+				.iterator();
+		while (this.currentSize > this.capacity && iterator.hasNext()) {
+			this.currentSize -= iterator.next().getValue().getSize();
+			iterator.remove();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * Callback interface which handles the map elements that are extracted by a MapDatabase query.
+ */
+interface MapDatabaseCallback {
+	/**
+	 * Renders a single POI.
+	 * 
+	 * @param nodeLayer
+	 *            the layer of the node.
+	 * @param latitude
+	 *            the latitude of the node.
+	 * @param longitude
+	 *            the longitude of the node.
+	 * @param nodeName
+	 *            the name of the node (may be null).
+	 * @param houseNumber
+	 *            the house number of the node (may be null).
+	 * @param nodeElevation
+	 *            the elevation of the node (may be null).
+	 * @param nodeTagIds
+	 *            the tag id array of the node.
+	 * @param nodeTagIdList
+	 *            the IDs of all tags of the node.
+	 * @param nodeTagIdListLength
+	 *            the number of valid entries in the tag ID list.
+	 */
+	void renderPointOfInterest(byte nodeLayer, int latitude, int longitude, String nodeName,
+			String houseNumber, String nodeElevation, boolean[] nodeTagIds,
+			short[] nodeTagIdList, byte nodeTagIdListLength);
+
+	/**
+	 * Renders a single way or area (closed way).
+	 * 
+	 * @param wayLayer
+	 *            the layer of the way.
+	 * @param wayNumberOfRealTags
+	 *            the number of real tags.
+	 * @param wayName
+	 *            the name of the way (may be null).
+	 * @param wayRef
+	 *            the reference of the way (may be null).
+	 * @param wayLabelPosition
+	 *            the position of the area label (may be null).
+	 * @param wayTagIds
+	 *            the tag id array of the way.
+	 * @param wayTagIdList
+	 *            the IDs of all tags of the way.
+	 * @param wayTagIdListLength
+	 *            the number of valid entries in the tag ID list.
+	 * @param wayTagBitmap
+	 *            the way tag bitmap.
+	 * @param wayNodesSequenceLength
+	 *            the number of way node coordinates.
+	 * @param wayNodesSequence
+	 *            the way nodes.
+	 * @param innerWays
+	 *            the inner nodes if this way is a multipolygon.
+	 */
+	void renderWay(byte wayLayer, byte wayNumberOfRealTags, String wayName, String wayRef,
+			int[] wayLabelPosition, boolean[] wayTagIds, short[] wayTagIdList,
+			byte wayTagIdListLength, byte wayTagBitmap, short wayNodesSequenceLength,
+			int[] wayNodesSequence, int[][] innerWays);
+}
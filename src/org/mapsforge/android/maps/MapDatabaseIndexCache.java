@@ -18,11 +18,14 @@ package org.mapsforge.android.maps;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
- * A cache for database index blocks with a fixed size and LRU policy.
+ * A cache for database index blocks with a fixed size and CLOCK replacement policy. All index
+ * blocks are stored in a single direct byte buffer with one slot per index block. The slots
+ * are found via an open addressing hash table with linear probing whose keys are the file
+ * positions of the index blocks. Looking up a block address does not allocate any objects.
  */
 class MapDatabaseIndexCache {
 	/**
@@ -35,13 +38,18 @@ class MapDatabaseIndexCache {
 	 */
 	private static final byte BYTES_PER_INDEX_ENTRY = 5;
 
+	/**
+	 * Value of an empty field in the hash table.
+	 */
+	private static final int EMPTY_TABLE_ENTRY = -1;
+
 	/**
 	 * Number of index entries that one index block consists of.
 	 */
 	private static final int INDEX_ENTRIES_PER_CACHE_BLOCK = 128;
 
 	/**
-	 * Load factor of the internal HashMap.
+	 * Load factor of the internal hash table.
 	 */
 	private static final float LOAD_FACTOR = 0.6f;
 
@@ -52,56 +60,153 @@ class MapDatabaseIndexCache {
 			* BYTES_PER_INDEX_ENTRY;
 
 	private int addressInIndexBlock;
-	private byte[] indexBlock;
+	private int clockHand;
 	private long indexBlockNumber;
-	private IndexCacheEntryKey indexCacheEntryKey;
-	private RandomAccessFile inputFile;
-	private LinkedHashMap<IndexCacheEntryKey, byte[]> map;
+	private long indexBlockPosition;
+	private FileChannel inputChannel;
+	private int numberOfUsedSlots;
+	private ByteBuffer readBuffer;
+	private ByteBuffer slab;
+	private int slot;
+	private long[] slotPositions;
+	private boolean[] slotReferenced;
+	private int[] table;
+	private int tableIndex;
+	private int tableMask;
 
 	/**
-	 * Constructs an database index cache with a fixes size and LRU policy.
+	 * Constructs an database index cache with a fixed size and CLOCK replacement policy. The
+	 * cache allocates exactly capacity * 640 bytes of direct memory for the index blocks.
 	 * 
 	 * @param inputFile
 	 *            the map file from which the index should be read and cached.
 	 * @param capacity
-	 *            the maximum number of entries in the cache.
+	 *            the maximum number of index blocks in the cache.
 	 * @throws IllegalArgumentException
-	 *             if the capacity is negative.
+	 *             if the capacity is less than one.
 	 */
 	MapDatabaseIndexCache(RandomAccessFile inputFile, int capacity) {
-		if (capacity < 0) {
+		if (capacity < 1) {
 			throw new IllegalArgumentException();
 		}
-		this.inputFile = inputFile;
-		this.map = createMap(capacity);
+		this.inputChannel = inputFile.getChannel();
+
+		// allocate one slot in the slab for each index block
+		this.slab = ByteBuffer.allocateDirect(capacity * SIZE_OF_INDEX_BLOCK);
+		this.readBuffer = this.slab.duplicate();
+		this.slotPositions = new long[capacity];
+		this.slotReferenced = new boolean[capacity];
+
+		// create a hash table with a power of two size that respects the load factor
+		int tableSize = Integer.highestOneBit((int) (capacity / LOAD_FACTOR) + 1) << 1;
+		this.table = new int[tableSize];
+		this.tableMask = tableSize - 1;
+		for (int i = 0; i < tableSize; ++i) {
+			this.table[i] = EMPTY_TABLE_ENTRY;
+		}
+	}
+
+	/**
+	 * Calculates the home index of the given index block position in the hash table.
+	 * 
+	 * @param position
+	 *            the file position of the index block.
+	 * @return the index in the hash table.
+	 */
+	private int calculateTableIndex(long position) {
+		// spread the bits of the position with the 64-bit golden ratio constant
+		return (int) ((position * 0x9E3779B97F4A7C15L) >>> 40) & this.tableMask;
+	}
+
+	/**
+	 * Selects a slot for a new index block. Free slots are used first, afterwards the CLOCK
+	 * algorithm evicts the first slot that has not been referenced since the last sweep.
+	 * 
+	 * @return the selected slot.
+	 */
+	private int findFreeSlot() {
+		if (this.numberOfUsedSlots < this.slotPositions.length) {
+			return this.numberOfUsedSlots++;
+		}
+
+		// advance the clock hand and give referenced slots a second chance
+		while (this.slotReferenced[this.clockHand]) {
+			this.slotReferenced[this.clockHand] = false;
+			this.clockHand = (this.clockHand + 1) % this.slotPositions.length;
+		}
+		this.slot = this.clockHand;
+		this.clockHand = (this.clockHand + 1) % this.slotPositions.length;
+
+		// remove the evicted index block from the hash table
+		removeTableEntry(this.slotPositions[this.slot]);
+		return this.slot;
 	}
 
-	private LinkedHashMap<IndexCacheEntryKey, byte[]> createMap(final int initialCapacity) {
-		return new LinkedHashMap<IndexCacheEntryKey, byte[]>(
-				(int) (initialCapacity / LOAD_FACTOR) + 2, LOAD_FACTOR, true) {
-			private static final long serialVersionUID = 1L;
+	/**
+	 * Searches the hash table for the given index block position.
+	 * 
+	 * @param position
+	 *            the file position of the index block.
+	 * @return the index of the hash table entry or the index of the empty entry where the
+	 *         position would be inserted.
+	 */
+	private int findTableIndex(long position) {
+		this.tableIndex = calculateTableIndex(position);
+		while (this.table[this.tableIndex] != EMPTY_TABLE_ENTRY
+				&& this.slotPositions[this.table[this.tableIndex]] != position) {
+			this.tableIndex = (this.tableIndex + 1) & this.tableMask;
+		}
+		return this.tableIndex;
+	}
+
+	/**
+	 * Removes the given index block position from the hash table. The following entries of the
+	 * probe sequence are shifted backwards, so that no tombstones are needed.
+	 * 
+	 * @param position
+	 *            the file position of the index block.
+	 */
+	private void removeTableEntry(long position) {
+		int emptyIndex = findTableIndex(position);
+		if (this.table[emptyIndex] == EMPTY_TABLE_ENTRY) {
+			return;
+		}
+		this.table[emptyIndex] = EMPTY_TABLE_ENTRY;
+
+		int currentIndex = emptyIndex;
+		while (true) {
+			currentIndex = (currentIndex + 1) & this.tableMask;
+			if (this.table[currentIndex] == EMPTY_TABLE_ENTRY) {
+				return;
+			}
 
-			@Override
-			protected boolean removeEldestEntry(Map.Entry<IndexCacheEntryKey, byte[]> eldest) {
-				return size() > initialCapacity;
+			// move the entry if its home index is not between the empty and the current index
+			int homeIndex = calculateTableIndex(this.slotPositions[this.table[currentIndex]]);
+			int homeDistance = (currentIndex - homeIndex) & this.tableMask;
+			if (homeDistance >= ((currentIndex - emptyIndex) & this.tableMask)) {
+				this.table[emptyIndex] = this.table[currentIndex];
+				this.table[currentIndex] = EMPTY_TABLE_ENTRY;
+				emptyIndex = currentIndex;
 			}
-		};
+		}
 	}
 
 	/**
 	 * Destroy the cache at the end of its lifetime.
 	 */
-	void destroy() {
-		this.inputFile = null;
-		if (this.map != null) {
-			this.map.clear();
-			this.map = null;
-		}
+	synchronized void destroy() {
+		this.inputChannel = null;
+		this.readBuffer = null;
+		this.slab = null;
+		this.slotPositions = null;
+		this.slotReferenced = null;
+		this.table = null;
 	}
 
 	/**
 	 * Returns the real address of a block in the given map file. If the required block address
 	 * is not cached, it will be read from the correct map file index and put in the cache.
+	 * This method is synchronized, so that the cache can be shared by multiple query threads.
 	 * 
 	 * @param mapFileParameters
 	 *            the parameters of the map file for which the address is needed.
@@ -109,47 +214,54 @@ class MapDatabaseIndexCache {
 	 *            the number of the block in the map file.
 	 * @return the block address or -1 if the block number is invalid.
 	 */
-	long getAddress(MapFileParameters mapFileParameters, long blockNumber) {
+	synchronized long getAddress(MapFileParameters mapFileParameters, long blockNumber) {
 		try {
 			// check if the block number is out of bounds
 			if (blockNumber >= mapFileParameters.numberOfBlocks) {
 				return -1;
 			}
 
-			// calculate the index block number
+			// calculate the index block number and its position in the file
 			this.indexBlockNumber = blockNumber / INDEX_ENTRIES_PER_CACHE_BLOCK;
-
-			// create the cache entry key for this request
-			this.indexCacheEntryKey = new IndexCacheEntryKey(mapFileParameters,
-					this.indexBlockNumber);
+			this.indexBlockPosition = mapFileParameters.indexStartAddress
+					+ this.indexBlockNumber * SIZE_OF_INDEX_BLOCK;
 
 			// check for cached index block
-			this.indexBlock = this.map.get(this.indexCacheEntryKey);
-			if (this.indexBlock == null) {
-				// cache miss, create a new index block
-				this.indexBlock = new byte[SIZE_OF_INDEX_BLOCK];
-
-				// seek to the correct index block in the file and read it
-				this.inputFile.seek(mapFileParameters.indexStartAddress + this.indexBlockNumber
-						* SIZE_OF_INDEX_BLOCK);
-				if (this.inputFile.read(this.indexBlock, 0, SIZE_OF_INDEX_BLOCK) != SIZE_OF_INDEX_BLOCK) {
-					Logger.d("reading the current index block has failed");
-					return -1;
+			this.tableIndex = findTableIndex(this.indexBlockPosition);
+			if (this.table[this.tableIndex] == EMPTY_TABLE_ENTRY) {
+				// cache miss, select a slot for the new index block
+				this.slot = findFreeSlot();
+
+				// read the index block from the file directly into its slot
+				this.readBuffer.limit((this.slot + 1) * SIZE_OF_INDEX_BLOCK);
+				this.readBuffer.position(this.slot * SIZE_OF_INDEX_BLOCK);
+				while (this.readBuffer.hasRemaining()) {
+					if (this.inputChannel.read(this.readBuffer, this.indexBlockPosition
+							+ this.readBuffer.position() - this.slot * SIZE_OF_INDEX_BLOCK) < 0) {
+						Logger.d("reading the current index block has failed");
+						// mark the slot as unused by an invalid position
+						this.slotPositions[this.slot] = -1;
+						return -1;
+					}
 				}
 
-				// put the index block in the map
-				this.map.put(this.indexCacheEntryKey, this.indexBlock);
+				// put the index block in the hash table
+				this.slotPositions[this.slot] = this.indexBlockPosition;
+				this.table[findTableIndex(this.indexBlockPosition)] = this.slot;
+			} else {
+				this.slot = this.table[this.tableIndex];
 			}
+			this.slotReferenced[this.slot] = true;
 
-			// calculate the address of the index entry inside the index block
+			// calculate the address of the index entry inside the slab
 			this.addressInIndexBlock = (int) ((blockNumber % INDEX_ENTRIES_PER_CACHE_BLOCK) * BYTES_PER_INDEX_ENTRY);
 
 			// return the real block address
-			return Deserializer.fiveBytesToLong(this.indexBlock, this.addressInIndexBlock)
-					& BITMASK_INDEX_ADDRESS;
+			return Deserializer.fiveBytesToLong(this.slab, this.slot * SIZE_OF_INDEX_BLOCK
+					+ this.addressInIndexBlock) & BITMASK_INDEX_ADDRESS;
 		} catch (IOException e) {
 			Logger.e(e);
 			return -1;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,1543 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Holds the complete decoding state of a single {@link MapDatabase} query. Since all variables
+ * which are modified during a query are stored here, multiple threads can query the same
+ * MapDatabase concurrently as long as each thread uses its own query context.
+ */
+class MapDatabaseQueryContext {
+	/**
+	 * Initial capacity of the block requests list.
+	 */
+	private static final int INITIAL_BLOCK_REQUESTS_CAPACITY = 64;
+
+	/**
+	 * Initial length of the way nodes array.
+	 */
+	private static final int INITIAL_WAY_NODES_CAPACITY = 2048;
+
+	/**
+	 * Maximum number of tags of a single map element.
+	 */
+	private static final int MAXIMUM_NUMBER_OF_TAGS = 15;
+
+	/**
+	 * Maximum size of a single block that is supported by this implementation.
+	 */
+	private static final int MAXIMUM_BLOCK_SIZE = 2000000;
+
+	/**
+	 * Maximum way nodes sequence length which is considered as valid.
+	 */
+	private static final int MAXIMUM_WAY_NODES_SEQUENCE_LENGTH = 8192;
+
+	/**
+	 * Bitmask for the optional node feature "elevation".
+	 */
+	private static final int NODE_FEATURE_BITMASK_ELEVATION = 0x40;
+
+	/**
+	 * Bitmask for the optional node feature "house number".
+	 */
+	private static final int NODE_FEATURE_BITMASK_HOUSE_NUMBER = 0x20;
+
+	/**
+	 * Bitmask for the optional node feature "name".
+	 */
+	private static final int NODE_FEATURE_BITMASK_NAME = 0x80;
+
+	/**
+	 * Bitmask for the node layer.
+	 */
+	private static final int NODE_LAYER_BITMASK = 0xf0;
+
+	/**
+	 * Bit shift for calculating the node layer.
+	 */
+	private static final int NODE_LAYER_SHIFT = 4;
+
+	/**
+	 * Bitmask for the number of node tags.
+	 */
+	private static final int NODE_NUMBER_OF_TAGS_BITMASK = 0x0f;
+
+	/**
+	 * Length of the debug signature at the beginning of each block.
+	 */
+	private static final byte SIGNATURE_LENGTH_BLOCK = 32;
+
+	/**
+	 * Length of the debug signature at the beginning of each node.
+	 */
+	private static final byte SIGNATURE_LENGTH_NODE = 32;
+
+	/**
+	 * Length of the debug signature at the beginning of each way.
+	 */
+	private static final byte SIGNATURE_LENGTH_WAY = 32;
+
+	/**
+	 * Bitmask for the compression mode of way nodes.
+	 */
+	private static final int WAY_COMPRESSION_MODE_BITMASK = 0x3;
+
+	/**
+	 * Bitmask for the optional way feature "label position".
+	 */
+	private static final int WAY_FEATURE_BITMASK_LABEL_POSITION = 0x20;
+
+	/**
+	 * Bitmask for the optional way feature "multipolygon".
+	 */
+	private static final int WAY_FEATURE_BITMASK_MULTIPOLYGON = 0x10;
+
+	/**
+	 * Bitmask for the optional way feature "name".
+	 */
+	private static final int WAY_FEATURE_BITMASK_NAME = 0x80;
+
+	/**
+	 * Bitmask for the optional way feature "reference".
+	 */
+	private static final int WAY_FEATURE_BITMASK_REF = 0x40;
+
+	/**
+	 * Bitmask for the way layer.
+	 */
+	private static final int WAY_LAYER_BITMASK = 0xf0;
+
+	/**
+	 * Bit shift for calculating the way layer.
+	 */
+	private static final int WAY_LAYER_SHIFT = 4;
+
+	/**
+	 * Compression mode indicates 1 byte offset compressed way nodes.
+	 */
+	private static final byte WAY_NODES_COMPRESSED_1_BYTE = 3;
+
+	/**
+	 * Compression mode indicates 2 bytes offset compressed way nodes.
+	 */
+	private static final byte WAY_NODES_COMPRESSED_2_BYTES = 2;
+
+	/**
+	 * Compression mode indicates 3 bytes offset compressed way nodes.
+	 */
+	private static final byte WAY_NODES_COMPRESSED_3_BYTES = 1;
+
+	/**
+	 * Compression mode indicates uncompressed way nodes.
+	 */
+	private static final byte WAY_NODES_UNCOMPRESSED = 0;
+
+	/**
+	 * Bitmask for the number of way tags.
+	 */
+	private static final int WAY_NUMBER_OF_TAGS_BITMASK = 0x0f;
+
+	/**
+	 * Bitmask for the number of relevant way tags.
+	 */
+	private static final int WAY_RELEVANT_TAGS_BITMASK = 0xe0;
+
+	/**
+	 * Bit shift for calculating the number of relevant way tags.
+	 */
+	private static final int WAY_RELEVANT_TAGS_SHIFT = 5;
+
+	private ByteBuffer blockBuffer;
+	private MapDatabaseBlockCache blockCache;
+	private BlockCacheEntryKey blockCacheEntryKey;
+	private int blockEntriesTableOffset;
+	private long blockNumber;
+	private BlockRequest blockRequest;
+	private ArrayList<BlockRequest> blockRequests;
+	private String blockSignature;
+	private int blocksRead;
+	private int blockStartPosition;
+	private int bufferPosition;
+	private long bytesRead;
+	private CachedBlock cachedBlock;
+	private int[] cachedWayNodesSequence;
+	private long currentBlockPointer;
+	private int currentBlockSize;
+	private long currentColumn;
+	private long currentRow;
+	private boolean debugFile;
+	private boolean[] defaultTagIds;
+	private short elementCounter;
+	private int firstWayOffset;
+	private long fromBaseTileX;
+	private long fromBaseTileY;
+	private long fromBlockX;
+	private long fromBlockY;
+	private int[] innerWay;
+	private short innerWayNodesSequenceLength;
+	private short innerWayNumberOfWayNodes;
+	private MapDatabase mapDatabase;
+	private MapFileParameters mapFileParameters;
+	private long nextBlockPointer;
+	private String nodeElevation;
+	private byte nodeFeatureByte;
+	private boolean nodeFeatureElevation;
+	private boolean nodeFeatureHouseNumber;
+	private boolean nodeFeatureName;
+	private String nodeHouseNumber;
+	private int nodeLatitude;
+	private byte nodeLayer;
+	private int nodeLongitude;
+	private String nodeName;
+	private byte nodeNumberOfTags;
+	private String nodeSignature;
+	private short nodesOnZoomLevel;
+	private byte nodeSpecialByte;
+	private short nodeTagId;
+	private boolean[] nodeTagIds;
+	private byte numberOfTagIds;
+	private long parentTileX;
+	private long parentTileY;
+	private boolean queryReadWayNames;
+	private int queryTileBitmask;
+	private int queryZoomLevel;
+	private byte[] readBuffer;
+	private ByteBuffer readBufferWrapper;
+	private long readStartTime;
+	private long readTime;
+	private boolean stopCurrentQuery;
+	private byte[] stringBuffer;
+	private final MapDatabaseStringCache stringCache;
+	private short stringLength;
+	private long subtileX;
+	private long subtileY;
+	private short[] tagIdBuffer;
+	private short[] tagIds;
+	private byte tempByte;
+	private int tempInt;
+	private short tempShort;
+	private long toBaseTileX;
+	private long toBaseTileY;
+	private long toBlockX;
+	private long toBlockY;
+	private boolean useTileBitmask;
+	private int wayEndPosition;
+	private byte wayFeatureByte;
+	private boolean wayFeatureLabelPosition;
+	private boolean wayFeatureMultipolygon;
+	private boolean wayFeatureName;
+	private boolean wayFeatureRef;
+	private int[][] wayInnerWays;
+	private int[] wayLabelPosition;
+	private byte wayLayer;
+	private String wayName;
+	private byte wayNodeCompressionMode;
+	private int wayNodeLatitude;
+	private int wayNodeLongitude;
+	private int[] wayNodesSequence;
+	private short wayNodesSequenceLength;
+	private byte wayNumberOfInnerWays;
+	private byte wayNumberOfRelevantTags;
+	private byte wayNumberOfTags;
+	private short wayNumberOfWayNodes;
+	private String wayRef;
+	private String waySignature;
+	private int waySize;
+	private short waysOnZoomLevel;
+	private byte waySpecialByte1;
+	private byte waySpecialByte2;
+	private int wayStartPosition;
+	private byte wayTagBitmap;
+	private short wayTagId;
+	private boolean[] wayTagIds;
+	private short wayTileBitmask;
+	private int zoomLevelDifference;
+
+	/**
+	 * Constructs a new query context. Each thread that queries a {@link MapDatabase} needs its
+	 * own query context.
+	 */
+	MapDatabaseQueryContext() {
+		// create an array for the way nodes coordinates
+		this.wayNodesSequence = new int[INITIAL_WAY_NODES_CAPACITY];
+
+		// create an array for the tag IDs of a single map element
+		this.tagIdBuffer = new short[MAXIMUM_NUMBER_OF_TAGS];
+
+		// create a cache for the names of the map elements
+		this.stringCache = new MapDatabaseStringCache();
+
+		// create a list for the blocks of a batched query
+		this.blockRequests = new ArrayList<BlockRequest>(INITIAL_BLOCK_REQUESTS_CAPACITY);
+	}
+
+	/**
+	 * Calculates the range of blocks which cover the area of the given tile and the bitmask
+	 * which selects the ways of the tile. The query must have been prepared before.
+	 * 
+	 * @param tile
+	 *            the requested tile.
+	 */
+	private void calculateBlocks(Tile tile) {
+		if (tile.zoomLevel < this.mapFileParameters.baseZoomLevel) {
+			// calculate the XY numbers of the upper left and lower right subtiles
+			this.zoomLevelDifference = this.mapFileParameters.baseZoomLevel
+					- tile.zoomLevel;
+			this.fromBaseTileX = tile.x << this.zoomLevelDifference;
+			this.fromBaseTileY = tile.y << this.zoomLevelDifference;
+			this.toBaseTileX = this.fromBaseTileX + (1 << this.zoomLevelDifference) - 1;
+			this.toBaseTileY = this.fromBaseTileY + (1 << this.zoomLevelDifference) - 1;
+			this.useTileBitmask = false;
+		} else if (tile.zoomLevel > this.mapFileParameters.baseZoomLevel) {
+			// calculate the XY numbers of the parent base tile
+			this.zoomLevelDifference = tile.zoomLevel
+					- this.mapFileParameters.baseZoomLevel;
+			this.fromBaseTileX = tile.x >>> this.zoomLevelDifference;
+			this.fromBaseTileY = tile.y >>> this.zoomLevelDifference;
+			this.toBaseTileX = this.fromBaseTileX;
+			this.toBaseTileY = this.fromBaseTileY;
+
+			if (this.zoomLevelDifference == 1) {
+				// determine the correct bitmask for all quadrants
+				if (tile.x % 2 == 0 && tile.y % 2 == 0) {
+					// upper left quadrant
+					this.queryTileBitmask = 0xcc00;
+				} else if (tile.x % 2 == 1 && tile.y % 2 == 0) {
+					// upper right quadrant
+					this.queryTileBitmask = 0x3300;
+				} else if (tile.x % 2 == 0 && tile.y % 2 == 1) {
+					// lower left quadrant
+					this.queryTileBitmask = 0xcc;
+				} else {
+					// lower right quadrant
+					this.queryTileBitmask = 0x33;
+				}
+			} else {
+				// calculate the XY numbers of the second level subtile
+				this.subtileX = tile.x >>> (this.zoomLevelDifference - 2);
+				this.subtileY = tile.y >>> (this.zoomLevelDifference - 2);
+
+				// calculate the XY numbers of the parent tile
+				this.parentTileX = this.subtileX >>> 1;
+				this.parentTileY = this.subtileY >>> 1;
+
+				// determine the correct bitmask for all 16 subtiles
+				if (this.parentTileX % 2 == 0 && this.parentTileY % 2 == 0) {
+					// upper left quadrant
+					if (this.subtileX % 2 == 0 && this.subtileY % 2 == 0) {
+						// upper left subtile
+						this.queryTileBitmask = 0x8000;
+					} else if (this.subtileX % 2 == 1 && this.subtileY % 2 == 0) {
+						// upper right subtile
+						this.queryTileBitmask = 0x4000;
+					} else if (this.subtileX % 2 == 0 && this.subtileY % 2 == 1) {
+						// lower left subtile
+						this.queryTileBitmask = 0x800;
+					} else {
+						// lower right subtile
+						this.queryTileBitmask = 0x400;
+					}
+				} else if (this.parentTileX % 2 == 1 && this.parentTileY % 2 == 0) {
+					// upper right quadrant
+					if (this.subtileX % 2 == 0 && this.subtileY % 2 == 0) {
+						// upper left subtile
+						this.queryTileBitmask = 0x2000;
+					} else if (this.subtileX % 2 == 1 && this.subtileY % 2 == 0) {
+						// upper right subtile
+						this.queryTileBitmask = 0x1000;
+					} else if (this.subtileX % 2 == 0 && this.subtileY % 2 == 1) {
+						// lower left subtile
+						this.queryTileBitmask = 0x200;
+					} else {
+						// lower right subtile
+						this.queryTileBitmask = 0x100;
+					}
+				} else if (this.parentTileX % 2 == 0 && this.parentTileY % 2 == 1) {
+					// lower left quadrant
+					if (this.subtileX % 2 == 0 && this.subtileY % 2 == 0) {
+						// upper left subtile
+						this.queryTileBitmask = 0x80;
+					} else if (this.subtileX % 2 == 1 && this.subtileY % 2 == 0) {
+						// upper right subtile
+						this.queryTileBitmask = 0x40;
+					} else if (this.subtileX % 2 == 0 && this.subtileY % 2 == 1) {
+						// lower left subtile
+						this.queryTileBitmask = 0x8;
+					} else {
+						// lower right subtile
+						this.queryTileBitmask = 0x4;
+					}
+				} else {
+					// lower right quadrant
+					if (this.subtileX % 2 == 0 && this.subtileY % 2 == 0) {
+						// upper left subtile
+						this.queryTileBitmask = 0x20;
+					} else if (this.subtileX % 2 == 1 && this.subtileY % 2 == 0) {
+						// upper right subtile
+						this.queryTileBitmask = 0x10;
+					} else if (this.subtileX % 2 == 0 && this.subtileY % 2 == 1) {
+						// lower left subtile
+						this.queryTileBitmask = 0x2;
+					} else {
+						// lower right subtile
+						this.queryTileBitmask = 0x1;
+					}
+				}
+			}
+			this.useTileBitmask = true;
+		} else {
+			// use the tile XY numbers of the requested tile
+			this.fromBaseTileX = tile.x;
+			this.fromBaseTileY = tile.y;
+			this.toBaseTileX = this.fromBaseTileX;
+			this.toBaseTileY = this.fromBaseTileY;
+			this.useTileBitmask = false;
+		}
+
+		// calculate the blocks in the file which need to be read
+		this.fromBlockX = Math.max(this.fromBaseTileX
+				- this.mapFileParameters.boundaryLeftTile, 0);
+		this.fromBlockY = Math.max(this.fromBaseTileY
+				- this.mapFileParameters.boundaryTopTile, 0);
+		this.toBlockX = Math.min(
+				this.toBaseTileX - this.mapFileParameters.boundaryLeftTile,
+				this.mapFileParameters.blocksWidth - 1);
+		this.toBlockY = Math.min(this.toBaseTileY - this.mapFileParameters.boundaryTopTile,
+				this.mapFileParameters.blocksHeight - 1);
+	}
+
+	/**
+	 * Returns a copy of the tag IDs which have been read for the current map element.
+	 * 
+	 * @return the tag IDs of the current map element.
+	 */
+	private short[] copyTagIds() {
+		this.tagIds = new short[this.numberOfTagIds];
+		System.arraycopy(this.tagIdBuffer, 0, this.tagIds, 0, this.numberOfTagIds);
+		return this.tagIds;
+	}
+
+	/**
+	 * Reads the blocks which cover the given tiles and passes their map elements to the
+	 * callbacks.
+	 * 
+	 * @param mapDatabase
+	 *            the map database with the opened map file.
+	 * @param tiles
+	 *            the tiles to read, all with the same zoom level.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @param mapDatabaseCallbacks
+	 *            the callbacks which handle the extracted map elements, one for each tile or a
+	 *            single one if the tiles are merged.
+	 * @param mergeTiles
+	 *            true if each block should be passed only once to the first callback, false
+	 *            otherwise.
+	 */
+	private void executeBatchedQuery(MapDatabase mapDatabase, Tile[] tiles,
+			boolean readWayNames, MapDatabaseCallback[] mapDatabaseCallbacks, boolean mergeTiles) {
+		try {
+			// reset the stop execution flag
+			this.stopCurrentQuery = false;
+
+			// check the query parameters
+			if (tiles.length == 0) {
+				return;
+			} else if (!mergeTiles && tiles.length != mapDatabaseCallbacks.length) {
+				Logger.d("invalid number of callbacks: " + mapDatabaseCallbacks.length);
+				return;
+			}
+
+			// prepare this query context for the given map database and zoom level
+			if (!prepareQuery(mapDatabase, tiles[0].zoomLevel, readWayNames)) {
+				return;
+			}
+
+			// collect the blocks that cover the areas of all requested tiles
+			this.blockRequests.clear();
+			for (int tileIndex = 0; tileIndex < tiles.length; ++tileIndex) {
+				if (tiles[tileIndex].zoomLevel != tiles[0].zoomLevel) {
+					Logger.d("invalid zoom level: " + tiles[tileIndex].zoomLevel);
+					return;
+				}
+				calculateBlocks(tiles[tileIndex]);
+				for (this.currentRow = this.fromBlockY; this.currentRow <= this.toBlockY; ++this.currentRow) {
+					for (this.currentColumn = this.fromBlockX; this.currentColumn <= this.toBlockX; ++this.currentColumn) {
+						this.blockRequests.add(new BlockRequest(this.currentRow
+								* this.mapFileParameters.blocksWidth + this.currentColumn,
+								tileIndex, this.useTileBitmask, this.queryTileBitmask));
+					}
+				}
+			}
+
+			// sort the blocks by their number which is also their order in the map file
+			Collections.sort(this.blockRequests);
+			if (mergeTiles) {
+				mergeBlockRequests();
+			}
+
+			// read each block once and pass its map elements to all tiles which need it
+			this.blockNumber = -1;
+			this.cachedBlock = null;
+			for (int i = 0; i < this.blockRequests.size(); ++i) {
+				// check if the query was interrupted
+				if (this.stopCurrentQuery) {
+					return;
+				}
+
+				this.blockRequest = this.blockRequests.get(i);
+				if (this.blockRequest.blockNumber != this.blockNumber) {
+					this.blockNumber = this.blockRequest.blockNumber;
+
+					// check if the decoded block is in the block cache
+					this.cachedBlock = null;
+					if (this.blockCache != null) {
+						this.blockCacheEntryKey = new BlockCacheEntryKey(this.mapFileParameters,
+								this.blockNumber, this.queryZoomLevel, this.queryReadWayNames);
+						this.cachedBlock = this.blockCache.get(this.blockCacheEntryKey);
+					}
+
+					if (this.cachedBlock == null) {
+						// read the current block and skip it if it is empty or too large
+						if (!readCurrentBlock()) {
+							return;
+						} else if (this.blockBuffer != null) {
+							// decode the current block into a new cached block
+							this.cachedBlock = new CachedBlock();
+							if (processBlock(mapDatabaseCallbacks[this.blockRequest.tileIndex])
+									&& this.blockCache != null) {
+								// only complete blocks are put in the block cache
+								this.blockCache.put(this.blockCacheEntryKey, this.cachedBlock);
+							}
+						}
+					}
+				}
+
+				if (this.cachedBlock != null) {
+					this.cachedBlock.render(mapDatabaseCallbacks[this.blockRequest.tileIndex],
+							this.blockRequest.useTileBitmask, this.blockRequest.tileBitmask,
+							this.nodeTagIds, this.wayTagIds, this.defaultTagIds);
+				}
+			}
+		} catch (IOException e) {
+			Logger.e(e);
+		} finally {
+			this.blockRequest = null;
+			this.blockRequests.clear();
+			this.cachedBlock = null;
+		}
+	}
+
+
+	/**
+	 * Starts a batched database query for multiple tiles with the same zoom level. Each block
+	 * which is needed by at least one of the tiles is read and decoded only once, in the order
+	 * of the blocks in the map file. The decoded map elements are passed to the callbacks of
+	 * all tiles which need the block, filtered by the tile bitmask of each tile.
+	 * 
+	 * @param mapDatabase
+	 *            the map database with the opened map file.
+	 * @param tiles
+	 *            the tiles to read, all with the same zoom level.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @param mapDatabaseCallbacks
+	 *            the callbacks which handle the extracted map elements, one for each tile.
+	 */
+	void executeQuery(MapDatabase mapDatabase, Tile[] tiles, boolean readWayNames,
+			MapDatabaseCallback[] mapDatabaseCallbacks) {
+		executeBatchedQuery(mapDatabase, tiles, readWayNames, mapDatabaseCallbacks, false);
+	}
+
+	/**
+	 * Starts a database query for the combined area of multiple tiles with the same zoom
+	 * level. Each block which is needed by at least one of the tiles is read, decoded and
+	 * passed to the callback only once, filtered by the union of the tile bitmasks.
+	 * 
+	 * @param mapDatabase
+	 *            the map database with the opened map file.
+	 * @param tiles
+	 *            the tiles to read, all with the same zoom level.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @param mapDatabaseCallback
+	 *            the callback which handles the extracted map elements of all tiles.
+	 */
+	void executeQuery(MapDatabase mapDatabase, Tile[] tiles, boolean readWayNames,
+			MapDatabaseCallback mapDatabaseCallback) {
+		executeBatchedQuery(mapDatabase, tiles, readWayNames,
+				new MapDatabaseCallback[] { mapDatabaseCallback }, true);
+	}
+
+	/**
+	 * Starts a database query with the given parameters.
+	 * 
+	 * @param mapDatabase
+	 *            the map database with the opened map file.
+	 * @param tile
+	 *            the tile to read.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @param mapDatabaseCallback
+	 *            the callback which handles the extracted map elements.
+	 */
+	void executeQuery(MapDatabase mapDatabase, Tile tile, boolean readWayNames,
+			MapDatabaseCallback mapDatabaseCallback) {
+		try {
+			// reset the stop execution flag
+			this.stopCurrentQuery = false;
+
+			// prepare this query context for the given map database and zoom level
+			if (!prepareQuery(mapDatabase, tile.zoomLevel, readWayNames)) {
+				return;
+			}
+
+			// calculate the blocks that cover the area of the requested tile
+			calculateBlocks(tile);
+
+			// read and process all necessary blocks from top to bottom and from left to right
+			for (this.currentRow = this.fromBlockY; this.currentRow <= this.toBlockY; ++this.currentRow) {
+				for (this.currentColumn = this.fromBlockX; this.currentColumn <= this.toBlockX; ++this.currentColumn) {
+					// check if the query was interrupted
+					if (this.stopCurrentQuery) {
+						return;
+					}
+
+					// calculate the actual block number of the needed block in the file
+					this.blockNumber = this.currentRow * this.mapFileParameters.blocksWidth
+							+ this.currentColumn;
+
+					// check if the decoded block is in the block cache
+					this.cachedBlock = null;
+					if (this.blockCache != null) {
+						this.blockCacheEntryKey = new BlockCacheEntryKey(this.mapFileParameters,
+								this.blockNumber, this.queryZoomLevel, this.queryReadWayNames);
+						this.cachedBlock = this.blockCache.get(this.blockCacheEntryKey);
+						if (this.cachedBlock != null) {
+							// render the cached block and continue with the next block
+							this.cachedBlock.render(mapDatabaseCallback, this.useTileBitmask,
+									this.queryTileBitmask, this.nodeTagIds, this.wayTagIds,
+									this.defaultTagIds);
+							continue;
+						}
+						// decode the current block into a new cached block
+						this.cachedBlock = new CachedBlock();
+					}
+
+					// read the current block and skip it if it is empty or too large
+					if (!readCurrentBlock()) {
+						return;
+					} else if (this.blockBuffer == null) {
+						continue;
+					}
+
+					// handle the current block data
+					if (processBlock(mapDatabaseCallback) && this.cachedBlock != null) {
+						// only complete blocks are put in the block cache
+						this.blockCache.put(this.blockCacheEntryKey, this.cachedBlock);
+					}
+					if (this.cachedBlock != null) {
+						this.cachedBlock.render(mapDatabaseCallback, this.useTileBitmask,
+								this.queryTileBitmask, this.nodeTagIds, this.wayTagIds,
+								this.defaultTagIds);
+					}
+				}
+			}
+		} catch (IOException e) {
+			Logger.e(e);
+		}
+	}
+
+	/**
+	 * Returns the number of blocks which have been read from the map file since the counters
+	 * were reset. Blocks which are taken from the block cache are not counted.
+	 * 
+	 * @return the number of read blocks.
+	 */
+	int getBlocksRead() {
+		return this.blocksRead;
+	}
+
+	/**
+	 * Returns the number of bytes which have been read from the map file since the counters
+	 * were reset.
+	 * 
+	 * @return the number of read bytes.
+	 */
+	long getBytesRead() {
+		return this.bytesRead;
+	}
+
+	/**
+	 * Returns the time in nanoseconds which has been spent reading blocks since the counters
+	 * were reset. This includes the lookups in the index of the map file.
+	 * 
+	 * @return the read time in nanoseconds.
+	 */
+	long getReadTime() {
+		return this.readTime;
+	}
+
+	/**
+	 * Returns the string cache which resolves the names of the map elements.
+	 * 
+	 * @return the string cache of this query context.
+	 */
+	MapDatabaseStringCache getStringCache() {
+		return this.stringCache;
+	}
+
+	/**
+	 * Combines all requests for the same block into a single request for the first callback,
+	 * so that each block is rendered only once. The ways of the block are filtered with the
+	 * union of the tile bitmasks. The block requests must be sorted by their block number.
+	 */
+	private void mergeBlockRequests() {
+		int numberOfMergedRequests = 0;
+		BlockRequest mergedRequest = null;
+		for (int i = 0; i < this.blockRequests.size(); ++i) {
+			this.blockRequest = this.blockRequests.get(i);
+			if (mergedRequest != null
+					&& mergedRequest.blockNumber == this.blockRequest.blockNumber) {
+				mergedRequest = new BlockRequest(mergedRequest.blockNumber, 0,
+						mergedRequest.useTileBitmask && this.blockRequest.useTileBitmask,
+						mergedRequest.tileBitmask | this.blockRequest.tileBitmask);
+				this.blockRequests.set(numberOfMergedRequests - 1, mergedRequest);
+			} else {
+				mergedRequest = new BlockRequest(this.blockRequest.blockNumber, 0,
+						this.blockRequest.useTileBitmask, this.blockRequest.tileBitmask);
+				this.blockRequests.set(numberOfMergedRequests++, mergedRequest);
+			}
+		}
+		this.blockRequests.subList(numberOfMergedRequests, this.blockRequests.size()).clear();
+	}
+
+	/**
+	 * Prepares this query context for a query on the given map database.
+	 * 
+	 * @param mapDatabase
+	 *            the map database with the opened map file.
+	 * @param zoomLevel
+	 *            the zoom level of the requested tiles.
+	 * @param readWayNames
+	 *            if way names should be read.
+	 * @return true if the query can be executed, false otherwise.
+	 */
+	private boolean prepareQuery(MapDatabase mapDatabase, byte zoomLevel, boolean readWayNames) {
+		// prepare this query context for the given map database
+		this.mapDatabase = mapDatabase;
+		this.debugFile = mapDatabase.isDebugFile();
+		this.blockCache = mapDatabase.getBlockCache();
+		prepareTagIds(mapDatabase.getNodeTags().size(), mapDatabase.getWayTags().size());
+
+		// limit the zoom level of the requested tile for this query
+		if (zoomLevel > mapDatabase.getMaximumZoomLevel()) {
+			this.queryZoomLevel = mapDatabase.getMaximumZoomLevel();
+		} else if (zoomLevel < mapDatabase.getMinimumZoomLevel()) {
+			this.queryZoomLevel = mapDatabase.getMinimumZoomLevel();
+		} else {
+			this.queryZoomLevel = zoomLevel;
+		}
+
+		// get and check the map file for the query zoom level
+		this.mapFileParameters = mapDatabase.getMapFileParameters(this.queryZoomLevel);
+		if (this.mapFileParameters == null) {
+			Logger.d("no map file for zoom level: " + zoomLevel);
+			return false;
+		}
+
+		this.queryReadWayNames = readWayNames;
+		return true;
+	}
+
+	/**
+	 * Makes sure that the tag arrays match the number of tags in the current map file.
+	 * 
+	 * @param numberOfNodeTags
+	 *            the number of node tags in the map file.
+	 * @param numberOfWayTags
+	 *            the number of way tags in the map file.
+	 */
+	private void prepareTagIds(int numberOfNodeTags, int numberOfWayTags) {
+		if (this.nodeTagIds == null || this.nodeTagIds.length != numberOfNodeTags) {
+			this.nodeTagIds = new boolean[numberOfNodeTags];
+		}
+		if (this.wayTagIds == null || this.wayTagIds.length != numberOfWayTags) {
+			this.wayTagIds = new boolean[numberOfWayTags];
+		}
+		if (this.defaultTagIds == null
+				|| this.defaultTagIds.length != Math.max(numberOfNodeTags, numberOfWayTags)) {
+			this.defaultTagIds = new boolean[Math.max(numberOfNodeTags, numberOfWayTags)];
+		}
+	}
+
+	/**
+	 * Reads a single block and calls the render functions on all map elements. If a cached
+	 * block is set, all map elements are stored in it instead, regardless of the tile bitmask.
+	 * 
+	 * @param mapDatabaseCallback
+	 *            the callback which handles the extracted map elements.
+	 * @return true if the block was processed completely, false otherwise.
+	 * @throws UnsupportedEncodingException
+	 *             if string decoding fails.
+	 */
+	private boolean processBlock(MapDatabaseCallback mapDatabaseCallback)
+			throws UnsupportedEncodingException {
+		if (this.debugFile) {
+			// get and check the block signature
+			this.blockSignature = readString(SIGNATURE_LENGTH_BLOCK);
+			this.bufferPosition += SIGNATURE_LENGTH_BLOCK;
+			if (!this.blockSignature.startsWith("###TileStart")) {
+				Logger.d("invalid block signature: " + this.blockSignature);
+				return false;
+			}
+		}
+
+		// calculate the offset in the block entries table and move the pointer
+		this.blockEntriesTableOffset = (this.queryZoomLevel - this.mapFileParameters.zoomLevelMin) * 4;
+		this.bufferPosition += this.blockEntriesTableOffset;
+
+		// get the amount of way and nodes on the current zoomLevel level
+		this.nodesOnZoomLevel = this.blockBuffer.getShort(this.bufferPosition);
+		this.bufferPosition += 2;
+		this.waysOnZoomLevel = this.blockBuffer.getShort(this.bufferPosition);
+		this.bufferPosition += 2;
+
+		// move the pointer to the end of the block entries table
+		this.bufferPosition += this.mapFileParameters.blockEntriesTableSize
+				- this.blockEntriesTableOffset - 4;
+
+		// get the offset to the first stored way in the block (4 bytes)
+		this.firstWayOffset = this.blockBuffer.getInt(this.bufferPosition);
+		this.bufferPosition += 4;
+		if (this.firstWayOffset > this.currentBlockSize) {
+			Logger.d("invalid first way offset: " + this.firstWayOffset);
+			if (this.debugFile) {
+				Logger.d("block signature: " + this.blockSignature);
+			}
+			return false;
+		}
+
+		// get the nodes
+		for (this.elementCounter = this.nodesOnZoomLevel; this.elementCounter != 0; --this.elementCounter) {
+			if (this.debugFile) {
+				// get and check the node signature
+				this.nodeSignature = readString(SIGNATURE_LENGTH_NODE);
+				this.bufferPosition += SIGNATURE_LENGTH_NODE;
+				if (!this.nodeSignature.startsWith("***POIStart")) {
+					Logger.d("invalid node signature: " + this.nodeSignature);
+					return false;
+				}
+			}
+
+			// get the node latitude (4 bytes)
+			this.nodeLatitude = this.blockBuffer.getInt(this.bufferPosition);
+			this.bufferPosition += 4;
+
+			// get the node longitude (4 bytes)
+			this.nodeLongitude = this.blockBuffer.getInt(this.bufferPosition);
+			this.bufferPosition += 4;
+
+			// get the special byte that encodes multiple fields (1 byte)
+			this.nodeSpecialByte = this.blockBuffer.get(this.bufferPosition);
+			this.bufferPosition += 1;
+
+			// bit 1-4 of the special byte represent the node layer
+			this.nodeLayer = (byte) ((this.nodeSpecialByte & NODE_LAYER_BITMASK) >>> NODE_LAYER_SHIFT);
+			// bit 5-8 of the special byte represent the number of tag IDs
+			this.nodeNumberOfTags = (byte) (this.nodeSpecialByte & NODE_NUMBER_OF_TAGS_BITMASK);
+
+			// reset the node tag array
+			System.arraycopy(this.defaultTagIds, 0, this.nodeTagIds, 0, this.nodeTagIds.length);
+			this.numberOfTagIds = 0;
+			// get the node tag IDs (2 bytes per tag ID)
+			for (this.tempByte = this.nodeNumberOfTags; this.tempByte != 0; --this.tempByte) {
+				this.nodeTagId = this.blockBuffer.getShort(this.bufferPosition);
+				this.bufferPosition += 2;
+				if (this.nodeTagId < 0 || this.nodeTagId >= this.nodeTagIds.length) {
+					Logger.d("invalid node tag ID: " + this.nodeTagId);
+					if (this.debugFile) {
+						Logger.d("node signature: " + this.nodeSignature);
+					}
+					continue;
+				}
+				this.nodeTagIds[this.nodeTagId] = true;
+				this.tagIdBuffer[this.numberOfTagIds++] = this.nodeTagId;
+			}
+
+			// get the feature byte (1 byte)
+			this.nodeFeatureByte = this.blockBuffer.get(this.bufferPosition);
+			this.bufferPosition += 1;
+
+			// bit 1-3 of the node feature byte enable optional features
+			this.nodeFeatureName = (this.nodeFeatureByte & NODE_FEATURE_BITMASK_NAME) != 0;
+			this.nodeFeatureElevation = (this.nodeFeatureByte & NODE_FEATURE_BITMASK_ELEVATION) != 0;
+			this.nodeFeatureHouseNumber = (this.nodeFeatureByte & NODE_FEATURE_BITMASK_HOUSE_NUMBER) != 0;
+
+			// check if the node has a name
+			if (this.nodeFeatureName) {
+				// get and check the length of the node name (2 bytes)
+				this.stringLength = this.blockBuffer.getShort(this.bufferPosition);
+				this.bufferPosition += 2;
+				if (this.stringLength > 0) {
+					// get the node name
+					this.nodeName = this.stringCache.getString(this.blockBuffer,
+							this.bufferPosition, this.stringLength);
+					this.bufferPosition += this.stringLength;
+				} else {
+					Logger.d("invalid node name string length: " + this.stringLength);
+					if (this.debugFile) {
+						Logger.d("node signature: " + this.nodeSignature);
+					}
+					this.nodeName = null;
+				}
+			} else {
+				// no node name
+				this.nodeName = null;
+			}
+
+			// check if the node has an elevation
+			if (this.nodeFeatureElevation) {
+				// get the node elevation (2 bytes)
+				this.nodeElevation = Short.toString(this.blockBuffer.getShort(this.bufferPosition));
+				this.bufferPosition += 2;
+			} else {
+				// no elevation
+				this.nodeElevation = null;
+			}
+
+			// check if the node has a house number
+			if (this.nodeFeatureHouseNumber) {
+				// get and check the length of the node house number (2 bytes)
+				this.stringLength = this.blockBuffer.getShort(this.bufferPosition);
+				this.bufferPosition += 2;
+				if (this.stringLength > 0) {
+					// get the node house number
+					this.nodeHouseNumber = this.stringCache.getString(this.blockBuffer,
+							this.bufferPosition, this.stringLength);
+					this.bufferPosition += this.stringLength;
+				} else {
+					Logger.d("invalid house number string length: " + this.stringLength);
+					if (this.debugFile) {
+						Logger.d("node signature: " + this.nodeSignature);
+					}
+					this.nodeHouseNumber = null;
+				}
+			} else {
+				// no house number
+				this.nodeHouseNumber = null;
+			}
+
+			if (this.cachedBlock != null) {
+				// store the node in the cached block
+				this.cachedBlock.addPointOfInterest(new CachedPointOfInterest(this.nodeLayer,
+						this.nodeLatitude, this.nodeLongitude, this.nodeName,
+						this.nodeHouseNumber, this.nodeElevation, copyTagIds()));
+			} else {
+				// render the node
+				mapDatabaseCallback.renderPointOfInterest(this.nodeLayer, this.nodeLatitude,
+						this.nodeLongitude, this.nodeName, this.nodeHouseNumber,
+						this.nodeElevation, this.nodeTagIds, this.tagIdBuffer,
+						this.numberOfTagIds);
+			}
+		}
+
+		// finished reading nodes, check if the current buffer position is valid
+		if (this.bufferPosition > this.blockStartPosition + this.firstWayOffset) {
+			Logger.d("invalid buffer position: " + (this.bufferPosition - this.blockStartPosition)
+					+ " - " + this.firstWayOffset);
+			if (this.debugFile) {
+				Logger.d("block signature: " + this.blockSignature);
+			}
+			return false;
+		}
+
+		// move the pointer to the first way
+		this.bufferPosition = this.blockStartPosition + this.firstWayOffset;
+
+		// get the ways
+		for (this.elementCounter = this.waysOnZoomLevel; this.elementCounter != 0; --this.elementCounter) {
+			// remember the start position of the way, including the debug signature
+			this.wayStartPosition = this.bufferPosition;
+
+			if (this.debugFile) {
+				// get and check the way signature
+				this.waySignature = readString(SIGNATURE_LENGTH_WAY);
+				this.bufferPosition += SIGNATURE_LENGTH_WAY;
+				if (!this.waySignature.startsWith("---WayStart")) {
+					Logger.d("invalid way signature: " + this.waySignature);
+					return false;
+				}
+			}
+
+			// get and check the size of the way (4 bytes)
+			this.waySize = this.blockBuffer.getInt(this.bufferPosition);
+			this.bufferPosition += 4;
+			this.wayEndPosition = this.wayStartPosition + this.waySize;
+			if (this.wayEndPosition < this.bufferPosition + 2
+					|| this.wayEndPosition > this.blockStartPosition + this.currentBlockSize) {
+				Logger.d("invalid way size: " + this.waySize);
+				if (this.debugFile) {
+					Logger.d("way signature: " + this.waySignature);
+				}
+				return false;
+			}
+
+			// get the way tile bitmask (2 bytes)
+			this.wayTileBitmask = this.blockBuffer.getShort(this.bufferPosition);
+			this.bufferPosition += 2;
+			if (this.useTileBitmask && this.cachedBlock == null) {
+				// check if the way is inside the requested tile
+				if ((this.queryTileBitmask & this.wayTileBitmask) == 0) {
+					// skip the rest of the way and continue with the next way
+					this.bufferPosition = this.wayEndPosition;
+					continue;
+				}
+			}
+
+			// get the first special byte that encodes multiple fields (1 byte)
+			this.waySpecialByte1 = this.blockBuffer.get(this.bufferPosition);
+			this.bufferPosition += 1;
+
+			// bit 1-4 of the first special byte represent the way layer
+			this.wayLayer = (byte) ((this.waySpecialByte1 & WAY_LAYER_BITMASK) >>> WAY_LAYER_SHIFT);
+			// bit 5-8 of the first special byte represent the number of tag IDs
+			this.wayNumberOfTags = (byte) (this.waySpecialByte1 & WAY_NUMBER_OF_TAGS_BITMASK);
+
+			// get the second special byte that encodes multiple fields (1 byte)
+			this.waySpecialByte2 = this.blockBuffer.get(this.bufferPosition);
+			this.bufferPosition += 1;
+
+			// bit 1-3 of the second special byte represent the number of relevant tags
+			this.wayNumberOfRelevantTags = (byte) ((this.waySpecialByte2 & WAY_RELEVANT_TAGS_BITMASK) >>> WAY_RELEVANT_TAGS_SHIFT);
+			// bit 7-8 of the second special byte represent the way node compression mode
+			this.wayNodeCompressionMode = (byte) (this.waySpecialByte2 & WAY_COMPRESSION_MODE_BITMASK);
+
+			// get the way tag bitmap (1 byte)
+			this.wayTagBitmap = this.blockBuffer.get(this.bufferPosition);
+			this.bufferPosition += 1;
+
+			// reset the way tag array
+			System.arraycopy(this.defaultTagIds, 0, this.wayTagIds, 0, this.wayTagIds.length);
+			this.numberOfTagIds = 0;
+			// get the way tag IDs (2 bytes per tag ID)
+			for (this.tempByte = this.wayNumberOfTags; this.tempByte != 0; --this.tempByte) {
+				this.wayTagId = this.blockBuffer.getShort(this.bufferPosition);
+				this.bufferPosition += 2;
+				if (this.wayTagId < 0 || this.wayTagId >= this.wayTagIds.length) {
+					Logger.d("invalid way tag ID: " + this.wayTagId);
+					if (this.debugFile) {
+						Logger.d("way signature: " + this.waySignature);
+					}
+					continue;
+				}
+				this.wayTagIds[this.wayTagId] = true;
+				this.tagIdBuffer[this.numberOfTagIds++] = this.wayTagId;
+			}
+
+			// get and check the number of way nodes (2 bytes)
+			this.wayNumberOfWayNodes = this.blockBuffer.getShort(this.bufferPosition);
+			this.bufferPosition += 2;
+			if (this.wayNumberOfWayNodes < 1
+					|| this.wayNumberOfWayNodes > MAXIMUM_WAY_NODES_SEQUENCE_LENGTH) {
+				Logger.d("invalid number of way nodes: " + this.wayNumberOfWayNodes);
+				if (this.debugFile) {
+					Logger.d("way signature: " + this.waySignature);
+				}
+				// skip the rest of the way and continue with the next way
+				this.bufferPosition = this.wayEndPosition;
+				continue;
+			}
+
+			// each way node consists of latitude and longitude fields
+			this.wayNodesSequenceLength = (short) (this.wayNumberOfWayNodes * 2);
+
+			// make sure that the array for the way nodes is large enough
+			if (this.wayNodesSequenceLength > this.wayNodesSequence.length) {
+				this.wayNodesSequence = new int[this.wayNodesSequenceLength];
+			}
+
+			// get the first way node latitude (4 bytes)
+			this.wayNodeLatitude = this.blockBuffer.getInt(this.bufferPosition);
+			this.bufferPosition += 4;
+			// get the first way node longitude (4 bytes)
+			this.wayNodeLongitude = this.blockBuffer.getInt(this.bufferPosition);
+			this.bufferPosition += 4;
+
+			// store the first way node
+			this.wayNodesSequence[1] = this.wayNodeLatitude;
+			this.wayNodesSequence[0] = this.wayNodeLongitude;
+
+			// get the remaining way nodes
+			switch (this.wayNodeCompressionMode) {
+				case WAY_NODES_UNCOMPRESSED:
+					// 4 bytes per coordinate (uncompressed)
+					for (this.tempShort = 2; this.tempShort < this.wayNodesSequenceLength; this.tempShort += 2) {
+						// get the way node latitude (4 bytes)
+						this.wayNodeLatitude = this.blockBuffer.getInt(this.bufferPosition);
+						this.bufferPosition += 4;
+						// get the way node longitude (4 bytes)
+						this.wayNodeLongitude = this.blockBuffer.getInt(this.bufferPosition);
+						this.bufferPosition += 4;
+
+						// store the inner way node
+						this.wayNodesSequence[this.tempShort] = this.wayNodeLongitude;
+						this.wayNodesSequence[this.tempShort + 1] = this.wayNodeLatitude;
+					}
+					break;
+				case WAY_NODES_COMPRESSED_3_BYTES:
+					// 3 bytes per coordinate (offset compression)
+					for (this.tempShort = 2; this.tempShort < this.wayNodesSequenceLength; this.tempShort += 2) {
+						// get the way node latitude offset (3 bytes)
+						this.wayNodeLatitude = Deserializer.threeBytesToSignedInt(
+								this.blockBuffer, this.bufferPosition);
+						this.bufferPosition += 3;
+						// get the way node longitude offset (3 bytes)
+						this.wayNodeLongitude = Deserializer.threeBytesToSignedInt(
+								this.blockBuffer, this.bufferPosition);
+						this.bufferPosition += 3;
+
+						// calculate the way node coordinates
+						this.wayNodesSequence[this.tempShort] = this.wayNodesSequence[this.tempShort - 2]
+								+ this.wayNodeLongitude;
+						this.wayNodesSequence[this.tempShort + 1] = this.wayNodesSequence[this.tempShort - 1]
+								+ this.wayNodeLatitude;
+					}
+					break;
+				case WAY_NODES_COMPRESSED_2_BYTES:
+					// 2 bytes per coordinate (offset compression)
+					for (this.tempShort = 2; this.tempShort < this.wayNodesSequenceLength; this.tempShort += 2) {
+						// get the way node latitude offset (2 bytes)
+						this.wayNodeLatitude = this.blockBuffer.getShort(this.bufferPosition);
+						this.bufferPosition += 2;
+						// get the way node longitude offset (2 bytes)
+						this.wayNodeLongitude = this.blockBuffer.getShort(this.bufferPosition);
+						this.bufferPosition += 2;
+
+						// calculate the way node coordinates
+						this.wayNodesSequence[this.tempShort] = this.wayNodesSequence[this.tempShort - 2]
+								+ this.wayNodeLongitude;
+						this.wayNodesSequence[this.tempShort + 1] = this.wayNodesSequence[this.tempShort - 1]
+								+ this.wayNodeLatitude;
+					}
+					break;
+				case WAY_NODES_COMPRESSED_1_BYTE:
+					// 1 byte per coordinate (offset compression)
+					for (this.tempShort = 2; this.tempShort < this.wayNodesSequenceLength; this.tempShort += 2) {
+						// get the way node latitude offset (1 byte)
+						this.wayNodeLatitude = this.blockBuffer.get(this.bufferPosition);
+						this.bufferPosition += 1;
+						// get the way node longitude offset (1 byte)
+						this.wayNodeLongitude = this.blockBuffer.get(this.bufferPosition);
+						this.bufferPosition += 1;
+
+						// calculate the way node coordinates
+						this.wayNodesSequence[this.tempShort] = this.wayNodesSequence[this.tempShort - 2]
+								+ this.wayNodeLongitude;
+						this.wayNodesSequence[this.tempShort + 1] = this.wayNodesSequence[this.tempShort - 1]
+								+ this.wayNodeLatitude;
+					}
+					break;
+
+				default:
+					Logger.d("invalid way node compression mode");
+					if (this.debugFile) {
+						Logger.d("way signature: " + this.waySignature);
+					}
+					break;
+			}
+
+			// get the feature byte (1 byte)
+			this.wayFeatureByte = this.blockBuffer.get(this.bufferPosition);
+			this.bufferPosition += 1;
+
+			// bit 1-4 of the way feature byte enable optional features
+			this.wayFeatureName = (this.wayFeatureByte & WAY_FEATURE_BITMASK_NAME) != 0;
+			this.wayFeatureRef = (this.wayFeatureByte & WAY_FEATURE_BITMASK_REF) != 0;
+			this.wayFeatureLabelPosition = (this.wayFeatureByte & WAY_FEATURE_BITMASK_LABEL_POSITION) != 0;
+			this.wayFeatureMultipolygon = (this.wayFeatureByte & WAY_FEATURE_BITMASK_MULTIPOLYGON) != 0;
+
+			// check if the way has a name
+			if (this.wayFeatureName) {
+				// get and check the length of the way name (2 bytes)
+				this.stringLength = this.blockBuffer.getShort(this.bufferPosition);
+				this.bufferPosition += 2;
+				if (this.stringLength > 0) {
+					if (this.queryReadWayNames) {
+						// get the way name
+						this.wayName = this.stringCache.getString(this.blockBuffer,
+								this.bufferPosition, this.stringLength);
+					} else {
+						this.wayName = null;
+					}
+					this.bufferPosition += this.stringLength;
+				} else {
+					Logger.d("invalid way name string length: " + this.stringLength);
+					if (this.debugFile) {
+						Logger.d("way signature: " + this.waySignature);
+					}
+					this.wayName = null;
+				}
+			} else {
+				// no way name
+				this.wayName = null;
+			}
+
+			// check if the way has a reference
+			if (this.wayFeatureRef) {
+				// get and check the length of the way reference (2 bytes)
+				this.stringLength = this.blockBuffer.getShort(this.bufferPosition);
+				this.bufferPosition += 2;
+				if (this.stringLength > 0) {
+					if (this.queryReadWayNames) {
+						// get the way reference
+						this.wayRef = this.stringCache.getString(this.blockBuffer,
+								this.bufferPosition, this.stringLength);
+					} else {
+						this.wayRef = null;
+					}
+					this.bufferPosition += this.stringLength;
+				} else {
+					Logger.d("invalid way reference string length: " + this.stringLength);
+					if (this.debugFile) {
+						Logger.d("way signature: " + this.waySignature);
+					}
+					this.wayRef = null;
+				}
+			} else {
+				// no reference
+				this.wayRef = null;
+			}
+
+			// check if the way has a label position
+			if (this.wayFeatureLabelPosition) {
+				this.wayLabelPosition = new int[2];
+				// get the label position latitude (4 bytes)
+				this.wayLabelPosition[0] = this.blockBuffer.getInt(this.bufferPosition);
+				this.bufferPosition += 4;
+				// get the label position longitude (4 bytes)
+				this.wayLabelPosition[1] = this.blockBuffer.getInt(this.bufferPosition);
+				this.bufferPosition += 4;
+			} else {
+				// no label position
+				this.wayLabelPosition = null;
+			}
+
+			// check if the way represents a multipolygon
+			if (this.wayFeatureMultipolygon) {
+				// get the amount of inner ways (1 byte)
+				this.wayNumberOfInnerWays = this.blockBuffer.get(this.bufferPosition);
+				this.bufferPosition += 1;
+
+				if (this.wayNumberOfInnerWays > 0) {
+					// create a two-dimensional array for the coordinates of the inner ways
+					this.wayInnerWays = new int[this.wayNumberOfInnerWays][];
+
+					// for each inner way
+					for (this.tempByte = (byte) (this.wayNumberOfInnerWays - 1); this.tempByte >= 0; --this.tempByte) {
+						// get and check the number of inner way nodes (2 bytes)
+						this.innerWayNumberOfWayNodes = this.blockBuffer
+								.getShort(this.bufferPosition);
+						this.bufferPosition += 2;
+						if (this.innerWayNumberOfWayNodes < 1
+								|| this.innerWayNumberOfWayNodes > MAXIMUM_WAY_NODES_SEQUENCE_LENGTH) {
+							Logger.d("invalid inner way number of way nodes: "
+									+ this.innerWayNumberOfWayNodes);
+							if (this.debugFile) {
+								Logger.d("way signature: " + this.waySignature);
+							}
+							return false;
+						}
+
+						// each inner way node consists of a latitude and a longitude field
+						this.innerWayNodesSequenceLength = (short) (this.innerWayNumberOfWayNodes * 2);
+
+						// create an array for the inner way coordinates
+						this.innerWay = new int[this.innerWayNodesSequenceLength];
+
+						// get the first inner way node latitude (4 bytes)
+						this.wayNodeLatitude = this.blockBuffer.getInt(this.bufferPosition);
+						this.bufferPosition += 4;
+						// get the first inner way node longitude (4 bytes)
+						this.wayNodeLongitude = this.blockBuffer.getInt(this.bufferPosition);
+						this.bufferPosition += 4;
+
+						// store the first inner way node
+						this.innerWay[1] = this.wayNodeLatitude;
+						this.innerWay[0] = this.wayNodeLongitude;
+
+						// get and store the remaining inner way nodes
+						switch (this.wayNodeCompressionMode) {
+							case WAY_NODES_UNCOMPRESSED:
+								// 4 bytes per coordinate (uncompressed)
+								for (this.tempShort = 2; this.tempShort < this.innerWayNodesSequenceLength; this.tempShort += 2) {
+									// get the inner way node latitude (4 bytes)
+									this.wayNodeLatitude = this.blockBuffer
+											.getInt(this.bufferPosition);
+									this.bufferPosition += 4;
+									// get the inner way node longitude (4 bytes)
+									this.wayNodeLongitude = this.blockBuffer
+											.getInt(this.bufferPosition);
+									this.bufferPosition += 4;
+
+									// store the inner way node
+									this.innerWay[this.tempShort] = this.wayNodeLongitude;
+									this.innerWay[this.tempShort + 1] = this.wayNodeLatitude;
+								}
+								break;
+							case WAY_NODES_COMPRESSED_3_BYTES:
+								// 3 bytes per coordinate (offset compression)
+								for (this.tempShort = 2; this.tempShort < this.innerWayNodesSequenceLength; this.tempShort += 2) {
+									// get the inner way node latitude offset (3 bytes)
+									this.wayNodeLatitude = Deserializer.threeBytesToSignedInt(
+											this.blockBuffer, this.bufferPosition);
+									this.bufferPosition += 3;
+									// get the inner way node longitude offset (3 bytes)
+									this.wayNodeLongitude = Deserializer.threeBytesToSignedInt(
+											this.blockBuffer, this.bufferPosition);
+									this.bufferPosition += 3;
+
+									// calculate the inner way node coordinates
+									this.innerWay[this.tempShort] = this.innerWay[this.tempShort - 2]
+											+ this.wayNodeLongitude;
+									this.innerWay[this.tempShort + 1] = this.innerWay[this.tempShort - 1]
+											+ this.wayNodeLatitude;
+								}
+								break;
+							case WAY_NODES_COMPRESSED_2_BYTES:
+								// 2 bytes per coordinate (offset compression)
+								for (this.tempShort = 2; this.tempShort < this.innerWayNodesSequenceLength; this.tempShort += 2) {
+									// get the inner way node latitude offset (2 bytes)
+									this.wayNodeLatitude = this.blockBuffer
+											.getShort(this.bufferPosition);
+									this.bufferPosition += 2;
+									// get the inner way node longitude offset (2 bytes)
+									this.wayNodeLongitude = this.blockBuffer
+											.getShort(this.bufferPosition);
+									this.bufferPosition += 2;
+
+									// calculate the inner way node coordinates
+									this.innerWay[this.tempShort] = this.innerWay[this.tempShort - 2]
+											+ this.wayNodeLongitude;
+									this.innerWay[this.tempShort + 1] = this.innerWay[this.tempShort - 1]
+											+ this.wayNodeLatitude;
+								}
+								break;
+							case WAY_NODES_COMPRESSED_1_BYTE:
+								// 1 byte per coordinate (offset compression)
+								for (this.tempShort = 2; this.tempShort < this.innerWayNodesSequenceLength; this.tempShort += 2) {
+									// get the inner way node latitude offset (1 byte)
+									this.wayNodeLatitude = this.blockBuffer
+											.get(this.bufferPosition);
+									this.bufferPosition += 1;
+									// get the inner way node longitude offset (1 byte)
+									this.wayNodeLongitude = this.blockBuffer
+											.get(this.bufferPosition);
+									this.bufferPosition += 1;
+
+									// calculate the inner way node coordinates
+									this.innerWay[this.tempShort] = this.innerWay[this.tempShort - 2]
+											+ this.wayNodeLongitude;
+									this.innerWay[this.tempShort + 1] = this.innerWay[this.tempShort - 1]
+											+ this.wayNodeLatitude;
+								}
+								break;
+
+							default:
+								Logger.d("invalid way node compression mode");
+								if (this.debugFile) {
+									Logger.d("way signature: " + this.waySignature);
+								}
+								break;
+						}
+
+						// store the inner way
+						this.wayInnerWays[this.tempByte] = this.innerWay;
+					}
+				} else {
+					Logger.d("invalid way number of inner ways: " + this.wayNumberOfInnerWays);
+					if (this.debugFile) {
+						Logger.d("way signature: " + this.waySignature);
+					}
+					this.wayInnerWays = null;
+				}
+			} else {
+				// no multipolygon
+				this.wayInnerWays = null;
+			}
+
+			if (this.cachedBlock != null) {
+				// store a copy of the way nodes and the way in the cached block
+				this.cachedWayNodesSequence = new int[this.wayNodesSequenceLength];
+				System.arraycopy(this.wayNodesSequence, 0, this.cachedWayNodesSequence, 0,
+						this.wayNodesSequenceLength);
+				this.cachedBlock.addWay(new CachedWay(this.wayTileBitmask, this.wayLayer,
+						this.wayNumberOfRelevantTags, this.wayName, this.wayRef,
+						this.wayLabelPosition, copyTagIds(), this.wayTagBitmap,
+						this.cachedWayNodesSequence, this.wayInnerWays));
+			} else {
+				// render the way
+				mapDatabaseCallback.renderWay(this.wayLayer, this.wayNumberOfRelevantTags,
+						this.wayName, this.wayRef, this.wayLabelPosition, this.wayTagIds,
+						this.tagIdBuffer, this.numberOfTagIds, this.wayTagBitmap,
+						this.wayNodesSequenceLength, this.wayNodesSequence, this.wayInnerWays);
+			}
+
+			// move to the end of the way to skip any unknown data
+			this.bufferPosition = this.wayEndPosition;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the current block from the map file. If the block is empty or too large to be
+	 * processed, the block buffer is set to null.
+	 * 
+	 * @return true if the query can be continued, false otherwise.
+	 * @throws IOException
+	 *             if an error occurs while reading the map file.
+	 */
+	private boolean readCurrentBlock() throws IOException {
+		this.readStartTime = System.nanoTime();
+		try {
+			// get and check the current block pointer
+			this.currentBlockPointer = this.mapDatabase.getBlockAddress(
+					this.mapFileParameters, this.blockNumber);
+			if (this.currentBlockPointer < 1
+					|| this.currentBlockPointer > this.mapFileParameters.mapFileSize) {
+				Logger.d("invalid current block pointer: " + this.currentBlockPointer);
+				Logger.d("mapFileSize: " + this.mapFileParameters.mapFileSize);
+				return false;
+			}
+
+			// check if the current block is the last block in the file
+			if (this.blockNumber + 1 == this.mapFileParameters.numberOfBlocks) {
+				// set the next block pointer to the end of the file
+				this.nextBlockPointer = this.mapFileParameters.mapFileSize;
+			} else {
+				// get and check the next block pointer
+				this.nextBlockPointer = this.mapDatabase.getBlockAddress(
+						this.mapFileParameters, this.blockNumber + 1);
+				if (this.nextBlockPointer < 1
+						|| this.nextBlockPointer > this.mapFileParameters.mapFileSize) {
+					Logger.d("invalid next block pointer: " + this.nextBlockPointer);
+					Logger.d("mapFileSize: " + this.mapFileParameters.mapFileSize);
+					return false;
+				}
+			}
+
+			// calculate the size of the current block
+			this.currentBlockSize = (int) (this.nextBlockPointer - this.currentBlockPointer);
+			if (this.currentBlockSize < 0) {
+				Logger.d("invalid current block size: " + this.currentBlockSize);
+				return false;
+			} else if (this.currentBlockSize == 0) {
+				// the current block is empty, continue with the next block
+				this.blockBuffer = null;
+				return true;
+			} else if (this.currentBlockSize > MAXIMUM_BLOCK_SIZE) {
+				// the current block is too large, continue with the next block
+				this.blockBuffer = null;
+				return true;
+			} else if (this.currentBlockPointer + this.currentBlockSize > this.mapDatabase
+					.getFileSize()) {
+				Logger.d("invalid current block size: " + this.currentBlockSize);
+				return false;
+			}
+
+			// get the mapped map file for the query zoom level, if any
+			this.blockBuffer = this.mapDatabase.getMappedMapFile(this.queryZoomLevel);
+			if (this.blockBuffer != null) {
+				// decode the current block directly from the mapped map file
+				this.blockStartPosition = (int) this.currentBlockPointer;
+			} else {
+				// make sure that the read buffer is large enough
+				if (this.readBuffer == null || this.currentBlockSize > this.readBuffer.length) {
+					this.readBuffer = new byte[this.currentBlockSize];
+					this.readBufferWrapper = ByteBuffer.wrap(this.readBuffer);
+				}
+
+				// read the current block from the map file into the buffer
+				if (!this.mapDatabase.readBlock(this.mapFileParameters.startAddress
+						+ this.currentBlockPointer, this.readBufferWrapper,
+						this.currentBlockSize)) {
+					// if reading the current block has failed, skip it
+					Logger.d("reading current block has failed");
+					return false;
+				}
+				this.blockBuffer = this.readBufferWrapper;
+				this.blockStartPosition = 0;
+			}
+			this.bufferPosition = this.blockStartPosition;
+			++this.blocksRead;
+			this.bytesRead += this.currentBlockSize;
+			return true;
+		} finally {
+			this.readTime += System.nanoTime() - this.readStartTime;
+		}
+	}
+
+	/**
+	 * Decodes a UTF-8 string of the given length at the current position of the block buffer.
+	 * The buffer position is not changed.
+	 * 
+	 * @param length
+	 *            the length of the string in bytes.
+	 * @return the decoded string.
+	 * @throws UnsupportedEncodingException
+	 *             if string decoding fails.
+	 */
+	private String readString(int length) throws UnsupportedEncodingException {
+		if (this.blockBuffer.hasArray()) {
+			return new String(this.blockBuffer.array(), this.blockBuffer.arrayOffset()
+					+ this.bufferPosition, length, "UTF-8");
+		}
+
+		// copy the bytes out of the mapped buffer
+		if (this.stringBuffer == null || this.stringBuffer.length < length) {
+			this.stringBuffer = new byte[length];
+		}
+		for (this.tempInt = 0; this.tempInt < length; ++this.tempInt) {
+			this.stringBuffer[this.tempInt] = this.blockBuffer.get(this.bufferPosition
+					+ this.tempInt);
+		}
+		return new String(this.stringBuffer, 0, length, "UTF-8");
+	}
+
+	/**
+	 * Resets the block and byte counters and the read time of this query context.
+	 */
+	void resetCounters() {
+		this.blocksRead = 0;
+		this.bytesRead = 0;
+		this.readTime = 0;
+	}
+
+	/**
+	 * Notifies this query context to stop the currently executed query.
+	 */
+	void stopCurrentQuery() {
+		this.stopCurrentQuery = true;
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+
+/**
+ * A bounded cache which maps the raw UTF-8 bytes of strings to their decoded String instances.
+ * Names and references of map elements repeat heavily across tiles and zoom levels, so a
+ * repeated string is resolved to the same instance without any allocation. The cache is
+ * direct-mapped, a new string replaces the string in its slot. It is not thread-safe, each
+ * query context has its own string cache.
+ */
+class MapDatabaseStringCache {
+	/**
+	 * Number of slots in the cache, must be a power of two.
+	 */
+	private static final int CAPACITY = 1024;
+
+	/**
+	 * FNV-1a offset basis for the hash calculation.
+	 */
+	private static final int HASH_OFFSET_BASIS = 0x811c9dc5;
+
+	/**
+	 * FNV-1a prime for the hash calculation.
+	 */
+	private static final int HASH_PRIME = 0x01000193;
+
+	/**
+	 * Maximum length in bytes of strings which are stored in the cache.
+	 */
+	private static final int MAXIMUM_STRING_LENGTH = 64;
+
+	private int hash;
+	private int hits;
+	private byte[] key;
+	private final byte[][] keys;
+	private int misses;
+	private int slot;
+	private String string;
+	private final String[] strings;
+	private int tempInt;
+
+	/**
+	 * Constructs a new empty string cache.
+	 */
+	MapDatabaseStringCache() {
+		this.keys = new byte[CAPACITY][];
+		this.strings = new String[CAPACITY];
+	}
+
+	/**
+	 * Decodes the UTF-8 string at the given position of the buffer.
+	 * 
+	 * @param buffer
+	 *            the buffer which contains the encoded string.
+	 * @param offset
+	 *            the absolute offset of the string in the buffer.
+	 * @param length
+	 *            the length of the encoded string in bytes.
+	 * @return the decoded string.
+	 * @throws UnsupportedEncodingException
+	 *             if string decoding fails.
+	 */
+	private String decodeString(ByteBuffer buffer, int offset, int length)
+			throws UnsupportedEncodingException {
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + offset, length, "UTF-8");
+		}
+		byte[] bytes = new byte[length];
+		for (this.tempInt = 0; this.tempInt < length; ++this.tempInt) {
+			bytes[this.tempInt] = buffer.get(offset + this.tempInt);
+		}
+		return new String(bytes, 0, length, "UTF-8");
+	}
+
+	/**
+	 * Checks if the given key matches the bytes at the given position of the buffer.
+	 * 
+	 * @param buffer
+	 *            the buffer which contains the bytes.
+	 * @param offset
+	 *            the absolute offset of the bytes in the buffer.
+	 * @param length
+	 *            the number of bytes.
+	 * @return true if the key matches, false otherwise.
+	 */
+	private boolean matches(ByteBuffer buffer, int offset, int length) {
+		if (this.key == null || this.key.length != length) {
+			return false;
+		}
+		for (this.tempInt = 0; this.tempInt < length; ++this.tempInt) {
+			if (this.key[this.tempInt] != buffer.get(offset + this.tempInt)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of strings which have been found in the cache.
+	 * 
+	 * @return the number of cache hits.
+	 */
+	int getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Returns the number of strings which had to be decoded.
+	 * 
+	 * @return the number of cache misses.
+	 */
+	int getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Returns the string which is encoded in UTF-8 at the given position of the buffer. The
+	 * position of the buffer is not modified.
+	 * 
+	 * @param buffer
+	 *            the buffer which contains the encoded string.
+	 * @param offset
+	 *            the absolute offset of the string in the buffer.
+	 * @param length
+	 *            the length of the encoded string in bytes.
+	 * @return the decoded string.
+	 * @throws UnsupportedEncodingException
+	 *             if string decoding fails.
+	 */
+	String getString(ByteBuffer buffer, int offset, int length)
+			throws UnsupportedEncodingException {
+		if (length > MAXIMUM_STRING_LENGTH) {
+			// long strings are rare and not worth caching
+			++this.misses;
+			return decodeString(buffer, offset, length);
+		}
+
+		// calculate the FNV-1a hash of the encoded bytes
+		this.hash = HASH_OFFSET_BASIS;
+		for (this.tempInt = 0; this.tempInt < length; ++this.tempInt) {
+			this.hash = (this.hash ^ (buffer.get(offset + this.tempInt) & 0xff)) * HASH_PRIME;
+		}
+		this.slot = (this.hash ^ (this.hash >>> 16)) & (CAPACITY - 1);
+
+		// check if the slot contains the same bytes
+		this.key = this.keys[this.slot];
+		if (matches(buffer, offset, length)) {
+			++this.hits;
+			return this.strings[this.slot];
+		}
+
+		// decode the string and replace the current content of the slot
+		++this.misses;
+		this.string = decodeString(buffer, offset, length);
+		this.key = new byte[length];
+		for (this.tempInt = 0; this.tempInt < length; ++this.tempInt) {
+			this.key[this.tempInt] = buffer.get(offset + this.tempInt);
+		}
+		this.keys[this.slot] = this.key;
+		this.strings[this.slot] = this.string;
+		return this.string;
+	}
+
+	/**
+	 * Resets the hit and miss counters.
+	 */
+	void resetCounters() {
+		this.hits = 0;
+		this.misses = 0;
+	}
+}
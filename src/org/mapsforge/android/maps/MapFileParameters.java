@@ -16,8 +16,6 @@
  */
 package org.mapsforge.android.maps;
 
-import android.graphics.Rect;
-
 /**
  * Holds all parameters of a map file.
  */
@@ -114,11 +112,18 @@ class MapFileParameters {
 	 *            the minimum zoom level of the map file.
 	 * @param tileZoomLevelMax
 	 *            the maximum zoom level of the map file.
-	 * @param mapBoundary
-	 *            the boundary of the map file.
+	 * @param boundaryTop
+	 *            the maximum latitude of the map file in microdegrees.
+	 * @param boundaryLeft
+	 *            the minimum longitude of the map file in microdegrees.
+	 * @param boundaryBottom
+	 *            the minimum latitude of the map file in microdegrees.
+	 * @param boundaryRight
+	 *            the maximum longitude of the map file in microdegrees.
 	 */
 	MapFileParameters(long startAddress, long indexStartAddress, long mapFileSize,
-			byte baseZoomLevel, byte tileZoomLevelMin, byte tileZoomLevelMax, Rect mapBoundary) {
+			byte baseZoomLevel, byte tileZoomLevelMin, byte tileZoomLevelMax, int boundaryTop,
+			int boundaryLeft, int boundaryBottom, int boundaryRight) {
 		this.startAddress = startAddress;
 		this.indexStartAddress = indexStartAddress;
 		this.mapFileSize = mapFileSize;
@@ -128,13 +133,13 @@ class MapFileParameters {
 		this.hashCode = calculateHashCode();
 
 		// calculate the XY numbers of the boundary tiles in this map file
-		this.boundaryTopTile = MercatorProjection.latitudeToTileY(mapBoundary.bottom
+		this.boundaryTopTile = MercatorProjection.latitudeToTileY(boundaryTop
 				/ COORDINATES_DIVISOR, this.baseZoomLevel);
-		this.boundaryLeftTile = MercatorProjection.longitudeToTileX(mapBoundary.left
+		this.boundaryLeftTile = MercatorProjection.longitudeToTileX(boundaryLeft
 				/ COORDINATES_DIVISOR, this.baseZoomLevel);
-		this.boundaryBottomTile = MercatorProjection.latitudeToTileY(mapBoundary.top
+		this.boundaryBottomTile = MercatorProjection.latitudeToTileY(boundaryBottom
 				/ COORDINATES_DIVISOR, this.baseZoomLevel);
-		this.boundaryRightTile = MercatorProjection.longitudeToTileX(mapBoundary.right
+		this.boundaryRightTile = MercatorProjection.longitudeToTileX(boundaryRight
 				/ COORDINATES_DIVISOR, this.baseZoomLevel);
 
 		// calculate the horizontal and vertical amount of blocks in this map file
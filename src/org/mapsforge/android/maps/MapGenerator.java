@@ -16,56 +16,60 @@
  */
 package org.mapsforge.android.maps;
 
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 import android.graphics.Bitmap;
 
 /**
  * A MapGenerator provides map images. This abstract base class handles all thread specific
- * actions and provides the queue for jobs, which need to be processed and scheduled.
+ * actions and provides the queue for jobs, which need to be processed and scheduled. Multiple
+ * MapGenerator threads may share the same job queue to process the jobs in parallel.
  */
 abstract class MapGenerator extends Thread {
 	private static final GeoPoint DEFAULT_START_POINT = new GeoPoint(51.33, 10.45);
 	private static final byte DEFAULT_ZOOM_LEVEL = 5;
 	private MapGeneratorJob currentMapGeneratorJob;
+	private MapGeneratorMetrics currentMetrics;
 	private Bitmap currentTileBitmap;
-	private PriorityQueue<MapGeneratorJob> jobQueue1;
-	private PriorityQueue<MapGeneratorJob> jobQueue2;
+	private MapGeneratorJobQueue jobQueue;
+	private long jobStartTime;
 	private MapView mapView;
-	private boolean pause;
+	private MapGeneratorMetrics metrics;
 	private boolean ready;
-	private boolean requestMoreJobs;
-	private boolean scheduleNeeded;
-	private PriorityQueue<MapGeneratorJob> tempQueue;
+	private TileBitmapPool tileBitmapPool;
 	private TileMemoryCardCache tileMemoryCardCache;
+	private final long[] tileMetrics;
 	private TileRAMCache tileRAMCache;
 
 	/**
 	 * Abstract default constructor that must be called by subclasses.
 	 */
 	MapGenerator() {
-		// set up the two job queues
-		this.jobQueue1 = new PriorityQueue<MapGeneratorJob>(64);
-		this.jobQueue2 = new PriorityQueue<MapGeneratorJob>(64);
-
-		// create the currentTileBitmap for the tile content
-		this.currentTileBitmap = Bitmap.createBitmap(Tile.TILE_SIZE, Tile.TILE_SIZE,
-				Bitmap.Config.RGB_565);
+		// create the array for the measurements of the current tile
+		this.tileMetrics = new long[MapGeneratorMetrics.NUMBER_OF_METRICS];
 	}
 
 	@Override
 	public final void run() {
 		setName(getThreadName());
+
+		// borrow the currentTileBitmap for the tile content
+		if (this.tileBitmapPool != null) {
+			this.currentTileBitmap = this.tileBitmapPool.borrowBitmap();
+		} else {
+			this.currentTileBitmap = Bitmap.createBitmap(Tile.TILE_SIZE, Tile.TILE_SIZE,
+					Bitmap.Config.RGB_565);
+		}
 		setup(this.currentTileBitmap);
 
 		while (!isInterrupted()) {
 			prepareMapGeneration();
 
-			synchronized (this) {
-				while (!isInterrupted() && (this.jobQueue1.isEmpty() || this.pause)) {
+			synchronized (this.jobQueue) {
+				while (!isInterrupted() && this.jobQueue.isWaiting()) {
 					try {
 						this.ready = true;
-						wait();
+						this.jobQueue.wait();
 					} catch (InterruptedException e) {
 						// restore the interrupted status
 						interrupt();
@@ -80,24 +84,40 @@ abstract class MapGenerator extends Thread {
 			}
 
 			// get the next tile from the job queue that needs to be processed
-			synchronized (this) {
-				if (this.scheduleNeeded) {
-					schedule();
-					this.scheduleNeeded = false;
-				}
-				this.currentMapGeneratorJob = this.jobQueue1.poll();
+			this.currentMapGeneratorJob = this.jobQueue.poll();
+			if (this.currentMapGeneratorJob == null) {
+				// another MapGenerator thread has taken the last job
+				continue;
 			}
 
 			// check if the current job can be skipped or must be processed
 			if (!this.tileRAMCache.containsKey(this.currentMapGeneratorJob)
 					&& !this.tileMemoryCardCache.containsKey(this.currentMapGeneratorJob)) {
+				// take the metrics for the whole job to avoid partial measurements
+				this.currentMetrics = this.metrics;
+				if (this.currentMetrics != null) {
+					Arrays.fill(this.tileMetrics, 0);
+					this.jobStartTime = System.nanoTime();
+				}
+
 				// check if the tile was generated successfully
 				if (executeJob(this.currentMapGeneratorJob)) {
 					if (isInterrupted()) {
 						break;
 					}
 
+					if (this.currentMetrics != null) {
+						this.tileMetrics[MapGeneratorMetrics.TOTAL_TIME] = System.nanoTime()
+								- this.jobStartTime;
+						this.currentMetrics.record(this.tileMetrics);
+					}
+
 					if (this.mapView != null) {
+						// count the job if the map has moved away from its tile
+						if (!this.mapView.isJobNeeded(this.currentMapGeneratorJob)) {
+							this.jobQueue.recordWastedJob();
+						}
+
 						// copy the tile to the MapView
 						this.mapView.putTileOnBitmap(this.currentMapGeneratorJob,
 								this.currentTileBitmap, true);
@@ -111,51 +131,46 @@ abstract class MapGenerator extends Thread {
 			}
 
 			// if the job queue is empty, ask the MapView for more jobs
-			if (!isInterrupted() && this.jobQueue1.isEmpty() && this.requestMoreJobs
-					&& this.mapView != null) {
+			if (!isInterrupted() && this.jobQueue.needsMoreJobs() && this.mapView != null) {
 				this.mapView.requestMoreJobs();
 			}
 		}
 
 		cleanup();
 
-		// free the currentTileBitmap memory
+		// return the currentTileBitmap to the pool or free its memory
 		if (this.currentTileBitmap != null) {
-			this.currentTileBitmap.recycle();
+			if (this.tileBitmapPool != null) {
+				this.tileBitmapPool.returnBitmap(this.currentTileBitmap);
+			} else {
+				this.currentTileBitmap.recycle();
+			}
 			this.currentTileBitmap = null;
 		}
 
 		// set some fields to null to avoid memory leaks
+		this.currentMetrics = null;
 		this.mapView = null;
+		this.metrics = null;
+		this.tileBitmapPool = null;
 		this.tileRAMCache = null;
 		this.tileMemoryCardCache = null;
-
-		if (this.jobQueue1 != null) {
-			this.jobQueue1.clear();
-			this.jobQueue1 = null;
-		}
-
-		if (this.jobQueue2 != null) {
-			this.jobQueue2.clear();
-			this.jobQueue2 = null;
-		}
-
-		this.tempQueue = null;
+		this.jobQueue = null;
 	}
 
 	/**
-	 * Schedules all jobs in the queue.
+	 * Passes an additional tile, which has been generated together with the current job and
+	 * copied to the tile bitmap, to the MapView and the caches. Subclasses which render more
+	 * than one tile per job must call this method for each additional tile.
+	 * 
+	 * @param mapGeneratorJob
+	 *            the job of the additional tile.
 	 */
-	private void schedule() {
+	final void addGeneratedTile(MapGeneratorJob mapGeneratorJob) {
 		if (this.mapView != null) {
-			while (!this.jobQueue1.isEmpty()) {
-				this.jobQueue2.offer(this.mapView.setJobPriority(this.jobQueue1.poll()));
-			}
-			// swap the two job queues
-			this.tempQueue = this.jobQueue1;
-			this.jobQueue1 = this.jobQueue2;
-			this.jobQueue2 = this.tempQueue;
+			this.mapView.putTileOnBitmap(mapGeneratorJob, this.currentTileBitmap, true);
 		}
+		this.tileMemoryCardCache.put(mapGeneratorJob, this.currentTileBitmap);
 	}
 
 	/**
@@ -165,10 +180,8 @@ abstract class MapGenerator extends Thread {
 	 * @param mapGeneratorJob
 	 *            the job to be added to the queue.
 	 */
-	final synchronized void addJob(MapGeneratorJob mapGeneratorJob) {
-		if (!this.jobQueue1.contains(mapGeneratorJob)) {
-			this.jobQueue1.offer(mapGeneratorJob);
-		}
+	final void addJob(MapGeneratorJob mapGeneratorJob) {
+		this.jobQueue.addJob(mapGeneratorJob);
 	}
 
 	/**
@@ -180,8 +193,8 @@ abstract class MapGenerator extends Thread {
 	/**
 	 * Clears the job queue.
 	 */
-	final synchronized void clearJobs() {
-		this.jobQueue1.clear();
+	final void clearJobs() {
+		this.jobQueue.clearJobs();
 	}
 
 	/**
@@ -211,6 +224,15 @@ abstract class MapGenerator extends Thread {
 		return DEFAULT_ZOOM_LEVEL;
 	}
 
+	/**
+	 * Returns the job queue of the MapGenerator.
+	 * 
+	 * @return the job queue.
+	 */
+	final MapGeneratorJobQueue getJobQueue() {
+		return this.jobQueue;
+	}
+
 	/**
 	 * Returns the maximum zoom level that the MapGenerator can handle.
 	 * 
@@ -223,8 +245,8 @@ abstract class MapGenerator extends Thread {
 	 * 
 	 * @return the number of jobs in the queue.
 	 */
-	final synchronized int getNumberOfJobs() {
-		return this.jobQueue1.size();
+	final int getNumberOfJobs() {
+		return this.jobQueue.getNumberOfJobs();
 	}
 
 	/**
@@ -234,6 +256,20 @@ abstract class MapGenerator extends Thread {
 	 */
 	abstract String getThreadName();
 
+	/**
+	 * Returns the array for the measurements of the current tile. Subclasses store the
+	 * measurements of the single render phases in this array, indexed by the metrics of
+	 * {@link MapGeneratorMetrics}.
+	 * 
+	 * @return the measurements of the current tile or null, if metrics are disabled.
+	 */
+	final long[] getTileMetrics() {
+		if (this.currentMetrics == null) {
+			return null;
+		}
+		return this.tileMetrics;
+	}
+
 	/**
 	 * Returns the status of the MapGenerator.
 	 * 
@@ -266,8 +302,8 @@ abstract class MapGenerator extends Thread {
 	/**
 	 * Request the MapGenerator to stop working.
 	 */
-	final synchronized void pause() {
-		this.pause = true;
+	final void pause() {
+		this.jobQueue.pause();
 	}
 
 	/**
@@ -282,10 +318,21 @@ abstract class MapGenerator extends Thread {
 	 * @param askForMoreJobs
 	 *            true if the MapGenerator may ask for more jobs, false otherwise.
 	 */
-	final synchronized void requestSchedule(boolean askForMoreJobs) {
-		this.scheduleNeeded = true;
-		this.requestMoreJobs = askForMoreJobs;
-		notify();
+	final void requestSchedule(boolean askForMoreJobs) {
+		this.jobQueue.requestSchedule(askForMoreJobs);
+	}
+
+	/**
+	 * Sets the job queue for this MapGenerator. This method must be called before the thread is
+	 * started. Multiple MapGenerator threads which share the same job queue process the jobs in
+	 * parallel. The queue is owned by the caller, which must destroy it after all threads that
+	 * use it have been stopped.
+	 * 
+	 * @param jobQueue
+	 *            the shared job queue.
+	 */
+	final void setJobQueue(MapGeneratorJobQueue jobQueue) {
+		this.jobQueue = jobQueue;
 	}
 
 	/**
@@ -296,6 +343,29 @@ abstract class MapGenerator extends Thread {
 	 */
 	final void setMapView(MapView mapView) {
 		this.mapView = mapView;
+		this.jobQueue.setMapView(mapView);
+	}
+
+	/**
+	 * Sets the metrics in which the measurements of all generated tiles are collected. The new
+	 * metrics are used beginning with the next job.
+	 * 
+	 * @param metrics
+	 *            the metrics or null, to disable the measurements.
+	 */
+	final void setMetrics(MapGeneratorMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Sets the pool from which the MapGenerator borrows the bitmap for the tile content. Must be
+	 * called before the thread is started.
+	 * 
+	 * @param tileBitmapPool
+	 *            the TileBitmapPool.
+	 */
+	final void setTileBitmapPool(TileBitmapPool tileBitmapPool) {
+		this.tileBitmapPool = tileBitmapPool;
 	}
 
 	/**
@@ -323,8 +393,7 @@ abstract class MapGenerator extends Thread {
 	/**
 	 * Request the MapGenerator to continue working.
 	 */
-	final synchronized void unpause() {
-		this.pause = false;
-		notify();
+	final void unpause() {
+		this.jobQueue.unpause();
 	}
 }
\ No newline at end of file
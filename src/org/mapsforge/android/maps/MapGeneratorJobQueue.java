@@ -0,0 +1,243 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.HashSet;
+import java.util.PriorityQueue;
+
+/**
+ * A priority queue for MapGeneratorJobs which can be shared by multiple MapGenerator threads.
+ * All methods synchronize on the queue object, which is also used by the MapGenerator threads
+ * to wait for new jobs. When the queue is scheduled, jobs which are no longer needed for the
+ * current or the predicted position of the map are cancelled. The queue counts the cancelled
+ * jobs and the wasted jobs, which have been rendered although their tiles were no longer
+ * needed when the rendering was finished. In the metatile mode, the queue also keeps track of
+ * the metatiles which are currently rendered, so that each metatile is rendered by only one
+ * thread at a time.
+ */
+class MapGeneratorJobQueue {
+	private static final int INITIAL_CAPACITY = 64;
+	private PriorityQueue<MapGeneratorJob> jobQueue1;
+	private PriorityQueue<MapGeneratorJob> jobQueue2;
+	private MapGeneratorJob job;
+	private MapView mapView;
+	private final HashSet<Tile> metatilesInProgress;
+	private int numberOfCancelledJobs;
+	private int numberOfWastedJobs;
+	private boolean pause;
+	private boolean requestMoreJobs;
+	private boolean scheduleNeeded;
+	private PriorityQueue<MapGeneratorJob> tempQueue;
+
+	/**
+	 * Constructs a new empty job queue.
+	 */
+	MapGeneratorJobQueue() {
+		// set up the two job queues
+		this.jobQueue1 = new PriorityQueue<MapGeneratorJob>(INITIAL_CAPACITY);
+		this.jobQueue2 = new PriorityQueue<MapGeneratorJob>(INITIAL_CAPACITY);
+		this.metatilesInProgress = new HashSet<Tile>();
+	}
+
+	/**
+	 * Schedules all jobs in the queue and cancels the jobs which are no longer needed.
+	 */
+	private void schedule() {
+		if (this.mapView != null) {
+			while (!this.jobQueue1.isEmpty()) {
+				this.job = this.jobQueue1.poll();
+				if (this.mapView.isJobNeeded(this.job)) {
+					this.jobQueue2.offer(this.mapView.setJobPriority(this.job));
+				} else {
+					++this.numberOfCancelledJobs;
+				}
+			}
+			this.job = null;
+			// swap the two job queues
+			this.tempQueue = this.jobQueue1;
+			this.jobQueue1 = this.jobQueue2;
+			this.jobQueue2 = this.tempQueue;
+		}
+	}
+
+	/**
+	 * Adds the given job to the queue. A call to this method has no effect if the given job is
+	 * already in the queue.
+	 * 
+	 * @param mapGeneratorJob
+	 *            the job to be added to the queue.
+	 */
+	synchronized void addJob(MapGeneratorJob mapGeneratorJob) {
+		if (!this.jobQueue1.contains(mapGeneratorJob)) {
+			this.jobQueue1.offer(mapGeneratorJob);
+		}
+	}
+
+	/**
+	 * Clears the job queue.
+	 */
+	synchronized void clearJobs() {
+		this.jobQueue1.clear();
+	}
+
+	/**
+	 * Destroys the job queue at the end of its lifetime.
+	 */
+	synchronized void destroy() {
+		this.mapView = null;
+		this.jobQueue1.clear();
+		this.jobQueue2.clear();
+		this.metatilesInProgress.clear();
+		this.tempQueue = null;
+	}
+
+	/**
+	 * Returns the number of jobs which have been removed from the queue because they were no
+	 * longer needed.
+	 * 
+	 * @return the number of cancelled jobs.
+	 */
+	synchronized int getNumberOfCancelledJobs() {
+		return this.numberOfCancelledJobs;
+	}
+
+	/**
+	 * Returns the number of jobs that are currently in the queue.
+	 * 
+	 * @return the number of jobs in the queue.
+	 */
+	synchronized int getNumberOfJobs() {
+		return this.jobQueue1.size();
+	}
+
+	/**
+	 * Returns the number of jobs which have been rendered although they were no longer needed
+	 * when the rendering was finished.
+	 * 
+	 * @return the number of wasted jobs.
+	 */
+	synchronized int getNumberOfWastedJobs() {
+		return this.numberOfWastedJobs;
+	}
+
+	/**
+	 * Returns whether a MapGenerator thread has to wait for new jobs.
+	 * 
+	 * @return true if the queue is empty or paused, false otherwise.
+	 */
+	synchronized boolean isWaiting() {
+		return this.jobQueue1.isEmpty() || this.pause;
+	}
+
+	/**
+	 * Marks the given metatile as being rendered by the calling thread.
+	 * 
+	 * @param metatile
+	 *            the upper left tile of the metatile.
+	 * @return true if the metatile has been marked, false if it is already rendered by another
+	 *         thread.
+	 */
+	synchronized boolean lockMetatile(Tile metatile) {
+		return this.metatilesInProgress.add(metatile);
+	}
+
+	/**
+	 * Returns whether the MapView should be asked for more jobs.
+	 * 
+	 * @return true if the queue is empty and more jobs may be requested, false otherwise.
+	 */
+	synchronized boolean needsMoreJobs() {
+		return this.jobQueue1.isEmpty() && this.requestMoreJobs;
+	}
+
+	/**
+	 * Stops the MapGenerator threads from taking new jobs.
+	 */
+	synchronized void pause() {
+		this.pause = true;
+	}
+
+	/**
+	 * Retrieves and removes the job with the highest priority. The queue is scheduled first if
+	 * necessary.
+	 * 
+	 * @return the next job or null, if the queue is empty.
+	 */
+	synchronized MapGeneratorJob poll() {
+		if (this.scheduleNeeded) {
+			schedule();
+			this.scheduleNeeded = false;
+		}
+		return this.jobQueue1.poll();
+	}
+
+	/**
+	 * Counts a job which has been rendered although it was no longer needed.
+	 */
+	synchronized void recordWastedJob() {
+		++this.numberOfWastedJobs;
+	}
+
+	/**
+	 * Requests a scheduling of all jobs that are currently in the queue and wakes up all
+	 * waiting MapGenerator threads.
+	 * 
+	 * @param askForMoreJobs
+	 *            true if the MapGenerator may ask for more jobs, false otherwise.
+	 */
+	synchronized void requestSchedule(boolean askForMoreJobs) {
+		this.scheduleNeeded = true;
+		this.requestMoreJobs = askForMoreJobs;
+		notifyAll();
+	}
+
+	/**
+	 * Resets the counters of cancelled and wasted jobs.
+	 */
+	synchronized void resetJobCounters() {
+		this.numberOfCancelledJobs = 0;
+		this.numberOfWastedJobs = 0;
+	}
+
+	/**
+	 * Sets the MapView which calculates the job priorities.
+	 * 
+	 * @param mapView
+	 *            the MapView.
+	 */
+	synchronized void setMapView(MapView mapView) {
+		this.mapView = mapView;
+	}
+
+	/**
+	 * Removes the mark from a metatile whose rendering has been finished or aborted.
+	 * 
+	 * @param metatile
+	 *            the upper left tile of the metatile.
+	 */
+	synchronized void unlockMetatile(Tile metatile) {
+		this.metatilesInProgress.remove(metatile);
+	}
+
+	/**
+	 * Allows the MapGenerator threads to continue taking new jobs.
+	 */
+	synchronized void unpause() {
+		this.pause = false;
+		notifyAll();
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * Collects per-tile measurements of the render pipeline and aggregates them into one
+ * {@link MetricsHistogram} per metric. Collecting metrics is opt-in, an instance must be passed
+ * to {@link MapView#setMapGeneratorMetrics(MapGeneratorMetrics)} to enable it. All times are
+ * measured in nanoseconds. Tiles which are interrupted or taken from a cache are not recorded.
+ * <p>
+ * All methods are thread-safe, so that the metrics can be shared by multiple MapGenerator
+ * threads and read while the tiles are being rendered.
+ */
+public class MapGeneratorMetrics {
+	/**
+	 * Number of map blocks which have been read from the map file for the tile.
+	 */
+	public static final int BLOCKS_READ = 8;
+
+	/**
+	 * Number of bytes which have been read from the map file for the tile.
+	 */
+	public static final int BYTES_READ = 9;
+
+	/**
+	 * Time spent in the dependency cache during the label placement.
+	 */
+	public static final int DEPENDENCY_CACHE_TIME = 5;
+
+	/**
+	 * Time spent drawing the symbols, POI names and area labels.
+	 */
+	public static final int DRAW_LABELS_TIME = 6;
+
+	/**
+	 * Time spent drawing the way names.
+	 */
+	public static final int DRAW_WAY_NAMES_TIME = 3;
+
+	/**
+	 * Time spent drawing the ways and areas, including the coastline handling.
+	 */
+	public static final int DRAW_WAYS_TIME = 2;
+
+	/**
+	 * Time spent placing the labels, including the time spent in the dependency cache.
+	 */
+	public static final int LABEL_PLACEMENT_TIME = 4;
+
+	/**
+	 * Number of POI names and area labels after the label placement.
+	 */
+	public static final int LABELS_AFTER_PLACEMENT = 13;
+
+	/**
+	 * Number of POI names and area labels before the label placement.
+	 */
+	public static final int LABELS_BEFORE_PLACEMENT = 12;
+
+	/**
+	 * Number of different metrics.
+	 */
+	public static final int NUMBER_OF_METRICS = 14;
+
+	/**
+	 * Number of POIs which have been returned by the database query.
+	 */
+	public static final int POINTS_OF_INTEREST = 11;
+
+	/**
+	 * Time spent decoding the map elements, the query time without the read time.
+	 */
+	public static final int QUERY_DECODE_TIME = 1;
+
+	/**
+	 * Time spent reading map blocks, including the index lookups.
+	 */
+	public static final int QUERY_READ_TIME = 0;
+
+	/**
+	 * Total time spent generating the tile.
+	 */
+	public static final int TOTAL_TIME = 7;
+
+	/**
+	 * Number of ways which have been returned by the database query.
+	 */
+	public static final int WAYS = 10;
+
+	private static final String[] METRIC_NAMES = { "query read time", "query decode time",
+			"draw ways time", "draw way names time", "label placement time",
+			"dependency cache time", "draw labels time", "total time", "blocks read",
+			"bytes read", "ways", "points of interest", "labels before placement",
+			"labels after placement" };
+
+	/**
+	 * Returns the name of the given metric.
+	 * 
+	 * @param metric
+	 *            the metric.
+	 * @return the name of the metric.
+	 */
+	public static String getMetricName(int metric) {
+		return METRIC_NAMES[metric];
+	}
+
+	private long bitmapPoolHits;
+	private long bitmapPoolMisses;
+	private final MetricsHistogram[] histograms;
+
+	/**
+	 * Constructs a new MapGeneratorMetrics instance without any recorded tiles.
+	 */
+	public MapGeneratorMetrics() {
+		this.histograms = new MetricsHistogram[NUMBER_OF_METRICS];
+		for (int metric = 0; metric < NUMBER_OF_METRICS; ++metric) {
+			this.histograms[metric] = new MetricsHistogram();
+		}
+	}
+
+	/**
+	 * Returns the number of tile bitmaps which have been reused from the bitmap pool.
+	 * 
+	 * @return the number of bitmap pool hits.
+	 */
+	public synchronized long getBitmapPoolHits() {
+		return this.bitmapPoolHits;
+	}
+
+	/**
+	 * Returns the fraction of tile bitmaps which have been reused from the bitmap pool.
+	 * 
+	 * @return the bitmap pool hit rate between 0 and 1, or 0 if no bitmap has been borrowed.
+	 */
+	public synchronized double getBitmapPoolHitRate() {
+		long accesses = this.bitmapPoolHits + this.bitmapPoolMisses;
+		if (accesses == 0) {
+			return 0;
+		}
+		return (double) this.bitmapPoolHits / accesses;
+	}
+
+	/**
+	 * Returns the number of tile bitmaps which had to be created because the bitmap pool was
+	 * empty.
+	 * 
+	 * @return the number of bitmap pool misses.
+	 */
+	public synchronized long getBitmapPoolMisses() {
+		return this.bitmapPoolMisses;
+	}
+
+	/**
+	 * Returns a snapshot of the histogram of the given metric.
+	 * 
+	 * @param metric
+	 *            the metric, for example {@link #TOTAL_TIME}.
+	 * @return a copy of the current histogram of the metric.
+	 */
+	public synchronized MetricsHistogram getHistogram(int metric) {
+		return new MetricsHistogram(this.histograms[metric]);
+	}
+
+	/**
+	 * Returns the number of tiles which have been recorded.
+	 * 
+	 * @return the number of recorded tiles.
+	 */
+	public synchronized long getNumberOfTiles() {
+		return this.histograms[TOTAL_TIME].getCount();
+	}
+
+	/**
+	 * Removes all recorded tiles.
+	 */
+	public synchronized void reset() {
+		for (int metric = 0; metric < NUMBER_OF_METRICS; ++metric) {
+			this.histograms[metric].clear();
+		}
+		this.bitmapPoolHits = 0;
+		this.bitmapPoolMisses = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder stringBuilder = new StringBuilder();
+		for (int metric = 0; metric < NUMBER_OF_METRICS; ++metric) {
+			stringBuilder.append(METRIC_NAMES[metric]).append(": ")
+					.append(this.histograms[metric]).append('\n');
+		}
+		stringBuilder.append("bitmap pool hits: ").append(this.bitmapPoolHits)
+				.append(", misses: ").append(this.bitmapPoolMisses).append('\n');
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Counts a single access to the tile bitmap pool.
+	 * 
+	 * @param hit
+	 *            true if a pooled bitmap has been reused, false if a new one has been created.
+	 */
+	synchronized void recordBitmapPoolAccess(boolean hit) {
+		if (hit) {
+			++this.bitmapPoolHits;
+		} else {
+			++this.bitmapPoolMisses;
+		}
+	}
+
+	/**
+	 * Adds the measurements of a single tile to the histograms.
+	 * 
+	 * @param tileMetrics
+	 *            the measurements of the tile, indexed by metric.
+	 */
+	synchronized void record(long[] tileMetrics) {
+		for (int metric = 0; metric < NUMBER_OF_METRICS; ++metric) {
+			this.histograms[metric].add(tileMetrics[metric]);
+		}
+	}
+}
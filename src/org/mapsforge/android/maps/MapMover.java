@@ -94,6 +94,24 @@ class MapMover extends Thread {
 		this.mapView = null;
 	}
 
+	/**
+	 * Returns the current horizontal speed of the map.
+	 * 
+	 * @return the horizontal speed in pixels per millisecond, zero if the map is not moving.
+	 */
+	float getMoveX() {
+		return this.moveX;
+	}
+
+	/**
+	 * Returns the current vertical speed of the map.
+	 * 
+	 * @return the vertical speed in pixels per millisecond, zero if the map is not moving.
+	 */
+	float getMoveY() {
+		return this.moveY;
+	}
+
 	/**
 	 * Returns the status of the MapMover.
 	 * 
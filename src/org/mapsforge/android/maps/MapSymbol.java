@@ -0,0 +1,39 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * A symbol which can be rendered on the map. The image of a symbol is decoded by the renderer
+ * which draws it, the layout of the map only needs the size of the symbol and does not depend
+ * on any graphics library.
+ */
+abstract class MapSymbol {
+	/**
+	 * @return the height of the symbol in pixels.
+	 */
+	abstract int getHeight();
+
+	/**
+	 * @return the width of the symbol in pixels.
+	 */
+	abstract int getWidth();
+
+	/**
+	 * Frees the memory of the image of this symbol.
+	 */
+	abstract void recycle();
+}
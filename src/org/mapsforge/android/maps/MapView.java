@@ -25,7 +25,7 @@ import android.view.*;
 import android.widget.ZoomControls;
 
 import java.io.File;
-import java.nio.ByteBuffer;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -492,9 +492,40 @@ public class MapView extends ViewGroup {
 		abstract boolean handleTouchEvent(MotionEvent event);
 	}
 
+	/**
+	 * Immutable snapshot of the tiles which intersect the MapView. A new snapshot is published
+	 * whenever the tiles are handled, so that the MapGenerator threads always see a consistent
+	 * area without holding the lock of the MapView.
+	 */
+	private static class VisibleTiles {
+		final long tileX1;
+		final long tileX2;
+		final long tileY1;
+		final long tileY2;
+		final byte zoomLevel;
+
+		VisibleTiles(long tileX1, long tileY1, long tileX2, long tileY2, byte zoomLevel) {
+			this.tileX1 = tileX1;
+			this.tileY1 = tileY1;
+			this.tileX2 = tileX2;
+			this.tileY2 = tileY2;
+			this.zoomLevel = zoomLevel;
+		}
+	}
+
 
     List<ZoomChangeListener> zoomChangeListeners = new ArrayList<ZoomChangeListener>();
 
+	/**
+	 * Default encoding of the images in the memory card cache.
+	 */
+	private static final TileCacheEncoding DEFAULT_CACHE_ENCODING = TileCacheEncoding.RUN_LENGTH;
+
+	/**
+	 * Default eviction policy of the RAM cache.
+	 */
+	private static final TileCachePolicy DEFAULT_CACHE_POLICY = TileCachePolicy.LRU;
+
 	/**
 	 * Default operation mode of a MapView if no other mode is specified.
 	 */
@@ -525,11 +556,27 @@ public class MapView extends ViewGroup {
 	 */
 	private static final String EXTERNAL_STORAGE_DIRECTORY = File.separatorChar + "mapsforge";
 
+	/**
+	 * Time in milliseconds for which the movement of the map is predicted when jobs are
+	 * scheduled.
+	 */
+	private static final int JOB_PREDICTION_TIME = 250;
+
 	/**
 	 * Default background color of the MapView.
 	 */
 	private static final int MAP_VIEW_BACKGROUND = Color.rgb(238, 238, 238);
 
+	/**
+	 * Maximum number of parallel MapGenerator threads in the CANVAS_RENDERER mode.
+	 */
+	private static final int MAXIMUM_MAP_GENERATOR_THREADS = 8;
+
+	/**
+	 * Maximum number of tiles per side of a metatile.
+	 */
+	private static final int MAXIMUM_METATILE_SIZE = 4;
+
 	/**
 	 * Message code for the handler to hide the zoom controls.
 	 */
@@ -548,7 +595,7 @@ public class MapView extends ViewGroup {
 	private static final short SCALE_BAR_WIDTH = 130;
 
 	/**
-	 * Capacity of the RAM cache.
+	 * Capacity of the RAM cache in tiles, the memory limit of the cache is derived from it.
 	 */
 	private static final int TILE_RAM_CACHE_SIZE = 20;
 
@@ -635,6 +682,9 @@ public class MapView extends ViewGroup {
 	private MapController mapController;
 	private String mapFile;
 	private MapGenerator mapGenerator;
+	private MapGeneratorJobQueue mapGeneratorJobQueue;
+	private MapGeneratorMetrics mapGeneratorMetrics;
+	private MapGenerator[] mapGenerators;
 	private MapMover mapMover;
 	private float mapMoveX;
 	private float mapMoveY;
@@ -660,24 +710,29 @@ public class MapView extends ViewGroup {
 	private float matrixScaleFactor;
 	private float matrixTranslateX;
 	private float matrixTranslateY;
+	private int metatileSize;
 	private double meterPerPixel;
 	private float moveSpeedFactor;
 	private int numberOfTiles;
 	private long previousTime;
 	private Projection projection;
+	private RenderTheme renderTheme;
 	private boolean showFpsCounter;
 	private boolean showScaleBar;
 	private boolean showZoomControls;
 	private Bitmap tileBitmap;
-	private ByteBuffer tileBuffer;
+	private TileBitmapPool tileBitmapPool;
 	private TileMemoryCardCache tileMemoryCardCache;
+	private TileCacheEncoding tileMemoryCardCacheEncoding;
 	private int tileMemoryCardCacheSize;
 	private TileRAMCache tileRAMCache;
+	private TileCachePolicy tileRAMCachePolicy;
 	private long tileX;
 	private long tileY;
 	private TouchEventHandler touchEventHandler;
 	private String unit_symbol_kilometer;
 	private String unit_symbol_meter;
+	private volatile VisibleTiles visibleTiles;
 	private ZoomControls zoomControls;
 	private Handler zoomControlsHideHandler;
 	private byte zoomLevel;
@@ -801,6 +856,15 @@ public class MapView extends ViewGroup {
 		return this.mapFile;
 	}
 
+	/**
+	 * Returns the metrics in which the measurements of all generated tiles are collected.
+	 * 
+	 * @return the metrics or null, if no metrics are collected.
+	 */
+	public MapGeneratorMetrics getMapGeneratorMetrics() {
+		return this.mapGeneratorMetrics;
+	}
+
 	/**
 	 * Returns the host name of the tile download server.
 	 * 
@@ -833,6 +897,45 @@ public class MapView extends ViewGroup {
 		return this.mapGenerator.getMaxZoomLevel();
 	}
 
+	/**
+	 * Returns the encoding of the images which are added to the memory card cache.
+	 * 
+	 * @return the encoding of the memory card cache.
+	 */
+	public TileCacheEncoding getMemoryCardCacheEncoding() {
+		return this.tileMemoryCardCacheEncoding;
+	}
+
+	/**
+	 * Returns the number of tiles per side of the metatiles which are rendered in the
+	 * CANVAS_RENDERER mode.
+	 * 
+	 * @return the metatile size, one if the metatile mode is disabled.
+	 */
+	public int getMetatileSize() {
+		return this.metatileSize;
+	}
+
+	/**
+	 * Returns the number of render jobs which have been cancelled because their tiles were no
+	 * longer needed, for example after the map has been moved or zoomed.
+	 * 
+	 * @return the number of cancelled render jobs.
+	 */
+	public int getNumberOfCancelledJobs() {
+		return this.mapGeneratorJobQueue.getNumberOfCancelledJobs();
+	}
+
+	/**
+	 * Returns the number of render jobs which have been finished although their tiles were no
+	 * longer needed.
+	 * 
+	 * @return the number of wasted render jobs.
+	 */
+	public int getNumberOfWastedJobs() {
+		return this.mapGeneratorJobQueue.getNumberOfWastedJobs();
+	}
+
 	/**
 	 * Returns the move speed of the map, used for trackball and keyboard events.
 	 * 
@@ -862,6 +965,52 @@ public class MapView extends ViewGroup {
 		return this.projection;
 	}
 
+	/**
+	 * Returns the number of images which have been evicted from the RAM cache to make room for
+	 * new ones.
+	 * 
+	 * @return the number of RAM cache evictions.
+	 */
+	public long getRAMCacheEvictions() {
+		return this.tileRAMCache.getEvictions();
+	}
+
+	/**
+	 * Returns the number of tiles which have been taken from the RAM cache.
+	 * 
+	 * @return the number of RAM cache hits.
+	 */
+	public long getRAMCacheHits() {
+		return this.tileRAMCache.getHits();
+	}
+
+	/**
+	 * Returns the number of tiles which have been requested but were not in the RAM cache.
+	 * 
+	 * @return the number of RAM cache misses.
+	 */
+	public long getRAMCacheMisses() {
+		return this.tileRAMCache.getMisses();
+	}
+
+	/**
+	 * Returns the policy which selects the images that are evicted from the RAM cache.
+	 * 
+	 * @return the eviction policy of the RAM cache.
+	 */
+	public TileCachePolicy getRAMCachePolicy() {
+		return this.tileRAMCachePolicy;
+	}
+
+	/**
+	 * Returns the memory used by the images in the RAM cache.
+	 * 
+	 * @return the number of bytes of all images in the RAM cache.
+	 */
+	public int getRAMCacheSize() {
+		return this.tileRAMCache.getByteCount();
+	}
+
 	/**
 	 * Returns the current zoom level of the map.
 	 * 
@@ -956,6 +1105,20 @@ public class MapView extends ViewGroup {
 		return false;
 	}
 
+	/**
+	 * Resets the numbers of cancelled and wasted render jobs.
+	 */
+	public void resetJobCounters() {
+		this.mapGeneratorJobQueue.resetJobCounters();
+	}
+
+	/**
+	 * Resets the numbers of RAM cache hits, misses and evictions.
+	 */
+	public void resetRAMCacheCounters() {
+		this.tileRAMCache.resetCounters();
+	}
+
 	/**
 	 * Sets the visibility of the zoom controls.
 	 * 
@@ -1023,7 +1186,7 @@ public class MapView extends ViewGroup {
 
 		this.database.closeFile();
 		if (this.database.openFile(newMapFile)) {
-			((DatabaseMapGenerator) this.mapGenerator).onMapFileChange();
+			onMapFileChange();
 			this.mapFile = newMapFile;
 			clearMapView();
 			setCenter(getDefaultStartPoint());
@@ -1040,6 +1203,26 @@ public class MapView extends ViewGroup {
 		}
 	}
 
+	/**
+	 * Sets the metrics in which the measurements of all generated tiles are collected. The
+	 * metrics are shared by all MapGenerator threads and are kept if the operation mode of the
+	 * MapView changes. Collecting metrics is disabled by default.
+	 * 
+	 * @param mapGeneratorMetrics
+	 *            the metrics or null, to disable the measurements.
+	 */
+	public void setMapGeneratorMetrics(MapGeneratorMetrics mapGeneratorMetrics) {
+		this.mapGeneratorMetrics = mapGeneratorMetrics;
+		if (this.tileBitmapPool != null) {
+			this.tileBitmapPool.setMetrics(mapGeneratorMetrics);
+		}
+		if (this.mapGenerators != null) {
+			for (MapGenerator generator : this.mapGenerators) {
+				generator.setMetrics(mapGeneratorMetrics);
+			}
+		}
+	}
+
 	/**
 	 * Sets a new operation mode for the MapView.
 	 * 
@@ -1057,6 +1240,23 @@ public class MapView extends ViewGroup {
 		}
 	}
 
+	/**
+	 * Sets the encoding of the images which are added to the memory card cache. Images which
+	 * have already been stored keep their encoding.
+	 * 
+	 * @param newCacheEncoding
+	 *            the new encoding of the memory card cache.
+	 * @throws IllegalArgumentException
+	 *             if the new encoding is null.
+	 */
+	public void setMemoryCardCacheEncoding(TileCacheEncoding newCacheEncoding) {
+		if (newCacheEncoding == null) {
+			throw new IllegalArgumentException();
+		}
+		this.tileMemoryCardCacheEncoding = newCacheEncoding;
+		this.tileMemoryCardCache.setEncoding(this.tileMemoryCardCacheEncoding);
+	}
+
 	/**
 	 * Sets the new size of the memory card cache. If the cache already contains more items than
 	 * the new capacity allows, items are discarded based on the cache policy.
@@ -1074,6 +1274,32 @@ public class MapView extends ViewGroup {
 		this.tileMemoryCardCache.setCapacity(this.tileMemoryCardCacheSize);
 	}
 
+	/**
+	 * Sets the number of tiles per side of the metatiles which are rendered in the
+	 * CANVAS_RENDERER mode. A metatile is read with one database query and drawn in one pass
+	 * with one label placement on a larger bitmap, which is cut into tiles for the caches. This
+	 * saves the repeated decoding of shared blocks and most of the label handling across tile
+	 * borders, but needs more memory per MapGenerator thread. The metrics record one
+	 * measurement per metatile. The metatile mode is disabled by default.
+	 * 
+	 * @param newMetatileSize
+	 *            the number of tiles per side, one of 1, 2 and 4. One disables the metatiles.
+	 * @throws IllegalArgumentException
+	 *             if the metatile size is not supported.
+	 */
+	public void setMetatileSize(int newMetatileSize) {
+		if (newMetatileSize < 1 || newMetatileSize > MAXIMUM_METATILE_SIZE
+				|| (newMetatileSize & (newMetatileSize - 1)) != 0) {
+			throw new IllegalArgumentException();
+		}
+		this.metatileSize = newMetatileSize;
+		if (this.mapViewMode == MapViewMode.CANVAS_RENDERER && this.mapGenerators != null) {
+			for (MapGenerator generator : this.mapGenerators) {
+				((DatabaseMapGenerator) generator).setMetatileSize(this.metatileSize);
+			}
+		}
+	}
+
 	/**
 	 * Sets the move speed of the map, used for trackball and keyboard events.
 	 * 
@@ -1089,6 +1315,68 @@ public class MapView extends ViewGroup {
 		this.moveSpeedFactor = moveSpeedFactor;
 	}
 
+	/**
+	 * Sets the policy which selects the images that are evicted from the RAM cache.
+	 * 
+	 * @param newCachePolicy
+	 *            the new eviction policy of the RAM cache.
+	 * @throws IllegalArgumentException
+	 *             if the new policy is null.
+	 */
+	public void setRAMCachePolicy(TileCachePolicy newCachePolicy) {
+		if (newCachePolicy == null) {
+			throw new IllegalArgumentException();
+		}
+		this.tileRAMCachePolicy = newCachePolicy;
+		this.tileRAMCache.setPolicy(this.tileRAMCachePolicy);
+	}
+
+	/**
+	 * Sets the render theme which is used to draw the map. The theme is read once and shared by
+	 * all MapGenerator threads. All images in the RAM cache and in the memory card cache are
+	 * discarded, so that the map is drawn again with the new theme.
+	 * 
+	 * @param renderTheme
+	 *            the stream with the XML data of the render theme, which is not closed.
+	 * @throws IllegalArgumentException
+	 *             if the render theme is not valid.
+	 * @throws UnsupportedOperationException
+	 *             if the current MapView mode works with an Internet connection.
+	 */
+	public void setRenderTheme(InputStream renderTheme) {
+		if (this.mapViewMode.requiresInternetConnection()) {
+			throw new UnsupportedOperationException();
+		}
+		RenderTheme newRenderTheme = RenderTheme.readRenderTheme(renderTheme);
+
+		this.mapMover.pause();
+		this.mapGenerator.pause();
+
+		waitForReadyMapMover();
+		waitForReadyMapGenerator();
+
+		this.mapMover.stopMove();
+		this.mapGenerator.clearJobs();
+
+		// the labels of the old theme must not be continued on the tiles of the new theme
+		this.renderTheme = newRenderTheme;
+		LabelPlacement labelPlacement = new LabelPlacement();
+		for (MapGenerator generator : this.mapGenerators) {
+			((DatabaseMapGenerator) generator).setRenderTheme(this.renderTheme);
+			((DatabaseMapGenerator) generator).setLabelPlacement(labelPlacement);
+		}
+		synchronized (this) {
+			this.tileRAMCache.clear();
+		}
+		this.tileMemoryCardCache.clear();
+
+		this.mapMover.unpause();
+		this.mapGenerator.unpause();
+
+		clearMapView();
+		handleTiles(true);
+	}
+
 	/**
 	 * Sets the visibility of the scale bar.
 	 * 
@@ -1167,6 +1455,15 @@ public class MapView extends ViewGroup {
 		return zoom;
 	}
 
+	/**
+	 * Notifies all MapGenerator threads that a new map file has been set for the database.
+	 */
+	private void onMapFileChange() {
+		for (MapGenerator generator : this.mapGenerators) {
+			((DatabaseMapGenerator) generator).onMapFileChange();
+		}
+	}
+
 	private void renderScaleBar() {
 		// check if recalculating and drawing of the map scale is necessary
 		if (this.zoomLevel == this.mapScalePreviousZoomLevel
@@ -1261,7 +1558,10 @@ public class MapView extends ViewGroup {
 			this.touchEventHandler = new MultiTouchHandler();
 		}
 
+		this.tileMemoryCardCacheEncoding = DEFAULT_CACHE_ENCODING;
 		this.tileMemoryCardCacheSize = DEFAULT_TILE_MEMORY_CARD_CACHE_SIZE;
+		this.tileRAMCachePolicy = DEFAULT_CACHE_POLICY;
+		this.metatileSize = 1;
 		this.moveSpeedFactor = DEFAULT_MOVE_SPEED;
 
 		setBackgroundColor(MAP_VIEW_BACKGROUND);
@@ -1399,19 +1699,21 @@ public class MapView extends ViewGroup {
 			}
 		});
 
-		// create the tile bitmap and buffer
-		this.tileBitmap = Bitmap.createBitmap(Tile.TILE_SIZE, Tile.TILE_SIZE,
-				Bitmap.Config.RGB_565);
-		this.tileBuffer = ByteBuffer.allocate(Tile.TILE_SIZE_IN_BYTES);
+		// create the bitmap pool which is shared by the caches and the MapGenerator threads
+		this.tileBitmapPool = new TileBitmapPool(TILE_RAM_CACHE_SIZE
+				+ MAXIMUM_MAP_GENERATOR_THREADS + 1);
+		this.tileBitmapPool.setMetrics(this.mapGeneratorMetrics);
 
 		// create the image bitmap cache
-		this.tileRAMCache = new TileRAMCache(TILE_RAM_CACHE_SIZE);
+		this.tileRAMCache = new TileRAMCache(TILE_RAM_CACHE_SIZE * Tile.TILE_SIZE_IN_BYTES,
+				this.tileBitmapPool, this.tileRAMCachePolicy);
 
-		// create the image file cache with a unique directory
+		// create the image file cache with a directory which is kept across restarts
 		this.tileMemoryCardCache = new TileMemoryCardCache(Environment
 				.getExternalStorageDirectory().getAbsolutePath()
 				+ EXTERNAL_STORAGE_DIRECTORY + File.separatorChar + this.mapViewId,
-				this.tileMemoryCardCacheSize);
+				this.tileMemoryCardCacheSize, this.tileMemoryCardCacheEncoding,
+				this.tileBitmapPool);
 
 		// create the MapController for this MapView
 		this.mapController = new MapController(this);
@@ -1468,59 +1770,100 @@ public class MapView extends ViewGroup {
 	}
 
 	/**
-	 * Creates and starts the MapGenerator thread.
+	 * Creates and starts the MapGenerator threads. In the CANVAS_RENDERER mode one thread per
+	 * available processor is started. All threads share the same job queue and label
+	 * placement.
 	 */
 	private void startMapGeneratorThread() {
 		switch (this.mapViewMode) {
 			case CANVAS_RENDERER:
-				this.mapGenerator = new CanvasRenderer();
-				((DatabaseMapGenerator) this.mapGenerator).setDatabase(this.database);
+				this.mapGenerators = new MapGenerator[Math.min(Runtime.getRuntime()
+						.availableProcessors(), MAXIMUM_MAP_GENERATOR_THREADS)];
+				for (int i = 0; i < this.mapGenerators.length; ++i) {
+					this.mapGenerators[i] = new CanvasRenderer();
+					((DatabaseMapGenerator) this.mapGenerators[i]).setDatabase(this.database);
+					((DatabaseMapGenerator) this.mapGenerators[i])
+							.setMetatileSize(this.metatileSize);
+					if (this.renderTheme != null) {
+						((DatabaseMapGenerator) this.mapGenerators[i])
+								.setRenderTheme(this.renderTheme);
+					}
+				}
 				break;
 			case MAPNIK_TILE_DOWNLOAD:
-				this.mapGenerator = new MapnikTileDownload();
+				this.mapGenerators = new MapGenerator[] { new MapnikTileDownload() };
 				break;
 			case OPENCYCLEMAP_TILE_DOWNLOAD:
-				this.mapGenerator = new OpenCycleMapTileDownload();
+				this.mapGenerators = new MapGenerator[] { new OpenCycleMapTileDownload() };
 				break;
 			case OPENGL_RENDERER:
-				this.mapGenerator = new OpenGLRenderer(this.mapActivity, this);
-				((DatabaseMapGenerator) this.mapGenerator).setDatabase(this.database);
+				this.mapGenerators = new MapGenerator[] { new OpenGLRenderer(
+						this.mapActivity, this) };
+				((DatabaseMapGenerator) this.mapGenerators[0]).setDatabase(this.database);
+				if (this.renderTheme != null) {
+					((DatabaseMapGenerator) this.mapGenerators[0])
+							.setRenderTheme(this.renderTheme);
+				}
 				break;
 			case OSMARENDER_TILE_DOWNLOAD:
-				this.mapGenerator = new OsmarenderTileDownload();
+				this.mapGenerators = new MapGenerator[] { new OsmarenderTileDownload() };
 				break;
 		}
+		this.mapGenerator = this.mapGenerators[0];
+		this.mapGeneratorJobQueue = new MapGeneratorJobQueue();
 
-		if (this.attachedToWindow) {
-			this.mapGenerator.onAttachedToWindow();
+		for (MapGenerator generator : this.mapGenerators) {
+			generator.setJobQueue(this.mapGeneratorJobQueue);
+			if (generator != this.mapGenerator) {
+				// share the label placement with the first thread
+				((DatabaseMapGenerator) generator)
+						.setLabelPlacement(((DatabaseMapGenerator) this.mapGenerator)
+								.getLabelPlacement());
+			}
+			if (this.attachedToWindow) {
+				generator.onAttachedToWindow();
+			}
+			generator.setTileBitmapPool(this.tileBitmapPool);
+			generator.setTileCaches(this.tileRAMCache, this.tileMemoryCardCache);
+			generator.setMetrics(this.mapGeneratorMetrics);
+			generator.setMapView(this);
+			generator.start();
 		}
-		this.mapGenerator.setTileCaches(this.tileRAMCache, this.tileMemoryCardCache);
-		this.mapGenerator.setMapView(this);
-		this.mapGenerator.start();
 	}
 
 	private void stopMapGeneratorThread() {
-		// stop the MapGenerator thread
-		if (this.mapGenerator != null) {
-			this.mapGenerator.interrupt();
-			try {
-				this.mapGenerator.join();
-			} catch (InterruptedException e) {
-				// restore the interrupted status
-				Thread.currentThread().interrupt();
+		// stop the MapGenerator threads
+		if (this.mapGenerators != null) {
+			for (MapGenerator generator : this.mapGenerators) {
+				generator.interrupt();
+			}
+			for (MapGenerator generator : this.mapGenerators) {
+				try {
+					generator.join();
+				} catch (InterruptedException e) {
+					// restore the interrupted status
+					Thread.currentThread().interrupt();
+				}
+				generator.onDetachedFromWindow();
 			}
-			this.mapGenerator.onDetachedFromWindow();
+			this.mapGenerators = null;
 			this.mapGenerator = null;
+
+			// the job queue is shared by all threads and can only be destroyed after they stopped
+			this.mapGeneratorJobQueue.destroy();
+			this.mapGeneratorJobQueue = null;
 		}
 	}
 
 	private void waitForReadyMapGenerator() {
-		while (!this.mapGenerator.isReady()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				// restore the interrupted status
-				Thread.currentThread().interrupt();
+		for (MapGenerator generator : this.mapGenerators) {
+			while (!generator.isReady()) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					// restore the interrupted status
+					Thread.currentThread().interrupt();
+				}
 			}
 		}
 	}
@@ -1539,16 +1882,20 @@ public class MapView extends ViewGroup {
 	@Override
 	protected void onAttachedToWindow() {
 		this.attachedToWindow = true;
-		if (this.mapGenerator != null) {
-			this.mapGenerator.onAttachedToWindow();
+		if (this.mapGenerators != null) {
+			for (MapGenerator generator : this.mapGenerators) {
+				generator.onAttachedToWindow();
+			}
 		}
 	}
 
 	@Override
 	protected void onDetachedFromWindow() {
 		this.attachedToWindow = false;
-		if (this.mapGenerator != null) {
-			this.mapGenerator.onDetachedFromWindow();
+		if (this.mapGenerators != null) {
+			for (MapGenerator generator : this.mapGenerators) {
+				generator.onDetachedFromWindow();
+			}
 		}
 	}
 
@@ -1706,12 +2053,6 @@ public class MapView extends ViewGroup {
 		// set the pointer to null to avoid memory leaks
 		this.mapViewBitmapSwap = null;
 
-		// free the tileBitmap memory
-		if (this.tileBitmap != null) {
-			this.tileBitmap.recycle();
-			this.tileBitmap = null;
-		}
-
 		// destroy the image bitmap cache
 		if (this.tileRAMCache != null) {
 			this.tileRAMCache.destroy();
@@ -1724,6 +2065,12 @@ public class MapView extends ViewGroup {
 			this.tileMemoryCardCache = null;
 		}
 
+		// free the memory of all pooled bitmaps
+		if (this.tileBitmapPool != null) {
+			this.tileBitmapPool.destroy();
+			this.tileBitmapPool = null;
+		}
+
 		// close the map file
 		if (this.database != null) {
 			this.database.closeFile();
@@ -1806,6 +2153,8 @@ public class MapView extends ViewGroup {
 					+ getWidth(), this.zoomLevel);
 			this.mapViewTileY2 = MercatorProjection.pixelYToTileY(this.mapViewPixelY
 					+ getHeight(), this.zoomLevel);
+			this.visibleTiles = new VisibleTiles(this.mapViewTileX1, this.mapViewTileY1,
+					this.mapViewTileX2, this.mapViewTileY2, this.zoomLevel);
 
 			// go through all tiles that intersect the screen rectangle
 			for (this.tileY = this.mapViewTileY2; this.tileY >= this.mapViewTileY1; --this.tileY) {
@@ -1813,15 +2162,20 @@ public class MapView extends ViewGroup {
 					this.currentTile = new Tile(this.tileX, this.tileY, this.zoomLevel);
 					this.currentJob = new MapGeneratorJob(this.currentTile, this.mapViewMode,
 							this.mapFile, this.drawTileFrames);
-					if (this.tileRAMCache.containsKey(this.currentJob)) {
+					this.tileBitmap = this.tileRAMCache.get(this.currentJob);
+					if (this.tileBitmap != null) {
 						// bitmap cache hit
-						putTileOnBitmap(this.currentJob,
-								this.tileRAMCache.get(this.currentJob), false);
+						putTileOnBitmap(this.currentJob, this.tileBitmap, false);
+						this.tileBitmap = null;
 					} else if (this.tileMemoryCardCache.containsKey(this.currentJob)) {
 						// file cache hit
-						this.tileMemoryCardCache.get(this.currentJob, this.tileBuffer);
-						this.tileBitmap.copyPixelsFromBuffer(this.tileBuffer);
-						putTileOnBitmap(this.currentJob, this.tileBitmap, true);
+						this.tileBitmap = this.tileMemoryCardCache.get(this.currentJob);
+						if (this.tileBitmap != null) {
+							// hand the borrowed bitmap over to the image bitmap cache
+							putTileOnBitmap(this.currentJob, this.tileBitmap, false);
+							this.tileRAMCache.putBorrowedBitmap(this.currentJob, this.tileBitmap);
+							this.tileBitmap = null;
+						}
 					} else {
 						// cache miss
 						this.mapGenerator.addJob(this.currentJob);
@@ -1858,9 +2212,8 @@ public class MapView extends ViewGroup {
 				|| this.longitude < LONGITUDE_MIN) {
 			return false;
 		} else if (!this.mapViewMode.requiresInternetConnection()
-				&& (this.database == null || this.database.getMapBoundary() == null || !this.database
-						.getMapBoundary().contains(getMapCenter().getLongitudeE6(),
-								getMapCenter().getLatitudeE6()))) {
+				&& (this.database == null || !this.database.isInsideMapBoundary(getMapCenter()
+						.getLatitudeE6(), getMapCenter().getLongitudeE6()))) {
 			return false;
 		}
 		return true;
@@ -1887,6 +2240,58 @@ public class MapView extends ViewGroup {
 		this.zoomControls.hide();
 	}
 
+	/**
+	 * Checks whether the given job is still needed for the current or the predicted position
+	 * of the map. A job is needed if its tile is visible, belongs to the surrounding tiles
+	 * which are rendered in advance, or becomes visible within the prediction time while the
+	 * map is moved by the {@link MapMover}. This method may be called by any thread, it only
+	 * reads the area which has been published when the tiles have been handled.
+	 * 
+	 * @param mapGeneratorJob
+	 *            the job which should be checked.
+	 * @return true if the job is needed, false otherwise.
+	 */
+	boolean isJobNeeded(MapGeneratorJob mapGeneratorJob) {
+		VisibleTiles currentVisibleTiles = this.visibleTiles;
+		if (currentVisibleTiles == null) {
+			// the tiles have not been handled yet
+			return true;
+		} else if (mapGeneratorJob.tile.zoomLevel != currentVisibleTiles.zoomLevel) {
+			return false;
+		}
+
+		// include the surrounding tiles which are rendered in advance
+		long tileX1 = currentVisibleTiles.tileX1 - 1;
+		long tileX2 = currentVisibleTiles.tileX2 + 1;
+		long tileY1 = currentVisibleTiles.tileY1 - 1;
+		long tileY2 = currentVisibleTiles.tileY2 + 1;
+
+		// include the tiles which become visible in the direction of the movement
+		MapMover currentMapMover = this.mapMover;
+		if (currentMapMover != null) {
+			float moveX = currentMapMover.getMoveX();
+			float moveY = currentMapMover.getMoveY();
+			long predictedTilesX = (long) Math.ceil(Math.abs(moveX) * JOB_PREDICTION_TIME
+					/ Tile.TILE_SIZE);
+			long predictedTilesY = (long) Math.ceil(Math.abs(moveY) * JOB_PREDICTION_TIME
+					/ Tile.TILE_SIZE);
+			// a positive speed moves the visible area to smaller pixel coordinates
+			if (moveX > 0) {
+				tileX1 -= predictedTilesX;
+			} else {
+				tileX2 += predictedTilesX;
+			}
+			if (moveY > 0) {
+				tileY1 -= predictedTilesY;
+			} else {
+				tileY2 += predictedTilesY;
+			}
+		}
+
+		return mapGeneratorJob.tile.x >= tileX1 && mapGeneratorJob.tile.x <= tileX2
+				&& mapGeneratorJob.tile.y >= tileY1 && mapGeneratorJob.tile.y <= tileY2;
+	}
+
 	/**
 	 * @return true if the matrix is the identity matrix, false otherwise.
 	 */
@@ -2107,9 +2512,8 @@ public class MapView extends ViewGroup {
 	 */
 	void setCenterAndZoom(GeoPoint point, byte zoom) {
 		if (this.mapViewMode.requiresInternetConnection()
-				|| (this.database != null && this.database.getMapBoundary() != null && this.database
-						.getMapBoundary().contains(point.getLongitudeE6(),
-								point.getLatitudeE6()))) {
+				|| (this.database != null && this.database.isInsideMapBoundary(point
+						.getLatitudeE6(), point.getLongitudeE6()))) {
 			if (hasValidCenter()) {
 				// calculate the distance between previous and current position
 				synchronized (this) {
@@ -2155,7 +2559,9 @@ public class MapView extends ViewGroup {
 
 	/**
 	 * Calculates the priority for the given job based on the current position and zoom level of
-	 * the map.
+	 * the map. While the map is moved by the {@link MapMover}, the priority is the distance to
+	 * the predicted center of the map, so that tiles in the direction of the movement are
+	 * rendered first.
 	 * 
 	 * @param mapGeneratorJob
 	 *            the job for which the priority should be calculated.
@@ -2169,6 +2575,11 @@ public class MapView extends ViewGroup {
 			// calculate the center of the MapView
 			double mapViewCenterX = this.mapViewPixelX + (getWidth() >> 1);
 			double mapViewCenterY = this.mapViewPixelY + (getHeight() >> 1);
+			if (this.mapMover != null) {
+				// move the center in the direction of the movement
+				mapViewCenterX -= this.mapMover.getMoveX() * JOB_PREDICTION_TIME;
+				mapViewCenterY -= this.mapMover.getMoveY() * JOB_PREDICTION_TIME;
+			}
 
 			// calculate the center of the tile
 			long tileCenterX = mapGeneratorJob.tile.pixelX + (Tile.TILE_SIZE >> 1);
@@ -2195,7 +2606,7 @@ public class MapView extends ViewGroup {
 			throw new UnsupportedOperationException();
 		}
 		if (newMapFile != null && this.database != null && this.database.openFile(newMapFile)) {
-			((DatabaseMapGenerator) this.mapGenerator).onMapFileChange();
+			onMapFileChange();
 			this.mapFile = newMapFile;
 		} else {
 			this.mapFile = null;
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * A histogram of non-negative long values with logarithmic buckets. The bucket with index 0
+ * contains the value 0, the bucket with index i &gt; 0 contains all values from 2^(i-1) to
+ * 2^i - 1. The relative error of a percentile is therefore at most a factor of two, which is
+ * sufficient to detect performance regressions while the memory footprint stays constant.
+ * <p>
+ * A histogram is not thread-safe. Histograms which are returned by the
+ * {@link MapGeneratorMetrics} are snapshots and may be read without synchronization.
+ */
+public class MetricsHistogram {
+	/**
+	 * Number of buckets, one for zero and one for each possible bit length of a positive long.
+	 */
+	private static final int NUMBER_OF_BUCKETS = 64;
+
+	/**
+	 * Returns the largest value which is counted in the bucket with the given index.
+	 * 
+	 * @param bucket
+	 *            the index of the bucket.
+	 * @return the upper bound of the bucket.
+	 */
+	public static long getBucketUpperBound(int bucket) {
+		if (bucket >= NUMBER_OF_BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		return (1L << bucket) - 1;
+	}
+
+	/**
+	 * Returns the number of buckets of each histogram.
+	 * 
+	 * @return the number of buckets.
+	 */
+	public static int getNumberOfBuckets() {
+		return NUMBER_OF_BUCKETS;
+	}
+
+	private final long[] buckets;
+	private long count;
+	private long maximum;
+	private long minimum;
+	private long sum;
+
+	/**
+	 * Constructs a new empty histogram.
+	 */
+	MetricsHistogram() {
+		this.buckets = new long[NUMBER_OF_BUCKETS];
+		this.minimum = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Constructs a new histogram as a copy of the given histogram.
+	 * 
+	 * @param histogram
+	 *            the histogram to be copied.
+	 */
+	MetricsHistogram(MetricsHistogram histogram) {
+		this.buckets = histogram.buckets.clone();
+		this.count = histogram.count;
+		this.maximum = histogram.maximum;
+		this.minimum = histogram.minimum;
+		this.sum = histogram.sum;
+	}
+
+	/**
+	 * Returns the number of values in the bucket with the given index.
+	 * 
+	 * @param bucket
+	 *            the index of the bucket.
+	 * @return the number of values in the bucket.
+	 */
+	public long getBucketCount(int bucket) {
+		return this.buckets[bucket];
+	}
+
+	/**
+	 * Returns the number of values in the histogram.
+	 * 
+	 * @return the number of values.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the largest value in the histogram.
+	 * 
+	 * @return the largest value or 0, if the histogram is empty.
+	 */
+	public long getMaximum() {
+		return this.maximum;
+	}
+
+	/**
+	 * Returns the arithmetic mean of all values in the histogram.
+	 * 
+	 * @return the mean value or 0, if the histogram is empty.
+	 */
+	public double getMean() {
+		if (this.count == 0) {
+			return 0;
+		}
+		return (double) this.sum / this.count;
+	}
+
+	/**
+	 * Returns the smallest value in the histogram.
+	 * 
+	 * @return the smallest value or 0, if the histogram is empty.
+	 */
+	public long getMinimum() {
+		if (this.count == 0) {
+			return 0;
+		}
+		return this.minimum;
+	}
+
+	/**
+	 * Returns an estimation of the given percentile. The result is the upper bound of the
+	 * bucket which contains the percentile, limited to the largest value in the histogram.
+	 * 
+	 * @param percentile
+	 *            the percentile between 0 and 100.
+	 * @return the estimated percentile or 0, if the histogram is empty.
+	 * @throws IllegalArgumentException
+	 *             if the percentile is not between 0 and 100.
+	 */
+	public long getPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("invalid percentile: " + percentile);
+		} else if (this.count == 0) {
+			return 0;
+		}
+
+		// calculate the rank of the percentile, at least the first value
+		long rank = Math.max(1, (long) Math.ceil(this.count * percentile / 100));
+		long cumulativeCount = 0;
+		for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; ++bucket) {
+			cumulativeCount += this.buckets[bucket];
+			if (cumulativeCount >= rank) {
+				return Math.max(getMinimum(),
+						Math.min(getBucketUpperBound(bucket), this.maximum));
+			}
+		}
+		return this.maximum;
+	}
+
+	/**
+	 * Returns the sum of all values in the histogram.
+	 * 
+	 * @return the sum of all values.
+	 */
+	public long getSum() {
+		return this.sum;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + this.count + ", mean=" + (long) getMean() + ", p50="
+				+ getPercentile(50) + ", p90=" + getPercentile(90) + ", p99="
+				+ getPercentile(99) + ", max=" + this.maximum;
+	}
+
+	/**
+	 * Adds the given value to the histogram. Negative values are counted as zero.
+	 * 
+	 * @param value
+	 *            the value to be added.
+	 */
+	void add(long value) {
+		long validValue = Math.max(0, value);
+		++this.buckets[NUMBER_OF_BUCKETS - Long.numberOfLeadingZeros(validValue)];
+		++this.count;
+		this.sum += validValue;
+		if (validValue < this.minimum) {
+			this.minimum = validValue;
+		}
+		if (validValue > this.maximum) {
+			this.maximum = validValue;
+		}
+	}
+
+	/**
+	 * Removes all values from the histogram.
+	 */
+	void clear() {
+		for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; ++bucket) {
+			this.buckets[bucket] = 0;
+		}
+		this.count = 0;
+		this.maximum = 0;
+		this.minimum = Long.MAX_VALUE;
+		this.sum = 0;
+	}
+}
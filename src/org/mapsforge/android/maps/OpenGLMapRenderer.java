@@ -27,32 +27,109 @@ import javax.microedition.khronos.opengles.GL11;
 
 import android.graphics.Bitmap;
 import android.graphics.Color;
-import android.graphics.Paint;
 
 /**
  * <b>This implementation is unstable and for testing only.</b>
+ * <p>
+ * All shapes of a tile are collected into a single vertex array when the tile is loaded.
+ * Consecutive shapes with the same style, width and color are merged to batches which are drawn
+ * with one call per primitive type, so the number of draw calls per tile depends on the number
+ * of style changes instead of the number of shapes. Circles of different colors share a batch,
+ * as a single batch of points keeps the drawing order of its shapes. The vertex array is
+ * uploaded once into a static vertex buffer and reused for all frames until the next tile is
+ * loaded. Filled polygons are triangulated together with their inner ways and the triangles
+ * are kept in a {@link TriangleCache}.
  */
 class OpenGLMapRenderer implements android.opengl.GLSurfaceView.Renderer {
+	/**
+	 * A growable array of interleaved vertex positions and colors.
+	 */
+	private static class VertexList {
+		float[] data;
+		int size;
+
+		VertexList(int initialCapacity) {
+			this.data = new float[initialCapacity * FLOATS_PER_VERTEX];
+		}
+
+		void add(float x, float y, float red, float green, float blue) {
+			if (this.size + FLOATS_PER_VERTEX > this.data.length) {
+				float[] newData = new float[this.data.length * 2];
+				System.arraycopy(this.data, 0, newData, 0, this.size);
+				this.data = newData;
+			}
+			this.data[this.size++] = x / 128 - 1.0f;
+			this.data[this.size++] = y / 128 - 1.0f;
+			this.data[this.size++] = 0f;
+			this.data[this.size++] = red;
+			this.data[this.size++] = green;
+			this.data[this.size++] = blue;
+			this.data[this.size++] = 1.0f;
+		}
+
+		void addAll(VertexList vertexList) {
+			if (this.size + vertexList.size > this.data.length) {
+				float[] newData = new float[Math.max(this.data.length * 2, this.size
+						+ vertexList.size)];
+				System.arraycopy(this.data, 0, newData, 0, this.size);
+				this.data = newData;
+			}
+			System.arraycopy(vertexList.data, 0, this.data, this.size, vertexList.size);
+			this.size += vertexList.size;
+		}
+
+		void clear() {
+			this.size = 0;
+		}
+
+		int getNumberOfVertices() {
+			return this.size / FLOATS_PER_VERTEX;
+		}
+	}
+
+	private static final int BYTES_PER_FLOAT = 4;
+	private static final int FLOATS_PER_VERTEX = 7;
+	private static final int INITIAL_BATCH_CAPACITY = 64;
+	private static final int INITIAL_VERTEX_CAPACITY = 10000;
+	private static final byte RUN_CIRCLE = 1;
+	private static final byte RUN_FILL = 2;
+	private static final byte RUN_NONE = 0;
+	private static final byte RUN_STROKE = 3;
+	private static final int VERTEX_STRIDE = FLOATS_PER_VERTEX * BYTES_PER_FLOAT;
+
 	private int arrayListIndex;
+	private int[] batchFirstVertices;
+	private int[] batchModes;
+	private float[] batchSizes;
+	private int[] batchVertexCounts;
 	private Bitmap bitmap;
-	private int circleBufferHandle;
-	private ByteBuffer circleByteBuffer;
+	private float blue;
 	private CircleContainer circleContainer;
-	private FloatBuffer circleVertexBuffer;
 	private int color;
 	private WayContainer complexWayContainer;
 	private float[][] coordinates;
 	private byte currentLayer;
 	private byte currentLevel;
+	private float green;
+	private final VertexList lineVertices;
 	private GL10 mGL;
 	private GL11 mGL11;
-	private ArrayList<ShapePaintContainer> objectsToDraw;
-	private Paint paint;
+	private int numberOfBatches;
 	private ByteBuffer pixelBuffer;
+	private final VertexList pointVertices;
+	private float red;
+	private int runColor;
+	private byte runType;
+	private float runWidth;
 	private ShapePaintContainer shapePaintContainer;
 	private ArrayList<ArrayList<ShapePaintContainer>> shapePaintContainers;
+	private RenderStyle style;
+	private final TriangleCache triangleCache;
+	private final VertexList triangleVertices;
+	private boolean uploadNeeded;
 	private int vboHandle;
 	private ByteBuffer vbuffer;
+	private final VertexList vertexData;
 	private FloatBuffer vertices;
 	private ArrayList<ShapePaintContainer> wayList;
 
@@ -65,134 +142,186 @@ class OpenGLMapRenderer implements android.opengl.GLSurfaceView.Renderer {
 	 * Creates a new OpenGlMapRenderer.
 	 */
 	OpenGLMapRenderer() {
-		this.objectsToDraw = new ArrayList<ShapePaintContainer>(1024);
+		this.vertexData = new VertexList(INITIAL_VERTEX_CAPACITY);
+		this.lineVertices = new VertexList(INITIAL_VERTEX_CAPACITY);
+		this.pointVertices = new VertexList(INITIAL_VERTEX_CAPACITY);
+		this.triangleVertices = new VertexList(INITIAL_VERTEX_CAPACITY);
+		this.triangleCache = new TriangleCache();
+		this.batchFirstVertices = new int[INITIAL_BATCH_CAPACITY];
+		this.batchModes = new int[INITIAL_BATCH_CAPACITY];
+		this.batchSizes = new float[INITIAL_BATCH_CAPACITY];
+		this.batchVertexCounts = new int[INITIAL_BATCH_CAPACITY];
+	}
+
+	/**
+	 * Appends the given vertices as a new batch to the vertex array and clears them.
+	 * 
+	 * @param mode
+	 *            the primitive type of the batch.
+	 * @param vertexList
+	 *            the vertices of the batch.
+	 * @param size
+	 *            the line width or point size of the batch.
+	 */
+	private void addBatch(int mode, VertexList vertexList, float size) {
+		if (vertexList.size == 0) {
+			return;
+		}
+		if (this.numberOfBatches == this.batchModes.length) {
+			int[] newBatchFirstVertices = new int[this.numberOfBatches * 2];
+			System.arraycopy(this.batchFirstVertices, 0, newBatchFirstVertices, 0,
+					this.numberOfBatches);
+			this.batchFirstVertices = newBatchFirstVertices;
+			int[] newBatchModes = new int[this.numberOfBatches * 2];
+			System.arraycopy(this.batchModes, 0, newBatchModes, 0, this.numberOfBatches);
+			this.batchModes = newBatchModes;
+			float[] newBatchSizes = new float[this.numberOfBatches * 2];
+			System.arraycopy(this.batchSizes, 0, newBatchSizes, 0, this.numberOfBatches);
+			this.batchSizes = newBatchSizes;
+			int[] newBatchVertexCounts = new int[this.numberOfBatches * 2];
+			System.arraycopy(this.batchVertexCounts, 0, newBatchVertexCounts, 0,
+					this.numberOfBatches);
+			this.batchVertexCounts = newBatchVertexCounts;
+		}
+		this.batchFirstVertices[this.numberOfBatches] = this.vertexData.getNumberOfVertices();
+		this.batchModes[this.numberOfBatches] = mode;
+		this.batchSizes[this.numberOfBatches] = size;
+		this.batchVertexCounts[this.numberOfBatches] = vertexList.getNumberOfVertices();
+		++this.numberOfBatches;
+		this.vertexData.addAll(vertexList);
+		vertexList.clear();
+	}
+
+	/**
+	 * Adds the vertices of the current way to the vertex lists of the current run.
+	 * 
+	 * @param fillWay
+	 *            true if the way is a filled polygon, false otherwise.
+	 */
+	private void addWay(boolean fillWay) {
+		if (fillWay) {
+			// triangulate the polygon together with its inner ways
+			float[] triangles = this.triangleCache.getTriangles(this.coordinates);
+			for (int i = 0; i < triangles.length; i += 2) {
+				this.triangleVertices.add(triangles[i], triangles[i + 1], this.red, this.green,
+						this.blue);
+			}
+		}
+
+		for (int j = 0; j < this.coordinates.length; ++j) {
+			float[] nodes = this.coordinates[j];
+
+			// ways without nodes don't need to be drawn
+			if (nodes.length < 2) {
+				continue;
+			}
+
+			// the line strip of the way is split into single line segments
+			for (int i = 0; i < nodes.length; i += 2) {
+				this.pointVertices.add(nodes[i], nodes[i + 1], this.red, this.green, this.blue);
+				if (i >= 2) {
+					this.lineVertices.add(nodes[i - 2], nodes[i - 1], this.red, this.green,
+							this.blue);
+					this.lineVertices.add(nodes[i], nodes[i + 1], this.red, this.green,
+							this.blue);
+				}
+			}
+
+			if (fillWay) {
+				// close the outline of the polygon
+				this.lineVertices.add(nodes[nodes.length - 2], nodes[nodes.length - 1],
+						this.red, this.green, this.blue);
+				this.lineVertices.add(nodes[0], nodes[1], this.red, this.green, this.blue);
+			}
+		}
+	}
+
+	/**
+	 * Converts the vertex lists of the current run to batches.
+	 */
+	private void finishRun() {
+		switch (this.runType) {
+			case RUN_CIRCLE:
+				addBatch(GL10.GL_POINTS, this.pointVertices, this.runWidth);
+				break;
+			case RUN_FILL:
+				addBatch(GL10.GL_TRIANGLES, this.triangleVertices, 0);
+				addBatch(GL10.GL_LINES, this.lineVertices, this.runWidth);
+				addBatch(GL10.GL_POINTS, this.pointVertices, this.runWidth);
+				break;
+			case RUN_STROKE:
+				addBatch(GL10.GL_LINES, this.lineVertices, this.runWidth);
+				addBatch(GL10.GL_POINTS, this.pointVertices, this.runWidth);
+				break;
+		}
+		this.runType = RUN_NONE;
+	}
+
+	/**
+	 * Starts a new run if the given style or the current color differs from the current run.
+	 * The batches of a run are drawn one primitive type after the other, so the shapes of a
+	 * filled or stroked run must have the same color to keep the painter's order.
+	 * 
+	 * @param newRunType
+	 *            the style of the next shape.
+	 * @param newRunWidth
+	 *            the line width or point size of the next shape.
+	 */
+	private void startRun(byte newRunType, float newRunWidth) {
+		if (newRunType != this.runType || newRunWidth != this.runWidth
+				|| (newRunType != RUN_CIRCLE && this.color != this.runColor)) {
+			finishRun();
+			this.runType = newRunType;
+			this.runWidth = newRunWidth;
+			this.runColor = this.color;
+		}
 	}
 
 	@Override
-	public void onDrawFrame(GL10 gl) {
+	public synchronized void onDrawFrame(GL10 gl) {
 		gl.glClear(GL10.GL_COLOR_BUFFER_BIT | GL10.GL_DEPTH_BUFFER_BIT);
 		gl.glLoadIdentity(); // Reset The Current Modelview Matrix
 
-		for (this.arrayListIndex = 0; this.arrayListIndex < this.objectsToDraw.size(); ++this.arrayListIndex) {
-			this.shapePaintContainer = this.objectsToDraw.get(this.arrayListIndex);
-			switch (this.shapePaintContainer.shapeContainer.getShapeType()) {
-				case CIRCLE:
-					this.circleContainer = (CircleContainer) this.shapePaintContainer.shapeContainer;
-
-					this.paint = this.shapePaintContainer.paint;
-					this.color = this.paint.getColor();
-
-					this.circleVertexBuffer.clear();
-					this.circleVertexBuffer.put(new float[] {
-							(this.circleContainer.x / 128 - 1.0f),
-							(this.circleContainer.y / 128 - 1.0f), 0f,
-							(float) Color.red(this.color) / 256,
-							(float) Color.green(this.color) / 256,
-							(float) Color.blue(this.color) / 256, 1.0f });
-
-					this.circleVertexBuffer.flip();
-
-					// set point size
-					this.mGL11.glPointSize(this.circleContainer.radius * 2);
-
-					// bind the vertex buffer
-					this.mGL11.glBindBuffer(GL11.GL_ARRAY_BUFFER, this.circleBufferHandle);
-					// transfer data into video memory
-					this.mGL11.glBufferData(GL11.GL_ARRAY_BUFFER, 4 * 7 * 1,
-							this.circleVertexBuffer, GL11.GL_DYNAMIC_DRAW);
-
-					this.mGL11.glEnableClientState(GL10.GL_VERTEX_ARRAY);
-					this.mGL11.glEnableClientState(GL10.GL_COLOR_ARRAY);
-					this.mGL11.glVertexPointer(3, GL10.GL_FLOAT, 7 * 4, 0);
-					this.mGL11.glColorPointer(4, GL10.GL_FLOAT, 7 * 4, 3 * 4);
-
-					this.mGL11.glDrawArrays(GL10.GL_POINTS, 0, 1);
-					// unbind the buffer
-					this.mGL11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
-
-					break;
-
-				case WAY:
-					this.complexWayContainer = (WayContainer) this.shapePaintContainer.shapeContainer;
-					this.coordinates = this.complexWayContainer.coordinates;
-					this.paint = this.shapePaintContainer.paint;
-					this.color = this.paint.getColor();
-
-					boolean fillWay = (this.paint.getStyle() == Paint.Style.FILL);
-
-					this.vertices.rewind();
-
-					for (int j = 0; j < this.coordinates.length; ++j) {
-
-						// prevent ArrayIndexOutOfBoundsException - ways without nodes don't
-						// need to be drawn
-						if (this.coordinates[j].length == 0) {
-							continue;
-						}
-
-						this.vertices.clear();
-
-						float[] nodes;
-
-						// Logger.d("trying to draw way with " + this.coordinates[j].length
-						// + " nodes.");
-
-						if (fillWay) {
-							// Logger.d(" triangulating..");
-							// triangulate if we need to fill the polygon
-							EarClippingTriangulation ec = new EarClippingTriangulation(
-									this.coordinates[j]);
-							nodes = ec.getTrianglesAsFloatArray();
-						} else {
-							// simply use the coordinates given
-							nodes = this.coordinates[j];
-						}
-
-						int i;
-						// Logger.d("adding " + nodes.length * 7 / 2 +
-						// " nodes to vertices array."
-						// + " vertices.remaining==" + vertices.remaining() + " limit=="
-						// + vertices.limit());
-						for (i = 0; i < nodes.length; i += 2) {
-							// TODO: BufferOverflow exception on next line
-							this.vertices.put(new float[] { (nodes[i] / 128 - 1.0f),
-									(nodes[i + 1] / 128 - 1.0f), 0f,
-									(float) Color.red(this.color) / 256,
-									(float) Color.green(this.color) / 256,
-									(float) Color.blue(this.color) / 256, 1.0f });
-						}
-						this.vertices.flip();
-
-						// bind the buffer
-						this.mGL11.glBindBuffer(GL11.GL_ARRAY_BUFFER, this.vboHandle);
-						this.mGL11.glBufferData(GL11.GL_ARRAY_BUFFER, 4 * 7 * i / 2,
-								this.vertices, GL11.GL_DYNAMIC_DRAW);
-
-						this.mGL11.glEnableClientState(GL10.GL_VERTEX_ARRAY);
-						this.mGL11.glEnableClientState(GL10.GL_COLOR_ARRAY);
-						this.mGL11.glVertexPointer(3, GL10.GL_FLOAT, 7 * 4, 0);
-						this.mGL11.glColorPointer(4, GL10.GL_FLOAT, 7 * 4, 3 * 4);
-
-						this.mGL11.glLineWidth(this.paint.getStrokeWidth());
-						// mGL11.glLineWidth(1.0f);
-						this.mGL11.glPointSize(this.paint.getStrokeWidth());
-
-						this.mGL11.glDrawArrays(GL10.GL_POINTS, 0, i / 2);
-
-						if (fillWay) {
-							this.mGL11.glDrawArrays(GL10.GL_LINE_LOOP, 0, i / 2);
-							this.mGL11.glDrawArrays(GL10.GL_TRIANGLES, 0, i / 2);
-						} else {
-							this.mGL11.glDrawArrays(GL10.GL_LINE_STRIP, 0, i / 2);
-						}
-
-						// unbind the buffer
-						this.mGL11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
-					}
-					break;
+		if (this.numberOfBatches > 0) {
+			// bind the vertex buffer
+			this.mGL11.glBindBuffer(GL11.GL_ARRAY_BUFFER, this.vboHandle);
+
+			if (this.uploadNeeded) {
+				// make sure that the buffer is big enough for all vertices of the tile
+				if (this.vertices.capacity() < this.vertexData.size) {
+					this.vbuffer = ByteBuffer.allocateDirect(BYTES_PER_FLOAT
+							* Math.max(this.vertexData.size, this.vertices.capacity() * 2));
+					this.vbuffer.order(ByteOrder.nativeOrder());
+					this.vertices = this.vbuffer.asFloatBuffer();
+				}
+				this.vertices.clear();
+				this.vertices.put(this.vertexData.data, 0, this.vertexData.size);
+				this.vertices.flip();
+
+				// transfer all vertices of the tile into video memory
+				this.mGL11.glBufferData(GL11.GL_ARRAY_BUFFER, BYTES_PER_FLOAT
+						* this.vertexData.size, this.vertices, GL11.GL_STATIC_DRAW);
+				this.uploadNeeded = false;
 			}
+
+			this.mGL11.glEnableClientState(GL10.GL_VERTEX_ARRAY);
+			this.mGL11.glEnableClientState(GL10.GL_COLOR_ARRAY);
+			this.mGL11.glVertexPointer(3, GL10.GL_FLOAT, VERTEX_STRIDE, 0);
+			this.mGL11.glColorPointer(4, GL10.GL_FLOAT, VERTEX_STRIDE, 3 * BYTES_PER_FLOAT);
+
+			for (int i = 0; i < this.numberOfBatches; ++i) {
+				if (this.batchModes[i] == GL10.GL_LINES) {
+					this.mGL11.glLineWidth(this.batchSizes[i]);
+				} else if (this.batchModes[i] == GL10.GL_POINTS) {
+					this.mGL11.glPointSize(this.batchSizes[i]);
+				}
+				this.mGL11.glDrawArrays(this.batchModes[i], this.batchFirstVertices[i],
+						this.batchVertexCounts[i]);
+			}
+
+			// unbind the buffer
+			this.mGL11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
 		}
-		this.objectsToDraw.clear();
 
 		if (this.pixelBuffer != null) {
 
@@ -248,23 +377,27 @@ class OpenGLMapRenderer implements android.opengl.GLSurfaceView.Renderer {
 		gl.glHint(GL10.GL_PERSPECTIVE_CORRECTION_HINT, GL10.GL_NICEST);
 		gl.glClearColor(0.9f, 0.9f, 0.9f, 1);
 
-		// set up buffers for VBOs
-		this.vbuffer = ByteBuffer.allocateDirect(4 * 7 * 10000);
+		// set up the buffer for the VBO
+		this.vbuffer = ByteBuffer.allocateDirect(BYTES_PER_FLOAT * FLOATS_PER_VERTEX
+				* INITIAL_VERTEX_CAPACITY);
 		this.vbuffer.order(ByteOrder.nativeOrder());
 		this.vertices = this.vbuffer.asFloatBuffer();
 
-		this.circleByteBuffer = ByteBuffer.allocateDirect(4 * 7 * 100);
-		this.circleByteBuffer.order(ByteOrder.nativeOrder());
-		this.circleVertexBuffer = this.circleByteBuffer.asFloatBuffer();
-
 		// handles
-		int[] handle = new int[2];
-		this.mGL11.glGenBuffers(2, handle, 0); // find unused buffers and save in handle[]
+		int[] handle = new int[1];
+		this.mGL11.glGenBuffers(1, handle, 0); // find unused buffers and save in handle[]
 		this.vboHandle = handle[0];
-		this.circleBufferHandle = handle[1];
+
+		// the vertices of the current tile must be uploaded to the new buffer
+		synchronized (this) {
+			this.uploadNeeded = true;
+		}
 	}
 
 	/**
+	 * Collects the vertices of all ways of the next tile and merges them to batches. The
+	 * batches are uploaded with the next frame.
+	 * 
 	 * @param drawWays
 	 *            the ways to be rendered.
 	 * @param layers
@@ -273,19 +406,60 @@ class OpenGLMapRenderer implements android.opengl.GLSurfaceView.Renderer {
 	 *            the amount of levels per layer.
 	 * @see DatabaseMapGenerator#drawWays(ArrayList, byte, byte)
 	 */
-	void drawWays(ArrayList<ArrayList<ArrayList<ShapePaintContainer>>> drawWays, byte layers,
-			byte levelsPerLayer) {
-		// extract all ways in all layers and all levels and add them to ArrayList
+	synchronized void drawWays(ArrayList<ArrayList<ArrayList<ShapePaintContainer>>> drawWays,
+			byte layers, byte levelsPerLayer) {
+		this.vertexData.clear();
+		this.numberOfBatches = 0;
+		this.runType = RUN_NONE;
+
+		// collect all ways in all layers and all levels in their drawing order
 		for (this.currentLayer = 0; this.currentLayer < layers; ++this.currentLayer) {
 			this.shapePaintContainers = drawWays.get(this.currentLayer);
 			for (this.currentLevel = 0; this.currentLevel < levelsPerLayer; ++this.currentLevel) {
 				this.wayList = this.shapePaintContainers.get(this.currentLevel);
 				for (this.arrayListIndex = this.wayList.size() - 1; this.arrayListIndex >= 0; --this.arrayListIndex) {
 					this.shapePaintContainer = this.wayList.get(this.arrayListIndex);
-					this.objectsToDraw.add(this.shapePaintContainer);
+					this.style = this.shapePaintContainer.paint;
+					this.color = this.style.color;
+					this.red = (float) Color.red(this.color) / 256;
+					this.green = (float) Color.green(this.color) / 256;
+					this.blue = (float) Color.blue(this.color) / 256;
+
+					switch (this.shapePaintContainer.shapeContainer.getShapeType()) {
+						case CIRCLE:
+							this.circleContainer = (CircleContainer) this.shapePaintContainer.shapeContainer;
+							startRun(RUN_CIRCLE, this.circleContainer.radius * 2);
+							this.pointVertices.add(this.circleContainer.x,
+									this.circleContainer.y, this.red, this.green, this.blue);
+							break;
+
+						case WAY:
+							this.complexWayContainer = (WayContainer) this.shapePaintContainer.shapeContainer;
+							this.coordinates = this.complexWayContainer.coordinates;
+							if (this.style.fill) {
+								startRun(RUN_FILL, this.style.strokeWidth);
+								addWay(true);
+							} else {
+								startRun(RUN_STROKE, this.style.strokeWidth);
+								addWay(false);
+							}
+							break;
+					}
 				}
 			}
 		}
+		finishRun();
+
+		// set some fields to null to avoid memory leaks
+		this.circleContainer = null;
+		this.complexWayContainer = null;
+		this.coordinates = null;
+		this.shapePaintContainer = null;
+		this.shapePaintContainers = null;
+		this.style = null;
+		this.wayList = null;
+
+		this.uploadNeeded = true;
 	}
 
 	/**
@@ -16,6 +16,7 @@
  */
 package org.mapsforge.android.maps;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 
 import android.content.Context;
@@ -33,6 +34,7 @@ class OpenGLRenderer extends DatabaseMapGenerator {
 	private GLSurfaceView glSurfaceView;
 	private MapView mapView;
 	private OpenGLMapRenderer renderer;
+	private final RenderStylePaints renderStylePaints = new RenderStylePaints();
 
 	/**
 	 * Creates a new map renderer that uses OpenGL for drawing.
@@ -47,6 +49,11 @@ class OpenGLRenderer extends DatabaseMapGenerator {
 		this.mapView = mapView;
 	}
 
+	@Override
+	MapSymbol decodeSymbol(InputStream inputStream) {
+		return BitmapMapSymbol.decode(inputStream);
+	}
+
 	@Override
 	void drawMapSymbols(ArrayList<SymbolContainer> drawSymbols) {
 		// TODO Auto-generated method stub
@@ -89,6 +96,16 @@ class OpenGLRenderer extends DatabaseMapGenerator {
 		}
 	}
 
+	@Override
+	void getTextBounds(String text, RenderStyle style, int[] bounds) {
+		this.renderStylePaints.getTextBounds(text, style, bounds);
+	}
+
+	@Override
+	float getTextWidth(String text, RenderStyle style) {
+		return this.renderStylePaints.getTextWidth(text, style);
+	}
+
 	@Override
 	String getThreadName() {
 		return THREAD_NAME;
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.Arrays;
+
+/**
+ * A packed grid over the positions of overlay items at a single zoom level. The positions are
+ * given as pixel coordinates at the {@link #REFERENCE_ZOOM_LEVEL}, so that the grid of any
+ * lower zoom level can be built by shifting instead of projecting each item again. The grid
+ * stores only the occupied cells as a sorted array of cell keys, each cell refers to a range of
+ * an array with the item indices. A query touches only the cells which intersect the queried
+ * area.
+ */
+class OverlayItemGrid {
+	/**
+	 * Number of bits of the pixel coordinates which are covered by a single cell.
+	 */
+	private static final int CELL_SIZE_SHIFT = 8;
+
+	/**
+	 * Initial capacity of the array for the query results.
+	 */
+	private static final int INITIAL_RESULT_CAPACITY = 64;
+
+	/**
+	 * Zoom level of the pixel coordinates of all items.
+	 */
+	static final byte REFERENCE_ZOOM_LEVEL = 22;
+
+	/**
+	 * Maximum pixel coordinate at the reference zoom level.
+	 */
+	static final int MAXIMUM_REFERENCE_COORDINATE = (Tile.TILE_SIZE << REFERENCE_ZOOM_LEVEL) - 1;
+
+	private static long getCellKey(long cellX, long cellY) {
+		return (cellY << 32) | cellX;
+	}
+
+	private final int[] cellItems;
+	private final long[] cellKeys;
+	private final int[] cellStarts;
+	private final int[] itemX;
+	private final int[] itemY;
+	private int[] results;
+	private final int shift;
+
+	/**
+	 * Builds the grid for the given items and zoom level.
+	 * 
+	 * @param itemX
+	 *            the X pixel coordinates of the items at the reference zoom level.
+	 * @param itemY
+	 *            the Y pixel coordinates of the items at the reference zoom level.
+	 * @param numberOfItems
+	 *            the number of items, which must have a position.
+	 * @param zoomLevel
+	 *            the zoom level of the grid, must not be greater than the reference zoom level.
+	 */
+	OverlayItemGrid(int[] itemX, int[] itemY, int numberOfItems, byte zoomLevel) {
+		this.itemX = itemX;
+		this.itemY = itemY;
+		this.shift = REFERENCE_ZOOM_LEVEL - zoomLevel;
+		this.results = new int[INITIAL_RESULT_CAPACITY];
+
+		// collect the distinct keys of all occupied cells in ascending order
+		long[] itemCellKeys = new long[numberOfItems];
+		for (int i = 0; i < numberOfItems; ++i) {
+			itemCellKeys[i] = getCellKey(getCell(itemX[i]), getCell(itemY[i]));
+		}
+		long[] sortedKeys = itemCellKeys.clone();
+		Arrays.sort(sortedKeys);
+		int numberOfCells = 0;
+		for (int i = 0; i < numberOfItems; ++i) {
+			if (i == 0 || sortedKeys[i] != sortedKeys[i - 1]) {
+				sortedKeys[numberOfCells++] = sortedKeys[i];
+			}
+		}
+		this.cellKeys = new long[numberOfCells];
+		System.arraycopy(sortedKeys, 0, this.cellKeys, 0, numberOfCells);
+
+		// count the items of each cell and calculate the start of each cell
+		int[] itemCells = new int[numberOfItems];
+		this.cellStarts = new int[numberOfCells + 1];
+		for (int i = 0; i < numberOfItems; ++i) {
+			itemCells[i] = Arrays.binarySearch(this.cellKeys, itemCellKeys[i]);
+			++this.cellStarts[itemCells[i] + 1];
+		}
+		for (int i = 0; i < numberOfCells; ++i) {
+			this.cellStarts[i + 1] += this.cellStarts[i];
+		}
+
+		// fill the cells in the order of the items
+		int[] cellPositions = this.cellStarts.clone();
+		this.cellItems = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; ++i) {
+			this.cellItems[cellPositions[itemCells[i]]++] = i;
+		}
+	}
+
+	/**
+	 * Returns the index of the first occupied cell whose key is not less than the given key.
+	 * 
+	 * @param key
+	 *            the cell key.
+	 * @return the index of the cell or the number of cells, if all keys are less.
+	 */
+	private int findCell(long key) {
+		int index = Arrays.binarySearch(this.cellKeys, key);
+		if (index < 0) {
+			return -index - 1;
+		}
+		return index;
+	}
+
+	private long getCell(int referenceCoordinate) {
+		return referenceCoordinate >>> (this.shift + CELL_SIZE_SHIFT);
+	}
+
+	/**
+	 * Returns the array with the results of the last query. The array is reused by the next
+	 * query.
+	 * 
+	 * @return the item indices of the last query.
+	 */
+	int[] getResults() {
+		return this.results;
+	}
+
+	/**
+	 * Returns the X pixel coordinate of an item at the zoom level of this grid.
+	 * 
+	 * @param index
+	 *            the index of the item.
+	 * @return the X pixel coordinate.
+	 */
+	int getX(int index) {
+		return this.itemX[index] >>> this.shift;
+	}
+
+	/**
+	 * Returns the Y pixel coordinate of an item at the zoom level of this grid.
+	 * 
+	 * @param index
+	 *            the index of the item.
+	 * @return the Y pixel coordinate.
+	 */
+	int getY(int index) {
+		return this.itemY[index] >>> this.shift;
+	}
+
+	/**
+	 * Finds all items whose positions are inside the given area. The indices of the items are
+	 * stored in the array which is returned by {@link #getResults()}, ordered by cells.
+	 * 
+	 * @param left
+	 *            the left pixel coordinate of the area at the zoom level of this grid.
+	 * @param top
+	 *            the top pixel coordinate of the area.
+	 * @param right
+	 *            the right pixel coordinate of the area, inclusive.
+	 * @param bottom
+	 *            the bottom pixel coordinate of the area, inclusive.
+	 * @return the number of items inside the area.
+	 */
+	int query(int left, int top, int right, int bottom) {
+		if (right < 0 || bottom < 0 || this.cellKeys.length == 0) {
+			return 0;
+		}
+		long cellLeft = Math.max(left, 0) >>> CELL_SIZE_SHIFT;
+		long cellTop = Math.max(top, 0) >>> CELL_SIZE_SHIFT;
+		long cellRight = right >>> CELL_SIZE_SHIFT;
+		long cellBottom = bottom >>> CELL_SIZE_SHIFT;
+
+		int numberOfResults = 0;
+		for (long cellY = cellTop; cellY <= cellBottom; ++cellY) {
+			long lastKey = getCellKey(cellRight, cellY);
+			for (int cell = findCell(getCellKey(cellLeft, cellY)); cell < this.cellKeys.length
+					&& this.cellKeys[cell] <= lastKey; ++cell) {
+				for (int i = this.cellStarts[cell]; i < this.cellStarts[cell + 1]; ++i) {
+					int index = this.cellItems[i];
+					int x = getX(index);
+					int y = getY(index);
+					if (x >= left && x <= right && y >= top && y <= bottom) {
+						if (numberOfResults == this.results.length) {
+							int[] newResults = new int[this.results.length * 2];
+							System.arraycopy(this.results, 0, newResults, 0, numberOfResults);
+							this.results = newResults;
+						}
+						this.results[numberOfResults++] = index;
+					}
+				}
+			}
+		}
+		return numberOfResults;
+	}
+}
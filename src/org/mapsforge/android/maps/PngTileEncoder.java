@@ -0,0 +1,136 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * An encoder which compresses images as PNG files. The conversion between the RGB 565 pixels
+ * and the 8 bit color channels of the PNG file is lossless, as dithering is disabled.
+ */
+class PngTileEncoder extends TileEncoder {
+	/**
+	 * An output stream which writes into a part of an array and discards all bytes which do
+	 * not fit into the array.
+	 */
+	private static class ArrayOutputStream extends OutputStream {
+		byte[] array;
+		boolean overflow;
+		int position;
+
+		@Override
+		public void write(byte[] buffer, int offset, int count) {
+			if (this.position + count > this.array.length) {
+				this.overflow = true;
+			} else {
+				System.arraycopy(buffer, offset, this.array, this.position, count);
+				this.position += count;
+			}
+		}
+
+		@Override
+		public void write(int oneByte) {
+			if (this.position >= this.array.length) {
+				this.overflow = true;
+			} else {
+				this.array[this.position] = (byte) oneByte;
+				++this.position;
+			}
+		}
+
+		/**
+		 * Prepares the stream for writing into the given array.
+		 * 
+		 * @param newArray
+		 *            the array to write into.
+		 * @param offset
+		 *            the position of the first byte in the array.
+		 */
+		void reset(byte[] newArray, int offset) {
+			this.array = newArray;
+			this.position = offset;
+			this.overflow = false;
+		}
+	}
+
+	/**
+	 * Quality hint for the compression, which is ignored for the lossless PNG format.
+	 */
+	private static final int COMPRESSION_QUALITY = 100;
+
+	private Bitmap bitmap;
+	private final BitmapFactory.Options decodeOptions;
+	private final ArrayOutputStream outputStream;
+
+	/**
+	 * Constructs a new PNG encoder.
+	 */
+	PngTileEncoder() {
+		this.decodeOptions = new BitmapFactory.Options();
+		this.decodeOptions.inPreferredConfig = Bitmap.Config.RGB_565;
+		this.decodeOptions.inDither = false;
+		this.outputStream = new ArrayOutputStream();
+	}
+
+	@Override
+	boolean decode(byte[] data, int offset, int length, byte[] pixels) {
+		Bitmap decodedBitmap = BitmapFactory.decodeByteArray(data, offset, length,
+				this.decodeOptions);
+		if (decodedBitmap == null) {
+			return false;
+		}
+		try {
+			if (decodedBitmap.getWidth() != Tile.TILE_SIZE
+					|| decodedBitmap.getHeight() != Tile.TILE_SIZE
+					|| decodedBitmap.getConfig() != Bitmap.Config.RGB_565) {
+				return false;
+			}
+			decodedBitmap.copyPixelsToBuffer(ByteBuffer.wrap(pixels));
+			return true;
+		} finally {
+			decodedBitmap.recycle();
+		}
+	}
+
+	@Override
+	void destroy() {
+		if (this.bitmap != null) {
+			this.bitmap.recycle();
+			this.bitmap = null;
+		}
+	}
+
+	@Override
+	int encode(byte[] pixels, byte[] output, int offset) {
+		if (this.bitmap == null) {
+			this.bitmap = Bitmap.createBitmap(Tile.TILE_SIZE, Tile.TILE_SIZE,
+					Bitmap.Config.RGB_565);
+		}
+		this.bitmap.copyPixelsFromBuffer(ByteBuffer.wrap(pixels));
+
+		this.outputStream.reset(output, offset);
+		if (!this.bitmap.compress(Bitmap.CompressFormat.PNG, COMPRESSION_QUALITY,
+				this.outputStream) || this.outputStream.overflow) {
+			return -1;
+		}
+		return this.outputStream.position - offset;
+	}
+}
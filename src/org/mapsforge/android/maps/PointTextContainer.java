@@ -16,13 +16,11 @@
  */
 package org.mapsforge.android.maps;
 
-import android.graphics.Paint;
-import android.graphics.Rect;
-
 class PointTextContainer {
-	Rect boundary;
-	final Paint paintBack;
-	final Paint paintFront;
+	final int boundaryHeight;
+	final int boundaryWidth;
+	final RenderStyle paintBack;
+	final RenderStyle paintFront;
 	SymbolContainer symbol;
 	final String text;
 	float x;
@@ -30,32 +28,7 @@ class PointTextContainer {
 
 	/**
 	 * Create a new point container, that holds the x-y coordinates of a point, a text variable
-	 * and one paint objects.
-	 * 
-	 * @param text
-	 *            the text of the point.
-	 * @param x
-	 *            the x coordinate of the point.
-	 * @param y
-	 *            the y coordinate of the point.
-	 * @param paintFront
-	 *            the paintFront for the point.
-	 */
-	PointTextContainer(String text, float x, float y, Paint paintFront) {
-		this.text = text;
-		this.x = x;
-		this.y = y;
-		this.paintFront = paintFront;
-		this.paintBack = null;
-		this.symbol = null;
-
-		this.boundary = new Rect();
-		paintFront.getTextBounds(text, 0, text.length(), this.boundary);
-	}
-
-	/**
-	 * Create a new point container, that holds the x-y coordinates of a point, a text variable
-	 * and two paint objects.
+	 * and two render styles.
 	 * 
 	 * @param text
 	 *            the text of the point.
@@ -66,27 +39,20 @@ class PointTextContainer {
 	 * @param paintFront
 	 *            the paintFront for the point.
 	 * @param paintBack
-	 *            the paintBack for the point.
+	 *            the paintBack for the point (may be null).
+	 * @param boundaryWidth
+	 *            the width of the text, as measured by the renderer.
+	 * @param boundaryHeight
+	 *            the height of the text, as measured by the renderer.
 	 */
-	PointTextContainer(String text, float x, float y, Paint paintFront, Paint paintBack) {
-		this.text = text;
-		this.x = x;
-		this.y = y;
-		this.paintFront = paintFront;
-		this.paintBack = paintBack;
-		this.symbol = null;
-
-		this.boundary = new Rect();
-		if (paintBack != null) {
-			paintBack.getTextBounds(text, 0, text.length(), this.boundary);
-		} else {
-			paintFront.getTextBounds(text, 0, text.length(), this.boundary);
-		}
+	PointTextContainer(String text, float x, float y, RenderStyle paintFront,
+			RenderStyle paintBack, int boundaryWidth, int boundaryHeight) {
+		this(text, x, y, paintFront, paintBack, null, boundaryWidth, boundaryHeight);
 	}
 
 	/**
 	 * Create a new point container, that holds the x-y coordinates of a point, a text variable,
-	 * two paint objects, and a reference on a symbol, if the text is connected with a POI.
+	 * two render styles, and a reference on a symbol, if the text is connected with a POI.
 	 * 
 	 * @param text
 	 *            the text of the point.
@@ -97,24 +63,24 @@ class PointTextContainer {
 	 * @param paintFront
 	 *            the paintFront for the point.
 	 * @param paintBack
-	 *            the paintBack for the point.
+	 *            the paintBack for the point (may be null).
 	 * @param symbol
 	 *            the connected Symbol.
+	 * @param boundaryWidth
+	 *            the width of the text, as measured by the renderer.
+	 * @param boundaryHeight
+	 *            the height of the text, as measured by the renderer.
 	 */
-	PointTextContainer(String text, float x, float y, Paint paintFront, Paint paintBack,
-			SymbolContainer symbol) {
+	PointTextContainer(String text, float x, float y, RenderStyle paintFront,
+			RenderStyle paintBack, SymbolContainer symbol, int boundaryWidth,
+			int boundaryHeight) {
 		this.text = text;
 		this.x = x;
 		this.y = y;
 		this.paintFront = paintFront;
 		this.paintBack = paintBack;
 		this.symbol = symbol;
-
-		this.boundary = new Rect();
-		if (paintBack != null) {
-			paintBack.getTextBounds(text, 0, text.length(), this.boundary);
-		} else {
-			paintFront.getTextBounds(text, 0, text.length(), this.boundary);
-		}
+		this.boundaryWidth = boundaryWidth;
+		this.boundaryHeight = boundaryHeight;
 	}
 }
\ No newline at end of file
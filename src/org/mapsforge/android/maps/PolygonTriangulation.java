@@ -0,0 +1,721 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * A triangulation for polygons with holes. The polygon is split into y-monotone pieces with a
+ * plane sweep over all vertices, each piece is then triangulated in linear time. The edges which
+ * intersect the sweep line are kept in a sorted array. For a polygon with n vertices of which
+ * at most k edges intersect the sweep line at the same time, both steps together need
+ * O(n log n) geometric comparisons with O(n * k) moves of array elements, as each insertion
+ * and removal of an edge shifts the edges behind it. Map polygons have few edges on any sweep
+ * line, so a balanced tree would not pay off. Pieces which turn out not to be monotone
+ * because of degenerated input are triangulated with the {@link EarClippingTriangulation}
+ * instead.
+ * <p>
+ * The internal arrays are reused for all polygons, so an instance must not be shared between
+ * threads.
+ */
+class PolygonTriangulation {
+	private static final int INITIAL_CAPACITY = 256;
+	private static final byte VERTEX_END = 1;
+	private static final byte VERTEX_MERGE = 2;
+	private static final byte VERTEX_REGULAR = 3;
+	private static final byte VERTEX_SPLIT = 4;
+	private static final byte VERTEX_START = 5;
+
+	private static boolean isConvex(float x1, float y1, float x2, float y2, float x3, float y3) {
+		return (y3 - y1) * (x2 - x1) - (x3 - x1) * (y2 - y1) > 0;
+	}
+
+	private int[] activeEdges;
+	private int[] chainSides;
+	private int[] edgeStarts;
+	private int[] faceVertices;
+	private int[] helpers;
+	private int[] next;
+	private int numberOfActiveEdges;
+	private int numberOfTriangleCoordinates;
+	private int numberOfVertices;
+	private int[] previous;
+	private int[] sortedVertices;
+	private int[] sortBuffer;
+	private int[] stack;
+	private float[] triangleCoordinates;
+	private boolean[] usedVertices;
+	private int[] vertexEdges;
+	private byte[] vertexTypes;
+	private float[] x;
+	private float[] y;
+
+	/**
+	 * Constructs a new PolygonTriangulation.
+	 */
+	PolygonTriangulation() {
+		this.triangleCoordinates = new float[INITIAL_CAPACITY * 6];
+		allocateVertexArrays(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Inserts a diagonal between two vertices. Both vertices are duplicated, so that the two
+	 * faces on each side of the diagonal form separate cycles of vertices.
+	 * 
+	 * @param vertex1
+	 *            the first vertex of the diagonal.
+	 * @param vertex2
+	 *            the second vertex of the diagonal.
+	 */
+	private void addDiagonal(int vertex1, int vertex2) {
+		ensureVertexCapacity(this.numberOfVertices + 2);
+		int newVertex1 = this.numberOfVertices++;
+		int newVertex2 = this.numberOfVertices++;
+		this.x[newVertex1] = this.x[vertex1];
+		this.y[newVertex1] = this.y[vertex1];
+		this.x[newVertex2] = this.x[vertex2];
+		this.y[newVertex2] = this.y[vertex2];
+
+		this.next[newVertex2] = this.next[vertex2];
+		this.next[newVertex1] = this.next[vertex1];
+		this.previous[this.next[vertex2]] = newVertex2;
+		this.previous[this.next[vertex1]] = newVertex1;
+		this.next[vertex1] = newVertex2;
+		this.previous[newVertex2] = vertex1;
+		this.next[vertex2] = newVertex1;
+		this.previous[newVertex1] = vertex2;
+
+		// the duplicates take over the outgoing polygon edges of the original vertices
+		this.vertexTypes[newVertex1] = this.vertexTypes[vertex1];
+		this.vertexTypes[newVertex2] = this.vertexTypes[vertex2];
+		this.helpers[newVertex1] = this.helpers[vertex1];
+		this.helpers[newVertex2] = this.helpers[vertex2];
+		this.vertexEdges[newVertex1] = this.vertexEdges[vertex1];
+		if (this.vertexEdges[newVertex1] >= 0) {
+			this.edgeStarts[this.vertexEdges[newVertex1]] = newVertex1;
+		}
+		this.vertexEdges[newVertex2] = this.vertexEdges[vertex2];
+		if (this.vertexEdges[newVertex2] >= 0) {
+			this.edgeStarts[this.vertexEdges[newVertex2]] = newVertex2;
+		}
+	}
+
+	/**
+	 * Adds a closed ring of the polygon as a cycle of vertices. Duplicated consecutive points
+	 * are skipped and the ring is reversed if necessary, so that the interior of the polygon
+	 * always lies on the left side of each edge.
+	 * 
+	 * @param coordinates
+	 *            the coordinates of the ring, x and y alternating.
+	 * @param hole
+	 *            true if the ring is a hole, false otherwise.
+	 * @return false if the ring has less than three points, true otherwise.
+	 */
+	private boolean addRing(float[] coordinates, boolean hole) {
+		int numberOfPoints = coordinates.length / 2;
+		ensureVertexCapacity(this.numberOfVertices + numberOfPoints);
+
+		// copy all points which differ from their predecessor
+		int firstVertex = this.numberOfVertices;
+		int lastVertex = firstVertex - 1;
+		for (int i = 0; i < numberOfPoints; ++i) {
+			if (lastVertex >= firstVertex && this.x[lastVertex] == coordinates[2 * i]
+					&& this.y[lastVertex] == coordinates[2 * i + 1]) {
+				continue;
+			}
+			++lastVertex;
+			this.x[lastVertex] = coordinates[2 * i];
+			this.y[lastVertex] = coordinates[2 * i + 1];
+		}
+
+		// skip the duplicated first point of a closed ring
+		while (lastVertex > firstVertex && this.x[lastVertex] == this.x[firstVertex]
+				&& this.y[lastVertex] == this.y[firstVertex]) {
+			--lastVertex;
+		}
+		if (lastVertex - firstVertex < 2) {
+			return false;
+		}
+
+		// the outer ring must be counterclockwise and the holes clockwise
+		double area = 0;
+		for (int i = firstVertex; i <= lastVertex; ++i) {
+			int j = i == lastVertex ? firstVertex : i + 1;
+			area += (double) this.x[i] * this.y[j] - (double) this.x[j] * this.y[i];
+		}
+		boolean reverse = hole ? area > 0 : area < 0;
+
+		for (int i = firstVertex; i <= lastVertex; ++i) {
+			int successor = i == lastVertex ? firstVertex : i + 1;
+			int predecessor = i == firstVertex ? lastVertex : i - 1;
+			this.next[i] = reverse ? predecessor : successor;
+			this.previous[i] = reverse ? successor : predecessor;
+			this.vertexEdges[i] = -1;
+		}
+		this.numberOfVertices = lastVertex + 1;
+		return true;
+	}
+
+	/**
+	 * Adds a triangle to the result.
+	 * 
+	 * @param vertex1
+	 *            the first vertex of the triangle.
+	 * @param vertex2
+	 *            the second vertex of the triangle.
+	 * @param vertex3
+	 *            the third vertex of the triangle.
+	 */
+	private void addTriangle(int vertex1, int vertex2, int vertex3) {
+		ensureTriangleCapacity(6);
+		this.triangleCoordinates[this.numberOfTriangleCoordinates++] = this.x[vertex1];
+		this.triangleCoordinates[this.numberOfTriangleCoordinates++] = this.y[vertex1];
+		this.triangleCoordinates[this.numberOfTriangleCoordinates++] = this.x[vertex2];
+		this.triangleCoordinates[this.numberOfTriangleCoordinates++] = this.y[vertex2];
+		this.triangleCoordinates[this.numberOfTriangleCoordinates++] = this.x[vertex3];
+		this.triangleCoordinates[this.numberOfTriangleCoordinates++] = this.y[vertex3];
+	}
+
+	/**
+	 * Adds the triangles of an ear clipping triangulation to the result.
+	 * 
+	 * @param coordinates
+	 *            the coordinates of a simple polygon, x and y alternating.
+	 */
+	private void addTrianglesOfEarClipping(float[] coordinates) {
+		if (coordinates.length < 6) {
+			return;
+		}
+		float[] triangles = new EarClippingTriangulation(coordinates).getTrianglesAsFloatArray();
+		ensureTriangleCapacity(triangles.length);
+		System.arraycopy(triangles, 0, this.triangleCoordinates,
+				this.numberOfTriangleCoordinates, triangles.length);
+		this.numberOfTriangleCoordinates += triangles.length;
+	}
+
+	private void allocateVertexArrays(int capacity) {
+		this.activeEdges = new int[capacity];
+		this.chainSides = new int[capacity];
+		this.edgeStarts = new int[capacity];
+		this.faceVertices = new int[capacity];
+		this.helpers = new int[capacity];
+		this.next = new int[capacity];
+		this.previous = new int[capacity];
+		this.sortedVertices = new int[capacity];
+		this.sortBuffer = new int[capacity];
+		this.stack = new int[capacity];
+		this.usedVertices = new boolean[capacity];
+		this.vertexEdges = new int[capacity];
+		this.vertexTypes = new byte[capacity];
+		this.x = new float[capacity];
+		this.y = new float[capacity];
+	}
+
+	/**
+	 * Determines the type of each vertex for the plane sweep.
+	 */
+	private void classifyVertices() {
+		for (int i = 0; i < this.numberOfVertices; ++i) {
+			int previousVertex = this.previous[i];
+			int nextVertex = this.next[i];
+			if (isBelow(previousVertex, i) && isBelow(nextVertex, i)) {
+				if (isConvex(this.x[nextVertex], this.y[nextVertex], this.x[previousVertex],
+						this.y[previousVertex], this.x[i], this.y[i])) {
+					this.vertexTypes[i] = VERTEX_START;
+				} else {
+					this.vertexTypes[i] = VERTEX_SPLIT;
+				}
+			} else if (isBelow(i, previousVertex) && isBelow(i, nextVertex)) {
+				if (isConvex(this.x[nextVertex], this.y[nextVertex], this.x[previousVertex],
+						this.y[previousVertex], this.x[i], this.y[i])) {
+					this.vertexTypes[i] = VERTEX_END;
+				} else {
+					this.vertexTypes[i] = VERTEX_MERGE;
+				}
+			} else {
+				this.vertexTypes[i] = VERTEX_REGULAR;
+			}
+		}
+	}
+
+	private void ensureTriangleCapacity(int additionalCoordinates) {
+		int capacity = this.numberOfTriangleCoordinates + additionalCoordinates;
+		if (capacity > this.triangleCoordinates.length) {
+			float[] newTriangleCoordinates = new float[Math.max(
+					this.triangleCoordinates.length * 2, capacity)];
+			System.arraycopy(this.triangleCoordinates, 0, newTriangleCoordinates, 0,
+					this.numberOfTriangleCoordinates);
+			this.triangleCoordinates = newTriangleCoordinates;
+		}
+	}
+
+	private void ensureVertexCapacity(int capacity) {
+		if (capacity <= this.x.length) {
+			return;
+		}
+		int[] oldEdgeStarts = this.edgeStarts;
+		int[] oldHelpers = this.helpers;
+		int[] oldNext = this.next;
+		int[] oldPrevious = this.previous;
+		int[] oldActiveEdges = this.activeEdges;
+		int[] oldSortedVertices = this.sortedVertices;
+		int[] oldVertexEdges = this.vertexEdges;
+		byte[] oldVertexTypes = this.vertexTypes;
+		float[] oldX = this.x;
+		float[] oldY = this.y;
+		allocateVertexArrays(Math.max(capacity, oldX.length * 2));
+
+		// the face arrays are not used while vertices are added
+		System.arraycopy(oldActiveEdges, 0, this.activeEdges, 0, this.numberOfActiveEdges);
+		System.arraycopy(oldSortedVertices, 0, this.sortedVertices, 0, this.numberOfVertices);
+		System.arraycopy(oldEdgeStarts, 0, this.edgeStarts, 0, this.numberOfVertices);
+		System.arraycopy(oldHelpers, 0, this.helpers, 0, this.numberOfVertices);
+		System.arraycopy(oldNext, 0, this.next, 0, this.numberOfVertices);
+		System.arraycopy(oldPrevious, 0, this.previous, 0, this.numberOfVertices);
+		System.arraycopy(oldVertexEdges, 0, this.vertexEdges, 0, this.numberOfVertices);
+		System.arraycopy(oldVertexTypes, 0, this.vertexTypes, 0, this.numberOfVertices);
+		System.arraycopy(oldX, 0, this.x, 0, this.numberOfVertices);
+		System.arraycopy(oldY, 0, this.y, 0, this.numberOfVertices);
+	}
+
+	/**
+	 * Finds the position of the first active edge which is not left of the given vertex.
+	 * 
+	 * @param vertex
+	 *            the vertex.
+	 * @return the position in the array of active edges.
+	 */
+	private int findEdgePosition(int vertex) {
+		int low = 0;
+		int high = this.numberOfActiveEdges;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int start = this.edgeStarts[this.activeEdges[middle]];
+			int end = this.next[start];
+			boolean less;
+			if (this.y[start] == this.y[end]) {
+				less = this.y[start] < this.y[vertex];
+			} else {
+				less = isConvex(this.x[start], this.y[start], this.x[end], this.y[end],
+						this.x[vertex], this.y[vertex]);
+			}
+			if (less) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Inserts the outgoing polygon edge of the given vertex into the active edges. The position
+	 * is found with a binary search, the edges behind it are shifted by one.
+	 * 
+	 * @param vertex
+	 *            the start vertex of the edge.
+	 */
+	private void insertEdge(int vertex) {
+		int low = 0;
+		int high = this.numberOfActiveEdges;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (isEdgeLess(this.edgeStarts[this.activeEdges[middle]], vertex)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		System.arraycopy(this.activeEdges, low, this.activeEdges, low + 1,
+				this.numberOfActiveEdges - low);
+		++this.numberOfActiveEdges;
+
+		// the edge is identified by the index of its start vertex at the time of insertion
+		this.activeEdges[low] = vertex;
+		this.edgeStarts[vertex] = vertex;
+		this.vertexEdges[vertex] = vertex;
+		this.helpers[vertex] = vertex;
+	}
+
+	/**
+	 * Checks if one vertex is below another one. Vertices with the same y coordinate are
+	 * ordered by their x coordinate.
+	 * 
+	 * @param vertex1
+	 *            the first vertex.
+	 * @param vertex2
+	 *            the second vertex.
+	 * @return true if the first vertex is below the second one, false otherwise.
+	 */
+	private boolean isBelow(int vertex1, int vertex2) {
+		return this.y[vertex1] < this.y[vertex2]
+				|| (this.y[vertex1] == this.y[vertex2] && this.x[vertex1] < this.x[vertex2]);
+	}
+
+	/**
+	 * Compares two polygon edges which intersect the sweep line.
+	 * 
+	 * @param start1
+	 *            the start vertex of the first edge.
+	 * @param start2
+	 *            the start vertex of the second edge.
+	 * @return true if the first edge is left of the second edge, false otherwise.
+	 */
+	private boolean isEdgeLess(int start1, int start2) {
+		int end1 = this.next[start1];
+		int end2 = this.next[start2];
+		if (this.y[start2] == this.y[end2]) {
+			if (this.y[start1] == this.y[end1]) {
+				return this.y[start1] < this.y[start2];
+			}
+			return isConvex(this.x[start1], this.y[start1], this.x[end1], this.y[end1],
+					this.x[start2], this.y[start2]);
+		} else if (this.y[start1] == this.y[end1] || this.y[start1] < this.y[start2]) {
+			return !isConvex(this.x[start2], this.y[start2], this.x[end2], this.y[end2],
+					this.x[start1], this.y[start1]);
+		}
+		return isConvex(this.x[start1], this.y[start1], this.x[end1], this.y[end1],
+				this.x[start2], this.y[start2]);
+	}
+
+	/**
+	 * Removes the outgoing polygon edge of the given vertex from the active edges. The edge is
+	 * found by its identifier without geometric comparisons, the edges behind it are shifted
+	 * by one.
+	 * 
+	 * @param vertex
+	 *            the start vertex of the edge.
+	 */
+	private void removeEdge(int vertex) {
+		int edge = this.vertexEdges[vertex];
+		if (edge < 0) {
+			return;
+		}
+		for (int i = 0; i < this.numberOfActiveEdges; ++i) {
+			if (this.activeEdges[i] == edge) {
+				System.arraycopy(this.activeEdges, i + 1, this.activeEdges, i,
+						this.numberOfActiveEdges - i - 1);
+				--this.numberOfActiveEdges;
+				break;
+			}
+		}
+		this.vertexEdges[vertex] = -1;
+	}
+
+	/**
+	 * Sorts a range of the vertices from top to bottom with a merge sort.
+	 * 
+	 * @param from
+	 *            the first position of the range (inclusive).
+	 * @param to
+	 *            the last position of the range (exclusive).
+	 */
+	private void sortVertices(int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		sortVertices(from, middle);
+		sortVertices(middle, to);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; ++i) {
+			if (right >= to
+					|| (left < middle && !isBelow(this.sortedVertices[left],
+							this.sortedVertices[right]))) {
+				this.sortBuffer[i] = this.sortedVertices[left++];
+			} else {
+				this.sortBuffer[i] = this.sortedVertices[right++];
+			}
+		}
+		System.arraycopy(this.sortBuffer, from, this.sortedVertices, from, to - from);
+	}
+
+	/**
+	 * Splits the polygon into y-monotone pieces by inserting diagonals during a plane sweep
+	 * from top to bottom.
+	 * 
+	 * @return true if the polygon could be split, false if the input is degenerated.
+	 */
+	private boolean splitIntoMonotonePieces() {
+		int numberOfOriginalVertices = this.numberOfVertices;
+
+		// each vertex adds at most two diagonals with two new vertices each
+		ensureVertexCapacity(numberOfOriginalVertices * 5);
+		for (int i = 0; i < numberOfOriginalVertices; ++i) {
+			this.sortedVertices[i] = i;
+		}
+		sortVertices(0, numberOfOriginalVertices);
+		classifyVertices();
+		this.numberOfActiveEdges = 0;
+
+		for (int i = 0; i < numberOfOriginalVertices; ++i) {
+			int vertex = this.sortedVertices[i];
+			int vertex2 = vertex;
+			int previousVertex = this.previous[vertex];
+			int leftEdgePosition;
+			int leftEdgeStart;
+			switch (this.vertexTypes[vertex]) {
+				case VERTEX_START:
+					insertEdge(vertex);
+					break;
+
+				case VERTEX_END:
+					if (this.vertexEdges[previousVertex] < 0) {
+						return false;
+					}
+					if (this.vertexTypes[this.helpers[previousVertex]] == VERTEX_MERGE) {
+						addDiagonal(vertex, this.helpers[previousVertex]);
+					}
+					removeEdge(previousVertex);
+					break;
+
+				case VERTEX_SPLIT:
+					leftEdgePosition = findEdgePosition(vertex) - 1;
+					if (leftEdgePosition < 0) {
+						return false;
+					}
+					leftEdgeStart = this.edgeStarts[this.activeEdges[leftEdgePosition]];
+					addDiagonal(vertex, this.helpers[leftEdgeStart]);
+					vertex2 = this.numberOfVertices - 2;
+					this.helpers[this.edgeStarts[this.activeEdges[leftEdgePosition]]] = vertex;
+					insertEdge(vertex2);
+					break;
+
+				case VERTEX_MERGE:
+					if (this.vertexEdges[previousVertex] < 0) {
+						return false;
+					}
+					if (this.vertexTypes[this.helpers[previousVertex]] == VERTEX_MERGE) {
+						addDiagonal(vertex, this.helpers[previousVertex]);
+						vertex2 = this.numberOfVertices - 2;
+					}
+					removeEdge(previousVertex);
+					leftEdgePosition = findEdgePosition(vertex) - 1;
+					if (leftEdgePosition < 0) {
+						return false;
+					}
+					leftEdgeStart = this.edgeStarts[this.activeEdges[leftEdgePosition]];
+					if (this.vertexTypes[this.helpers[leftEdgeStart]] == VERTEX_MERGE) {
+						addDiagonal(vertex2, this.helpers[leftEdgeStart]);
+					}
+					this.helpers[this.edgeStarts[this.activeEdges[leftEdgePosition]]] = vertex2;
+					break;
+
+				case VERTEX_REGULAR:
+					if (isBelow(vertex, previousVertex)) {
+						// the interior of the polygon lies right of the vertex
+						if (this.vertexEdges[previousVertex] < 0) {
+							return false;
+						}
+						if (this.vertexTypes[this.helpers[previousVertex]] == VERTEX_MERGE) {
+							addDiagonal(vertex, this.helpers[previousVertex]);
+							vertex2 = this.numberOfVertices - 2;
+						}
+						removeEdge(previousVertex);
+						insertEdge(vertex2);
+					} else {
+						leftEdgePosition = findEdgePosition(vertex) - 1;
+						if (leftEdgePosition < 0) {
+							return false;
+						}
+						leftEdgeStart = this.edgeStarts[this.activeEdges[leftEdgePosition]];
+						if (this.vertexTypes[this.helpers[leftEdgeStart]] == VERTEX_MERGE) {
+							addDiagonal(vertex, this.helpers[leftEdgeStart]);
+						}
+						this.helpers[this.edgeStarts[this.activeEdges[leftEdgePosition]]] = vertex;
+					}
+					break;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Triangulates all y-monotone pieces of the polygon.
+	 */
+	private void triangulateMonotonePieces() {
+		for (int i = 0; i < this.numberOfVertices; ++i) {
+			this.usedVertices[i] = false;
+		}
+		for (int i = 0; i < this.numberOfVertices; ++i) {
+			if (this.usedVertices[i]) {
+				continue;
+			}
+
+			// collect the vertices of the piece
+			int numberOfFaceVertices = 0;
+			int vertex = i;
+			do {
+				this.usedVertices[vertex] = true;
+				this.faceVertices[numberOfFaceVertices++] = vertex;
+				vertex = this.next[vertex];
+			} while (vertex != i && numberOfFaceVertices < this.numberOfVertices);
+
+			if (numberOfFaceVertices >= 3 && !triangulateMonotonePiece(numberOfFaceVertices)) {
+				// fall back to the ear clipping for pieces which are not monotone
+				float[] coordinates = new float[numberOfFaceVertices * 2];
+				for (int j = 0; j < numberOfFaceVertices; ++j) {
+					coordinates[2 * j] = this.x[this.faceVertices[j]];
+					coordinates[2 * j + 1] = this.y[this.faceVertices[j]];
+				}
+				addTrianglesOfEarClipping(coordinates);
+			}
+		}
+	}
+
+	/**
+	 * Triangulates a single y-monotone piece whose vertices are stored in the face array.
+	 * 
+	 * @param numberOfFaceVertices
+	 *            the number of vertices of the piece.
+	 * @return true if the piece has been triangulated, false if it is not monotone.
+	 */
+	private boolean triangulateMonotonePiece(int numberOfFaceVertices) {
+		int[] face = this.faceVertices;
+		if (numberOfFaceVertices == 3) {
+			addTriangle(face[0], face[1], face[2]);
+			return true;
+		}
+
+		// find the top and the bottom vertex
+		int top = 0;
+		int bottom = 0;
+		for (int i = 1; i < numberOfFaceVertices; ++i) {
+			if (isBelow(face[i], face[bottom])) {
+				bottom = i;
+			}
+			if (isBelow(face[top], face[i])) {
+				top = i;
+			}
+		}
+
+		// check if both chains between the top and the bottom vertex are monotone
+		for (int i = top; i != bottom; i = (i + 1) % numberOfFaceVertices) {
+			if (!isBelow(face[(i + 1) % numberOfFaceVertices], face[i])) {
+				return false;
+			}
+		}
+		for (int i = bottom; i != top; i = (i + 1) % numberOfFaceVertices) {
+			if (!isBelow(face[i], face[(i + 1) % numberOfFaceVertices])) {
+				return false;
+			}
+		}
+
+		// merge the left and the right chain from top to bottom
+		int[] order = this.sortedVertices;
+		int[] sides = this.chainSides;
+		order[0] = top;
+		sides[top] = 0;
+		int left = (top + 1) % numberOfFaceVertices;
+		int right = (top + numberOfFaceVertices - 1) % numberOfFaceVertices;
+		int position;
+		for (position = 1; position < numberOfFaceVertices - 1; ++position) {
+			if (left == bottom
+					|| (right != bottom && isBelow(face[left], face[right]))) {
+				order[position] = right;
+				sides[right] = -1;
+				right = (right + numberOfFaceVertices - 1) % numberOfFaceVertices;
+			} else {
+				order[position] = left;
+				sides[left] = 1;
+				left = (left + 1) % numberOfFaceVertices;
+			}
+		}
+		order[position] = bottom;
+		sides[bottom] = 0;
+
+		// cut off as many triangles as possible at each vertex
+		this.stack[0] = order[0];
+		this.stack[1] = order[1];
+		int stackSize = 2;
+		for (position = 2; position < numberOfFaceVertices - 1; ++position) {
+			int current = order[position];
+			if (sides[current] != sides[this.stack[stackSize - 1]]) {
+				for (int j = 0; j < stackSize - 1; ++j) {
+					if (sides[current] == 1) {
+						addTriangle(face[this.stack[j + 1]], face[this.stack[j]], face[current]);
+					} else {
+						addTriangle(face[this.stack[j]], face[this.stack[j + 1]], face[current]);
+					}
+				}
+				this.stack[0] = order[position - 1];
+				this.stack[1] = current;
+				stackSize = 2;
+			} else {
+				--stackSize;
+				while (stackSize > 0) {
+					int top1 = face[this.stack[stackSize - 1]];
+					int top2 = face[this.stack[stackSize]];
+					if (sides[current] == 1) {
+						if (!isConvex(this.x[face[current]], this.y[face[current]],
+								this.x[top1], this.y[top1], this.x[top2], this.y[top2])) {
+							break;
+						}
+						addTriangle(face[current], top1, top2);
+					} else {
+						if (!isConvex(this.x[face[current]], this.y[face[current]],
+								this.x[top2], this.y[top2], this.x[top1], this.y[top1])) {
+							break;
+						}
+						addTriangle(face[current], top2, top1);
+					}
+					--stackSize;
+				}
+				++stackSize;
+				this.stack[stackSize++] = current;
+			}
+		}
+		int current = order[position];
+		for (int j = 0; j < stackSize - 1; ++j) {
+			if (sides[this.stack[j + 1]] == 1) {
+				addTriangle(face[this.stack[j]], face[this.stack[j + 1]], face[current]);
+			} else {
+				addTriangle(face[this.stack[j + 1]], face[this.stack[j]], face[current]);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Triangulates a polygon with optional holes.
+	 * 
+	 * @param coordinates
+	 *            the outer ring of the polygon followed by the rings of all holes, each with x
+	 *            and y coordinates alternating.
+	 * @return the coordinates of all triangle vertices, x and y alternating.
+	 */
+	float[] triangulate(float[][] coordinates) {
+		this.numberOfVertices = 0;
+		this.numberOfTriangleCoordinates = 0;
+		if (coordinates.length > 0 && addRing(coordinates[0], false)) {
+			for (int i = 1; i < coordinates.length; ++i) {
+				addRing(coordinates[i], true);
+			}
+
+			if (splitIntoMonotonePieces()) {
+				triangulateMonotonePieces();
+			} else {
+				// fall back to the ear clipping of the outer ring
+				this.numberOfTriangleCoordinates = 0;
+				addTrianglesOfEarClipping(coordinates[0]);
+			}
+		}
+
+		float[] triangles = new float[this.numberOfTriangleCoordinates];
+		System.arraycopy(this.triangleCoordinates, 0, triangles, 0, triangles.length);
+		return triangles;
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * An encoder which stores the raw pixel data of an image without any compression.
+ */
+class RawTileEncoder extends TileEncoder {
+	@Override
+	boolean decode(byte[] data, int offset, int length, byte[] pixels) {
+		if (length != pixels.length) {
+			return false;
+		}
+		System.arraycopy(data, offset, pixels, 0, length);
+		return true;
+	}
+
+	@Override
+	void destroy() {
+		// do nothing
+	}
+
+	@Override
+	int encode(byte[] pixels, byte[] output, int offset) {
+		if (offset + pixels.length > output.length) {
+			return -1;
+		}
+		System.arraycopy(pixels, 0, output, offset, pixels.length);
+		return pixels.length;
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * A single drawing step of a render rule, for example a stroked line on a given level or the
+ * name of a POI. Which fields are used depends on the type of the instruction.
+ */
+final class RenderInstruction {
+	/**
+	 * The drawing steps which a render theme can declare.
+	 */
+	enum Type {
+		/**
+		 * Draws the name of an area at its label position or the center of its bounding box.
+		 */
+		AREA_NAME,
+
+		/**
+		 * Draws a symbol at the center of the bounding box of an area.
+		 */
+		AREA_SYMBOL,
+
+		/**
+		 * Draws the name of a POI.
+		 */
+		CAPTION,
+
+		/**
+		 * Draws a circle around a POI.
+		 */
+		CIRCLE,
+
+		/**
+		 * Collects the way as a coastline segment which is merged with its neighbors.
+		 */
+		COASTLINE,
+
+		/**
+		 * Draws the elevation of a POI.
+		 */
+		ELEVATION,
+
+		/**
+		 * Draws the shape of a way on a level of its layer.
+		 */
+		SHAPE,
+
+		/**
+		 * Draws a symbol at the position of a POI.
+		 */
+		SYMBOL,
+
+		/**
+		 * Draws the name of a way along its segments.
+		 */
+		WAY_NAME;
+	}
+
+	final byte level;
+	final float offset;
+	final float radius;
+	final RenderStyle strokeStyle;
+	final RenderStyle style;
+	final String symbol;
+	final Type type;
+	final byte zoomMax;
+	final byte zoomMin;
+
+	/**
+	 * Constructs a new render instruction with the given parameters.
+	 * 
+	 * @param type
+	 *            the type of the instruction.
+	 * @param style
+	 *            the style of the shape or the text (may be null).
+	 * @param strokeStyle
+	 *            the style of the outline around a text (may be null).
+	 * @param level
+	 *            the level of a shape within its layer.
+	 * @param radius
+	 *            the radius of a circle.
+	 * @param offset
+	 *            the vertical offset of a text from its position.
+	 * @param symbol
+	 *            the name of a symbol (may be null).
+	 * @param zoomMin
+	 *            the minimum zoom level at which the instruction is executed.
+	 * @param zoomMax
+	 *            the maximum zoom level at which the instruction is executed.
+	 */
+	RenderInstruction(Type type, RenderStyle style, RenderStyle strokeStyle, byte level,
+			float radius, float offset, String symbol, byte zoomMin, byte zoomMax) {
+		this.type = type;
+		this.style = style;
+		this.strokeStyle = strokeStyle;
+		this.level = level;
+		this.radius = radius;
+		this.offset = offset;
+		this.symbol = symbol;
+		this.zoomMin = zoomMin;
+		this.zoomMax = zoomMax;
+	}
+
+	/**
+	 * Checks if this instruction is executed at the given zoom level.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return true if the zoom level is within the range of this instruction, false otherwise.
+	 */
+	boolean isVisible(byte zoomLevel) {
+		return zoomLevel >= this.zoomMin && zoomLevel <= this.zoomMax;
+	}
+
+	/**
+	 * Returns a copy of this instruction with the given styles, or this instruction itself if
+	 * the styles are unchanged.
+	 * 
+	 * @param newStyle
+	 *            the style of the shape or the text (may be null).
+	 * @param newStrokeStyle
+	 *            the style of the outline around a text (may be null).
+	 * @return the instruction with the given styles.
+	 */
+	RenderInstruction withStyles(RenderStyle newStyle, RenderStyle newStrokeStyle) {
+		if (newStyle == this.style && newStrokeStyle == this.strokeStyle) {
+			return this;
+		}
+		return new RenderInstruction(this.type, newStyle, newStrokeStyle, this.level,
+				this.radius, this.offset, this.symbol, this.zoomMin, this.zoomMax);
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * An immutable rule of a render theme. A rule matches a map object if the object has at least
+ * one of the tags of the rule and, if required tags are given, also at least one of the
+ * required tags. Tags of the form "key=*" stand for all values of the key.
+ */
+final class RenderRule {
+	final byte group;
+	final RenderInstruction[] instructions;
+	final String[] requiredTags;
+	final String[] tags;
+	final byte zoomMax;
+	final byte zoomMin;
+
+	/**
+	 * Constructs a new rule with the given parameters.
+	 * 
+	 * @param tags
+	 *            the tags of the rule in the format key=value.
+	 * @param requiredTags
+	 *            the tags of which at least one must also be present (may be null).
+	 * @param group
+	 *            the group of the rule, only the first matching rule of each group is used.
+	 * @param zoomMin
+	 *            the minimum zoom level at which the rule matches.
+	 * @param zoomMax
+	 *            the maximum zoom level at which the rule matches.
+	 * @param instructions
+	 *            the instructions which are executed for a matching map object.
+	 */
+	RenderRule(String[] tags, String[] requiredTags, byte group, byte zoomMin, byte zoomMax,
+			RenderInstruction[] instructions) {
+		this.tags = tags;
+		this.requiredTags = requiredTags;
+		this.group = group;
+		this.zoomMin = zoomMin;
+		this.zoomMax = zoomMax;
+		this.instructions = instructions;
+	}
+
+	/**
+	 * Checks if this rule matches at the given zoom level.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return true if the zoom level is within the range of this rule, false otherwise.
+	 */
+	boolean isVisible(byte zoomLevel) {
+		return zoomLevel >= this.zoomMin && zoomLevel <= this.zoomMax;
+	}
+}
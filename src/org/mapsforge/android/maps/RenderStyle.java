@@ -0,0 +1,202 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.Arrays;
+
+/**
+ * An immutable description of how a shape or a text is painted. Render styles do not depend on
+ * any graphics library, each renderer converts them into its own paint objects.
+ */
+final class RenderStyle {
+	/**
+	 * Horizontal alignment of a text relative to its position.
+	 */
+	enum Align {
+		/**
+		 * The text is centered on its position.
+		 */
+		CENTER,
+
+		/**
+		 * The text starts at its position.
+		 */
+		LEFT,
+
+		/**
+		 * The text ends at its position.
+		 */
+		RIGHT;
+	}
+
+	/**
+	 * Decoration of the ends of a stroked line.
+	 */
+	enum Cap {
+		/**
+		 * The line ends exactly at its end points.
+		 */
+		BUTT,
+
+		/**
+		 * The line ends with a half circle.
+		 */
+		ROUND,
+
+		/**
+		 * The line ends with a half square.
+		 */
+		SQUARE;
+	}
+
+	/**
+	 * Decoration of the corners of a stroked line.
+	 */
+	enum Join {
+		/**
+		 * The outer corner is cut off.
+		 */
+		BEVEL,
+
+		/**
+		 * The outer corner is a sharp edge.
+		 */
+		MITER,
+
+		/**
+		 * The outer corner is a circular arc.
+		 */
+		ROUND;
+	}
+
+	final Align align;
+	final boolean bold;
+	final Cap cap;
+	final int color;
+	final float[] dashIntervals;
+	final float dashPhase;
+	final boolean fill;
+	final Join join;
+	final boolean scalable;
+	final float strokeWidth;
+	final float textSize;
+	private final int hashCode;
+
+	/**
+	 * Constructs a new render style with the given parameters.
+	 * 
+	 * @param fill
+	 *            true if shapes are filled, false if their outline is stroked.
+	 * @param color
+	 *            the color in ARGB format.
+	 * @param strokeWidth
+	 *            the width of stroked lines.
+	 * @param cap
+	 *            the decoration of the line ends.
+	 * @param join
+	 *            the decoration of the line corners.
+	 * @param dashIntervals
+	 *            the lengths of the dashes and the gaps or null, if lines are not dashed.
+	 * @param dashPhase
+	 *            the offset into the dash intervals.
+	 * @param textSize
+	 *            the size of texts.
+	 * @param bold
+	 *            true if texts are bold, false otherwise.
+	 * @param align
+	 *            the horizontal alignment of texts.
+	 * @param scalable
+	 *            true if the stroke width and the dash intervals grow with the zoom level.
+	 */
+	RenderStyle(boolean fill, int color, float strokeWidth, Cap cap, Join join,
+			float[] dashIntervals, float dashPhase, float textSize, boolean bold, Align align,
+			boolean scalable) {
+		this.fill = fill;
+		this.color = color;
+		this.strokeWidth = strokeWidth;
+		this.cap = cap;
+		this.join = join;
+		this.dashIntervals = dashIntervals;
+		this.dashPhase = dashPhase;
+		this.textSize = textSize;
+		this.bold = bold;
+		this.align = align;
+		this.scalable = scalable;
+		this.hashCode = calculateHashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (!(obj instanceof RenderStyle)) {
+			return false;
+		}
+		RenderStyle other = (RenderStyle) obj;
+		return this.fill == other.fill && this.color == other.color
+				&& this.strokeWidth == other.strokeWidth && this.cap == other.cap
+				&& this.join == other.join
+				&& Arrays.equals(this.dashIntervals, other.dashIntervals)
+				&& this.dashPhase == other.dashPhase && this.textSize == other.textSize
+				&& this.bold == other.bold && this.align == other.align
+				&& this.scalable == other.scalable;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	/**
+	 * Calculates the hash value of this object.
+	 * 
+	 * @return the hash value of this object.
+	 */
+	private int calculateHashCode() {
+		int result = 7;
+		result = 31 * result + this.color;
+		result = 31 * result + Float.floatToIntBits(this.strokeWidth);
+		result = 31 * result + Float.floatToIntBits(this.textSize);
+		result = 31 * result + Arrays.hashCode(this.dashIntervals);
+		result = 31 * result + (this.fill ? 1 : 0);
+		return result;
+	}
+
+	/**
+	 * Returns a copy of this style whose stroke width and dash intervals are multiplied by the
+	 * given factor. Styles which are not scalable are returned unchanged.
+	 * 
+	 * @param factor
+	 *            the scale factor of the zoom level.
+	 * @return the scaled style.
+	 */
+	RenderStyle scale(float factor) {
+		if (!this.scalable || factor == 1) {
+			return this;
+		}
+		float[] scaledDashIntervals = null;
+		if (this.dashIntervals != null) {
+			scaledDashIntervals = new float[this.dashIntervals.length];
+			for (int i = 0; i < this.dashIntervals.length; ++i) {
+				scaledDashIntervals[i] = this.dashIntervals[i] * factor;
+			}
+		}
+		return new RenderStyle(this.fill, this.color, this.strokeWidth * factor, this.cap,
+				this.join, scaledDashIntervals, this.dashPhase, this.textSize, this.bold,
+				this.align, true);
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.HashMap;
+
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+/**
+ * Converts render styles into android.graphics paints. Each style is converted only once, the
+ * paints are cached for all following calls.
+ */
+class RenderStylePaints {
+	/**
+	 * Creates a new paint with the parameters of the given style.
+	 * 
+	 * @param style
+	 *            the render style.
+	 * @return the new paint.
+	 */
+	private static Paint createPaint(RenderStyle style) {
+		Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		paint.setStyle(style.fill ? Paint.Style.FILL : Paint.Style.STROKE);
+		paint.setColor(style.color);
+		paint.setStrokeWidth(style.strokeWidth);
+		switch (style.cap) {
+			case BUTT:
+				paint.setStrokeCap(Paint.Cap.BUTT);
+				break;
+			case ROUND:
+				paint.setStrokeCap(Paint.Cap.ROUND);
+				break;
+			case SQUARE:
+				paint.setStrokeCap(Paint.Cap.SQUARE);
+				break;
+		}
+		switch (style.join) {
+			case BEVEL:
+				paint.setStrokeJoin(Paint.Join.BEVEL);
+				break;
+			case MITER:
+				paint.setStrokeJoin(Paint.Join.MITER);
+				break;
+			case ROUND:
+				paint.setStrokeJoin(Paint.Join.ROUND);
+				break;
+		}
+		if (style.dashIntervals != null) {
+			paint.setPathEffect(new DashPathEffect(style.dashIntervals, style.dashPhase));
+		}
+		if (style.textSize > 0) {
+			paint.setTextSize(style.textSize);
+			if (style.bold) {
+				paint.setTypeface(Typeface.defaultFromStyle(Typeface.BOLD));
+			}
+			switch (style.align) {
+				case CENTER:
+					paint.setTextAlign(Paint.Align.CENTER);
+					break;
+				case LEFT:
+					paint.setTextAlign(Paint.Align.LEFT);
+					break;
+				case RIGHT:
+					paint.setTextAlign(Paint.Align.RIGHT);
+					break;
+			}
+		}
+		return paint;
+	}
+
+	private final HashMap<RenderStyle, Paint> paints;
+	private final Rect textBounds;
+
+	/**
+	 * Constructs an empty paint cache.
+	 */
+	RenderStylePaints() {
+		this.paints = new HashMap<RenderStyle, Paint>(128);
+		this.textBounds = new Rect();
+	}
+
+	/**
+	 * Returns the paint of the given style.
+	 * 
+	 * @param style
+	 *            the render style.
+	 * @return the paint.
+	 */
+	Paint getPaint(RenderStyle style) {
+		Paint paint = this.paints.get(style);
+		if (paint == null) {
+			paint = createPaint(style);
+			this.paints.put(style, paint);
+		}
+		return paint;
+	}
+
+	/**
+	 * Measures the size of the bounding box of a text.
+	 * 
+	 * @param text
+	 *            the text.
+	 * @param style
+	 *            the style of the text.
+	 * @param bounds
+	 *            the array which receives the width at index 0 and the height at index 1.
+	 */
+	void getTextBounds(String text, RenderStyle style, int[] bounds) {
+		getPaint(style).getTextBounds(text, 0, text.length(), this.textBounds);
+		bounds[0] = this.textBounds.width();
+		bounds[1] = this.textBounds.height();
+	}
+
+	/**
+	 * Measures the advance width of a text.
+	 * 
+	 * @param text
+	 *            the text.
+	 * @param style
+	 *            the style of the text.
+	 * @return the width of the text in pixels.
+	 */
+	float getTextWidth(String text, RenderStyle style) {
+		return getPaint(style).measureText(text);
+	}
+}
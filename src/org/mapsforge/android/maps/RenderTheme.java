@@ -0,0 +1,617 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+/**
+ * A render theme which contains the rules for rendering POIs and ways. The rules are declared
+ * in an XML file in the order of their priority, see {@link RenderThemeHandler} for the format.
+ * <p>
+ * Each time a new map file is opened, the theme is compiled into lookup tables which are
+ * indexed by the zoom level and the tag IDs of the map file. The matching rules of a map
+ * object are then found with one table lookup per tag of the object, instead of testing every
+ * rule. The instructions of all rules are scaled once per zoom level when the theme is
+ * created.
+ * <p>
+ * A theme is never modified after it has been created, so that it can be shared by all
+ * MapGenerator threads. Compiling a theme returns a copy with its own lookup tables, which
+ * shares the scaled instructions with the original theme and must only be used by one thread.
+ */
+final class RenderTheme {
+	/**
+	 * The rules of either the POIs or the ways of a render theme and their lookup tables.
+	 */
+	private static final class RuleSet {
+		private static final short[] NO_RULES = new short[0];
+
+		private final byte[] groups;
+		private final RenderInstruction[][][] instructions;
+		private final int numberOfGroups;
+		private short[][] requiredTagIds;
+		private final RenderRule[] rules;
+		private short[][][] rulesByTagId;
+
+		/**
+		 * Constructs a new rule set with the given rules.
+		 * 
+		 * @param rules
+		 *            the rules in the order of their priority.
+		 * @param numberOfGroups
+		 *            the number of rule groups.
+		 */
+		RuleSet(ArrayList<RenderRule> rules, int numberOfGroups) {
+			this.rules = rules.toArray(new RenderRule[rules.size()]);
+			this.numberOfGroups = numberOfGroups;
+			this.groups = new byte[this.rules.length];
+			for (int rule = 0; rule < this.rules.length; ++rule) {
+				this.groups[rule] = this.rules[rule].group;
+			}
+			this.instructions = new RenderInstruction[ZOOM_LEVELS][][];
+			this.rulesByTagId = new short[ZOOM_LEVELS][0][];
+		}
+
+		/**
+		 * Constructs a new rule set which shares the rules and the scaled instructions with the
+		 * given rule set, but has its own lookup tables.
+		 * 
+		 * @param ruleSet
+		 *            the rule set to copy.
+		 */
+		RuleSet(RuleSet ruleSet) {
+			this.rules = ruleSet.rules;
+			this.numberOfGroups = ruleSet.numberOfGroups;
+			this.groups = ruleSet.groups;
+			this.instructions = ruleSet.instructions;
+			this.rulesByTagId = new short[ZOOM_LEVELS][0][];
+		}
+
+		/**
+		 * Checks if a map object has at least one of the required tags of the given rule.
+		 * 
+		 * @param rule
+		 *            the index of the rule.
+		 * @param tagIds
+		 *            the tag id array of the map object.
+		 * @return true if the requirements of the rule are met, false otherwise.
+		 */
+		private boolean hasRequiredTags(int rule, boolean[] tagIds) {
+			if (this.requiredTagIds[rule] == null) {
+				return true;
+			}
+			for (short tagId : this.requiredTagIds[rule]) {
+				if (tagId < tagIds.length && tagIds[tagId]) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Compiles the rules for the tag IDs of a map file.
+		 * 
+		 * @param tagIds
+		 *            the tags of the map file and their IDs.
+		 */
+		void compile(HashMap<String, Short> tagIds) {
+			// find the highest tag ID which is used by the map file
+			int numberOfTagIds = 0;
+			for (Short tagId : tagIds.values()) {
+				numberOfTagIds = Math.max(numberOfTagIds, tagId.shortValue() + 1);
+			}
+
+			short[][] ruleTagIds = new short[this.rules.length][];
+			this.requiredTagIds = new short[this.rules.length][];
+			for (int rule = 0; rule < this.rules.length; ++rule) {
+				ruleTagIds[rule] = getTagIds(this.rules[rule].tags, tagIds);
+				if (this.rules[rule].requiredTags != null) {
+					this.requiredTagIds[rule] = getTagIds(this.rules[rule].requiredTags, tagIds);
+				}
+			}
+
+			// collect the rules for each zoom level and tag ID, ordered by their priority
+			this.rulesByTagId = new short[ZOOM_LEVELS][][];
+			for (byte zoomLevel = 0; zoomLevel < ZOOM_LEVELS; ++zoomLevel) {
+				short[][] rulesOfZoomLevel = new short[numberOfTagIds][];
+				Arrays.fill(rulesOfZoomLevel, NO_RULES);
+				for (int rule = 0; rule < this.rules.length; ++rule) {
+					if (!this.rules[rule].isVisible(zoomLevel)) {
+						continue;
+					}
+					for (short tagId : ruleTagIds[rule]) {
+						short[] tagRules = rulesOfZoomLevel[tagId];
+						short[] newRules = new short[tagRules.length + 1];
+						System.arraycopy(tagRules, 0, newRules, 0, tagRules.length);
+						newRules[tagRules.length] = (short) rule;
+						rulesOfZoomLevel[tagId] = newRules;
+					}
+				}
+				this.rulesByTagId[zoomLevel] = rulesOfZoomLevel;
+			}
+		}
+
+		/**
+		 * Finds the rule with the highest priority in each group which matches the given map
+		 * object.
+		 * 
+		 * @param zoomLevel
+		 *            the zoom level.
+		 * @param tagIds
+		 *            the tag id array of the map object.
+		 * @param tagIdList
+		 *            the IDs of all tags of the map object.
+		 * @param tagIdListLength
+		 *            the number of valid entries in the tag ID list.
+		 * @param matchedRules
+		 *            an array which receives the index of the matching rule of each group or
+		 *            {@link RenderTheme#NO_MATCH}, if no rule of a group matches.
+		 */
+		void match(int zoomLevel, boolean[] tagIds, short[] tagIdList, byte tagIdListLength,
+				int[] matchedRules) {
+			Arrays.fill(matchedRules, 0, this.numberOfGroups, NO_MATCH);
+			short[][] rulesOfZoomLevel = this.rulesByTagId[zoomLevel];
+			for (int i = 0; i < tagIdListLength; ++i) {
+				if (tagIdList[i] >= rulesOfZoomLevel.length) {
+					continue;
+				}
+				// the rules of each tag ID are sorted by their priority
+				for (short rule : rulesOfZoomLevel[tagIdList[i]]) {
+					if (rule < matchedRules[this.groups[rule]] && hasRequiredTags(rule, tagIds)) {
+						matchedRules[this.groups[rule]] = rule;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Scales the instructions of all rules for the given zoom level.
+		 * 
+		 * @param zoomLevel
+		 *            the zoom level.
+		 * @param scaleFactor
+		 *            the scale factor of the zoom level.
+		 * @param scaledStyles
+		 *            the styles which have already been scaled for the zoom level.
+		 */
+		void scale(byte zoomLevel, float scaleFactor,
+				Map<RenderStyle, RenderStyle> scaledStyles) {
+			this.instructions[zoomLevel] = new RenderInstruction[this.rules.length][];
+			for (int rule = 0; rule < this.rules.length; ++rule) {
+				this.instructions[zoomLevel][rule] = scaleInstructions(
+						this.rules[rule].instructions, zoomLevel, scaleFactor, scaledStyles);
+			}
+		}
+	}
+
+	private static final String DEFAULT_RENDER_THEME = "rendertheme.xml";
+
+	/**
+	 * Rule index which is returned if no rule matches.
+	 */
+	static final int NO_MATCH = Integer.MAX_VALUE;
+
+	/**
+	 * The number of zoom levels for which a theme has lookup tables. Higher zoom levels use the
+	 * tables of the highest zoom level.
+	 */
+	static final byte ZOOM_LEVELS = 23;
+
+	/**
+	 * The default render theme, which is read when it is used for the first time.
+	 */
+	private static RenderTheme defaultRenderTheme;
+
+	/**
+	 * Returns the zoom level which is used as an index into the tables of a theme.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the index of the zoom level.
+	 */
+	private static int getZoomIndex(byte zoomLevel) {
+		return zoomLevel < ZOOM_LEVELS ? zoomLevel : ZOOM_LEVELS - 1;
+	}
+
+	/**
+	 * Looks up the IDs of the given tags in the map file. A tag of the form "key=*" matches all
+	 * tags with the given key.
+	 * 
+	 * @param tags
+	 *            the tags in the format key=value.
+	 * @param tagIds
+	 *            the tag IDs of the map file.
+	 * @return the IDs of all tags which exist in the map file.
+	 */
+	private static short[] getTagIds(String[] tags, HashMap<String, Short> tagIds) {
+		ArrayList<Short> result = new ArrayList<Short>(tags.length);
+		for (String tag : tags) {
+			if (tag.endsWith("=*")) {
+				String keyPrefix = tag.substring(0, tag.length() - 1);
+				for (Map.Entry<String, Short> entry : tagIds.entrySet()) {
+					if (entry.getKey().startsWith(keyPrefix)) {
+						result.add(entry.getValue());
+					}
+				}
+			} else if (tagIds.containsKey(tag)) {
+				result.add(tagIds.get(tag));
+			}
+		}
+		short[] resultArray = new short[result.size()];
+		for (int i = 0; i < resultArray.length; ++i) {
+			resultArray[i] = result.get(i).shortValue();
+		}
+		return resultArray;
+	}
+
+	/**
+	 * Scales the styles of the given instructions and omits all instructions which are not
+	 * executed at the given zoom level.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @param scaleFactor
+	 *            the scale factor of the zoom level.
+	 * @param scaledStyles
+	 *            the styles which have already been scaled for the zoom level.
+	 * @return the scaled instructions.
+	 */
+	private static RenderInstruction[] scaleInstructions(RenderInstruction[] instructions,
+			byte zoomLevel, float scaleFactor, Map<RenderStyle, RenderStyle> scaledStyles) {
+		ArrayList<RenderInstruction> result = new ArrayList<RenderInstruction>(
+				instructions.length);
+		for (RenderInstruction instruction : instructions) {
+			if (instruction.isVisible(zoomLevel)) {
+				result.add(instruction.withStyles(scaleStyle(instruction.style, scaleFactor,
+						scaledStyles), scaleStyle(instruction.strokeStyle, scaleFactor,
+						scaledStyles)));
+			}
+		}
+		return result.toArray(new RenderInstruction[result.size()]);
+	}
+
+	/**
+	 * Scales the given style. Each style is scaled only once per zoom level, so that all
+	 * instructions of a zoom level share the same style objects.
+	 * 
+	 * @param style
+	 *            the style (may be null).
+	 * @param scaleFactor
+	 *            the scale factor of the zoom level.
+	 * @param scaledStyles
+	 *            the styles which have already been scaled for the zoom level.
+	 * @return the scaled style or null, if the style is null.
+	 */
+	private static RenderStyle scaleStyle(RenderStyle style, float scaleFactor,
+			Map<RenderStyle, RenderStyle> scaledStyles) {
+		if (style == null) {
+			return null;
+		}
+		RenderStyle scaledStyle = scaledStyles.get(style);
+		if (scaledStyle == null) {
+			scaledStyle = style.scale(scaleFactor);
+			scaledStyles.put(style, scaledStyle);
+		}
+		return scaledStyle;
+	}
+
+	/**
+	 * Returns the default render theme from the resources of this package. The theme is read
+	 * only once and shared by all callers.
+	 * 
+	 * @return the default render theme.
+	 * @throws IllegalStateException
+	 *             if the default render theme cannot be read.
+	 */
+	static synchronized RenderTheme getDefaultRenderTheme() {
+		if (defaultRenderTheme != null) {
+			return defaultRenderTheme;
+		}
+		InputStream inputStream = RenderTheme.class.getResourceAsStream(DEFAULT_RENDER_THEME);
+		if (inputStream == null) {
+			throw new IllegalStateException("missing render theme: " + DEFAULT_RENDER_THEME);
+		}
+		try {
+			defaultRenderTheme = RenderThemeHandler.getRenderTheme(inputStream);
+			return defaultRenderTheme;
+		} catch (ParserConfigurationException e) {
+			throw new IllegalStateException(e);
+		} catch (SAXException e) {
+			throw new IllegalStateException(e);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			try {
+				inputStream.close();
+			} catch (IOException e) {
+				Logger.e(e);
+			}
+		}
+	}
+
+	/**
+	 * Reads a render theme from the given stream. The stream is not closed.
+	 * 
+	 * @param inputStream
+	 *            the stream with the XML data of the render theme.
+	 * @return the render theme.
+	 * @throws IllegalArgumentException
+	 *             if the stream does not contain a valid render theme.
+	 */
+	static RenderTheme readRenderTheme(InputStream inputStream) {
+		try {
+			return RenderThemeHandler.getRenderTheme(inputStream);
+		} catch (ParserConfigurationException e) {
+			throw new IllegalArgumentException(e);
+		} catch (SAXException e) {
+			throw new IllegalArgumentException(e);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	private final int background;
+	private final RenderStyle[] coastlineStyles;
+	private final RenderInstruction[][] houseNumberInstructions;
+	private final RenderStyle[] invalidCoastlineStyles;
+	private final RenderStyle[] landStyles;
+	private final int[] matchedNodeRule;
+	private final RuleSet nodeRules;
+	private final RenderStyle[] waterStyles;
+	private final RuleSet wayRules;
+
+	/**
+	 * Constructs a new render theme and scales its instructions for all zoom levels.
+	 * 
+	 * @param background
+	 *            the background color of the tiles.
+	 * @param scaleFactors
+	 *            the scale factors of all zoom levels.
+	 * @param houseNumberInstructions
+	 *            the instructions for the house numbers of POIs.
+	 * @param seaStyles
+	 *            the styles of the sea areas, the land areas, the coastlines and the invalid
+	 *            coastlines.
+	 * @param nodeRules
+	 *            the POI rules in the order of their priority.
+	 * @param wayRules
+	 *            the way rules in the order of their priority.
+	 * @param numberOfWayGroups
+	 *            the number of way rule groups.
+	 */
+	RenderTheme(int background, float[] scaleFactors,
+			RenderInstruction[] houseNumberInstructions, RenderStyle[] seaStyles,
+			ArrayList<RenderRule> nodeRules, ArrayList<RenderRule> wayRules,
+			int numberOfWayGroups) {
+		this.background = background;
+		this.nodeRules = new RuleSet(nodeRules, 1);
+		this.wayRules = new RuleSet(wayRules, numberOfWayGroups);
+		this.matchedNodeRule = new int[1];
+
+		this.houseNumberInstructions = new RenderInstruction[ZOOM_LEVELS][];
+		this.waterStyles = new RenderStyle[ZOOM_LEVELS];
+		this.landStyles = new RenderStyle[ZOOM_LEVELS];
+		this.coastlineStyles = new RenderStyle[ZOOM_LEVELS];
+		this.invalidCoastlineStyles = new RenderStyle[ZOOM_LEVELS];
+		for (byte zoomLevel = 0; zoomLevel < ZOOM_LEVELS; ++zoomLevel) {
+			Map<RenderStyle, RenderStyle> scaledStyles;
+			scaledStyles = new IdentityHashMap<RenderStyle, RenderStyle>(64);
+			float scaleFactor = scaleFactors[zoomLevel];
+			this.houseNumberInstructions[zoomLevel] = scaleInstructions(houseNumberInstructions,
+					zoomLevel, scaleFactor, scaledStyles);
+			this.waterStyles[zoomLevel] = scaleStyle(seaStyles[0], scaleFactor, scaledStyles);
+			this.landStyles[zoomLevel] = scaleStyle(seaStyles[1], scaleFactor, scaledStyles);
+			this.coastlineStyles[zoomLevel] = scaleStyle(seaStyles[2], scaleFactor,
+					scaledStyles);
+			this.invalidCoastlineStyles[zoomLevel] = scaleStyle(seaStyles[3], scaleFactor,
+					scaledStyles);
+			this.nodeRules.scale(zoomLevel, scaleFactor, scaledStyles);
+			this.wayRules.scale(zoomLevel, scaleFactor, scaledStyles);
+		}
+	}
+
+	/**
+	 * Constructs a copy of the given render theme with its own lookup tables.
+	 * 
+	 * @param renderTheme
+	 *            the render theme to copy.
+	 */
+	private RenderTheme(RenderTheme renderTheme) {
+		this.background = renderTheme.background;
+		this.nodeRules = new RuleSet(renderTheme.nodeRules);
+		this.wayRules = new RuleSet(renderTheme.wayRules);
+		this.matchedNodeRule = new int[1];
+		this.houseNumberInstructions = renderTheme.houseNumberInstructions;
+		this.waterStyles = renderTheme.waterStyles;
+		this.landStyles = renderTheme.landStyles;
+		this.coastlineStyles = renderTheme.coastlineStyles;
+		this.invalidCoastlineStyles = renderTheme.invalidCoastlineStyles;
+	}
+
+	/**
+	 * Compiles the rules of this theme for the tag IDs of a map file. This theme is not
+	 * modified.
+	 * 
+	 * @param nodeTags
+	 *            the node tags of the map file and their IDs, or null if no map file is open.
+	 * @param wayTags
+	 *            the way tags of the map file and their IDs, or null if no map file is open.
+	 * @return a copy of this theme whose rules are compiled for the map file, no rule matches
+	 *         if no map file is open.
+	 */
+	RenderTheme compile(HashMap<String, Short> nodeTags, HashMap<String, Short> wayTags) {
+		RenderTheme compiledRenderTheme = new RenderTheme(this);
+		if (nodeTags != null && wayTags != null) {
+			compiledRenderTheme.nodeRules.compile(nodeTags);
+			compiledRenderTheme.wayRules.compile(wayTags);
+		}
+		return compiledRenderTheme;
+	}
+
+	/**
+	 * Returns the background color of the tiles.
+	 * 
+	 * @return the background color in ARGB format.
+	 */
+	int getBackground() {
+		return this.background;
+	}
+
+	/**
+	 * Returns the style of closed coastlines around islands.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the coastline style.
+	 */
+	RenderStyle getCoastlineStyle(byte zoomLevel) {
+		return this.coastlineStyles[getZoomIndex(zoomLevel)];
+	}
+
+	/**
+	 * Returns the instructions for the house numbers of POIs.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the house number instructions.
+	 */
+	RenderInstruction[] getHouseNumberInstructions(byte zoomLevel) {
+		return this.houseNumberInstructions[getZoomIndex(zoomLevel)];
+	}
+
+	/**
+	 * Returns the style of coastline segments which cannot be closed.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the invalid coastline style.
+	 */
+	RenderStyle getInvalidCoastlineStyle(byte zoomLevel) {
+		return this.invalidCoastlineStyles[getZoomIndex(zoomLevel)];
+	}
+
+	/**
+	 * Returns the style of land areas which are enclosed by coastlines.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the land style.
+	 */
+	RenderStyle getLandStyle(byte zoomLevel) {
+		return this.landStyles[getZoomIndex(zoomLevel)];
+	}
+
+	/**
+	 * Returns the instructions of a POI rule.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @param rule
+	 *            the index of the rule, as returned by
+	 *            {@link #matchNode(byte, boolean[], short[], byte)}.
+	 * @return the instructions of the rule which are executed at the zoom level.
+	 */
+	RenderInstruction[] getNodeInstructions(byte zoomLevel, int rule) {
+		return this.nodeRules.instructions[getZoomIndex(zoomLevel)][rule];
+	}
+
+	/**
+	 * Returns the number of way rule groups. Each group contributes at most one rule to a way.
+	 * 
+	 * @return the number of way rule groups.
+	 */
+	int getNumberOfWayGroups() {
+		return this.wayRules.numberOfGroups;
+	}
+
+	/**
+	 * Returns the style of sea areas.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the water style.
+	 */
+	RenderStyle getWaterStyle(byte zoomLevel) {
+		return this.waterStyles[getZoomIndex(zoomLevel)];
+	}
+
+	/**
+	 * Returns the instructions of a way rule.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @param rule
+	 *            the index of the rule, as returned by
+	 *            {@link #matchWay(byte, boolean[], short[], byte, int[])}.
+	 * @return the instructions of the rule which are executed at the zoom level.
+	 */
+	RenderInstruction[] getWayInstructions(byte zoomLevel, int rule) {
+		return this.wayRules.instructions[getZoomIndex(zoomLevel)][rule];
+	}
+
+	/**
+	 * Finds the rule with the highest priority which matches the given POI.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @param nodeTagIds
+	 *            the tag id array of the POI.
+	 * @param nodeTagIdList
+	 *            the IDs of all tags of the POI.
+	 * @param nodeTagIdListLength
+	 *            the number of valid entries in the tag ID list.
+	 * @return the index of the matching rule or {@link #NO_MATCH}, if no rule matches.
+	 */
+	int matchNode(byte zoomLevel, boolean[] nodeTagIds, short[] nodeTagIdList,
+			byte nodeTagIdListLength) {
+		this.nodeRules.match(getZoomIndex(zoomLevel), nodeTagIds, nodeTagIdList,
+				nodeTagIdListLength, this.matchedNodeRule);
+		return this.matchedNodeRule[0];
+	}
+
+	/**
+	 * Finds the rule with the highest priority in each group which matches the given way.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @param wayTagIds
+	 *            the tag id array of the way.
+	 * @param wayTagIdList
+	 *            the IDs of all tags of the way.
+	 * @param wayTagIdListLength
+	 *            the number of valid entries in the tag ID list.
+	 * @param matchedRules
+	 *            an array with one entry per group, see {@link #getNumberOfWayGroups()}, which
+	 *            receives the index of the matching rule or {@link #NO_MATCH}.
+	 */
+	void matchWay(byte zoomLevel, boolean[] wayTagIds, short[] wayTagIdList,
+			byte wayTagIdListLength, int[] matchedRules) {
+		this.wayRules.match(getZoomIndex(zoomLevel), wayTagIds, wayTagIdList,
+				wayTagIdListLength, matchedRules);
+	}
+}
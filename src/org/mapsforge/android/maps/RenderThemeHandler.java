@@ -0,0 +1,372 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A SAX handler which reads a render theme from an XML file. The root element
+ * {@code rendertheme} has a {@code background} color and contains the following elements:
+ * <ul>
+ * <li>{@code scale} sets the {@code factor} of a {@code zoom} level by which the widths and dash
+ * intervals of all scalable styles are multiplied.</li>
+ * <li>{@code style} declares a named {@link RenderStyle}.</li>
+ * <li>{@code housenumber} declares the style of the house numbers of POIs.</li>
+ * <li>{@code sea} declares the styles of the polygons which are built from coastlines.</li>
+ * <li>{@code node} declares a POI rule with {@code symbol}, {@code circle}, {@code caption}
+ * and {@code elevation} instructions.</li>
+ * <li>{@code group} contains {@code way} rules with {@code shape}, {@code way-name},
+ * {@code area-name}, {@code area-symbol} and {@code coastline} instructions.</li>
+ * </ul>
+ * Rules have a comma-separated list of {@code tags}, an optional list of {@code required} tags
+ * and an optional zoom level range. Instructions refer to styles by their name.
+ */
+final class RenderThemeHandler extends DefaultHandler {
+	private static final String ELEMENT_AREA_NAME = "area-name";
+	private static final String ELEMENT_AREA_SYMBOL = "area-symbol";
+	private static final String ELEMENT_CAPTION = "caption";
+	private static final String ELEMENT_CIRCLE = "circle";
+	private static final String ELEMENT_COASTLINE = "coastline";
+	private static final String ELEMENT_ELEVATION = "elevation";
+	private static final String ELEMENT_GROUP = "group";
+	private static final String ELEMENT_HOUSE_NUMBER = "housenumber";
+	private static final String ELEMENT_NODE = "node";
+	private static final String ELEMENT_RENDER_THEME = "rendertheme";
+	private static final String ELEMENT_SCALE = "scale";
+	private static final String ELEMENT_SEA = "sea";
+	private static final String ELEMENT_SHAPE = "shape";
+	private static final String ELEMENT_STYLE = "style";
+	private static final String ELEMENT_SYMBOL = "symbol";
+	private static final String ELEMENT_WAY = "way";
+	private static final String ELEMENT_WAY_NAME = "way-name";
+
+	/**
+	 * Parses a render theme from the given XML stream.
+	 * 
+	 * @param inputStream
+	 *            the stream from which the XML file is read.
+	 * @return the render theme.
+	 * @throws ParserConfigurationException
+	 *             if no SAX parser can be created.
+	 * @throws SAXException
+	 *             if the XML file is not a valid render theme.
+	 * @throws IOException
+	 *             if the stream cannot be read.
+	 */
+	static RenderTheme getRenderTheme(InputStream inputStream)
+			throws ParserConfigurationException, SAXException, IOException {
+		RenderThemeHandler renderThemeHandler = new RenderThemeHandler();
+		SAXParserFactory.newInstance().newSAXParser().parse(inputStream, renderThemeHandler);
+		return renderThemeHandler.renderTheme;
+	}
+
+	/**
+	 * Parses a color in the format #RRGGBB or #AARRGGBB.
+	 * 
+	 * @param value
+	 *            the color string.
+	 * @return the color in ARGB format.
+	 * @throws SAXException
+	 *             if the color string is invalid.
+	 */
+	private static int parseColor(String value) throws SAXException {
+		if (value.length() != 7 && value.length() != 9 || value.charAt(0) != '#') {
+			throw new SAXException("invalid color: " + value);
+		}
+		try {
+			long color = Long.parseLong(value.substring(1), 16);
+			if (value.length() == 7) {
+				color |= 0xff000000L;
+			}
+			return (int) color;
+		} catch (NumberFormatException e) {
+			throw new SAXException("invalid color: " + value);
+		}
+	}
+
+	/**
+	 * Parses a comma-separated list of numbers.
+	 * 
+	 * @param value
+	 *            the list of numbers (may be null).
+	 * @return the numbers or null, if the value is null.
+	 */
+	private static float[] parseFloatArray(String value) {
+		if (value == null) {
+			return null;
+		}
+		String[] values = value.split(",");
+		float[] result = new float[values.length];
+		for (int i = 0; i < values.length; ++i) {
+			result[i] = Float.parseFloat(values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a comma-separated list of tags.
+	 * 
+	 * @param value
+	 *            the list of tags (may be null).
+	 * @return the tags or null, if the value is null.
+	 */
+	private static String[] parseTags(String value) {
+		if (value == null) {
+			return null;
+		}
+		return value.split(",");
+	}
+
+	private int background;
+	private byte currentGroup;
+	private ArrayList<RenderInstruction> currentInstructions;
+	private String[] currentRequiredTags;
+	private String[] currentTags;
+	private byte currentZoomMax;
+	private byte currentZoomMin;
+	private RenderInstruction[] houseNumberInstructions;
+	private final ArrayList<RenderRule> nodeRules;
+	private int numberOfWayGroups;
+	private RenderTheme renderTheme;
+	private final float[] scaleFactors;
+	private final RenderStyle[] seaStyles;
+	private final HashMap<String, RenderStyle> styles;
+	private final ArrayList<RenderRule> wayRules;
+
+	private RenderThemeHandler() {
+		this.nodeRules = new ArrayList<RenderRule>();
+		this.wayRules = new ArrayList<RenderRule>();
+		this.styles = new HashMap<String, RenderStyle>();
+		this.seaStyles = new RenderStyle[4];
+		this.houseNumberInstructions = new RenderInstruction[0];
+		this.scaleFactors = new float[RenderTheme.ZOOM_LEVELS];
+		for (int i = 0; i < this.scaleFactors.length; ++i) {
+			this.scaleFactors[i] = 1;
+		}
+	}
+
+	/**
+	 * Creates a render instruction from the attributes of an instruction element.
+	 * 
+	 * @param type
+	 *            the type of the instruction.
+	 * @param attributes
+	 *            the attributes of the element.
+	 * @return the render instruction.
+	 * @throws SAXException
+	 *             if an attribute is invalid.
+	 */
+	private RenderInstruction createInstruction(RenderInstruction.Type type,
+			Attributes attributes) throws SAXException {
+		String level = attributes.getValue("level");
+		String radius = attributes.getValue("radius");
+		String offset = attributes.getValue("offset");
+		return new RenderInstruction(type, getStyle(attributes.getValue("style")),
+				getStyle(attributes.getValue("stroke")), level == null ? 0 : Byte
+						.parseByte(level), radius == null ? 0 : Float.parseFloat(radius),
+				offset == null ? 0 : Float.parseFloat(offset), attributes.getValue("src"),
+				getZoomLevel(attributes, "zoom-min", (byte) 0), getZoomLevel(attributes,
+						"zoom-max", Byte.MAX_VALUE));
+	}
+
+	/**
+	 * Creates a render style from the attributes of a style element.
+	 * 
+	 * @param attributes
+	 *            the attributes of the element.
+	 * @return the render style.
+	 * @throws SAXException
+	 *             if an attribute is invalid.
+	 */
+	private RenderStyle createStyle(Attributes attributes) throws SAXException {
+		String paint = attributes.getValue("paint");
+		String color = attributes.getValue("color");
+		String width = attributes.getValue("width");
+		String dashPhase = attributes.getValue("dash-phase");
+		String cap = attributes.getValue("cap");
+		String join = attributes.getValue("join");
+		String textSize = attributes.getValue("text-size");
+		String align = attributes.getValue("align");
+		try {
+			return new RenderStyle("fill".equals(paint), color == null ? 0xff000000
+					: parseColor(color), width == null ? 0 : Float.parseFloat(width),
+					cap == null ? RenderStyle.Cap.BUTT : RenderStyle.Cap.valueOf(cap
+							.toUpperCase()), join == null ? RenderStyle.Join.MITER
+							: RenderStyle.Join.valueOf(join.toUpperCase()),
+					parseFloatArray(attributes.getValue("dash")), dashPhase == null ? 0 : Float
+							.parseFloat(dashPhase), textSize == null ? 0 : Float
+							.parseFloat(textSize), Boolean.parseBoolean(attributes
+							.getValue("bold")), align == null ? RenderStyle.Align.LEFT
+							: RenderStyle.Align.valueOf(align.toUpperCase()), Boolean
+							.parseBoolean(attributes.getValue("scale")));
+		} catch (IllegalArgumentException e) {
+			throw new SAXException("invalid style: " + attributes.getValue("name"), e);
+		}
+	}
+
+	/**
+	 * Returns the style with the given name.
+	 * 
+	 * @param name
+	 *            the name of the style (may be null).
+	 * @return the style or null, if the name is null.
+	 * @throws SAXException
+	 *             if no style with the given name has been declared.
+	 */
+	private RenderStyle getStyle(String name) throws SAXException {
+		if (name == null) {
+			return null;
+		}
+		RenderStyle style = this.styles.get(name);
+		if (style == null) {
+			throw new SAXException("unknown style: " + name);
+		}
+		return style;
+	}
+
+	/**
+	 * Returns the value of a zoom level attribute.
+	 * 
+	 * @param attributes
+	 *            the attributes of an element.
+	 * @param name
+	 *            the name of the attribute.
+	 * @param defaultValue
+	 *            the value if the attribute is missing.
+	 * @return the zoom level.
+	 */
+	private byte getZoomLevel(Attributes attributes, String name, byte defaultValue) {
+		String value = attributes.getValue(name);
+		if (value == null) {
+			return defaultValue;
+		}
+		return Byte.parseByte(value);
+	}
+
+	/**
+	 * Starts a new rule with the attributes of a node or way element.
+	 * 
+	 * @param attributes
+	 *            the attributes of the element.
+	 * @throws SAXException
+	 *             if the rule has no tags.
+	 */
+	private void startRule(Attributes attributes) throws SAXException {
+		this.currentTags = parseTags(attributes.getValue("tags"));
+		if (this.currentTags == null) {
+			throw new SAXException("missing tags of rule");
+		}
+		this.currentRequiredTags = parseTags(attributes.getValue("required"));
+		this.currentZoomMin = getZoomLevel(attributes, "zoom-min", (byte) 0);
+		this.currentZoomMax = getZoomLevel(attributes, "zoom-max", Byte.MAX_VALUE);
+		this.currentInstructions = new ArrayList<RenderInstruction>();
+	}
+
+	@Override
+	public void endDocument() {
+		this.renderTheme = new RenderTheme(this.background, this.scaleFactors,
+				this.houseNumberInstructions, this.seaStyles, this.nodeRules, this.wayRules,
+				this.numberOfWayGroups);
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) {
+		if (ELEMENT_NODE.equals(qName) || ELEMENT_WAY.equals(qName)) {
+			RenderRule renderRule = new RenderRule(this.currentTags, this.currentRequiredTags,
+					this.currentGroup, this.currentZoomMin, this.currentZoomMax,
+					this.currentInstructions.toArray(new RenderInstruction[this.currentInstructions
+							.size()]));
+			if (ELEMENT_NODE.equals(qName)) {
+				this.nodeRules.add(renderRule);
+			} else {
+				this.wayRules.add(renderRule);
+			}
+			this.currentInstructions = null;
+		} else if (ELEMENT_GROUP.equals(qName)) {
+			++this.numberOfWayGroups;
+		}
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes attributes)
+			throws SAXException {
+		if (ELEMENT_RENDER_THEME.equals(qName)) {
+			this.background = parseColor(attributes.getValue("background"));
+		} else if (ELEMENT_SCALE.equals(qName)) {
+			this.scaleFactors[Byte.parseByte(attributes.getValue("zoom"))] = Float
+					.parseFloat(attributes.getValue("factor"));
+		} else if (ELEMENT_STYLE.equals(qName)) {
+			this.styles.put(attributes.getValue("name"), createStyle(attributes));
+		} else if (ELEMENT_HOUSE_NUMBER.equals(qName)) {
+			this.houseNumberInstructions = new RenderInstruction[] { createInstruction(
+					RenderInstruction.Type.CAPTION, attributes) };
+		} else if (ELEMENT_SEA.equals(qName)) {
+			this.seaStyles[0] = getStyle(attributes.getValue("water"));
+			this.seaStyles[1] = getStyle(attributes.getValue("land"));
+			this.seaStyles[2] = getStyle(attributes.getValue("coastline"));
+			this.seaStyles[3] = getStyle(attributes.getValue("invalid"));
+		} else if (ELEMENT_GROUP.equals(qName)) {
+			this.currentGroup = (byte) this.numberOfWayGroups;
+		} else if (ELEMENT_NODE.equals(qName)) {
+			this.currentGroup = 0;
+			startRule(attributes);
+		} else if (ELEMENT_WAY.equals(qName)) {
+			startRule(attributes);
+		} else if (this.currentInstructions == null) {
+			throw new SAXException("unexpected element: " + qName);
+		} else if (ELEMENT_SYMBOL.equals(qName)) {
+			this.currentInstructions.add(createInstruction(RenderInstruction.Type.SYMBOL,
+					attributes));
+		} else if (ELEMENT_CIRCLE.equals(qName)) {
+			this.currentInstructions.add(createInstruction(RenderInstruction.Type.CIRCLE,
+					attributes));
+		} else if (ELEMENT_CAPTION.equals(qName)) {
+			this.currentInstructions.add(createInstruction(RenderInstruction.Type.CAPTION,
+					attributes));
+		} else if (ELEMENT_ELEVATION.equals(qName)) {
+			this.currentInstructions.add(createInstruction(RenderInstruction.Type.ELEVATION,
+					attributes));
+		} else if (ELEMENT_SHAPE.equals(qName)) {
+			this.currentInstructions.add(createInstruction(RenderInstruction.Type.SHAPE,
+					attributes));
+		} else if (ELEMENT_WAY_NAME.equals(qName)) {
+			this.currentInstructions.add(createInstruction(RenderInstruction.Type.WAY_NAME,
+					attributes));
+		} else if (ELEMENT_AREA_NAME.equals(qName)) {
+			this.currentInstructions.add(createInstruction(RenderInstruction.Type.AREA_NAME,
+					attributes));
+		} else if (ELEMENT_AREA_SYMBOL.equals(qName)) {
+			this.currentInstructions.add(createInstruction(
+					RenderInstruction.Type.AREA_SYMBOL, attributes));
+		} else if (ELEMENT_COASTLINE.equals(qName)) {
+			this.currentInstructions.add(createInstruction(RenderInstruction.Type.COASTLINE,
+					attributes));
+		} else {
+			throw new SAXException("unknown element: " + qName);
+		}
+	}
+}
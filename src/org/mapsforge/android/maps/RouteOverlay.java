@@ -16,6 +16,9 @@
  */
 package org.mapsforge.android.maps;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
@@ -28,14 +31,129 @@ import android.graphics.Point;
  * All rendering parameters like color, stroke width, pattern and transparency can be configured
  * via the {@link android.graphics.Paint Paint} object in the {@link #RouteOverlay(Paint)
  * constructor}. Anti-aliasing is always used to improve the visual quality of the image.
+ * <p>
+ * The way nodes are projected only once. For each zoom level, the route is simplified with a
+ * tolerance of one pixel and split into chunks with bounding boxes. The simplified routes of
+ * the last few zoom levels are cached and only the chunks which intersect with the visible
+ * area are drawn, so that the costs of a redraw depend on the visible part of the route.
  */
 public class RouteOverlay extends Overlay {
+	/**
+	 * This class holds the simplified route for a single zoom level.
+	 */
+	private static class SimplifiedRoute {
+		final int[] chunkBoundaries;
+		final int[] coordinates;
+		final int numberOfChunks;
+		final int numberOfPoints;
+
+		SimplifiedRoute(int[] coordinates, int numberOfPoints) {
+			this.coordinates = coordinates;
+			this.numberOfPoints = numberOfPoints;
+
+			// adjacent chunks share their last and first point
+			this.numberOfChunks = Math.max(1, (numberOfPoints - 2) / (CHUNK_SIZE - 1) + 1);
+			this.chunkBoundaries = new int[this.numberOfChunks * 4];
+			for (int chunk = 0; chunk < this.numberOfChunks; ++chunk) {
+				int left = Integer.MAX_VALUE;
+				int top = Integer.MAX_VALUE;
+				int right = Integer.MIN_VALUE;
+				int bottom = Integer.MIN_VALUE;
+				for (int i = getFirstPoint(chunk); i <= getLastPoint(chunk); ++i) {
+					left = Math.min(left, coordinates[2 * i]);
+					right = Math.max(right, coordinates[2 * i]);
+					top = Math.min(top, coordinates[2 * i + 1]);
+					bottom = Math.max(bottom, coordinates[2 * i + 1]);
+				}
+				this.chunkBoundaries[4 * chunk] = left;
+				this.chunkBoundaries[4 * chunk + 1] = top;
+				this.chunkBoundaries[4 * chunk + 2] = right;
+				this.chunkBoundaries[4 * chunk + 3] = bottom;
+			}
+		}
+
+		int getFirstPoint(int chunk) {
+			return chunk * (CHUNK_SIZE - 1);
+		}
+
+		int getLastPoint(int chunk) {
+			return Math.min((chunk + 1) * (CHUNK_SIZE - 1), this.numberOfPoints - 1);
+		}
+
+		boolean isChunkVisible(int chunk, int left, int top, int right, int bottom) {
+			return this.chunkBoundaries[4 * chunk] <= right
+					&& this.chunkBoundaries[4 * chunk + 1] <= bottom
+					&& this.chunkBoundaries[4 * chunk + 2] >= left
+					&& this.chunkBoundaries[4 * chunk + 3] >= top;
+		}
+	}
+
+	/**
+	 * Maximum number of points in each chunk of a simplified route.
+	 */
+	private static final int CHUNK_SIZE = 64;
+
+	/**
+	 * Load factor of the internal HashMap.
+	 */
+	private static final float LOAD_FACTOR = 0.6f;
+
+	/**
+	 * Maximum number of zoom levels whose simplified routes are cached.
+	 */
+	private static final int MAXIMUM_CACHED_ZOOM_LEVELS = 4;
+
+	/**
+	 * Maximum distance in pixels between the simplified route and the omitted way nodes.
+	 */
+	private static final int SIMPLIFICATION_TOLERANCE = 1;
+
 	private static final String THREAD_NAME = "RouteOverlay";
 
-	private Point[] cachedWayPositions;
-	private byte cachedZoomLevel;
+	/**
+	 * Returns the squared distance of a point to a line segment.
+	 * 
+	 * @param x
+	 *            the x coordinate of the point.
+	 * @param y
+	 *            the y coordinate of the point.
+	 * @param x1
+	 *            the x coordinate of the start of the segment.
+	 * @param y1
+	 *            the y coordinate of the start of the segment.
+	 * @param x2
+	 *            the x coordinate of the end of the segment.
+	 * @param y2
+	 *            the y coordinate of the end of the segment.
+	 * @return the squared distance.
+	 */
+	private static double getSquaredSegmentDistance(int x, int y, int x1, int y1, int x2,
+			int y2) {
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		double projectionX = x1;
+		double projectionY = y1;
+		if (dx != 0 || dy != 0) {
+			double t = ((x - x1) * dx + (y - y1) * dy) / (dx * dx + dy * dy);
+			if (t > 1) {
+				projectionX = x2;
+				projectionY = y2;
+			} else if (t > 0) {
+				projectionX += dx * t;
+				projectionY += dy * t;
+			}
+		}
+		dx = x - projectionX;
+		dy = y - projectionY;
+		return dx * dx + dy * dy;
+	}
+
+	private final LinkedHashMap<Byte, SimplifiedRoute> cachedRoutes;
+	private boolean drawingChunks;
 	private Paint paint;
 	private final Path path;
+	private int[] referenceCoordinates;
+	private SimplifiedRoute simplifiedRoute;
 	private GeoPoint[] wayNodes;
 
 	/**
@@ -47,7 +165,120 @@ public class RouteOverlay extends Overlay {
 	public RouteOverlay(Paint paint) {
 		setPaint(paint);
 		this.path = new Path();
-		this.cachedZoomLevel = Byte.MIN_VALUE;
+		this.cachedRoutes = new LinkedHashMap<Byte, SimplifiedRoute>(
+				(int) (MAXIMUM_CACHED_ZOOM_LEVELS / LOAD_FACTOR) + 2, LOAD_FACTOR, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Byte, SimplifiedRoute> eldest) {
+				return size() > MAXIMUM_CACHED_ZOOM_LEVELS;
+			}
+		};
+	}
+
+	/**
+	 * Simplifies the route for the given zoom level. Way nodes which are closer than the
+	 * tolerance to the previous remaining way node are removed first, the remaining way nodes
+	 * are simplified with the Douglas-Peucker algorithm.
+	 * 
+	 * @param zoomLevel
+	 *            the zoom level.
+	 * @return the simplified route.
+	 */
+	private SimplifiedRoute createSimplifiedRoute(byte zoomLevel) {
+		int shift = OverlayItemGrid.REFERENCE_ZOOM_LEVEL - zoomLevel;
+		int numberOfNodes = this.referenceCoordinates.length / 2;
+
+		// remove all way nodes which are too close to their predecessor
+		int[] coordinates = new int[this.referenceCoordinates.length];
+		int numberOfPoints = 0;
+		for (int i = 0; i < numberOfNodes; ++i) {
+			int x = this.referenceCoordinates[2 * i] >>> shift;
+			int y = this.referenceCoordinates[2 * i + 1] >>> shift;
+			if (numberOfPoints > 0 && i < numberOfNodes - 1) {
+				int dx = x - coordinates[2 * numberOfPoints - 2];
+				int dy = y - coordinates[2 * numberOfPoints - 1];
+				if (dx * dx + dy * dy < SIMPLIFICATION_TOLERANCE * SIMPLIFICATION_TOLERANCE) {
+					continue;
+				}
+			}
+			coordinates[2 * numberOfPoints] = x;
+			coordinates[2 * numberOfPoints + 1] = y;
+			++numberOfPoints;
+		}
+
+		// mark the points which are kept by the Douglas-Peucker algorithm
+		boolean[] keep = new boolean[numberOfPoints];
+		keep[0] = true;
+		keep[numberOfPoints - 1] = true;
+		int[] stack = new int[64];
+		int stackSize = 0;
+		stack[stackSize++] = 0;
+		stack[stackSize++] = numberOfPoints - 1;
+		while (stackSize > 0) {
+			int last = stack[--stackSize];
+			int first = stack[--stackSize];
+			double maximumDistance = 0;
+			int farthestPoint = -1;
+			for (int i = first + 1; i < last; ++i) {
+				double distance = getSquaredSegmentDistance(coordinates[2 * i],
+						coordinates[2 * i + 1], coordinates[2 * first],
+						coordinates[2 * first + 1], coordinates[2 * last],
+						coordinates[2 * last + 1]);
+				if (distance > maximumDistance) {
+					maximumDistance = distance;
+					farthestPoint = i;
+				}
+			}
+			if (maximumDistance > SIMPLIFICATION_TOLERANCE * SIMPLIFICATION_TOLERANCE) {
+				keep[farthestPoint] = true;
+				if (stackSize + 4 > stack.length) {
+					int[] newStack = new int[stack.length * 2];
+					System.arraycopy(stack, 0, newStack, 0, stackSize);
+					stack = newStack;
+				}
+				stack[stackSize++] = first;
+				stack[stackSize++] = farthestPoint;
+				stack[stackSize++] = farthestPoint;
+				stack[stackSize++] = last;
+			}
+		}
+
+		// move the kept points to the front of the array
+		int numberOfKeptPoints = 0;
+		for (int i = 0; i < numberOfPoints; ++i) {
+			if (keep[i]) {
+				coordinates[2 * numberOfKeptPoints] = coordinates[2 * i];
+				coordinates[2 * numberOfKeptPoints + 1] = coordinates[2 * i + 1];
+				++numberOfKeptPoints;
+			}
+		}
+		int[] simplifiedCoordinates = new int[2 * numberOfKeptPoints];
+		System.arraycopy(coordinates, 0, simplifiedCoordinates, 0, simplifiedCoordinates.length);
+		return new SimplifiedRoute(simplifiedCoordinates, numberOfKeptPoints);
+	}
+
+	/**
+	 * Projects all way nodes to pixel coordinates at the reference zoom level and discards the
+	 * cached simplified routes.
+	 */
+	private void projectWayNodes() {
+		this.cachedRoutes.clear();
+		if (this.wayNodes == null || this.wayNodes.length < 1) {
+			this.referenceCoordinates = null;
+			return;
+		}
+		this.referenceCoordinates = new int[this.wayNodes.length * 2];
+		for (int i = 0; i < this.wayNodes.length; ++i) {
+			this.referenceCoordinates[2 * i] = (int) Math.max(0, Math.min(MercatorProjection
+					.longitudeToPixelX(this.wayNodes[i].getLongitude(),
+							OverlayItemGrid.REFERENCE_ZOOM_LEVEL),
+					OverlayItemGrid.MAXIMUM_REFERENCE_COORDINATE));
+			this.referenceCoordinates[2 * i + 1] = (int) Math.max(0, Math.min(
+					MercatorProjection.latitudeToPixelY(this.wayNodes[i].getLatitude(),
+							OverlayItemGrid.REFERENCE_ZOOM_LEVEL),
+					OverlayItemGrid.MAXIMUM_REFERENCE_COORDINATE));
+		}
 	}
 
 	/**
@@ -71,23 +302,24 @@ public class RouteOverlay extends Overlay {
 	 */
 	public synchronized void setRouteData(GeoPoint[] wayNodes) {
 		this.wayNodes = wayNodes;
-		if (this.wayNodes != null) {
-			// create the array for the cached way node positions
-			this.cachedWayPositions = new Point[this.wayNodes.length];
-		}
+		projectWayNodes();
 	}
 
 	/**
 	 * This method should be called after way nodes have been added to the Overlay.
 	 */
 	protected final void populate() {
+		synchronized (this) {
+			// the way nodes may have been changed in place
+			projectWayNodes();
+		}
 		super.requestRedraw();
 	}
 
 	@Override
 	public final synchronized void drawOverlayBitmap(Canvas canvas, Point drawPosition,
 			Projection projection, byte drawZoomLevel) {
-		if (this.cachedWayPositions == null || this.cachedWayPositions.length < 1) {
+		if (this.referenceCoordinates == null) {
 			// no way nodes to draw
 			return;
 		} else if (this.paint == null) {
@@ -95,22 +327,40 @@ public class RouteOverlay extends Overlay {
 			return;
 		}
 
-		// make sure that the cached way node positions are valid
-		if (drawZoomLevel != this.cachedZoomLevel) {
-			for (int i = 0; i < this.cachedWayPositions.length; ++i) {
-				this.cachedWayPositions[i] = projection.toPoint(this.wayNodes[i],
-						this.cachedWayPositions[i], drawZoomLevel);
-			}
-			this.cachedZoomLevel = drawZoomLevel;
+		// make sure that the simplified route for the zoom level is available
+		this.simplifiedRoute = this.cachedRoutes.get(Byte.valueOf(drawZoomLevel));
+		if (this.simplifiedRoute == null) {
+			this.simplifiedRoute = createSimplifiedRoute(drawZoomLevel);
+			this.cachedRoutes.put(Byte.valueOf(drawZoomLevel), this.simplifiedRoute);
 		}
 
-		// assemble the path
+		// the visible area is extended by the stroke width of the route
+		int margin = (int) Math.ceil(this.paint.getStrokeWidth()) + 1;
+		int left = drawPosition.x - margin;
+		int top = drawPosition.y - margin;
+		int right = drawPosition.x + canvas.getWidth() + margin;
+		int bottom = drawPosition.y + canvas.getHeight() + margin;
+
+		// assemble the path from all visible chunks
 		this.path.reset();
-		this.path.moveTo(this.cachedWayPositions[0].x - drawPosition.x,
-				this.cachedWayPositions[0].y - drawPosition.y);
-		for (int i = 1; i < this.cachedWayPositions.length; ++i) {
-			this.path.lineTo(this.cachedWayPositions[i].x - drawPosition.x,
-					this.cachedWayPositions[i].y - drawPosition.y);
+		this.drawingChunks = false;
+		int[] coordinates = this.simplifiedRoute.coordinates;
+		for (int chunk = 0; chunk < this.simplifiedRoute.numberOfChunks; ++chunk) {
+			if (!this.simplifiedRoute.isChunkVisible(chunk, left, top, right, bottom)) {
+				this.drawingChunks = false;
+				continue;
+			}
+			int firstPoint = this.simplifiedRoute.getFirstPoint(chunk);
+			if (!this.drawingChunks) {
+				// start a new part of the path at the first point of the chunk
+				this.path.moveTo(coordinates[2 * firstPoint] - drawPosition.x,
+						coordinates[2 * firstPoint + 1] - drawPosition.y);
+				this.drawingChunks = true;
+			}
+			for (int i = firstPoint + 1; i <= this.simplifiedRoute.getLastPoint(chunk); ++i) {
+				this.path.lineTo(coordinates[2 * i] - drawPosition.x, coordinates[2 * i + 1]
+						- drawPosition.y);
+			}
 		}
 
 		// draw the path on the canvas
@@ -121,4 +371,4 @@ public class RouteOverlay extends Overlay {
 	public String getThreadName() {
 		return THREAD_NAME;
 	}
-}
\ No newline at end of file
+}
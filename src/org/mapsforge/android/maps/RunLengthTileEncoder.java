@@ -0,0 +1,219 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * A fast lossless encoder for map images. Map images consist mostly of large uniform areas,
+ * so the pixels are encoded as a sequence of runs. A run either repeats the pixel on the left,
+ * copies the pixels from the row above, or contains literal pixels. Each run starts with a
+ * control byte whose two high bits contain the type of the run and whose six low bits contain
+ * the length of the run. Long runs store their length in two additional bytes.
+ */
+class RunLengthTileEncoder extends TileEncoder {
+	/**
+	 * Number of bytes per pixel.
+	 */
+	private static final int BYTES_PER_PIXEL = Tile.TILE_BYTES_PER_PIXEL;
+
+	/**
+	 * Value of the six low bits which indicates a long run.
+	 */
+	private static final int LONG_RUN = 0x3F;
+
+	/**
+	 * Minimum length of a long run.
+	 */
+	private static final int MINIMUM_LONG_RUN_LENGTH = LONG_RUN + 1;
+
+	/**
+	 * Minimum length of a repeated run, shorter runs are added to the literal pixels.
+	 */
+	private static final int MINIMUM_REPEATED_RUN_LENGTH = 2;
+
+	/**
+	 * Number of bytes per row of pixels.
+	 */
+	private static final int ROW_BYTES = Tile.TILE_SIZE * BYTES_PER_PIXEL;
+
+	/**
+	 * Run type for pixels which are copied from the row above.
+	 */
+	private static final int RUN_ABOVE = 2;
+
+	/**
+	 * Run type for pixels which repeat the pixel on the left.
+	 */
+	private static final int RUN_LEFT = 1;
+
+	/**
+	 * Run type for literal pixels.
+	 */
+	private static final int RUN_LITERAL = 0;
+
+	/**
+	 * Writes the control byte and the length of a run.
+	 * 
+	 * @param output
+	 *            the array for the encoded image.
+	 * @param position
+	 *            the position of the control byte in the array.
+	 * @param runType
+	 *            the type of the run.
+	 * @param runLength
+	 *            the number of pixels of the run.
+	 * @return the position after the run header.
+	 */
+	private static int writeRunHeader(byte[] output, int position, int runType, int runLength) {
+		if (runLength < MINIMUM_LONG_RUN_LENGTH) {
+			output[position] = (byte) ((runType << 6) | (runLength - 1));
+			return position + 1;
+		}
+		int longRunLength = runLength - MINIMUM_LONG_RUN_LENGTH;
+		output[position] = (byte) ((runType << 6) | LONG_RUN);
+		output[position + 1] = (byte) (longRunLength >> 8);
+		output[position + 2] = (byte) longRunLength;
+		return position + 3;
+	}
+
+	@Override
+	boolean decode(byte[] data, int offset, int length, byte[] pixels) {
+		int position = offset;
+		int end = offset + length;
+		int pixelPosition = 0;
+		while (position < end) {
+			int runType = (data[position] >> 6) & 0x03;
+			int runLength = (data[position] & LONG_RUN) + 1;
+			++position;
+			if (runLength > LONG_RUN) {
+				if (position + 2 > end) {
+					return false;
+				}
+				runLength = MINIMUM_LONG_RUN_LENGTH + ((data[position] & 0xFF) << 8)
+						+ (data[position + 1] & 0xFF);
+				position += 2;
+			}
+
+			int runBytes = runLength * BYTES_PER_PIXEL;
+			if (pixelPosition + runBytes > pixels.length) {
+				return false;
+			}
+			if (runType == RUN_LITERAL) {
+				if (position + runBytes > end) {
+					return false;
+				}
+				System.arraycopy(data, position, pixels, pixelPosition, runBytes);
+				position += runBytes;
+				pixelPosition += runBytes;
+			} else if (runType == RUN_LEFT) {
+				if (pixelPosition == 0) {
+					return false;
+				}
+				// copy byte by byte, as the source overlaps the destination
+				for (int i = 0; i < runBytes; ++i) {
+					pixels[pixelPosition] = pixels[pixelPosition - BYTES_PER_PIXEL];
+					++pixelPosition;
+				}
+			} else if (runType == RUN_ABOVE) {
+				if (pixelPosition < ROW_BYTES) {
+					return false;
+				}
+				for (int i = 0; i < runBytes; ++i) {
+					pixels[pixelPosition] = pixels[pixelPosition - ROW_BYTES];
+					++pixelPosition;
+				}
+			} else {
+				return false;
+			}
+		}
+		return pixelPosition == pixels.length;
+	}
+
+	@Override
+	void destroy() {
+		// do nothing
+	}
+
+	@Override
+	int encode(byte[] pixels, byte[] output, int offset) {
+		int numberOfPixels = pixels.length / BYTES_PER_PIXEL;
+		int position = offset;
+		int literalStart = 0;
+		int pixel = 0;
+		while (pixel <= numberOfPixels) {
+			int leftRunLength = 0;
+			int aboveRunLength = 0;
+			if (pixel < numberOfPixels) {
+				// count the pixels which are equal to the pixel on the left
+				if (pixel > 0) {
+					int source = (pixel - 1) * BYTES_PER_PIXEL;
+					int target = pixel * BYTES_PER_PIXEL;
+					while (target < pixels.length && pixels[target] == pixels[source]
+							&& pixels[target + 1] == pixels[source + 1]) {
+						++leftRunLength;
+						target += BYTES_PER_PIXEL;
+					}
+				}
+
+				// count the pixels which are equal to the pixels above
+				if (pixel >= Tile.TILE_SIZE) {
+					int target = pixel * BYTES_PER_PIXEL;
+					while (target < pixels.length && pixels[target] == pixels[target - ROW_BYTES]
+							&& pixels[target + 1] == pixels[target + 1 - ROW_BYTES]) {
+						++aboveRunLength;
+						target += BYTES_PER_PIXEL;
+					}
+				}
+
+				if (leftRunLength < MINIMUM_REPEATED_RUN_LENGTH
+						&& aboveRunLength < MINIMUM_REPEATED_RUN_LENGTH) {
+					// add the pixel to the literal pixels
+					++pixel;
+					continue;
+				}
+			}
+
+			// write the pending literal pixels
+			if (pixel > literalStart) {
+				int literalBytes = (pixel - literalStart) * BYTES_PER_PIXEL;
+				if (position + 3 + literalBytes > output.length) {
+					return -1;
+				}
+				position = writeRunHeader(output, position, RUN_LITERAL, pixel - literalStart);
+				System.arraycopy(pixels, literalStart * BYTES_PER_PIXEL, output, position,
+						literalBytes);
+				position += literalBytes;
+			}
+			if (pixel == numberOfPixels) {
+				break;
+			}
+
+			// write the longer repeated run
+			if (position + 3 > output.length) {
+				return -1;
+			}
+			if (leftRunLength >= aboveRunLength) {
+				position = writeRunHeader(output, position, RUN_LEFT, leftRunLength);
+				pixel += leftRunLength;
+			} else {
+				position = writeRunHeader(output, position, RUN_ABOVE, aboveRunLength);
+				pixel += aboveRunLength;
+			}
+			literalStart = pixel;
+		}
+		return position - offset;
+	}
+}
@@ -16,13 +16,11 @@
  */
 package org.mapsforge.android.maps;
 
-import android.graphics.Paint;
-
 class ShapePaintContainer {
-	final Paint paint;
+	final RenderStyle paint;
 	final ShapeContainer shapeContainer;
 
-	ShapePaintContainer(ShapeContainer shapeContainer, Paint paint) {
+	ShapePaintContainer(ShapeContainer shapeContainer, RenderStyle paint) {
 		this.shapeContainer = shapeContainer;
 		this.paint = paint;
 	}
@@ -16,10 +16,8 @@
  */
 package org.mapsforge.android.maps;
 
-import android.graphics.Bitmap;
-
 class SymbolContainer {
-	final Bitmap symbol;
+	final MapSymbol symbol;
 	final float x;
 	final float y;
 
@@ -33,7 +31,7 @@ class SymbolContainer {
 	 * @param y
 	 *            the y coordinate of the point.
 	 */
-	SymbolContainer(Bitmap symbol, float x, float y) {
+	SymbolContainer(MapSymbol symbol, float x, float y) {
 		this.symbol = symbol;
 		this.x = x;
 		this.y = y;
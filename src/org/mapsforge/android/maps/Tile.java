@@ -16,8 +16,6 @@
  */
 package org.mapsforge.android.maps;
 
-import android.graphics.Rect;
-
 /**
  * A tile represents a rectangular part of the world map. All tiles can be identified by their X
  * and Y number together with their zoom level. The actual area that a tile covers on a map
@@ -128,18 +126,4 @@ class Tile {
 		result = prime * result + this.zoomLevel;
 		return result;
 	}
-
-	/**
-	 * Calculates the bounding box of this tile.
-	 * 
-	 * @return the bounding box of this tile.
-	 */
-	Rect getBoundingBox() {
-		return new Rect(
-				(int) (MercatorProjection.pixelXToLongitude(this.pixelX, this.zoomLevel) * 1000000),
-				(int) (MercatorProjection.pixelYToLatitude(this.pixelY, this.zoomLevel) * 1000000),
-				(int) (MercatorProjection.pixelXToLongitude(this.pixelX + TILE_SIZE,
-						this.zoomLevel) * 1000000), (int) (MercatorProjection.pixelYToLatitude(
-						this.pixelY + TILE_SIZE, this.zoomLevel) * 1000000));
-	}
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.ArrayList;
+
+import android.graphics.Bitmap;
+
+/**
+ * A thread-safe pool of bitmaps with the size of a tile. The caches, the MapView and the
+ * MapGenerator threads borrow their tile bitmaps from the pool and return them when they are
+ * no longer needed, so that new bitmaps are only created while the pool is empty. The pool
+ * keeps at most a fixed number of returned bitmaps, further bitmaps are recycled.
+ */
+class TileBitmapPool {
+	private final ArrayList<Bitmap> bitmaps;
+	private final int capacity;
+	private boolean destroyed;
+	private MapGeneratorMetrics metrics;
+
+	/**
+	 * Constructs an empty bitmap pool with a fixed size.
+	 * 
+	 * @param capacity
+	 *            the maximum number of bitmaps which are kept for reuse.
+	 * @throws IllegalArgumentException
+	 *             if the capacity is negative.
+	 */
+	TileBitmapPool(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.bitmaps = new ArrayList<Bitmap>(capacity);
+	}
+
+	/**
+	 * Takes a bitmap from the pool or creates a new one, if the pool is empty. The content of
+	 * the returned bitmap is undefined.
+	 * 
+	 * @return the borrowed bitmap.
+	 */
+	synchronized Bitmap borrowBitmap() {
+		boolean hit = !this.bitmaps.isEmpty();
+		if (this.metrics != null) {
+			this.metrics.recordBitmapPoolAccess(hit);
+		}
+		if (hit) {
+			return this.bitmaps.remove(this.bitmaps.size() - 1);
+		}
+		return Bitmap.createBitmap(Tile.TILE_SIZE, Tile.TILE_SIZE, Bitmap.Config.RGB_565);
+	}
+
+	/**
+	 * Destroys the pool at the end of its lifetime. All bitmaps in the pool are recycled, as
+	 * well as all bitmaps which are returned afterwards.
+	 */
+	synchronized void destroy() {
+		this.destroyed = true;
+		for (Bitmap bitmap : this.bitmaps) {
+			bitmap.recycle();
+		}
+		this.bitmaps.clear();
+		this.metrics = null;
+	}
+
+	/**
+	 * Returns a borrowed bitmap to the pool. The bitmap must not be used by the caller
+	 * afterwards.
+	 * 
+	 * @param bitmap
+	 *            the bitmap which is no longer needed.
+	 */
+	synchronized void returnBitmap(Bitmap bitmap) {
+		if (this.destroyed || this.bitmaps.size() >= this.capacity) {
+			bitmap.recycle();
+		} else {
+			this.bitmaps.add(bitmap);
+		}
+	}
+
+	/**
+	 * Sets the metrics in which the hits and misses of the pool are counted.
+	 * 
+	 * @param metrics
+	 *            the metrics or null, to disable the counting.
+	 */
+	synchronized void setMetrics(MapGeneratorMetrics metrics) {
+		if (!this.destroyed) {
+			this.metrics = metrics;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * The TileCacheEncoding enumeration lists all encodings which can be used to store the images
+ * of the memory card cache. All encodings are lossless. Images which have been stored with
+ * one encoding can still be read after the encoding of the cache has been changed.
+ */
+public enum TileCacheEncoding {
+	/**
+	 * Images are compressed as PNG files by the <code>android.graphics</code> package. This
+	 * encoding needs the least space but is the slowest one.
+	 */
+	PNG,
+
+	/**
+	 * Images are stored as raw pixel data. This encoding does not need any computation but
+	 * needs the most space and the longest reads.
+	 */
+	RAW,
+
+	/**
+	 * Images are compressed with a run-length encoding which repeats the pixel on the left or
+	 * the pixels above. This encoding is fast and works well for the large uniform areas of
+	 * map images.
+	 */
+	RUN_LENGTH;
+}
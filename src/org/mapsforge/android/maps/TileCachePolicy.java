@@ -0,0 +1,36 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * The TileCachePolicy enumeration lists all policies which can be used to select the images
+ * that are evicted from the RAM cache when its memory limit is reached.
+ */
+public enum TileCachePolicy {
+	/**
+	 * Images are evicted based on how often they have been requested. Among the least recently
+	 * used images, the one with the fewest recent requests is evicted first. This policy keeps
+	 * frequently visited tiles, for example around the home position, when the map is moved
+	 * across a large area.
+	 */
+	FREQUENCY,
+
+	/**
+	 * The least recently used image is evicted first.
+	 */
+	LRU;
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * Abstract base class for the encodings of images in the {@link TileMemoryCardCache}. An
+ * encoder converts the raw pixel data of an image, as copied by
+ * {@link android.graphics.Bitmap#copyPixelsToBuffer(java.nio.Buffer)}, into a compact
+ * representation and back. The encode and the decode method must not share any state, as
+ * images are encoded by the writer thread of the cache while other threads decode images.
+ */
+abstract class TileEncoder {
+	/**
+	 * Number of bytes in front of each stored image which identify its encoding.
+	 */
+	static final int HEADER_SIZE = 1;
+
+	/**
+	 * Creates a new encoder for the given encoding.
+	 * 
+	 * @param tileCacheEncoding
+	 *            the encoding of the images.
+	 * @return the new encoder.
+	 */
+	static TileEncoder create(TileCacheEncoding tileCacheEncoding) {
+		switch (tileCacheEncoding) {
+			case PNG:
+				return new PngTileEncoder();
+			case RAW:
+				return new RawTileEncoder();
+			case RUN_LENGTH:
+				return new RunLengthTileEncoder();
+		}
+		throw new IllegalArgumentException("unknown encoding: " + tileCacheEncoding);
+	}
+
+	/**
+	 * Encodes an image and writes the header which identifies its encoding in front of it. If
+	 * the encoded image is not smaller than the raw image, the raw image is stored instead and
+	 * the header identifies the {@link TileCacheEncoding#RAW} encoding.
+	 * 
+	 * @param encoder
+	 *            the encoder of the given encoding.
+	 * @param tileCacheEncoding
+	 *            the encoding of the encoder.
+	 * @param pixels
+	 *            the raw pixel data of the image.
+	 * @param output
+	 *            the array for the header and the encoded image, which must be large enough
+	 *            for the header and the raw image.
+	 * @return the length of the header and the encoded image in bytes.
+	 */
+	static int encodeWithHeader(TileEncoder encoder, TileCacheEncoding tileCacheEncoding,
+			byte[] pixels, byte[] output) {
+		int length = encoder.encode(pixels, output, HEADER_SIZE);
+		if (length < 0) {
+			System.arraycopy(pixels, 0, output, HEADER_SIZE, pixels.length);
+			output[0] = (byte) TileCacheEncoding.RAW.ordinal();
+			return HEADER_SIZE + pixels.length;
+		}
+		output[0] = (byte) tileCacheEncoding.ordinal();
+		return HEADER_SIZE + length;
+	}
+
+	/**
+	 * Decodes an encoded image.
+	 * 
+	 * @param data
+	 *            the array with the encoded image.
+	 * @param offset
+	 *            the offset of the encoded image in the array.
+	 * @param length
+	 *            the length of the encoded image in bytes.
+	 * @param pixels
+	 *            the array for the raw pixel data of the decoded image.
+	 * @return true if the image has been decoded successfully, false otherwise.
+	 */
+	abstract boolean decode(byte[] data, int offset, int length, byte[] pixels);
+
+	/**
+	 * Releases all resources of this encoder.
+	 */
+	abstract void destroy();
+
+	/**
+	 * Encodes an image.
+	 * 
+	 * @param pixels
+	 *            the raw pixel data of the image.
+	 * @param output
+	 *            the array for the encoded image.
+	 * @param offset
+	 *            the offset in the array at which the encoded image should start.
+	 * @return the length of the encoded image in bytes, or -1 if the encoded image does not
+	 *         fit into the array.
+	 */
+	abstract int encode(byte[] pixels, byte[] output, int offset);
+}
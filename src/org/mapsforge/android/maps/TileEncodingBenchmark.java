@@ -0,0 +1,227 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * Compares the encodings of the memory card cache. The images in the given directory are
+ * decoded into raw pixel data and encoded repeatedly with each {@link TileCacheEncoding}. For
+ * each encoding, the encode and decode time per image, the number of stored bytes compared to
+ * the raw pixel data and the latency of a cache hit, which includes reading the encoded image
+ * from a {@link TileStore} and decoding it, are reported. As the store has just been written,
+ * its reads are usually served by the file system cache.
+ */
+class TileEncodingBenchmark {
+	private static final int DEFAULT_ITERATIONS = 3;
+	private static final String STORE_DIRECTORY = "encoding-benchmark";
+
+	/**
+	 * Starts the benchmark.
+	 * 
+	 * @param args
+	 *            the directory with the images of 256x256 pixels and the number of iterations
+	 *            (optional).
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("usage: TileEncodingBenchmark <image directory> [iterations]");
+			return;
+		}
+
+		int iterations = DEFAULT_ITERATIONS;
+		if (args.length > 1) {
+			iterations = Integer.parseInt(args[1]);
+		}
+
+		ArrayList<byte[]> images = readImages(new File(args[0]));
+		if (images.isEmpty()) {
+			System.out.println("no images found in directory: " + args[0]);
+			return;
+		}
+		System.out.println(images.size() + " images, " + iterations + " iterations");
+
+		File storeDirectory = new File(args[0], STORE_DIRECTORY);
+		for (TileCacheEncoding tileCacheEncoding : TileCacheEncoding.values()) {
+			TileEncoder tileEncoder = TileEncoder.create(tileCacheEncoding);
+			try {
+				run(tileCacheEncoding, tileEncoder, images, iterations, storeDirectory);
+			} catch (IOException e) {
+				Logger.e(e);
+			} finally {
+				tileEncoder.destroy();
+			}
+		}
+	}
+
+	/**
+	 * Deletes the files of the store and the store directory.
+	 * 
+	 * @param storeDirectory
+	 *            the directory of the store.
+	 */
+	private static void deleteStore(File storeDirectory) {
+		File[] files = storeDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (!file.delete()) {
+					file.deleteOnExit();
+				}
+			}
+		}
+		if (!storeDirectory.delete()) {
+			storeDirectory.deleteOnExit();
+		}
+	}
+
+	/**
+	 * Reads all images with the size of a tile from the given directory.
+	 * 
+	 * @param imageDirectory
+	 *            the directory with the images.
+	 * @return the raw pixel data of the images.
+	 */
+	private static ArrayList<byte[]> readImages(File imageDirectory) {
+		ArrayList<byte[]> images = new ArrayList<byte[]>();
+		File[] files = imageDirectory.listFiles();
+		if (files == null) {
+			return images;
+		}
+
+		BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inPreferredConfig = Bitmap.Config.RGB_565;
+		options.inDither = false;
+		for (File file : files) {
+			Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+			if (bitmap == null) {
+				continue;
+			}
+			if (bitmap.getWidth() == Tile.TILE_SIZE && bitmap.getHeight() == Tile.TILE_SIZE
+					&& bitmap.getConfig() == Bitmap.Config.RGB_565) {
+				byte[] pixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+				bitmap.copyPixelsToBuffer(ByteBuffer.wrap(pixels));
+				images.add(pixels);
+			}
+			bitmap.recycle();
+		}
+		return images;
+	}
+
+	/**
+	 * Encodes, decodes, stores and reads all images with the given encoder and prints the
+	 * results.
+	 * 
+	 * @param tileCacheEncoding
+	 *            the encoding of the encoder.
+	 * @param tileEncoder
+	 *            the encoder.
+	 * @param images
+	 *            the raw pixel data of the images.
+	 * @param iterations
+	 *            the number of iterations.
+	 * @param storeDirectory
+	 *            the directory for the temporary store.
+	 * @throws IOException
+	 *             if an error occurs while accessing the store.
+	 */
+	private static void run(TileCacheEncoding tileCacheEncoding, TileEncoder tileEncoder,
+			ArrayList<byte[]> images, int iterations, File storeDirectory) throws IOException {
+		byte[][] encodedImages = new byte[images.size()][];
+		byte[] output = new byte[Tile.TILE_SIZE_IN_BYTES];
+		byte[] pixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+		long encodedBytes = 0;
+		int rawImages = 0;
+
+		// encode all images, images which cannot be compressed are stored raw
+		long startTime = System.nanoTime();
+		for (int iteration = 0; iteration < iterations; ++iteration) {
+			for (int i = 0; i < images.size(); ++i) {
+				int length = tileEncoder.encode(images.get(i), output, 0);
+				if (iteration == 0) {
+					if (length < 0) {
+						encodedImages[i] = null;
+						encodedBytes += Tile.TILE_SIZE_IN_BYTES;
+						++rawImages;
+					} else {
+						encodedImages[i] = new byte[length];
+						System.arraycopy(output, 0, encodedImages[i], 0, length);
+						encodedBytes += length;
+					}
+				}
+			}
+		}
+		long encodeTime = System.nanoTime() - startTime;
+
+		// decode all images and check that the encoding is lossless
+		int errors = 0;
+		startTime = System.nanoTime();
+		for (int iteration = 0; iteration < iterations; ++iteration) {
+			for (int i = 0; i < images.size(); ++i) {
+				if (encodedImages[i] != null
+						&& (!tileEncoder.decode(encodedImages[i], 0, encodedImages[i].length,
+								pixels) || (iteration == 0 && !Arrays.equals(pixels, images
+								.get(i))))) {
+					++errors;
+				}
+			}
+		}
+		long decodeTime = System.nanoTime() - startTime;
+
+		// store all images and measure the latency of reading and decoding them
+		storeDirectory.mkdirs();
+		TileStore tileStore = new TileStore(storeDirectory);
+		TileStore.Entry[] entries = new TileStore.Entry[images.size()];
+		for (int i = 0; i < images.size(); ++i) {
+			byte[] data = encodedImages[i] == null ? images.get(i) : encodedImages[i];
+			entries[i] = new TileStore.Entry(tileStore.allocate(data.length), data.length);
+			tileStore.write(ByteBuffer.wrap(data), entries[i].offset);
+		}
+		ByteBuffer readBuffer = ByteBuffer.allocate(Tile.TILE_SIZE_IN_BYTES);
+		startTime = System.nanoTime();
+		for (int iteration = 0; iteration < iterations; ++iteration) {
+			for (int i = 0; i < images.size(); ++i) {
+				if (!tileStore.read(entries[i], readBuffer)) {
+					++errors;
+				} else if (encodedImages[i] == null) {
+					System.arraycopy(readBuffer.array(), 0, pixels, 0, pixels.length);
+				} else if (!tileEncoder.decode(readBuffer.array(), 0, readBuffer.limit(),
+						pixels)) {
+					++errors;
+				}
+			}
+		}
+		long hitTime = System.nanoTime() - startTime;
+		tileStore.close(new LinkedHashMap<MapGeneratorJob, TileStore.Entry>());
+		deleteStore(storeDirectory);
+
+		long operations = (long) images.size() * iterations;
+		long rawBytes = (long) images.size() * Tile.TILE_SIZE_IN_BYTES;
+		System.out.println(tileCacheEncoding + ": encode " + encodeTime / operations / 1000
+				+ " us, decode " + decodeTime / operations / 1000 + " us, hit " + hitTime
+				/ operations / 1000 + " us, " + encodedBytes + " of " + rawBytes + " bytes ("
+				+ (encodedBytes * 100 / rawBytes) + "%), " + rawImages + " stored raw, "
+				+ errors + " errors");
+	}
+}
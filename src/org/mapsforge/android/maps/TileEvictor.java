@@ -0,0 +1,61 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Abstract base class for the eviction policies of the {@link TileRAMCache}. An evictor is
+ * called by the cache with the lock of the affected cache segment held. It must not keep any
+ * state of its own, as one evictor is shared by all segments of a cache.
+ */
+abstract class TileEvictor {
+	/**
+	 * Creates a new evictor for the given policy.
+	 * 
+	 * @param tileCachePolicy
+	 *            the eviction policy.
+	 * @return the new evictor.
+	 */
+	static TileEvictor create(TileCachePolicy tileCachePolicy) {
+		switch (tileCachePolicy) {
+			case FREQUENCY:
+				return new FrequencyTileEvictor();
+			case LRU:
+				return new LruTileEvictor();
+		}
+		throw new IllegalArgumentException("unknown policy: " + tileCachePolicy);
+	}
+
+	/**
+	 * Called each time an image is requested from the cache.
+	 * 
+	 * @param entry
+	 *            the cache entry of the requested image.
+	 */
+	abstract void recordAccess(TileRAMCache.Entry entry);
+
+	/**
+	 * Selects the image which should be evicted next.
+	 * 
+	 * @param entries
+	 *            the non-empty entries of the cache segment, the least recently used one first.
+	 * @return the key of the image which should be evicted.
+	 */
+	abstract MapGeneratorJob selectVictim(
+			LinkedHashMap<MapGeneratorJob, TileRAMCache.Entry> entries);
+}
@@ -17,44 +17,115 @@
 package org.mapsforge.android.maps;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import android.graphics.Bitmap;
 
 /**
- * A thread-safe cache for image files with a fixed size and LRU policy.
+ * A thread-safe cache for images with a fixed size and LRU policy. The size of the cache is
+ * the number of bytes which are stored, its capacity is given as the number of raw images
+ * which fit into it, so that more encoded images than raw images are kept. The images are
+ * packed into a single data file by a {@link TileStore}, whose index is kept across restarts
+ * of the application. The images are written asynchronously by a {@link TileMemoryCardCacheWriter}
+ * thread, so that adding an image to the cache never waits for the memory card. The writer
+ * thread also encodes the images with the {@link TileCacheEncoding} of the cache. Images which
+ * have not been written yet are kept in a bounded number of buffers and are served from
+ * memory. An image which is added again before it has been written is only written once, an
+ * image which is evicted before it has been written is never written. Stored images are read
+ * and decoded without holding the lock of the cache, so that reading an image does not block
+ * the writer thread and the MapGenerator threads. The extent of the image which is read is
+ * pinned meanwhile, its release is deferred until the read has finished.
  */
 class TileMemoryCardCache {
+	/**
+	 * This class holds the buffer and the store entry of an image which has not been written
+	 * yet.
+	 */
+	private class PendingWrite {
+		ByteBuffer buffer;
+		final TileStore.Entry entry;
+
+		PendingWrite(ByteBuffer buffer, TileStore.Entry entry) {
+			this.buffer = buffer;
+			this.entry = entry;
+		}
+	}
+
 	/**
 	 * Load factor of the internal HashMap.
 	 */
 	private static final float LOAD_FACTOR = 0.6f;
 
-	private final ByteBuffer bitmapBuffer;
-	private int cacheId;
+	/**
+	 * Maximum number of images which are waiting to be written, must be at least two.
+	 */
+	private static final int MAXIMUM_PENDING_WRITES = 8;
+
+	/**
+	 * Returns the number of bytes which may be stored for the given capacity.
+	 * 
+	 * @param capacity
+	 *            the number of raw images which fit into the cache.
+	 * @return the maximum number of stored bytes.
+	 */
+	private static long getMaximumStoredBytes(int capacity) {
+		return (long) capacity * (TileEncoder.HEADER_SIZE + Tile.TILE_SIZE_IN_BYTES);
+	}
+
+	private final TileBitmapPool bitmapPool;
+	private final ArrayList<ByteBuffer> bufferPool;
 	private int capacity;
-	private FileInputStream fileInputStream;
-	private FileOutputStream fileOutputStream;
-	private File imageFile;
-	private LinkedHashMap<MapGeneratorJob, File> map;
+	private final Object decodeLock;
+	private byte[] encodedData;
+	private final TileEncoder[] encoders;
+	private TileCacheEncoding encoding;
+	private LinkedHashMap<MapGeneratorJob, TileStore.Entry> map;
+	private long maximumStoredBytes;
+	private int numberOfBuffers;
+	private PendingWrite pendingWrite;
+	private final LinkedHashMap<MapGeneratorJob, PendingWrite> pendingWrites;
+	private ByteBuffer pixelBuffer;
+	private ByteBuffer readBuffer;
+	private final TileStore.Entry readingEntry;
+	private boolean readingExtentReleased;
+	private TileStore store;
+	private TileStore.Entry storeEntry;
+	private long storedBytes;
 	private final File tempDir;
+	private TileMemoryCardCacheWriter writer;
+	private ByteBuffer writingBuffer;
+	private TileEncoder writingEncoder;
+	private TileCacheEncoding writingEncoding;
+	private TileStore.Entry writingEntry;
+	private byte[] writingIndex;
+	private MapGeneratorJob writingJob;
+	private byte[] writingJournal;
+	private int writingLength;
+	private long writingOffset;
+	private boolean writingTileObsolete;
 
 	/**
-	 * Constructs an image file cache with a fixes size and LRU policy.
+	 * Constructs an image file cache with a fixes size and LRU policy. Images which have been
+	 * stored in the given directory before are added to the cache.
 	 * 
 	 * @param tempDir
-	 *            the temporary directory to use for cached files.
+	 *            the directory to use for the data file and the index file.
 	 * @param capacity
-	 *            the maximum number of entries in the cache.
+	 *            the number of raw images which fit into the cache.
+	 * @param encoding
+	 *            the encoding of the images which are added to the cache.
+	 * @param bitmapPool
+	 *            the pool from which the bitmaps of the returned images are borrowed.
 	 * @throws IllegalArgumentException
 	 *             if the capacity is negative.
 	 */
-	TileMemoryCardCache(String tempDir, int capacity) {
+	TileMemoryCardCache(String tempDir, int capacity, TileCacheEncoding encoding,
+			TileBitmapPool bitmapPool) {
 		if (capacity < 0) {
 			throw new IllegalArgumentException();
 		}
@@ -74,27 +145,227 @@ class TileMemoryCardCache {
 			this.capacity = capacity;
 		}
 
+		// open the store in the cache directory
+		if (this.capacity > 0) {
+			try {
+				this.store = new TileStore(this.tempDir);
+			} catch (IOException e) {
+				Logger.e(e);
+				this.capacity = 0;
+			}
+		}
+
+		this.bitmapPool = bitmapPool;
+		this.decodeLock = new Object();
+		this.readingEntry = new TileStore.Entry();
+		this.maximumStoredBytes = getMaximumStoredBytes(this.capacity);
+		this.pendingWrites = new LinkedHashMap<MapGeneratorJob, PendingWrite>(
+				(int) (MAXIMUM_PENDING_WRITES / LOAD_FACTOR) + 2, LOAD_FACTOR);
+		this.bufferPool = new ArrayList<ByteBuffer>(MAXIMUM_PENDING_WRITES);
 		this.map = createMap(this.capacity);
-		this.bitmapBuffer = ByteBuffer.allocate(Tile.TILE_SIZE_IN_BYTES);
-	}
+		this.encoders = new TileEncoder[TileCacheEncoding.values().length];
+		this.encoding = encoding;
 
-	private LinkedHashMap<MapGeneratorJob, File> createMap(final int initialCapacity) {
-		return new LinkedHashMap<MapGeneratorJob, File>(
-				(int) (initialCapacity / LOAD_FACTOR) + 2, LOAD_FACTOR, true) {
-			private static final long serialVersionUID = 1L;
+		if (this.store != null) {
+			this.encodedData = new byte[TileEncoder.HEADER_SIZE + Tile.TILE_SIZE_IN_BYTES];
+			this.readBuffer = ByteBuffer.allocate(TileEncoder.HEADER_SIZE
+					+ Tile.TILE_SIZE_IN_BYTES);
+			this.pixelBuffer = ByteBuffer.allocate(Tile.TILE_SIZE_IN_BYTES);
 
-			@Override
-			protected boolean removeEldestEntry(Map.Entry<MapGeneratorJob, File> eldest) {
-				if (size() > initialCapacity) {
-					// remove the entry from the cache and delete the cached file
-					this.remove(eldest.getKey());
-					if (!eldest.getValue().delete()) {
-						eldest.getValue().deleteOnExit();
-					}
+			// add the stored images, the oldest ones are evicted if the capacity is exceeded
+			for (Map.Entry<MapGeneratorJob, TileStore.Entry> entry : this.store.getEntries()
+					.entrySet()) {
+				if (entry.getValue().length > TileEncoder.HEADER_SIZE
+						&& entry.getValue().length <= this.encodedData.length) {
+					this.map.put(entry.getKey(), entry.getValue());
+					this.storedBytes += entry.getValue().length;
+				} else {
+					removeTile(entry.getKey(), entry.getValue());
 				}
-				return false;
 			}
-		};
+			trimToSize();
+
+			// start the thread which writes the images
+			this.writer = new TileMemoryCardCacheWriter(this);
+			this.writer.start();
+		}
+	}
+
+	private Bitmap createBitmap(ByteBuffer pixels) {
+		Bitmap bitmap = this.bitmapPool.borrowBitmap();
+		bitmap.copyPixelsFromBuffer(pixels);
+		pixels.rewind();
+		return bitmap;
+	}
+
+	private LinkedHashMap<MapGeneratorJob, TileStore.Entry> createMap(int initialCapacity) {
+		return new LinkedHashMap<MapGeneratorJob, TileStore.Entry>(
+				(int) (initialCapacity / LOAD_FACTOR) + 2, LOAD_FACTOR, true);
+	}
+
+	/**
+	 * Encodes the image of the current write together with its encoding header.
+	 * 
+	 * @return the length of the encoded image in bytes.
+	 */
+	private int encodeCurrentTile() {
+		return TileEncoder.encodeWithHeader(this.writingEncoder, this.writingEncoding,
+				this.writingBuffer.array(), this.encodedData);
+	}
+
+	/**
+	 * Returns the encoder for the given encoding and creates it, if necessary.
+	 * 
+	 * @param encodingId
+	 *            the ordinal of the encoding.
+	 * @return the encoder.
+	 */
+	private TileEncoder getEncoder(int encodingId) {
+		if (this.encoders[encodingId] == null) {
+			this.encoders[encodingId] = TileEncoder.create(TileCacheEncoding.values()[encodingId]);
+		}
+		return this.encoders[encodingId];
+	}
+
+	/**
+	 * Returns a buffer for an image which needs to be written. If all buffers are in use, the
+	 * oldest pending write is dropped and its image is removed from the cache.
+	 * 
+	 * @return the buffer.
+	 */
+	private ByteBuffer obtainBuffer() {
+		if (!this.bufferPool.isEmpty()) {
+			return this.bufferPool.remove(this.bufferPool.size() - 1);
+		} else if (this.numberOfBuffers < MAXIMUM_PENDING_WRITES) {
+			++this.numberOfBuffers;
+			return ByteBuffer.allocate(Tile.TILE_SIZE_IN_BYTES);
+		}
+
+		// drop the oldest pending write which is not currently written
+		Iterator<Map.Entry<MapGeneratorJob, PendingWrite>> iterator = this.pendingWrites
+				.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<MapGeneratorJob, PendingWrite> entry = iterator.next();
+			if (entry.getValue().buffer != this.writingBuffer) {
+				iterator.remove();
+				this.map.remove(entry.getKey());
+				removeTile(entry.getKey(), entry.getValue().entry);
+				return entry.getValue().buffer;
+			}
+		}
+
+		// cannot happen as long as there are at least two buffers
+		return ByteBuffer.allocate(Tile.TILE_SIZE_IN_BYTES);
+	}
+
+	/**
+	 * Releases an extent of the data file. The release of the extent which is currently read
+	 * is deferred until the read has finished.
+	 * 
+	 * @param offset
+	 *            the offset of the extent in the data file.
+	 * @param length
+	 *            the length of the extent in bytes.
+	 */
+	private void releaseExtent(long offset, int length) {
+		if (offset == this.readingEntry.offset) {
+			this.readingExtentReleased = true;
+		} else {
+			this.store.release(offset, length);
+		}
+	}
+
+	/**
+	 * Removes the pending write of the given image, if any, and releases its buffer.
+	 * 
+	 * @param mapGeneratorJob
+	 *            key of the image.
+	 */
+	private void removePendingWrite(MapGeneratorJob mapGeneratorJob) {
+		PendingWrite removedWrite = this.pendingWrites.remove(mapGeneratorJob);
+		if (removedWrite != null && removedWrite.buffer != this.writingBuffer) {
+			// the buffer of the current write is released when the write has finished
+			this.bufferPool.add(removedWrite.buffer);
+		}
+	}
+
+	/**
+	 * Releases the stored data of an image which has been removed from the cache. If the
+	 * image is currently written, its new data is released when the write has finished.
+	 * 
+	 * @param mapGeneratorJob
+	 *            key of the removed image.
+	 * @param entry
+	 *            the store entry of the removed image.
+	 */
+	private void removeTile(MapGeneratorJob mapGeneratorJob, TileStore.Entry entry) {
+		if (mapGeneratorJob.equals(this.writingJob)) {
+			this.writingTileObsolete = true;
+		}
+		if (entry.offset >= 0) {
+			this.store.recordRemove(mapGeneratorJob);
+			releaseExtent(entry.offset, entry.length);
+			this.storedBytes -= entry.length;
+			entry.offset = -1;
+		}
+	}
+
+	/**
+	 * Takes the journal records which need to be written by the writer thread. If the index
+	 * file has grown too large, a compacted index is taken instead.
+	 * 
+	 * @return true if the index file needs to be updated, false otherwise.
+	 */
+	private boolean takeIndexRecords() {
+		if (this.store.needsCompaction(this.map.size())) {
+			this.writingIndex = this.store.takeIndex(this.map);
+			return true;
+		}
+		this.writingJournal = this.store.takeJournal();
+		return this.writingJournal != null;
+	}
+
+	/**
+	 * Removes the least recently used images until the stored images fit into the cache.
+	 */
+	private void trimToSize() {
+		Iterator<Map.Entry<MapGeneratorJob, TileStore.Entry>> iterator = this.map.entrySet()
+				.iterator();
+		while (this.storedBytes > this.maximumStoredBytes && iterator.hasNext()) {
+			Map.Entry<MapGeneratorJob, TileStore.Entry> eldest = iterator.next();
+			iterator.remove();
+			removePendingWrite(eldest.getKey());
+			removeTile(eldest.getKey(), eldest.getValue());
+		}
+	}
+
+	/**
+	 * Unpins the extent which has been read and releases it, if its release has been deferred.
+	 */
+	private void unpinReadingExtent() {
+		if (this.readingExtentReleased) {
+			this.store.release(this.readingEntry.offset, this.readingEntry.length);
+			this.readingExtentReleased = false;
+		}
+		this.readingEntry.offset = -1;
+	}
+
+	/**
+	 * Removes all images from the cache. The data of an image which is currently written or
+	 * read is released when the write or the read has finished.
+	 */
+	synchronized void clear() {
+		Iterator<Map.Entry<MapGeneratorJob, TileStore.Entry>> iterator = this.map.entrySet()
+				.iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<MapGeneratorJob, TileStore.Entry> entry = iterator.next();
+			iterator.remove();
+			removePendingWrite(entry.getKey());
+			removeTile(entry.getKey(), entry.getValue());
+		}
+
+		// wake up the writer thread to write the journal records
+		notifyAll();
 	}
 
 	/**
@@ -108,44 +379,155 @@ class TileMemoryCardCache {
 	}
 
 	/**
-	 * Destroy the cache at the end of its lifetime.
+	 * Destroy the cache at the end of its lifetime. The pending writes are finished before the
+	 * store is closed, so that all images can be used by the next cache in the same directory.
 	 */
-	synchronized void destroy() {
-		// delete all cached files
-		if (this.map != null) {
-			for (File file : this.map.values()) {
-				if (!file.delete()) {
-					file.deleteOnExit();
+	void destroy() {
+		TileMemoryCardCacheWriter stoppedWriter;
+		synchronized (this) {
+			// the writer thread stops as soon as all pending writes have been written
+			stoppedWriter = this.writer;
+			this.writer = null;
+			notifyAll();
+		}
+
+		// wait until all pending writes have been written
+		if (stoppedWriter != null) {
+			try {
+				stoppedWriter.join();
+			} catch (InterruptedException e) {
+				// restore the interrupted status
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		// wait until the current read has finished
+		synchronized (this.decodeLock) {
+			synchronized (this) {
+				if (this.store != null) {
+					this.store.close(this.map);
+					this.store = null;
+				}
+				this.map = null;
+				this.pendingWrites.clear();
+				this.bufferPool.clear();
+				for (int i = 0; i < this.encoders.length; ++i) {
+					if (this.encoders[i] != null) {
+						this.encoders[i].destroy();
+						this.encoders[i] = null;
+					}
 				}
 			}
-			this.map.clear();
-			this.map = null;
 		}
-		// delete the cache directory
-		if (this.tempDir != null) {
-			if (!this.tempDir.delete()) {
-				this.tempDir.deleteOnExit();
+	}
+
+	/**
+	 * Finishes the current write of the writer thread. The written data is released if its
+	 * image has been removed from the cache or if the write has failed, otherwise it replaces
+	 * the previously stored data of the image.
+	 * 
+	 * @param success
+	 *            true if the data has been written successfully, false otherwise.
+	 */
+	synchronized void finishWrite(boolean success) {
+		if (this.writingJob != null) {
+			this.pendingWrite = this.pendingWrites.get(this.writingJob);
+			if (this.pendingWrite != null && this.pendingWrite.buffer == this.writingBuffer) {
+				// the image has not been added again while it was written
+				this.pendingWrites.remove(this.writingJob);
+				if (!success) {
+					this.map.remove(this.writingJob);
+					removeTile(this.writingJob, this.writingEntry);
+				}
+			}
+
+			if (this.writingOffset >= 0) {
+				if (!success || this.writingTileObsolete) {
+					this.store.release(this.writingOffset, this.writingLength);
+				} else {
+					// replace the previously stored data of the image
+					if (this.writingEntry.offset >= 0) {
+						releaseExtent(this.writingEntry.offset, this.writingEntry.length);
+						this.storedBytes -= this.writingEntry.length;
+					}
+					this.writingEntry.offset = this.writingOffset;
+					this.writingEntry.length = this.writingLength;
+					this.storedBytes += this.writingLength;
+					this.store.recordPut(this.writingJob, this.writingEntry);
+				}
 			}
+			this.bufferPool.add(this.writingBuffer);
+			trimToSize();
 		}
+		this.writingBuffer = null;
+		this.writingEncoder = null;
+		this.writingEntry = null;
+		this.writingIndex = null;
+		this.writingJob = null;
+		this.writingJournal = null;
 	}
 
 	/**
+	 * Returns the image for the given key in a bitmap which is borrowed from the bitmap pool. The
+	 * caller must return the bitmap to the pool when it is no longer needed.
+	 * 
 	 * @param mapGeneratorJob
 	 *            key of the image whose data should be returned.
-	 * @param buffer
-	 *            the buffer in which the image data should be copied.
+	 * @return the borrowed bitmap with the image, or null if the image could not be read.
 	 * @see Map#get(Object)
 	 */
-	synchronized void get(MapGeneratorJob mapGeneratorJob, ByteBuffer buffer) {
-		try {
-			this.fileInputStream = new FileInputStream(this.map.get(mapGeneratorJob));
-			if (this.fileInputStream.read(buffer.array()) == buffer.array().length) {
-				// the complete bitmap has been read successfully
-				buffer.rewind();
+	Bitmap get(MapGeneratorJob mapGeneratorJob) {
+		synchronized (this.decodeLock) {
+			TileEncoder decoder;
+			synchronized (this) {
+				this.pendingWrite = this.pendingWrites.get(mapGeneratorJob);
+				if (this.pendingWrite != null) {
+					// the image has not been written yet
+					this.pendingWrite.buffer.rewind();
+					return createBitmap(this.pendingWrite.buffer);
+				}
+
+				this.storeEntry = this.map.get(mapGeneratorJob);
+				if (this.storeEntry == null) {
+					return null;
+				}
+
+				// pin the extent, so that it is not reused while it is read without the lock
+				this.readingEntry.offset = this.storeEntry.offset;
+				this.readingEntry.length = this.storeEntry.length;
 			}
-			this.fileInputStream.close();
-		} catch (IOException e) {
-			Logger.e(e);
+
+			// read the image without holding the lock of the cache
+			boolean read;
+			try {
+				read = this.store.read(this.readingEntry, this.readBuffer);
+			} catch (IOException e) {
+				Logger.e(e);
+				read = false;
+			}
+
+			synchronized (this) {
+				unpinReadingExtent();
+				if (!read) {
+					Logger.d("could not read stored image: " + mapGeneratorJob.tile);
+					return null;
+				}
+				int encodingId = this.readBuffer.get(0);
+				if (encodingId < 0 || encodingId >= this.encoders.length) {
+					Logger.d("unknown encoding of stored image: " + mapGeneratorJob.tile);
+					return null;
+				}
+				decoder = getEncoder(encodingId);
+			}
+
+			// decode the image without holding the lock of the cache
+			if (decoder.decode(this.readBuffer.array(), TileEncoder.HEADER_SIZE, this.readBuffer
+					.limit() - TileEncoder.HEADER_SIZE, this.pixelBuffer.array())) {
+				this.pixelBuffer.rewind();
+				return createBitmap(this.pixelBuffer);
+			}
+			Logger.d("could not decode stored image: " + mapGeneratorJob.tile);
+			return null;
 		}
 	}
 
@@ -157,20 +539,26 @@ class TileMemoryCardCache {
 	 * @see Map#put(Object, Object)
 	 */
 	synchronized void put(MapGeneratorJob mapGeneratorJob, Bitmap bitmap) {
-		if (this.capacity > 0) {
-			// write the image to a temporary file
-			try {
-				bitmap.copyPixelsToBuffer(this.bitmapBuffer);
-				this.bitmapBuffer.rewind();
-				this.imageFile = new File(this.tempDir, ++this.cacheId + ".tile");
-				this.fileOutputStream = new FileOutputStream(this.imageFile, false);
-				this.fileOutputStream.write(this.bitmapBuffer.array(), 0, this.bitmapBuffer
-						.array().length);
-				this.fileOutputStream.close();
-				this.map.put(mapGeneratorJob, this.imageFile);
-			} catch (IOException e) {
-				Logger.e(e);
+		if (this.capacity > 0 && this.writer != null) {
+			this.pendingWrite = this.pendingWrites.get(mapGeneratorJob);
+			if (this.pendingWrite == null) {
+				// keep the store entry of the image if it is already in the cache
+				this.storeEntry = this.map.get(mapGeneratorJob);
+				if (this.storeEntry == null) {
+					this.storeEntry = new TileStore.Entry();
+				}
+				this.pendingWrite = new PendingWrite(obtainBuffer(), this.storeEntry);
+				this.pendingWrites.put(mapGeneratorJob, this.pendingWrite);
+			} else if (this.pendingWrite.buffer == this.writingBuffer) {
+				// the previous image is currently written, do not overwrite its buffer
+				this.pendingWrite.buffer = obtainBuffer();
 			}
+			bitmap.copyPixelsToBuffer(this.pendingWrite.buffer);
+			this.pendingWrite.buffer.rewind();
+			this.map.put(mapGeneratorJob, this.pendingWrite.entry);
+
+			// wake up the writer thread
+			notifyAll();
 		}
 	}
 
@@ -182,13 +570,88 @@ class TileMemoryCardCache {
 	 */
 	synchronized void setCapacity(int capacity) {
 		this.capacity = capacity;
-		// create a new map with the new capacity
-		LinkedHashMap<MapGeneratorJob, File> newMap = createMap(this.capacity);
+		this.maximumStoredBytes = getMaximumStoredBytes(this.capacity);
+		trimToSize();
+	}
+
+	/**
+	 * Sets the encoding of the images which are added to the cache. Images which have been
+	 * stored with a different encoding are kept.
+	 * 
+	 * @param encoding
+	 *            the new encoding.
+	 */
+	synchronized void setEncoding(TileCacheEncoding encoding) {
+		this.encoding = encoding;
+	}
 
-		// put all entries from the old map in the new one.
-		for (Map.Entry<MapGeneratorJob, File> entry : this.map.entrySet()) {
-			newMap.put(entry.getKey(), entry.getValue());
+	/**
+	 * Waits until an image or journal records need to be written and makes them the current
+	 * write of the writer thread. The image stays in the pending writes until the write has
+	 * finished.
+	 * 
+	 * @return true if data needs to be written, false if the cache has been destroyed.
+	 * @throws InterruptedException
+	 *             if the writer thread has been interrupted while waiting.
+	 */
+	synchronized boolean startWrite() throws InterruptedException {
+		while (this.pendingWrites.isEmpty()) {
+			if (takeIndexRecords()) {
+				// only the index file needs to be updated
+				return true;
+			} else if (this.writer == null) {
+				// the cache is destroyed and all pending writes have been written
+				return false;
+			}
+			wait();
+		}
+
+		// take the oldest pending write
+		Map.Entry<MapGeneratorJob, PendingWrite> entry = this.pendingWrites.entrySet()
+				.iterator().next();
+		this.writingJob = entry.getKey();
+		this.writingBuffer = entry.getValue().buffer;
+		this.writingEntry = entry.getValue().entry;
+		this.writingEncoding = this.encoding;
+		this.writingEncoder = getEncoder(this.encoding.ordinal());
+		this.writingOffset = -1;
+		this.writingTileObsolete = false;
+		return true;
+	}
+
+	/**
+	 * Encodes the image of the current write and writes it together with the index records to
+	 * the store. This method must only be called by the writer thread between
+	 * {@link #startWrite()} and {@link #finishWrite(boolean)}, it does not hold the lock of
+	 * the cache while encoding and writing. The index records are taken after the extent for
+	 * the image has been allocated, so that they are written before a released extent is
+	 * overwritten.
+	 * 
+	 * @return true if the data has been written successfully, false otherwise.
+	 */
+	boolean writeCurrentTile() {
+		if (this.writingJob != null) {
+			this.writingLength = encodeCurrentTile();
+			synchronized (this) {
+				this.writingOffset = this.store.allocate(this.writingLength);
+				takeIndexRecords();
+			}
+		}
+
+		try {
+			if (this.writingIndex != null) {
+				this.store.replaceIndex(this.writingIndex);
+			} else if (this.writingJournal != null) {
+				this.store.writeJournal(this.writingJournal);
+			}
+			if (this.writingJob != null) {
+				this.store.write(ByteBuffer.wrap(this.encodedData, 0, this.writingLength),
+						this.writingOffset);
+			}
+			return true;
+		} catch (IOException e) {
+			Logger.e(e);
+			return false;
 		}
-		this.map = newMap;
 	}
-}
\ No newline at end of file
+}
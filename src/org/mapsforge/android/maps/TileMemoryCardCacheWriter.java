@@ -0,0 +1,62 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+/**
+ * A TileMemoryCardCacheWriter writes the images of a {@link TileMemoryCardCache} to the memory
+ * card. It runs in a separate thread, so that the MapGenerator threads never wait for the
+ * memory card.
+ */
+class TileMemoryCardCacheWriter extends Thread {
+	private static final String THREAD_NAME = "TileMemoryCardCacheWriter";
+
+	private TileMemoryCardCache tileMemoryCardCache;
+
+	/**
+	 * Constructs a new writer thread for the given cache.
+	 * 
+	 * @param tileMemoryCardCache
+	 *            the cache whose images should be written.
+	 */
+	TileMemoryCardCacheWriter(TileMemoryCardCache tileMemoryCardCache) {
+		this.tileMemoryCardCache = tileMemoryCardCache;
+	}
+
+	@Override
+	public void run() {
+		setName(THREAD_NAME);
+
+		while (!isInterrupted()) {
+			try {
+				if (!this.tileMemoryCardCache.startWrite()) {
+					// the cache has been destroyed
+					break;
+				}
+			} catch (InterruptedException e) {
+				// restore the interrupted status
+				interrupt();
+				break;
+			}
+
+			// write the image without holding the lock of the cache
+			this.tileMemoryCardCache.finishWrite(this.tileMemoryCardCache.writeCurrentTile());
+		}
+
+		// set the cache to null to avoid memory leaks
+		this.tileMemoryCardCache = null;
+	}
+}
@@ -18,123 +18,365 @@ package org.mapsforge.android.maps;
 
 import java.nio.ByteBuffer;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import android.graphics.Bitmap;
 
 /**
- * A thread-safe cache for bitmap images with a fixed size and LRU policy.
+ * A thread-safe cache for bitmap images which is bounded by the memory of its images. The
+ * cache is split into segments with independent locks, so that threads which access different
+ * tiles do not block each other. All segments share a single budget, a segment may hold any
+ * number of images as long as the images of all segments fit into the capacity. A segment
+ * evicts its own images with an exchangeable {@link TileEvictor} to make room for a new image,
+ * only if it has no images left the other segments give up some of theirs.
  */
 class TileRAMCache {
 	/**
-	 * Load factor of the internal HashMap.
+	 * Stores a cached image together with the data needed by the eviction policy.
+	 */
+	static class Entry {
+		final Bitmap bitmap;
+		final int byteCount;
+		int frequency;
+
+		Entry(Bitmap bitmap) {
+			this.bitmap = bitmap;
+			this.byteCount = bitmap.getRowBytes() * bitmap.getHeight();
+		}
+	}
+
+	/**
+	 * A part of the cache with its own lock, map and counters.
+	 */
+	private class Segment {
+		private int byteCount;
+		private long evictions;
+		private TileEvictor evictor;
+		private long hits;
+		private LinkedHashMap<MapGeneratorJob, Entry> map;
+		private long misses;
+
+		Segment(TileEvictor evictor) {
+			this.evictor = evictor;
+			this.map = new LinkedHashMap<MapGeneratorJob, Entry>(INITIAL_SEGMENT_CAPACITY,
+					LOAD_FACTOR, true);
+		}
+
+		synchronized void clear() {
+			if (this.map != null) {
+				for (Entry entry : this.map.values()) {
+					TileRAMCache.this.bitmapPool.returnBitmap(entry.bitmap);
+				}
+				this.map.clear();
+				TileRAMCache.this.byteCount.addAndGet(-this.byteCount);
+				this.byteCount = 0;
+			}
+		}
+
+		synchronized boolean containsKey(MapGeneratorJob mapGeneratorJob) {
+			return this.map != null && this.map.containsKey(mapGeneratorJob);
+		}
+
+		synchronized void destroy() {
+			clear();
+			this.map = null;
+		}
+
+		/**
+		 * Evicts one image of this segment.
+		 * 
+		 * @return true if an image has been evicted, false if the segment is empty.
+		 */
+		synchronized boolean evict() {
+			if (this.map == null || this.map.isEmpty()) {
+				return false;
+			}
+			Entry evictedEntry = this.map.remove(this.evictor.selectVictim(this.map));
+			this.byteCount -= evictedEntry.byteCount;
+			TileRAMCache.this.byteCount.addAndGet(-evictedEntry.byteCount);
+			++this.evictions;
+			TileRAMCache.this.bitmapPool.returnBitmap(evictedEntry.bitmap);
+			return true;
+		}
+
+		synchronized Bitmap get(MapGeneratorJob mapGeneratorJob) {
+			if (this.map == null) {
+				return null;
+			}
+			Entry entry = this.map.get(mapGeneratorJob);
+			if (entry == null) {
+				++this.misses;
+				return null;
+			}
+			++this.hits;
+			this.evictor.recordAccess(entry);
+			return entry.bitmap;
+		}
+
+		synchronized long getEvictions() {
+			return this.evictions;
+		}
+
+		synchronized long getHits() {
+			return this.hits;
+		}
+
+		synchronized long getMisses() {
+			return this.misses;
+		}
+
+		synchronized boolean put(MapGeneratorJob mapGeneratorJob, Bitmap bitmap) {
+			if (this.map == null || this.map.containsKey(mapGeneratorJob)) {
+				return false;
+			}
+			Entry entry = new Entry(bitmap);
+			if (entry.byteCount > TileRAMCache.this.capacity) {
+				return false;
+			}
+
+			// evict images of this segment until the new one fits into the shared budget
+			while (TileRAMCache.this.byteCount.get() + entry.byteCount > TileRAMCache.this.capacity
+					&& !this.map.isEmpty()) {
+				evict();
+			}
+
+			this.map.put(mapGeneratorJob, entry);
+			this.byteCount += entry.byteCount;
+			TileRAMCache.this.byteCount.addAndGet(entry.byteCount);
+			return true;
+		}
+
+		synchronized void resetCounters() {
+			this.evictions = 0;
+			this.hits = 0;
+			this.misses = 0;
+		}
+
+		synchronized void setEvictor(TileEvictor evictor) {
+			this.evictor = evictor;
+		}
+	}
+
+	/**
+	 * Initial capacity of the map of each segment.
+	 */
+	private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+	/**
+	 * Load factor of the internal HashMaps.
 	 */
 	private static final float LOAD_FACTOR = 0.6f;
 
+	/**
+	 * Number of segments of the cache, must be a power of two.
+	 */
+	private static final int NUMBER_OF_SEGMENTS = 4;
+
 	private final ByteBuffer bitmapBuffer;
+	private final AtomicInteger byteCount;
 	private final int capacity;
-	private LinkedHashMap<MapGeneratorJob, Bitmap> map;
-	private Bitmap tempBitmap;
+	private final Segment[] segments;
 
 	/**
-	 * List of all Bitmaps which are used for object pooling.
+	 * Pool from which the cached bitmaps are borrowed and to which evicted bitmaps are returned.
 	 */
-	final LinkedList<Bitmap> bitmapPool;
+	final TileBitmapPool bitmapPool;
 
 	/**
-	 * Constructs an image bitmap cache with a fixes size and LRU policy.
+	 * Constructs an image bitmap cache with a fixed memory limit.
 	 * 
 	 * @param capacity
-	 *            the maximum number of entries in the cache.
+	 *            the maximum number of bytes of all images in the cache.
+	 * @param bitmapPool
+	 *            the pool from which the bitmaps of the cache are borrowed.
+	 * @param tileCachePolicy
+	 *            the policy which selects the images that are evicted.
 	 * @throws IllegalArgumentException
 	 *             if the capacity is negative.
 	 */
-	TileRAMCache(int capacity) {
+	TileRAMCache(int capacity, TileBitmapPool bitmapPool, TileCachePolicy tileCachePolicy) {
 		if (capacity < 0) {
 			throw new IllegalArgumentException();
 		}
 		this.capacity = capacity;
-		this.map = createMap(this.capacity);
-		this.bitmapPool = new LinkedList<Bitmap>();
-		// one more bitmap than the cache capacity is needed for put operations
-		for (int i = 0; i <= this.capacity; ++i) {
-			this.bitmapPool.add(Bitmap.createBitmap(Tile.TILE_SIZE, Tile.TILE_SIZE,
-					Bitmap.Config.RGB_565));
-		}
+		this.bitmapPool = bitmapPool;
 		this.bitmapBuffer = ByteBuffer.allocate(Tile.TILE_SIZE_IN_BYTES);
+		this.byteCount = new AtomicInteger();
+		TileEvictor evictor = TileEvictor.create(tileCachePolicy);
+		this.segments = new Segment[NUMBER_OF_SEGMENTS];
+		for (int i = 0; i < NUMBER_OF_SEGMENTS; ++i) {
+			this.segments[i] = new Segment(evictor);
+		}
 	}
 
-	private LinkedHashMap<MapGeneratorJob, Bitmap> createMap(final int initialCapacity) {
-		return new LinkedHashMap<MapGeneratorJob, Bitmap>(
-				(int) (initialCapacity / LOAD_FACTOR) + 2, LOAD_FACTOR, true) {
-			private static final long serialVersionUID = 1L;
+	private Segment getSegment(MapGeneratorJob mapGeneratorJob) {
+		int hashCode = mapGeneratorJob.hashCode();
+		// spread the higher bits, as the hash codes of neighbouring tiles differ only slightly
+		hashCode ^= (hashCode >>> 16) ^ (hashCode >>> 8);
+		return this.segments[hashCode & (NUMBER_OF_SEGMENTS - 1)];
+	}
 
-			@Override
-			protected boolean removeEldestEntry(Map.Entry<MapGeneratorJob, Bitmap> eldest) {
-				if (size() > initialCapacity) {
-					this.remove(eldest.getKey());
-					TileRAMCache.this.bitmapPool.add(eldest.getValue());
-				}
-				return false;
-			}
-		};
+	/**
+	 * Removes all images from the cache and returns their bitmaps to the pool. The bitmaps
+	 * which have been returned by {@link #get(MapGeneratorJob)} must no longer be used.
+	 */
+	void clear() {
+		for (Segment segment : this.segments) {
+			segment.clear();
+		}
 	}
 
 	/**
 	 * @param mapGeneratorJob
 	 *            key of the image whose presence in the cache should be tested.
 	 * @return true if the cache contains an image for the specified key, false otherwise.
-	 * @see Map#containsKey(Object)
 	 */
-	synchronized boolean containsKey(MapGeneratorJob mapGeneratorJob) {
-		return this.map.containsKey(mapGeneratorJob);
+	boolean containsKey(MapGeneratorJob mapGeneratorJob) {
+		return getSegment(mapGeneratorJob).containsKey(mapGeneratorJob);
 	}
 
 	/**
 	 * Destroy the cache at the end of its lifetime.
 	 */
-	synchronized void destroy() {
-		if (this.map != null) {
-			for (Bitmap bitmap : this.map.values()) {
-				bitmap.recycle();
-			}
-			for (Bitmap bitmap : this.bitmapPool) {
-				bitmap.recycle();
-			}
-			this.map.clear();
-			this.map = null;
+	void destroy() {
+		for (Segment segment : this.segments) {
+			segment.destroy();
 		}
 	}
 
 	/**
+	 * Returns the image for the given key and counts the request as a hit or a miss. The
+	 * returned bitmap is owned by the cache and may only be used by threads which hold the
+	 * lock of the MapView.
+	 * 
 	 * @param mapGeneratorJob
 	 *            key of the image whose data should be returned.
-	 * @return the data of the image.
-	 * @see Map#get(Object)
+	 * @return the data of the image, or null if the cache does not contain the image.
+	 */
+	Bitmap get(MapGeneratorJob mapGeneratorJob) {
+		return getSegment(mapGeneratorJob).get(mapGeneratorJob);
+	}
+
+	/**
+	 * Returns the number of bytes of all images in the cache.
+	 * 
+	 * @return the number of bytes of all images.
+	 */
+	int getByteCount() {
+		return this.byteCount.get();
+	}
+
+	/**
+	 * Returns the number of images which have been evicted to make room for new ones.
+	 * 
+	 * @return the number of evictions.
 	 */
-	synchronized Bitmap get(MapGeneratorJob mapGeneratorJob) {
-		return this.map.get(mapGeneratorJob);
+	long getEvictions() {
+		long evictions = 0;
+		for (Segment segment : this.segments) {
+			evictions += segment.getEvictions();
+		}
+		return evictions;
 	}
 
 	/**
+	 * Returns the number of requests which have been answered from the cache.
+	 * 
+	 * @return the number of cache hits.
+	 */
+	long getHits() {
+		long hits = 0;
+		for (Segment segment : this.segments) {
+			hits += segment.getHits();
+		}
+		return hits;
+	}
+
+	/**
+	 * Returns the number of requests for images which were not in the cache.
+	 * 
+	 * @return the number of cache misses.
+	 */
+	long getMisses() {
+		long misses = 0;
+		for (Segment segment : this.segments) {
+			misses += segment.getMisses();
+		}
+		return misses;
+	}
+
+	/**
+	 * Adds a copy of the given image to the cache.
+	 * 
 	 * @param mapGeneratorJob
 	 *            key of the image which should be added to the cache.
 	 * @param bitmap
 	 *            the data of the image that should be cached.
-	 * @see Map#put(Object, Object)
 	 */
-	synchronized void put(MapGeneratorJob mapGeneratorJob, Bitmap bitmap) {
-		if (this.capacity > 0) {
-			if (this.map.get(mapGeneratorJob) != null) {
-				// the item is already in the cache
-				return;
-			}
+	void put(MapGeneratorJob mapGeneratorJob, Bitmap bitmap) {
+		if (this.capacity == 0 || containsKey(mapGeneratorJob)) {
+			// the cache is disabled or the item is already in the cache
+			return;
+		}
+		Bitmap cachedBitmap = this.bitmapPool.borrowBitmap();
+		synchronized (this.bitmapBuffer) {
 			bitmap.copyPixelsToBuffer(this.bitmapBuffer);
 			this.bitmapBuffer.rewind();
-			this.tempBitmap = this.bitmapPool.remove();
-			this.tempBitmap.copyPixelsFromBuffer(this.bitmapBuffer);
-			this.map.put(mapGeneratorJob, this.tempBitmap);
+			cachedBitmap.copyPixelsFromBuffer(this.bitmapBuffer);
+			this.bitmapBuffer.rewind();
+		}
+		putBorrowedBitmap(mapGeneratorJob, cachedBitmap);
+	}
+
+	/**
+	 * Adds a bitmap which has been borrowed from the bitmap pool to the cache without copying
+	 * its pixels. The cache takes the ownership of the bitmap, the caller must not use or return
+	 * it afterwards.
+	 * 
+	 * @param mapGeneratorJob
+	 *            key of the image which should be added to the cache.
+	 * @param bitmap
+	 *            the borrowed bitmap that should be cached.
+	 */
+	void putBorrowedBitmap(MapGeneratorJob mapGeneratorJob, Bitmap bitmap) {
+		Segment segment = getSegment(mapGeneratorJob);
+		if (!segment.put(mapGeneratorJob, bitmap)) {
+			this.bitmapPool.returnBitmap(bitmap);
+			return;
+		}
+
+		// the segment had too few images, take the missing space from the other segments
+		for (Segment otherSegment : this.segments) {
+			if (otherSegment != segment) {
+				while (this.byteCount.get() > this.capacity) {
+					if (!otherSegment.evict()) {
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the hit, miss and eviction counters back to zero.
+	 */
+	void resetCounters() {
+		for (Segment segment : this.segments) {
+			segment.resetCounters();
+		}
+	}
+
+	/**
+	 * Sets the policy which selects the images that are evicted. The access history of the
+	 * cached images is kept.
+	 * 
+	 * @param tileCachePolicy
+	 *            the new eviction policy.
+	 */
+	void setPolicy(TileCachePolicy tileCachePolicy) {
+		TileEvictor evictor = TileEvictor.create(tileCachePolicy);
+		for (Segment segment : this.segments) {
+			segment.setEvictor(evictor);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,597 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+
+import javax.imageio.ImageIO;
+
+/**
+ * A command line tool which renders all tiles of a bounding box and a range of zoom levels in
+ * advance. The tiles are written either as PNG files into a directory, or into the packed
+ * {@link TileStore} of a memory card cache, which a MapView with the same cache directory and
+ * map file reads at its next start. The map file on the device must be a copy of the input map
+ * file. Stored tiles still count against the capacity of that cache.
+ * <p>
+ * The tiles are rendered by a pool of threads which share one {@link HeadlessMapRenderer}. They
+ * are handed out in square groups which are aligned to the blocks of the map file, so that the
+ * threads render neighbouring tiles from the same blocks and reuse the block cache. The
+ * progress is saved regularly in the output directory, so that an interrupted run continues
+ * from where it stopped when it is started again with the same parameters.
+ */
+class TileSeeder {
+	/**
+	 * A thread which renders tiles until all tiles of the current zoom level are handed out.
+	 */
+	private class SeederThread extends Thread {
+		private final byte[] encodedData;
+		private final TileEncoder encoder;
+		private final byte[] pixels;
+		private final int[] rgbPixels;
+
+		SeederThread(int number) {
+			super(THREAD_NAME + number);
+			this.encodedData = new byte[TileEncoder.HEADER_SIZE + Tile.TILE_SIZE_IN_BYTES];
+			this.encoder = TileEncoder.create(STORE_ENCODING);
+			this.pixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+			this.rgbPixels = new int[Tile.TILE_SIZE * Tile.TILE_SIZE];
+		}
+
+		/**
+		 * Encodes a tile like the memory card cache does.
+		 * 
+		 * @param image
+		 *            the image of the tile.
+		 * @return the length of the encoded tile in bytes, including the encoding header.
+		 */
+		private int encodeTile(BufferedImage image) {
+			image.getRGB(0, 0, Tile.TILE_SIZE, Tile.TILE_SIZE, this.rgbPixels, 0,
+					Tile.TILE_SIZE);
+			for (int i = 0, j = 0; i < this.rgbPixels.length; ++i) {
+				int rgb = this.rgbPixels[i];
+				int pixel = ((rgb >> 8) & 0xF800) | ((rgb >> 5) & 0x07E0) | ((rgb >> 3) & 0x1F);
+				// the devices store RGB_565 pixels in little-endian byte order
+				this.pixels[j++] = (byte) pixel;
+				this.pixels[j++] = (byte) (pixel >> 8);
+			}
+
+			return TileEncoder.encodeWithHeader(this.encoder, STORE_ENCODING, this.pixels,
+					this.encodedData);
+		}
+
+		@Override
+		public void run() {
+			for (long position = takePosition(); position >= 0; position = takePosition()) {
+				Tile tile = getTile(position);
+				if (tile != null) {
+					try {
+						BufferedImage image = TileSeeder.this.renderer.renderTile(tile.x,
+								tile.y, tile.zoomLevel);
+						if (TileSeeder.this.store == null) {
+							writeFile(tile, image);
+						} else {
+							writeStoreTile(tile, this.encodedData, encodeTile(image));
+						}
+					} catch (IOException e) {
+						Logger.e(e);
+						abort();
+						break;
+					}
+				}
+				finishPosition(position, tile != null);
+			}
+			this.encoder.destroy();
+		}
+	}
+
+	/**
+	 * Number of finished tiles after which the progress is saved and reported.
+	 */
+	private static final int CHECKPOINT_INTERVAL = 500;
+
+	/**
+	 * Maximum number of tiles per side of the groups in which the tiles are handed out.
+	 */
+	private static final int MAXIMUM_GROUP_SIZE = 16;
+
+	/**
+	 * Name of the file in the output directory which stores the progress.
+	 */
+	private static final String PROGRESS_FILE_NAME = "seeder.progress";
+
+	/**
+	 * Name of the temporary file which is used while the progress is saved.
+	 */
+	private static final String PROGRESS_FILE_NAME_TEMP = "seeder.progress.tmp";
+
+	private static final String PROPERTY_PARAMETERS = "parameters";
+	private static final String PROPERTY_POSITION = "position";
+	private static final String PROPERTY_ZOOM_LEVEL = "zoomLevel";
+
+	/**
+	 * Encoding of the stored tiles. The PNG encoding would require the Android bitmap factory.
+	 */
+	private static final TileCacheEncoding STORE_ENCODING = TileCacheEncoding.RUN_LENGTH;
+
+	private static final String THREAD_NAME = "TileSeeder";
+
+	private static final String USAGE = "usage: TileSeeder <map file> <output directory> "
+			+ "<min latitude> <min longitude> <max latitude> <max longitude> <min zoom> "
+			+ "<max zoom> [-threads <number>] [-store <map file path on the device>]";
+
+	/**
+	 * Starts the tile seeder.
+	 * 
+	 * @param args
+	 *            the command line arguments as described by the usage.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 8) {
+			System.out.println(USAGE);
+			return;
+		}
+
+		TileSeeder tileSeeder;
+		try {
+			int threads = Runtime.getRuntime().availableProcessors();
+			String storeMapFile = null;
+			for (int i = 8; i < args.length; i += 2) {
+				if (i + 1 >= args.length) {
+					System.out.println(USAGE);
+					return;
+				} else if ("-threads".equals(args[i])) {
+					threads = Integer.parseInt(args[i + 1]);
+				} else if ("-store".equals(args[i])) {
+					storeMapFile = args[i + 1];
+				} else {
+					System.out.println(USAGE);
+					return;
+				}
+			}
+			tileSeeder = new TileSeeder(args[0], new File(args[1]), Double.parseDouble(args[2]),
+					Double.parseDouble(args[3]), Double.parseDouble(args[4]), Double
+							.parseDouble(args[5]), Byte.parseByte(args[6]), Byte
+							.parseByte(args[7]), Math.max(threads, 1), storeMapFile);
+		} catch (NumberFormatException e) {
+			System.out.println(USAGE);
+			return;
+		}
+
+		try {
+			tileSeeder.run();
+		} catch (IOException e) {
+			Logger.e(e);
+			System.out.println("seeding failed: " + e.getMessage());
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		}
+	}
+
+	private boolean aborted;
+	private long finishedPosition;
+	private final HashSet<Long> finishedPositionsAhead;
+	private int finishedTiles;
+	private long firstGroupX;
+	private long firstGroupY;
+	private int groupSize;
+	private long groupsPerRow;
+	private final String mapFile;
+	private final double maxLatitude;
+	private final double maxLongitude;
+	private final byte maxZoomLevel;
+	private final double minLatitude;
+	private final double minLongitude;
+	private final byte minZoomLevel;
+	private long nextPosition;
+	private long numberOfPositions;
+	private final File outputDirectory;
+	private final String parameters;
+	private HeadlessMapRenderer renderer;
+	private TileStore store;
+	private LinkedHashMap<MapGeneratorJob, TileStore.Entry> storeEntries;
+	private final String storeMapFile;
+	private final int threads;
+	private long tileBottom;
+	private long tileLeft;
+	private long tileRight;
+	private long tileTop;
+	private byte zoomLevel;
+	private int zoomLevelTiles;
+
+	private TileSeeder(String mapFile, File outputDirectory, double minLatitude,
+			double minLongitude, double maxLatitude, double maxLongitude, byte minZoomLevel,
+			byte maxZoomLevel, int threads, String storeMapFile) {
+		this.mapFile = mapFile;
+		this.outputDirectory = outputDirectory;
+		this.minLatitude = minLatitude;
+		this.minLongitude = minLongitude;
+		this.maxLatitude = maxLatitude;
+		this.maxLongitude = maxLongitude;
+		this.minZoomLevel = minZoomLevel;
+		this.maxZoomLevel = maxZoomLevel;
+		this.threads = threads;
+		this.storeMapFile = storeMapFile;
+		this.finishedPositionsAhead = new HashSet<Long>();
+
+		// a saved progress is only valid for the same parameters
+		this.parameters = mapFile + " " + minLatitude + " " + minLongitude + " " + maxLatitude
+				+ " " + maxLongitude + " " + minZoomLevel + " " + maxZoomLevel + " "
+				+ storeMapFile;
+	}
+
+	/**
+	 * Stops all seeder threads after an error.
+	 */
+	private synchronized void abort() {
+		this.aborted = true;
+	}
+
+	/**
+	 * Deletes the progress file after all tiles have been rendered.
+	 */
+	private void deleteProgress() {
+		File progressFile = new File(this.outputDirectory, PROGRESS_FILE_NAME);
+		if (progressFile.exists() && !progressFile.delete()) {
+			Logger.d("could not delete progress file: " + progressFile);
+		}
+	}
+
+	/**
+	 * Marks a position as finished and advances the finished position as far as all positions
+	 * before it have been finished. The progress is saved regularly.
+	 * 
+	 * @param position
+	 *            the finished position.
+	 * @param tileRendered
+	 *            true if a tile has been rendered at the position, false otherwise.
+	 */
+	private synchronized void finishPosition(long position, boolean tileRendered) {
+		if (position == this.finishedPosition) {
+			++this.finishedPosition;
+			while (this.finishedPositionsAhead.remove(Long.valueOf(this.finishedPosition))) {
+				++this.finishedPosition;
+			}
+		} else {
+			this.finishedPositionsAhead.add(Long.valueOf(position));
+		}
+
+		if (tileRendered) {
+			++this.finishedTiles;
+			++this.zoomLevelTiles;
+			if (this.finishedTiles % CHECKPOINT_INTERVAL == 0) {
+				saveProgress(this.zoomLevel, this.finishedPosition);
+				System.out.println("zoom level " + this.zoomLevel + ": " + this.zoomLevelTiles
+						+ " of " + getNumberOfTiles() + " tiles");
+			}
+		}
+	}
+
+	private long getNumberOfTiles() {
+		return (this.tileRight - this.tileLeft + 1) * (this.tileBottom - this.tileTop + 1);
+	}
+
+	/**
+	 * Returns the tile at the given position of the current zoom level. The positions run
+	 * through the groups row by row and through the tiles of each group row by row.
+	 * 
+	 * @param position
+	 *            the position of the tile.
+	 * @return the tile or null, if the position is outside of the bounding box.
+	 */
+	private Tile getTile(long position) {
+		long tilesPerGroup = (long) this.groupSize * this.groupSize;
+		long group = position / tilesPerGroup;
+		long tileInGroup = position % tilesPerGroup;
+		long tileX = (this.firstGroupX + group % this.groupsPerRow) * this.groupSize
+				+ tileInGroup % this.groupSize;
+		long tileY = (this.firstGroupY + group / this.groupsPerRow) * this.groupSize
+				+ tileInGroup / this.groupSize;
+		if (tileX < this.tileLeft || tileX > this.tileRight || tileY < this.tileTop
+				|| tileY > this.tileBottom) {
+			return null;
+		}
+		return new Tile(tileX, tileY, this.zoomLevel);
+	}
+
+	/**
+	 * Reads the saved progress, if it belongs to the same parameters.
+	 * 
+	 * @return the saved progress or null, if no valid progress has been saved.
+	 */
+	private Properties readProgress() {
+		File progressFile = new File(this.outputDirectory, PROGRESS_FILE_NAME);
+		if (!progressFile.exists()) {
+			return null;
+		}
+		Properties progress = new Properties();
+		InputStream inputStream = null;
+		try {
+			inputStream = new FileInputStream(progressFile);
+			progress.load(inputStream);
+		} catch (IOException e) {
+			Logger.e(e);
+			return null;
+		} finally {
+			if (inputStream != null) {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+					Logger.e(e);
+				}
+			}
+		}
+		if (!this.parameters.equals(progress.getProperty(PROPERTY_PARAMETERS))) {
+			return null;
+		}
+		return progress;
+	}
+
+	/**
+	 * Renders all tiles of the bounding box and prints the timings of all zoom levels.
+	 * 
+	 * @throws IOException
+	 *             if the output directory or the tile store cannot be opened.
+	 */
+	private void run() throws IOException {
+		if (!this.outputDirectory.isDirectory() && !this.outputDirectory.mkdirs()) {
+			throw new IOException("cannot create output directory: " + this.outputDirectory);
+		}
+		this.renderer = new HeadlessMapRenderer(this.mapFile);
+		if (this.minZoomLevel < 0 || this.maxZoomLevel > this.renderer.getMaxZoomLevel()
+				|| this.minZoomLevel > this.maxZoomLevel) {
+			this.renderer.destroy();
+			throw new IllegalArgumentException("invalid zoom level range: " + this.minZoomLevel
+					+ " - " + this.maxZoomLevel);
+		}
+		if (this.storeMapFile != null) {
+			// the map file is copied to the device, so its keys take the version of the input file
+			this.store = new TileStore(this.outputDirectory, this.storeMapFile, TileStore
+					.readMapFileVersion(this.mapFile));
+			this.storeEntries = this.store.getEntries();
+		}
+
+		// continue an interrupted run with the same parameters
+		byte startZoomLevel = this.minZoomLevel;
+		long startPosition = 0;
+		Properties progress = readProgress();
+		if (progress != null) {
+			startZoomLevel = Byte.parseByte(progress.getProperty(PROPERTY_ZOOM_LEVEL));
+			startPosition = Long.parseLong(progress.getProperty(PROPERTY_POSITION));
+			System.out.println("resuming at zoom level " + startZoomLevel + ", position "
+					+ startPosition);
+		}
+
+		StringBuilder report = new StringBuilder();
+		long startTime = System.currentTimeMillis();
+		for (byte zoom = startZoomLevel; zoom <= this.maxZoomLevel && !this.aborted; ++zoom) {
+			long zoomLevelStartTime = System.currentTimeMillis();
+			runZoomLevel(zoom, zoom == startZoomLevel ? startPosition : 0);
+			long zoomLevelTime = System.currentTimeMillis() - zoomLevelStartTime;
+			report.append("zoom level " + zoom + ": " + this.zoomLevelTiles + " tiles, "
+					+ zoomLevelTime + " ms, " + this.zoomLevelTiles * 1000L
+					/ Math.max(zoomLevelTime, 1) + " tiles/s\n");
+		}
+		long totalTime = System.currentTimeMillis() - startTime;
+
+		if (this.aborted) {
+			// keep the last saved progress to resume the run
+			saveProgress(this.zoomLevel, this.finishedPosition);
+		} else {
+			deleteProgress();
+		}
+		if (this.store != null) {
+			this.store.close(this.storeEntries);
+		}
+		this.renderer.destroy();
+
+		System.out.print(report);
+		System.out.println("total: " + this.finishedTiles + " tiles, " + totalTime + " ms, "
+				+ this.finishedTiles * 1000L / Math.max(totalTime, 1) + " tiles/s"
+				+ (this.aborted ? ", aborted" : ""));
+	}
+
+	/**
+	 * Renders all tiles of the bounding box at the given zoom level with the seeder threads.
+	 * 
+	 * @param zoom
+	 *            the zoom level.
+	 * @param startPosition
+	 *            the first position which has not been finished before.
+	 */
+	private void runZoomLevel(byte zoom, long startPosition) {
+		synchronized (this) {
+			this.zoomLevel = zoom;
+			this.zoomLevelTiles = 0;
+			long maxTileNumber = (1L << zoom) - 1;
+			this.tileLeft = Math.max(0, Math.min(MercatorProjection.longitudeToTileX(
+					this.minLongitude, zoom), maxTileNumber));
+			this.tileRight = Math.max(0, Math.min(MercatorProjection.longitudeToTileX(
+					this.maxLongitude, zoom), maxTileNumber));
+			this.tileTop = Math.max(0, Math.min(MercatorProjection.latitudeToTileY(
+					this.maxLatitude, zoom), maxTileNumber));
+			this.tileBottom = Math.max(0, Math.min(MercatorProjection.latitudeToTileY(
+					this.minLatitude, zoom), maxTileNumber));
+
+			// align the groups to the blocks of the map file
+			int zoomLevelDifference = zoom - this.renderer.getBaseZoomLevel(zoom);
+			if (zoomLevelDifference <= 0) {
+				this.groupSize = 1;
+			} else {
+				this.groupSize = (int) Math.min(1L << zoomLevelDifference, MAXIMUM_GROUP_SIZE);
+			}
+			this.firstGroupX = this.tileLeft / this.groupSize;
+			this.firstGroupY = this.tileTop / this.groupSize;
+			this.groupsPerRow = this.tileRight / this.groupSize - this.firstGroupX + 1;
+			this.numberOfPositions = this.groupsPerRow
+					* (this.tileBottom / this.groupSize - this.firstGroupY + 1) * this.groupSize
+					* this.groupSize;
+			this.nextPosition = startPosition;
+			this.finishedPosition = startPosition;
+			this.finishedPositionsAhead.clear();
+		}
+
+		SeederThread[] seederThreads = new SeederThread[this.threads];
+		for (int i = 0; i < seederThreads.length; ++i) {
+			seederThreads[i] = new SeederThread(i);
+			seederThreads[i].start();
+		}
+		for (SeederThread seederThread : seederThreads) {
+			try {
+				seederThread.join();
+			} catch (InterruptedException e) {
+				Logger.e(e);
+				abort();
+			}
+		}
+
+		if (!this.aborted && this.zoomLevel < this.maxZoomLevel) {
+			saveProgress((byte) (this.zoomLevel + 1), 0);
+		}
+	}
+
+	/**
+	 * Saves the progress. All positions before the given position have been finished.
+	 * 
+	 * @param zoom
+	 *            the current zoom level.
+	 * @param position
+	 *            the first position which has not been finished.
+	 */
+	private synchronized void saveProgress(byte zoom, long position) {
+		if (this.store != null) {
+			// the journal must contain all stored tiles before they are skipped
+			try {
+				synchronized (this.store) {
+					byte[] journal = this.store.takeJournal();
+					if (journal != null) {
+						this.store.writeJournal(journal);
+					}
+				}
+			} catch (IOException e) {
+				Logger.e(e);
+				return;
+			}
+		}
+
+		Properties progress = new Properties();
+		progress.setProperty(PROPERTY_PARAMETERS, this.parameters);
+		progress.setProperty(PROPERTY_ZOOM_LEVEL, Byte.toString(zoom));
+		progress.setProperty(PROPERTY_POSITION, Long.toString(position));
+		File tempFile = new File(this.outputDirectory, PROGRESS_FILE_NAME_TEMP);
+		File progressFile = new File(this.outputDirectory, PROGRESS_FILE_NAME);
+		try {
+			OutputStream outputStream = new FileOutputStream(tempFile);
+			try {
+				progress.store(outputStream, null);
+			} finally {
+				outputStream.close();
+			}
+			if (!tempFile.renameTo(progressFile)) {
+				// some file systems cannot replace an existing file
+				if (!progressFile.delete() || !tempFile.renameTo(progressFile)) {
+					Logger.d("could not save progress file: " + progressFile);
+				}
+			}
+		} catch (IOException e) {
+			Logger.e(e);
+		}
+	}
+
+	/**
+	 * Hands out the next position of the current zoom level.
+	 * 
+	 * @return the next position or -1, if all positions have been handed out or the run has
+	 *         been aborted.
+	 */
+	private synchronized long takePosition() {
+		if (this.aborted || this.nextPosition >= this.numberOfPositions) {
+			return -1;
+		}
+		return this.nextPosition++;
+	}
+
+	/**
+	 * Writes a tile as PNG file into the output directory.
+	 * 
+	 * @param tile
+	 *            the tile.
+	 * @param image
+	 *            the image of the tile.
+	 * @throws IOException
+	 *             if the file cannot be written.
+	 */
+	private void writeFile(Tile tile, BufferedImage image) throws IOException {
+		File directory = new File(this.outputDirectory, tile.zoomLevel + File.separator
+				+ tile.x);
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("cannot create directory: " + directory);
+		}
+		File file = new File(directory, tile.y + ".png");
+		if (!ImageIO.write(image, "png", file)) {
+			throw new IOException("cannot write tile: " + file);
+		}
+	}
+
+	/**
+	 * Writes an encoded tile into the tile store. If the tile has been stored before, its
+	 * previous extent is released and the journal is written at once, so that the extent is
+	 * not overwritten before the journal records the new extent.
+	 * 
+	 * @param tile
+	 *            the tile.
+	 * @param data
+	 *            the encoded tile with its encoding header.
+	 * @param length
+	 *            the length of the encoded tile in bytes.
+	 * @throws IOException
+	 *             if the tile or the journal cannot be written.
+	 */
+	private void writeStoreTile(Tile tile, byte[] data, int length) throws IOException {
+		MapGeneratorJob mapGeneratorJob = new MapGeneratorJob(tile,
+				MapViewMode.CANVAS_RENDERER, this.storeMapFile, false);
+		synchronized (this.store) {
+			long offset = this.store.allocate(length);
+			this.store.write(ByteBuffer.wrap(data, 0, length), offset);
+
+			TileStore.Entry entry = this.storeEntries.get(mapGeneratorJob);
+			boolean extentReleased = false;
+			if (entry == null) {
+				entry = new TileStore.Entry();
+				this.storeEntries.put(mapGeneratorJob, entry);
+			} else if (entry.offset >= 0) {
+				this.store.release(entry.offset, entry.length);
+				extentReleased = true;
+			}
+			entry.offset = offset;
+			entry.length = length;
+			this.store.recordPut(mapGeneratorJob, entry);
+			if (extentReleased) {
+				this.store.writeJournal(this.store.takeJournal());
+			}
+		}
+	}
+}
@@ -0,0 +1,715 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A packed store for map images in a single data file. The data of each image is written to
+ * an extent of the data file and an index file records the offset and the length of each
+ * extent. The index file is a journal which is replayed and compacted when the store is
+ * opened, so that the stored images survive a restart of the application. Extents of removed
+ * images are reused for new images, new extents are appended to the end of the data file.
+ * <p>
+ * The key of each image in the index file includes the length of its map file and the date
+ * of the map data from the file header. Unlike the modification time, both survive copying the
+ * map file, so that a store which has been filled on another computer for the path of the map
+ * file on the device stays valid. Images of a map file which has been replaced by another
+ * version under the same path are dropped when the index file is replayed.
+ * <p>
+ * The store is not thread-safe. Only {@link #read(Entry, ByteBuffer)},
+ * {@link #write(ByteBuffer, long)}, {@link #writeJournal(byte[])} and
+ * {@link #replaceIndex(byte[])} may be called concurrently to the other methods. Records are
+ * added to the journal in memory and must be written to the index file before a released
+ * extent is overwritten.
+ */
+class TileStore {
+	/**
+	 * This class holds the offset and the length of the stored data of an image.
+	 */
+	static class Entry {
+		int length;
+		long offset;
+
+		/**
+		 * Constructs a new entry for an image which has not been stored yet.
+		 */
+		Entry() {
+			this.offset = -1;
+		}
+
+		/**
+		 * Constructs a new entry for an image which has been stored in the given extent.
+		 * 
+		 * @param offset
+		 *            the offset of the extent in the data file.
+		 * @param length
+		 *            the length of the extent in bytes.
+		 */
+		Entry(long offset, int length) {
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Name of the data file.
+	 */
+	private static final String DATA_FILE_NAME = "tiles.dat";
+
+	/**
+	 * Name of the index file.
+	 */
+	private static final String INDEX_FILE_NAME = "tiles.idx";
+
+	/**
+	 * Name of the temporary file which is used while the index file is compacted.
+	 */
+	private static final String INDEX_FILE_NAME_TEMP = "tiles.idx.tmp";
+
+	/**
+	 * Magic number at the beginning of the index file.
+	 */
+	private static final int INDEX_MAGIC = 0x6D667473;
+
+	/**
+	 * Version of the index file format.
+	 */
+	private static final byte INDEX_VERSION = 4;
+
+	/**
+	 * File extension of the image files of earlier versions, which are deleted.
+	 */
+	private static final String LEGACY_FILE_EXTENSION = ".tile";
+
+	/**
+	 * Minimum number of records in the index file before it is compacted while the store is
+	 * open.
+	 */
+	private static final int MINIMUM_RECORDS_FOR_COMPACTION = 4096;
+
+	/**
+	 * Journal record which stores the extent of an image.
+	 */
+	private static final byte RECORD_PUT = 1;
+
+	/**
+	 * Journal record which removes an image.
+	 */
+	private static final byte RECORD_REMOVE = 2;
+
+	/**
+	 * Returns the version of a map file, which consists of its length and the date of its map
+	 * data.
+	 *
+	 * @param mapFile
+	 *            the path of the map file.
+	 * @return the length and the map date of the map file, zero and -1 if the file does not
+	 *         exist.
+	 */
+	static long[] readMapFileVersion(String mapFile) {
+		return new long[] { new File(mapFile).length(), MapDatabase.readMapDate(mapFile) };
+	}
+
+	private FileChannel dataChannel;
+	private RandomAccessFile dataFile;
+	private long dataLength;
+	private final File directory;
+	private LinkedHashMap<MapGeneratorJob, Entry> entries;
+	private final TreeMap<Long, Integer> freeExtents;
+	private FileOutputStream indexOutputStream;
+	private final ByteArrayOutputStream journal;
+	private final DataOutputStream journalStream;
+	private final HashMap<String, long[]> mapFileVersions;
+	private int numberOfRecords;
+
+	/**
+	 * Opens the store in the given directory and replays its index file.
+	 * 
+	 * @param directory
+	 *            the directory of the data file and the index file.
+	 * @throws IOException
+	 *             if the data file or the index file cannot be opened.
+	 */
+	TileStore(File directory) throws IOException {
+		this(directory, null, null);
+	}
+
+	/**
+	 * Opens the store in the given directory for images of a map file which does not exist
+	 * under its path on this computer, and replays its index file.
+	 * 
+	 * @param directory
+	 *            the directory of the data file and the index file.
+	 * @param mapFile
+	 *            the path of the map file in the keys of the images.
+	 * @param mapFileVersion
+	 *            the version of the map file, as returned by {@link #readMapFileVersion}.
+	 * @throws IOException
+	 *             if the data file or the index file cannot be opened.
+	 */
+	TileStore(File directory, String mapFile, long[] mapFileVersion) throws IOException {
+		this.directory = directory;
+		this.freeExtents = new TreeMap<Long, Integer>();
+		this.journal = new ByteArrayOutputStream();
+		this.journalStream = new DataOutputStream(this.journal);
+		this.mapFileVersions = new HashMap<String, long[]>();
+		if (mapFile != null) {
+			this.mapFileVersions.put(mapFile, mapFileVersion);
+		}
+		deleteLegacyFiles();
+
+		this.entries = readIndex();
+		this.dataFile = new RandomAccessFile(new File(this.directory, DATA_FILE_NAME), "rw");
+		this.dataChannel = this.dataFile.getChannel();
+		long fileLength = this.dataFile.length();
+
+		// drop all entries whose data is not completely contained in the data file
+		ArrayList<Entry> sortedEntries = new ArrayList<Entry>(this.entries.size());
+		Iterator<Entry> iterator = this.entries.values().iterator();
+		while (iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.offset < 0 || entry.length <= 0
+					|| entry.offset + entry.length > fileLength) {
+				iterator.remove();
+			} else {
+				sortedEntries.add(entry);
+			}
+		}
+
+		// release the gaps between the stored images and truncate the data file
+		Collections.sort(sortedEntries, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry entry1, Entry entry2) {
+				if (entry1.offset < entry2.offset) {
+					return -1;
+				} else if (entry1.offset > entry2.offset) {
+					return 1;
+				}
+				return 0;
+			}
+		});
+		for (Entry entry : sortedEntries) {
+			if (entry.offset > this.dataLength) {
+				this.freeExtents.put(Long.valueOf(this.dataLength), Integer
+						.valueOf((int) (entry.offset - this.dataLength)));
+			}
+			this.dataLength = Math.max(this.dataLength, entry.offset + entry.length);
+		}
+		this.dataChannel.truncate(this.dataLength);
+
+		// compact the journal and append all further records to it
+		writeIndexFile(serializeIndex(this.entries));
+		this.indexOutputStream = new FileOutputStream(new File(this.directory,
+				INDEX_FILE_NAME), true);
+	}
+
+	/**
+	 * Deletes the image files which have been created by earlier versions of the cache.
+	 */
+	private void deleteLegacyFiles() {
+		File[] files = this.directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.getName().endsWith(LEGACY_FILE_EXTENSION) && !file.delete()) {
+					file.deleteOnExit();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the version of a map file. The version is determined when the map file is used
+	 * for the first time, so that all images which are stored while the store is open refer to
+	 * the same version.
+	 * 
+	 * @param mapFile
+	 *            the path of the map file.
+	 * @return the version of the map file.
+	 */
+	private long[] getMapFileVersion(String mapFile) {
+		long[] mapFileVersion = this.mapFileVersions.get(mapFile);
+		if (mapFileVersion == null) {
+			mapFileVersion = readMapFileVersion(mapFile);
+			this.mapFileVersions.put(mapFile, mapFileVersion);
+		}
+		return mapFileVersion;
+	}
+
+	/**
+	 * Replays the index file. Records after a damaged or incomplete record are ignored.
+	 * 
+	 * @return the stored images in the order in which they have been stored.
+	 */
+	private LinkedHashMap<MapGeneratorJob, Entry> readIndex() {
+		LinkedHashMap<MapGeneratorJob, Entry> replayed;
+		replayed = new LinkedHashMap<MapGeneratorJob, Entry>();
+		File indexFile = new File(this.directory, INDEX_FILE_NAME);
+		if (!indexFile.exists()) {
+			return replayed;
+		}
+
+		DataInputStream inputStream = null;
+		try {
+			inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(
+					indexFile)));
+			if (inputStream.readInt() != INDEX_MAGIC || inputStream.readByte() != INDEX_VERSION) {
+				Logger.d("unsupported index file: " + indexFile);
+				return replayed;
+			}
+			while (true) {
+				byte recordType = inputStream.readByte();
+				if (recordType == RECORD_PUT) {
+					MapGeneratorJob mapGeneratorJob = readKey(inputStream);
+					Entry entry = new Entry(inputStream.readLong(), inputStream.readInt());
+					if (mapGeneratorJob != null) {
+						// move the image to the end of the order
+						replayed.remove(mapGeneratorJob);
+						replayed.put(mapGeneratorJob, entry);
+					}
+				} else if (recordType == RECORD_REMOVE) {
+					replayed.remove(readKey(inputStream));
+				} else {
+					Logger.d("invalid record in index file: " + recordType);
+					break;
+				}
+			}
+		} catch (EOFException e) {
+			// all complete records have been read
+		} catch (IOException e) {
+			Logger.e(e);
+		} finally {
+			if (inputStream != null) {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+					Logger.e(e);
+				}
+			}
+		}
+		return replayed;
+	}
+
+	/**
+	 * Reads the key of an image from the index file.
+	 * 
+	 * @param inputStream
+	 *            the stream of the index file.
+	 * @return the key or null, if the key is not valid anymore.
+	 * @throws IOException
+	 *             if an error occurs while reading the index file.
+	 */
+	private MapGeneratorJob readKey(DataInputStream inputStream) throws IOException {
+		String mapViewModeName = inputStream.readUTF();
+		String mapFile = null;
+		long mapFileLength = 0;
+		long mapDate = 0;
+		if (inputStream.readBoolean()) {
+			mapFile = inputStream.readUTF();
+			mapFileLength = inputStream.readLong();
+			mapDate = inputStream.readLong();
+		}
+		boolean drawTileFrames = inputStream.readBoolean();
+		long tileX = inputStream.readLong();
+		long tileY = inputStream.readLong();
+		byte zoomLevel = inputStream.readByte();
+		if (mapFile != null) {
+			long[] mapFileVersion = getMapFileVersion(mapFile);
+			if (mapFileVersion[0] != mapFileLength || mapFileVersion[1] != mapDate) {
+				// the image has been rendered from another version of the map file
+				return null;
+			}
+		}
+		try {
+			return new MapGeneratorJob(new Tile(tileX, tileY, zoomLevel), MapViewMode
+					.valueOf(mapViewModeName), mapFile, drawTileFrames);
+		} catch (IllegalArgumentException e) {
+			// the MapViewMode does not exist anymore
+			return null;
+		}
+	}
+
+	/**
+	 * Serializes a compacted index with one record for each stored image and sets the number
+	 * of records in the index file accordingly.
+	 * 
+	 * @param storedEntries
+	 *            the stored images in the order in which they should be replayed.
+	 * @return the serialized index.
+	 */
+	private byte[] serializeIndex(Map<MapGeneratorJob, Entry> storedEntries) {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		DataOutputStream outputStream = new DataOutputStream(byteArrayOutputStream);
+		this.numberOfRecords = 0;
+		try {
+			outputStream.writeInt(INDEX_MAGIC);
+			outputStream.writeByte(INDEX_VERSION);
+			for (Map.Entry<MapGeneratorJob, Entry> entry : storedEntries.entrySet()) {
+				if (entry.getValue().offset >= 0) {
+					writePutRecord(outputStream, entry.getKey(), entry.getValue());
+					++this.numberOfRecords;
+				}
+			}
+		} catch (IOException e) {
+			// cannot happen with a ByteArrayOutputStream
+			Logger.e(e);
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	/**
+	 * Writes a new index file and replaces the current index file with it.
+	 * 
+	 * @param index
+	 *            the serialized index.
+	 * @throws IOException
+	 *             if the index file cannot be written.
+	 */
+	private void writeIndexFile(byte[] index) throws IOException {
+		File tempFile = new File(this.directory, INDEX_FILE_NAME_TEMP);
+		FileOutputStream outputStream = new FileOutputStream(tempFile, false);
+		try {
+			outputStream.write(index);
+		} finally {
+			outputStream.close();
+		}
+
+		File indexFile = new File(this.directory, INDEX_FILE_NAME);
+		if (!tempFile.renameTo(indexFile)) {
+			// some file systems cannot replace an existing file
+			if (!indexFile.delete() || !tempFile.renameTo(indexFile)) {
+				throw new IOException("cannot replace index file: " + indexFile);
+			}
+		}
+	}
+
+	/**
+	 * Writes the key of an image to the index file.
+	 * 
+	 * @param outputStream
+	 *            the stream of the index file.
+	 * @param mapGeneratorJob
+	 *            the key of the image.
+	 * @throws IOException
+	 *             if an error occurs while writing the index file.
+	 */
+	private void writeKey(DataOutputStream outputStream, MapGeneratorJob mapGeneratorJob)
+			throws IOException {
+		outputStream.writeUTF(mapGeneratorJob.mapViewMode.name());
+		outputStream.writeBoolean(mapGeneratorJob.mapFile != null);
+		if (mapGeneratorJob.mapFile != null) {
+			long[] mapFileVersion = getMapFileVersion(mapGeneratorJob.mapFile);
+			outputStream.writeUTF(mapGeneratorJob.mapFile);
+			outputStream.writeLong(mapFileVersion[0]);
+			outputStream.writeLong(mapFileVersion[1]);
+		}
+		outputStream.writeBoolean(mapGeneratorJob.drawTileFrames);
+		outputStream.writeLong(mapGeneratorJob.tile.x);
+		outputStream.writeLong(mapGeneratorJob.tile.y);
+		outputStream.writeByte(mapGeneratorJob.tile.zoomLevel);
+	}
+
+	/**
+	 * Writes a record which stores the extent of an image to the index file.
+	 * 
+	 * @param outputStream
+	 *            the stream of the index file.
+	 * @param mapGeneratorJob
+	 *            the key of the image.
+	 * @param entry
+	 *            the extent of the image.
+	 * @throws IOException
+	 *             if an error occurs while writing the index file.
+	 */
+	private void writePutRecord(DataOutputStream outputStream, MapGeneratorJob mapGeneratorJob,
+			Entry entry) throws IOException {
+		outputStream.writeByte(RECORD_PUT);
+		writeKey(outputStream, mapGeneratorJob);
+		outputStream.writeLong(entry.offset);
+		outputStream.writeInt(entry.length);
+	}
+
+	/**
+	 * Allocates an extent for the data of an image. The smallest released extent which is
+	 * large enough is reused, otherwise the extent is appended to the data file.
+	 * 
+	 * @param length
+	 *            the length of the data in bytes.
+	 * @return the offset of the extent in the data file.
+	 */
+	long allocate(int length) {
+		Long bestOffset = null;
+		int bestLength = Integer.MAX_VALUE;
+		for (Map.Entry<Long, Integer> freeExtent : this.freeExtents.entrySet()) {
+			int freeLength = freeExtent.getValue().intValue();
+			if (freeLength >= length && freeLength < bestLength) {
+				bestOffset = freeExtent.getKey();
+				bestLength = freeLength;
+				if (freeLength == length) {
+					break;
+				}
+			}
+		}
+
+		if (bestOffset == null) {
+			long offset = this.dataLength;
+			this.dataLength += length;
+			return offset;
+		}
+		this.freeExtents.remove(bestOffset);
+		if (bestLength > length) {
+			// keep the remaining part of the extent
+			this.freeExtents.put(Long.valueOf(bestOffset.longValue() + length), Integer
+					.valueOf(bestLength - length));
+		}
+		return bestOffset.longValue();
+	}
+
+	/**
+	 * Closes the store and replaces the index file with one record for each stored image.
+	 * 
+	 * @param storedEntries
+	 *            the stored images in the order in which they should be replayed.
+	 */
+	void close(Map<MapGeneratorJob, Entry> storedEntries) {
+		try {
+			this.indexOutputStream.close();
+			writeIndexFile(serializeIndex(storedEntries));
+		} catch (IOException e) {
+			Logger.e(e);
+		}
+		try {
+			this.dataFile.close();
+		} catch (IOException e) {
+			Logger.e(e);
+		}
+		this.freeExtents.clear();
+	}
+
+	/**
+	 * Returns the images which have been found in the index file when the store was opened.
+	 * The returned map is owned by the caller, the store does not keep a reference to it.
+	 * 
+	 * @return the stored images in the order in which they have been stored.
+	 */
+	LinkedHashMap<MapGeneratorJob, Entry> getEntries() {
+		LinkedHashMap<MapGeneratorJob, Entry> storedEntries = this.entries;
+		this.entries = null;
+		return storedEntries;
+	}
+
+	/**
+	 * @param numberOfEntries
+	 *            the number of images which are currently stored.
+	 * @return true if the index file should be compacted, false otherwise.
+	 */
+	boolean needsCompaction(int numberOfEntries) {
+		return this.numberOfRecords > MINIMUM_RECORDS_FOR_COMPACTION + 2 * numberOfEntries;
+	}
+
+	/**
+	 * Reads the data of an image into the given buffer. After reading, the position of the
+	 * buffer is zero and its limit is the length of the data.
+	 * 
+	 * @param entry
+	 *            the extent of the image.
+	 * @param buffer
+	 *            the buffer whose capacity must not be less than the length of the data.
+	 * @return true if the data has been read completely, false otherwise.
+	 * @throws IOException
+	 *             if an error occurs while reading the data file.
+	 */
+	boolean read(Entry entry, ByteBuffer buffer) throws IOException {
+		if (entry.offset < 0 || entry.length > buffer.capacity()) {
+			return false;
+		}
+		buffer.clear();
+		buffer.limit(entry.length);
+		while (buffer.hasRemaining()) {
+			if (this.dataChannel.read(buffer, entry.offset + buffer.position()) < 0) {
+				return false;
+			}
+		}
+		buffer.flip();
+		return true;
+	}
+
+	/**
+	 * Adds a record to the journal which stores the extent of an image.
+	 * 
+	 * @param mapGeneratorJob
+	 *            the key of the image.
+	 * @param entry
+	 *            the extent of the image.
+	 */
+	void recordPut(MapGeneratorJob mapGeneratorJob, Entry entry) {
+		try {
+			writePutRecord(this.journalStream, mapGeneratorJob, entry);
+			++this.numberOfRecords;
+		} catch (IOException e) {
+			Logger.e(e);
+		}
+	}
+
+	/**
+	 * Adds a record to the journal which removes an image.
+	 * 
+	 * @param mapGeneratorJob
+	 *            the key of the image.
+	 */
+	void recordRemove(MapGeneratorJob mapGeneratorJob) {
+		try {
+			this.journalStream.writeByte(RECORD_REMOVE);
+			writeKey(this.journalStream, mapGeneratorJob);
+			++this.numberOfRecords;
+		} catch (IOException e) {
+			Logger.e(e);
+		}
+	}
+
+	/**
+	 * Releases an extent of the data file, so that it can be reused for other images. The
+	 * released extent is merged with adjacent released extents.
+	 * 
+	 * @param offset
+	 *            the offset of the extent.
+	 * @param length
+	 *            the length of the extent in bytes.
+	 */
+	void release(long offset, int length) {
+		long start = offset;
+		long end = offset + length;
+
+		// merge with the released extent before and after
+		SortedMap<Long, Integer> headMap = this.freeExtents.headMap(Long.valueOf(start));
+		if (!headMap.isEmpty()) {
+			Long previousOffset = headMap.lastKey();
+			if (previousOffset.longValue() + headMap.get(previousOffset).intValue() == start) {
+				start = previousOffset.longValue();
+				this.freeExtents.remove(previousOffset);
+			}
+		}
+		Integer nextLength = this.freeExtents.remove(Long.valueOf(end));
+		if (nextLength != null) {
+			end += nextLength.intValue();
+		}
+
+		if (end == this.dataLength) {
+			// shrink the used part of the data file
+			this.dataLength = start;
+		} else {
+			this.freeExtents.put(Long.valueOf(start), Integer.valueOf((int) (end - start)));
+		}
+	}
+
+	/**
+	 * Replaces the index file with a compacted index. Further records are appended to the new
+	 * index file.
+	 * 
+	 * @param index
+	 *            the index which has been returned by {@link #takeIndex(Map)}.
+	 * @throws IOException
+	 *             if the index file cannot be replaced.
+	 */
+	void replaceIndex(byte[] index) throws IOException {
+		this.indexOutputStream.close();
+		try {
+			writeIndexFile(index);
+		} finally {
+			this.indexOutputStream = new FileOutputStream(new File(this.directory,
+					INDEX_FILE_NAME), true);
+		}
+	}
+
+	/**
+	 * Serializes a compacted index of the given images and clears the journal in memory, as
+	 * its records are contained in the compacted index.
+	 * 
+	 * @param storedEntries
+	 *            the stored images in the order in which they should be replayed.
+	 * @return the serialized index.
+	 */
+	byte[] takeIndex(Map<MapGeneratorJob, Entry> storedEntries) {
+		this.journal.reset();
+		return serializeIndex(storedEntries);
+	}
+
+	/**
+	 * Returns the records which have been added to the journal since the last call and clears
+	 * the journal in memory.
+	 * 
+	 * @return the records or null, if the journal is empty.
+	 */
+	byte[] takeJournal() {
+		if (this.journal.size() == 0) {
+			return null;
+		}
+		byte[] records = this.journal.toByteArray();
+		this.journal.reset();
+		return records;
+	}
+
+	/**
+	 * Writes the data of an image to the data file.
+	 * 
+	 * @param buffer
+	 *            the buffer whose remaining bytes are the data of the image.
+	 * @param offset
+	 *            the offset of the allocated extent.
+	 * @throws IOException
+	 *             if an error occurs while writing the data file.
+	 */
+	void write(ByteBuffer buffer, long offset) throws IOException {
+		ByteBuffer source = buffer.duplicate();
+		long position = offset;
+		while (source.hasRemaining()) {
+			position += this.dataChannel.write(source, position);
+		}
+	}
+
+	/**
+	 * Appends records to the index file.
+	 * 
+	 * @param records
+	 *            the records which have been returned by {@link #takeJournal()}.
+	 * @throws IOException
+	 *             if an error occurs while writing the index file.
+	 */
+	void writeJournal(byte[] records) throws IOException {
+		this.indexOutputStream.write(records);
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache for the triangulations of filled polygons. The polygons are identified by their
+ * coordinates, which are relative to the tile and depend on the zoom level, so a polygon which
+ * is rendered again for the same tile never needs to be triangulated again. The cache is
+ * limited by the total number of cached coordinates and removes the least recently used
+ * polygons first.
+ */
+class TriangleCache {
+	/**
+	 * The key of a polygon in the cache, which compares the coordinates of all rings.
+	 */
+	private static class PolygonKey {
+		final float[][] coordinates;
+		private final int hashCode;
+
+		PolygonKey(float[][] coordinates) {
+			this.coordinates = coordinates;
+			this.hashCode = Arrays.deepHashCode(coordinates);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (!(obj instanceof PolygonKey)) {
+				return false;
+			}
+			PolygonKey other = (PolygonKey) obj;
+			return this.hashCode == other.hashCode
+					&& Arrays.deepEquals(this.coordinates, other.coordinates);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		int getNumberOfCoordinates() {
+			int numberOfCoordinates = 0;
+			for (int i = 0; i < this.coordinates.length; ++i) {
+				numberOfCoordinates += this.coordinates[i].length;
+			}
+			return numberOfCoordinates;
+		}
+	}
+
+	private static final int INITIAL_CAPACITY = 256;
+	private static final float LOAD_FACTOR = 0.6f;
+
+	/**
+	 * Maximum number of polygon and triangle coordinates in the cache.
+	 */
+	private static final int MAXIMUM_CACHED_COORDINATES = 1 << 19;
+
+	private final LinkedHashMap<PolygonKey, float[]> map;
+	private int numberOfCachedCoordinates;
+	private final PolygonTriangulation polygonTriangulation;
+
+	/**
+	 * Constructs a new empty TriangleCache.
+	 */
+	TriangleCache() {
+		this.map = new LinkedHashMap<PolygonKey, float[]>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+		this.polygonTriangulation = new PolygonTriangulation();
+	}
+
+	/**
+	 * Removes all polygons from the cache.
+	 */
+	void clear() {
+		this.map.clear();
+		this.numberOfCachedCoordinates = 0;
+	}
+
+	/**
+	 * Returns the triangulation of the given polygon. The polygon is triangulated and added to
+	 * the cache if necessary.
+	 * 
+	 * @param coordinates
+	 *            the outer ring of the polygon followed by the rings of all holes, each with x
+	 *            and y coordinates alternating.
+	 * @return the coordinates of all triangle vertices, x and y alternating.
+	 */
+	float[] getTriangles(float[][] coordinates) {
+		float[] triangles = this.map.get(new PolygonKey(coordinates));
+		if (triangles != null) {
+			return triangles;
+		}
+
+		triangles = this.polygonTriangulation.triangulate(coordinates);
+
+		// copy the coordinates, as the original arrays may be changed by the caller
+		float[][] copiedCoordinates = new float[coordinates.length][];
+		for (int i = 0; i < coordinates.length; ++i) {
+			copiedCoordinates[i] = coordinates[i].clone();
+		}
+		PolygonKey polygonKey = new PolygonKey(copiedCoordinates);
+		this.map.put(polygonKey, triangles);
+		this.numberOfCachedCoordinates += polygonKey.getNumberOfCoordinates() + triangles.length;
+
+		// remove the least recently used polygons if the cache is too big
+		Iterator<Map.Entry<PolygonKey, float[]>> iterator = this.map.entrySet().iterator();
+		while (this.numberOfCachedCoordinates > MAXIMUM_CACHED_COORDINATES && iterator.hasNext()) {
+			Map.Entry<PolygonKey, float[]> eldest = iterator.next();
+			if (eldest.getKey() == polygonKey) {
+				// keep the polygon which has just been added
+				break;
+			}
+			this.numberOfCachedCoordinates -= eldest.getKey().getNumberOfCoordinates()
+					+ eldest.getValue().length;
+			iterator.remove();
+		}
+		return triangles;
+	}
+}
@@ -16,14 +16,12 @@
  */
 package org.mapsforge.android.maps;
 
-import android.graphics.Paint;
-
 class WayTextContainer {
 	final float[] coordinates;
-	final Paint paint;
+	final RenderStyle paint;
 	final String text;
 
-	WayTextContainer(float[] coordinates, String text, Paint paint) {
+	WayTextContainer(float[] coordinates, String text, RenderStyle paint) {
 		this.coordinates = coordinates;
 		this.text = text;
 		this.paint = paint;
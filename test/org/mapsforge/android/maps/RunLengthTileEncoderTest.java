@@ -0,0 +1,151 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Junit tests for the run-length encoding of map images.
+ */
+public class RunLengthTileEncoderTest {
+	private static final int ROW_BYTES = Tile.TILE_SIZE * Tile.TILE_BYTES_PER_PIXEL;
+
+	/**
+	 * Encodes and decodes the given pixels and checks that the decoded pixels are unchanged.
+	 * 
+	 * @param pixels
+	 *            the raw pixel data of an image.
+	 * @return the length of the encoded image in bytes.
+	 */
+	private static int assertRoundTrip(byte[] pixels) {
+		TileEncoder encoder = new RunLengthTileEncoder();
+		int offset = 3;
+		byte[] encoded = new byte[offset + 2 * Tile.TILE_SIZE_IN_BYTES];
+		int length = encoder.encode(pixels, encoded, offset);
+		assertTrue(length > 0);
+
+		byte[] decoded = new byte[Tile.TILE_SIZE_IN_BYTES];
+		assertTrue(encoder.decode(encoded, offset, length, decoded));
+		assertArrayEquals(pixels, decoded);
+		return length;
+	}
+
+	/**
+	 * Tests that the encoding header is written and that an image which cannot be compressed
+	 * is stored as raw image.
+	 */
+	@Test
+	public void testEncodeWithHeader() {
+		TileEncoder encoder = new RunLengthTileEncoder();
+		byte[] encoded = new byte[TileEncoder.HEADER_SIZE + Tile.TILE_SIZE_IN_BYTES];
+
+		byte[] flatPixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+		int length = TileEncoder.encodeWithHeader(encoder, TileCacheEncoding.RUN_LENGTH,
+				flatPixels, encoded);
+		assertTrue(length < Tile.TILE_SIZE_IN_BYTES / 100);
+		assertEquals(TileCacheEncoding.RUN_LENGTH.ordinal(), encoded[0]);
+
+		byte[] randomPixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+		new Random(21).nextBytes(randomPixels);
+		length = TileEncoder.encodeWithHeader(encoder, TileCacheEncoding.RUN_LENGTH,
+				randomPixels, encoded);
+		assertEquals(TileEncoder.HEADER_SIZE + Tile.TILE_SIZE_IN_BYTES, length);
+		assertEquals(TileCacheEncoding.RAW.ordinal(), encoded[0]);
+		byte[] stored = new byte[Tile.TILE_SIZE_IN_BYTES];
+		System.arraycopy(encoded, TileEncoder.HEADER_SIZE, stored, 0, stored.length);
+		assertArrayEquals(randomPixels, stored);
+	}
+
+	/**
+	 * Tests an image which consists of a single color.
+	 */
+	@Test
+	public void testFlatImage() {
+		byte[] pixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+		for (int i = 0; i < pixels.length; i += 2) {
+			pixels[i] = (byte) 0xF7;
+			pixels[i + 1] = (byte) 0xDE;
+		}
+		int length = assertRoundTrip(pixels);
+		assertTrue(length < Tile.TILE_SIZE_IN_BYTES / 100);
+	}
+
+	/**
+	 * Tests an image whose rows repeat the row above.
+	 */
+	@Test
+	public void testHorizontalGradient() {
+		byte[] pixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+		for (int i = 0; i < pixels.length; ++i) {
+			pixels[i] = (byte) (i % ROW_BYTES);
+		}
+		int length = assertRoundTrip(pixels);
+		assertTrue(length < Tile.TILE_SIZE_IN_BYTES / 10);
+	}
+
+	/**
+	 * Tests an image with a mixture of uniform areas and noise.
+	 */
+	@Test
+	public void testMixedImage() {
+		Random random = new Random(42);
+		byte[] pixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+		for (int i = 0; i < pixels.length; i += 2) {
+			int row = i / ROW_BYTES;
+			if (row % 16 < 8) {
+				pixels[i] = (byte) row;
+				pixels[i + 1] = 0x11;
+			} else if (random.nextInt(4) == 0) {
+				pixels[i] = (byte) random.nextInt();
+				pixels[i + 1] = (byte) random.nextInt();
+			} else {
+				pixels[i] = pixels[i - ROW_BYTES];
+				pixels[i + 1] = pixels[i + 1 - ROW_BYTES];
+			}
+		}
+		assertRoundTrip(pixels);
+	}
+
+	/**
+	 * Tests an image which consists of random pixels.
+	 */
+	@Test
+	public void testRandomImage() {
+		Random random = new Random(7);
+		byte[] pixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+		random.nextBytes(pixels);
+		assertRoundTrip(pixels);
+	}
+
+	/**
+	 * Tests that an encoded image which does not fit into the output array is rejected.
+	 */
+	@Test
+	public void testTooSmallOutput() {
+		Random random = new Random(13);
+		byte[] pixels = new byte[Tile.TILE_SIZE_IN_BYTES];
+		random.nextBytes(pixels);
+		byte[] encoded = new byte[Tile.TILE_SIZE_IN_BYTES / 2];
+		assertEquals(-1, new RunLengthTileEncoder().encode(pixels, encoded, 0));
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2010 mapsforge.org
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mapsforge.android.maps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Junit tests for the packed store of map images.
+ */
+public class TileStoreTest {
+	private static final int NUMBER_OF_IMAGES = 5;
+
+	/**
+	 * Returns the data of an image, each image has a different length and content.
+	 * 
+	 * @param index
+	 *            the index of the image.
+	 * @return the data of the image.
+	 */
+	private static byte[] getData(int index) {
+		byte[] data = new byte[100 + 37 * index];
+		for (int i = 0; i < data.length; ++i) {
+			data[i] = (byte) (i * (index + 1));
+		}
+		return data;
+	}
+
+	private File directory;
+	private File mapFile;
+
+	/**
+	 * Creates an empty directory for the store and a map file.
+	 * 
+	 * @throws IOException
+	 *             if the files cannot be created.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		this.directory = File.createTempFile("tilestore", "");
+		assertTrue(this.directory.delete());
+		assertTrue(this.directory.mkdir());
+		this.mapFile = new File(this.directory, "test.map");
+		writeMapFile(16);
+	}
+
+	/**
+	 * Deletes the directory of the store.
+	 */
+	@After
+	public void tearDown() {
+		for (File file : this.directory.listFiles()) {
+			file.delete();
+		}
+		this.directory.delete();
+	}
+
+	/**
+	 * Tests that the stored images and their order survive reopening the store.
+	 * 
+	 * @throws IOException
+	 *             if the store cannot be accessed.
+	 */
+	@Test
+	public void testReopen() throws IOException {
+		LinkedHashMap<MapGeneratorJob, TileStore.Entry> stored = storeImages();
+
+		TileStore store = new TileStore(this.directory);
+		LinkedHashMap<MapGeneratorJob, TileStore.Entry> entries = store.getEntries();
+		assertEquals(new ArrayList<MapGeneratorJob>(stored.keySet()),
+				new ArrayList<MapGeneratorJob>(entries.keySet()));
+		ByteBuffer buffer = ByteBuffer.allocate(1000);
+		for (int i = 0; i < NUMBER_OF_IMAGES; ++i) {
+			TileStore.Entry entry = entries.get(getJob(i));
+			assertTrue(store.read(entry, buffer));
+			byte[] data = new byte[buffer.limit()];
+			buffer.get(data);
+			assertArrayEquals(getData(i), data);
+		}
+		store.close(entries);
+	}
+
+	/**
+	 * Tests that removed images are not restored and that their extent is reused.
+	 * 
+	 * @throws IOException
+	 *             if the store cannot be accessed.
+	 */
+	@Test
+	public void testReopenAfterRemove() throws IOException {
+		LinkedHashMap<MapGeneratorJob, TileStore.Entry> stored = storeImages();
+
+		TileStore store = new TileStore(this.directory);
+		LinkedHashMap<MapGeneratorJob, TileStore.Entry> entries = store.getEntries();
+		TileStore.Entry removed = entries.remove(getJob(1));
+		store.recordRemove(getJob(1));
+		store.release(removed.offset, removed.length);
+		store.writeJournal(store.takeJournal());
+		assertEquals(removed.offset, store.allocate(getData(0).length));
+		store.close(entries);
+
+		store = new TileStore(this.directory);
+		entries = store.getEntries();
+		assertEquals(stored.size() - 1, entries.size());
+		assertFalse(entries.containsKey(getJob(1)));
+		store.close(entries);
+	}
+
+	/**
+	 * Tests that images which have been stored for the path of a copy of the map file are
+	 * restored once the copy exists, although it has another modification time.
+	 * 
+	 * @throws IOException
+	 *             if the store cannot be accessed.
+	 */
+	@Test
+	public void testReopenWithCopiedMapFile() throws IOException {
+		File inputMapFile = this.mapFile;
+		this.mapFile = new File(this.directory, "device.map");
+		LinkedHashMap<MapGeneratorJob, TileStore.Entry> stored = storeImages(new TileStore(
+				this.directory, this.mapFile.getAbsolutePath(), TileStore
+						.readMapFileVersion(inputMapFile.getAbsolutePath())));
+		writeMapFile(16);
+		assertTrue(this.mapFile.setLastModified(inputMapFile.lastModified() - 60000));
+
+		TileStore store = new TileStore(this.directory);
+		LinkedHashMap<MapGeneratorJob, TileStore.Entry> entries = store.getEntries();
+		assertEquals(new ArrayList<MapGeneratorJob>(stored.keySet()),
+				new ArrayList<MapGeneratorJob>(entries.keySet()));
+		store.close(entries);
+	}
+
+	/**
+	 * Tests that the images of a map file which has been replaced are dropped.
+	 * 
+	 * @throws IOException
+	 *             if the store cannot be accessed.
+	 */
+	@Test
+	public void testReopenWithChangedMapFile() throws IOException {
+		storeImages();
+		writeMapFile(32);
+
+		TileStore store = new TileStore(this.directory);
+		LinkedHashMap<MapGeneratorJob, TileStore.Entry> entries = store.getEntries();
+		assertTrue(entries.isEmpty());
+		store.close(entries);
+	}
+
+	/**
+	 * @param index
+	 *            the index of the image.
+	 * @return the key of the image.
+	 */
+	private MapGeneratorJob getJob(int index) {
+		return new MapGeneratorJob(new Tile(index, 2 * index, (byte) 14),
+				MapViewMode.CANVAS_RENDERER, this.mapFile.getAbsolutePath(), false);
+	}
+
+	/**
+	 * Stores some images in a new store and closes it.
+	 * 
+	 * @return the stored images in the order in which they have been stored.
+	 * @throws IOException
+	 *             if the store cannot be accessed.
+	 */
+	private LinkedHashMap<MapGeneratorJob, TileStore.Entry> storeImages() throws IOException {
+		return storeImages(new TileStore(this.directory));
+	}
+
+	/**
+	 * Stores some images in the given new store and closes it.
+	 * 
+	 * @param store
+	 *            the new store.
+	 * @return the stored images in the order in which they have been stored.
+	 * @throws IOException
+	 *             if the store cannot be accessed.
+	 */
+	private LinkedHashMap<MapGeneratorJob, TileStore.Entry> storeImages(TileStore store)
+			throws IOException {
+		LinkedHashMap<MapGeneratorJob, TileStore.Entry> entries = store.getEntries();
+		assertTrue(entries.isEmpty());
+		for (int i = 0; i < NUMBER_OF_IMAGES; ++i) {
+			byte[] data = getData(i);
+			TileStore.Entry entry = new TileStore.Entry(store.allocate(data.length), data.length);
+			store.write(ByteBuffer.wrap(data), entry.offset);
+			store.recordPut(getJob(i), entry);
+			entries.put(getJob(i), entry);
+		}
+		store.writeJournal(store.takeJournal());
+		store.close(entries);
+		return entries;
+	}
+
+	/**
+	 * Replaces the map file with a file of the given length.
+	 * 
+	 * @param length
+	 *            the length of the map file in bytes.
+	 * @throws IOException
+	 *             if the map file cannot be written.
+	 */
+	private void writeMapFile(int length) throws IOException {
+		FileOutputStream outputStream = new FileOutputStream(this.mapFile);
+		try {
+			outputStream.write(new byte[length]);
+		} finally {
+			outputStream.close();
+		}
+	}
+}